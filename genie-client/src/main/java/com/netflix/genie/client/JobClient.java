@@ -28,6 +28,7 @@ import com.netflix.genie.common.dto.Command;
 import com.netflix.genie.common.dto.Job;
 import com.netflix.genie.common.dto.JobExecution;
 import com.netflix.genie.common.dto.JobRequest;
+import com.netflix.genie.common.dto.JobSubmissionResult;
 import com.netflix.genie.common.dto.JobStatus;
 import com.netflix.genie.common.dto.search.JobSearchResult;
 import com.netflix.genie.common.exceptions.GeniePreconditionException;
@@ -97,6 +98,24 @@ public class JobClient extends BaseGenieClient {
         return getIdFromLocation(this.jobService.submitJob(jobRequest).execute().headers().get("location"));
     }
 
+    /**
+     * Submit a batch of jobs to genie using the job requests provided. Jobs which genie couldn't accept don't fail the
+     * batch. Their result has the HTTP status they would have received had they been submitted on their own.
+     *
+     * @param jobRequests The job requests containing all the details for running the jobs. Not null or empty.
+     * @return The id and status of each job in the same order as the job requests.
+     * @throws GenieClientException If the response recieved is not 2xx.
+     * @throws IOException          For Network and other IO issues.
+     */
+    public List<JobSubmissionResult> submitJobs(
+        final List<JobRequest> jobRequests
+    ) throws IOException, GenieClientException {
+        if (jobRequests == null || jobRequests.isEmpty()) {
+            throw new IllegalArgumentException("Job Requests cannot be null or empty.");
+        }
+        return this.jobService.submitJobs(jobRequests).execute().body();
+    }
+
     /**
      * Submit a job to genie using the jobRequest and attachments provided.
      *
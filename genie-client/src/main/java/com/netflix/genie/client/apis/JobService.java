@@ -24,6 +24,7 @@ import com.netflix.genie.common.dto.Command;
 import com.netflix.genie.common.dto.Job;
 import com.netflix.genie.common.dto.JobExecution;
 import com.netflix.genie.common.dto.JobRequest;
+import com.netflix.genie.common.dto.JobSubmissionResult;
 import okhttp3.MultipartBody;
 import okhttp3.ResponseBody;
 import retrofit2.Call;
@@ -76,6 +77,15 @@ public interface JobService {
         @Part("request") JobRequest request,
         @Part List<MultipartBody.Part> attachments);
 
+    /**
+     * Method to submit a batch of jobs to Genie.
+     *
+     * @param requests The requests for all the jobs to submit
+     * @return A callable object.
+     */
+    @POST(JOBS_URL_SUFFIX + "/batch")
+    Call<List<JobSubmissionResult>> submitJobs(@Body final List<JobRequest> requests);
+
     /**
      * Method to get all jobs from Genie.
      *
@@ -60,6 +60,8 @@ public class Command extends ConfigDTO {
         message = "The minimum amount of memory if desired is 1 MB. Probably should be much more than that"
     )
     private final Integer memory;
+    @Min(value = 1, message = "The minimum number of cpus if desired is 1")
+    private final Integer cpu;
 
     /**
      * Constructor used by the builder.
@@ -72,6 +74,7 @@ public class Command extends ConfigDTO {
         this.executable = builder.bExecutable;
         this.checkDelay = builder.bCheckDelay;
         this.memory = builder.bMemory;
+        this.cpu = builder.bCpu;
     }
 
     /**
@@ -83,6 +86,15 @@ public class Command extends ConfigDTO {
         return Optional.ofNullable(this.memory);
     }
 
+    /**
+     * Get the default number of cpus to reserve for jobs which use this command.
+     *
+     * @return Optional of the number of cpus as it could be null if none set
+     */
+    public Optional<Integer> getCpu() {
+        return Optional.ofNullable(this.cpu);
+    }
+
     /**
      * A builder to create commands.
      *
@@ -95,6 +107,7 @@ public class Command extends ConfigDTO {
         private final String bExecutable;
         private final long bCheckDelay;
         private Integer bMemory;
+        private Integer bCpu;
 
         /**
          * Constructor which has required fields.
@@ -142,6 +155,17 @@ public class Command extends ConfigDTO {
             return this;
         }
 
+        /**
+         * Set the number of cpus to default jobs run with this command to reserve.
+         *
+         * @param cpu The default number of cpus for jobs to reserve
+         * @return The builder
+         */
+        public Builder withCpu(final Integer cpu) {
+            this.bCpu = cpu;
+            return this;
+        }
+
         /**
          * Build the command.
          *
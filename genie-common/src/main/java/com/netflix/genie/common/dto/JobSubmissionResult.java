@@ -0,0 +1,95 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.common.dto;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+import org.hibernate.validator.constraints.NotBlank;
+
+import java.io.Serializable;
+import java.net.HttpURLConnection;
+import java.util.Optional;
+
+/**
+ * The outcome of submitting a single job as part of a batch.
+ *
+ * @author agent
+ * @since 3.1.0
+ */
+@Getter
+@EqualsAndHashCode
+@ToString
+public class JobSubmissionResult implements Serializable {
+
+    private static final long serialVersionUID = 2960180528412399718L;
+
+    private final String id;
+    private final int status;
+    private final String message;
+
+    /**
+     * Constructor.
+     *
+     * @param id      The id of the job
+     * @param status  The HTTP status code the job would have been given had it been submitted on its own
+     * @param message Why the job wasn't accepted if it wasn't. Null if it was accepted.
+     */
+    @JsonCreator
+    public JobSubmissionResult(
+        @NotBlank @JsonProperty("id") final String id,
+        @JsonProperty("status") final int status,
+        @JsonProperty("message") final String message
+    ) {
+        this.id = id;
+        this.status = status;
+        this.message = message;
+    }
+
+    /**
+     * Get a result for a job which was accepted.
+     *
+     * @param id The id of the job
+     * @return The result
+     */
+    public static JobSubmissionResult accepted(@NotBlank final String id) {
+        return new JobSubmissionResult(id, HttpURLConnection.HTTP_ACCEPTED, null);
+    }
+
+    /**
+     * Whether the job was accepted for execution.
+     *
+     * @return True if the job was accepted
+     */
+    @JsonIgnore
+    public boolean isAccepted() {
+        return this.status == HttpURLConnection.HTTP_ACCEPTED;
+    }
+
+    /**
+     * Get the reason the job wasn't accepted.
+     *
+     * @return The message or empty if the job was accepted
+     */
+    public Optional<String> getMessage() {
+        return Optional.ofNullable(this.message);
+    }
+}
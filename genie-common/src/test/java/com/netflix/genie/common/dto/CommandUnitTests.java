@@ -43,6 +43,7 @@ public class CommandUnitTests {
     private static final long CHECK_DELAY = 12380L;
     private static final String EXECUTABLE = UUID.randomUUID().toString();
     private static final int MEMORY = 10_255;
+    private static final int CPU = 4;
 
     /**
      * Test to make sure we can build a command using the default builder constructor.
@@ -98,6 +99,7 @@ public class CommandUnitTests {
         builder.withUpdated(updated);
 
         builder.withMemory(MEMORY);
+        builder.withCpu(CPU);
 
         final Command command = builder.build();
         Assert.assertThat(command.getName(), Matchers.is(NAME));
@@ -116,6 +118,7 @@ public class CommandUnitTests {
         Assert.assertThat(command.getTags(), Matchers.is(tags));
         Assert.assertThat(command.getUpdated().orElseThrow(IllegalArgumentException::new), Matchers.is(updated));
         Assert.assertThat(command.getMemory().orElseThrow(IllegalArgumentException::new), Matchers.is(MEMORY));
+        Assert.assertThat(command.getCpu().orElseThrow(IllegalArgumentException::new), Matchers.is(CPU));
     }
 
     /**
@@ -133,6 +136,7 @@ public class CommandUnitTests {
         builder.withTags(null);
         builder.withUpdated(null);
         builder.withMemory(null);
+        builder.withCpu(null);
 
         final Command command = builder.build();
         Assert.assertThat(command.getName(), Matchers.is(NAME));
@@ -148,6 +152,7 @@ public class CommandUnitTests {
         Assert.assertThat(command.getTags(), Matchers.empty());
         Assert.assertFalse(command.getUpdated().isPresent());
         Assert.assertFalse(command.getMemory().isPresent());
+        Assert.assertFalse(command.getCpu().isPresent());
     }
 
     /**
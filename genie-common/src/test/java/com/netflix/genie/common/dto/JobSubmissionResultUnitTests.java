@@ -0,0 +1,94 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.common.dto;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
+import com.netflix.genie.test.categories.UnitTest;
+import org.hamcrest.Matchers;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.util.UUID;
+
+/**
+ * Unit tests for the JobSubmissionResult class.
+ *
+ * @author agent
+ * @since 3.1.0
+ */
+@Category(UnitTest.class)
+public class JobSubmissionResultUnitTests {
+
+    /**
+     * Make sure an accepted result has the right status and no message.
+     */
+    @Test
+    public void canCreateAcceptedResult() {
+        final String id = UUID.randomUUID().toString();
+        final JobSubmissionResult result = JobSubmissionResult.accepted(id);
+
+        Assert.assertThat(result.getId(), Matchers.is(id));
+        Assert.assertThat(result.getStatus(), Matchers.is(HttpURLConnection.HTTP_ACCEPTED));
+        Assert.assertFalse(result.getMessage().isPresent());
+        Assert.assertTrue(result.isAccepted());
+    }
+
+    /**
+     * Make sure a rejected result keeps the status and reason.
+     */
+    @Test
+    public void canCreateRejectedResult() {
+        final String id = UUID.randomUUID().toString();
+        final String message = UUID.randomUUID().toString();
+        final JobSubmissionResult result = new JobSubmissionResult(id, HttpURLConnection.HTTP_CONFLICT, message);
+
+        Assert.assertThat(result.getId(), Matchers.is(id));
+        Assert.assertThat(result.getStatus(), Matchers.is(HttpURLConnection.HTTP_CONFLICT));
+        Assert.assertThat(result.getMessage().orElseThrow(IllegalArgumentException::new), Matchers.is(message));
+        Assert.assertFalse(result.isAccepted());
+    }
+
+    /**
+     * Make sure a result survives being written to and read from JSON.
+     *
+     * @throws IOException on error
+     */
+    @Test
+    public void canSerializeAndDeserialize() throws IOException {
+        final ObjectMapper mapper = new ObjectMapper().registerModule(new Jdk8Module());
+        final JobSubmissionResult rejected = new JobSubmissionResult(
+            UUID.randomUUID().toString(),
+            HttpURLConnection.HTTP_UNAVAILABLE,
+            UUID.randomUUID().toString()
+        );
+        final JobSubmissionResult accepted = JobSubmissionResult.accepted(UUID.randomUUID().toString());
+
+        Assert.assertThat(
+            mapper.readValue(mapper.writeValueAsString(rejected), JobSubmissionResult.class),
+            Matchers.is(rejected)
+        );
+        Assert.assertThat(
+            mapper.readValue(mapper.writeValueAsString(accepted), JobSubmissionResult.class),
+            Matchers.is(accepted)
+        );
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.jobs;
+
+import com.netflix.genie.core.jobs.launcher.LocalProcessLauncher;
+import com.netflix.genie.core.jobs.launcher.ProcessLauncher;
+import com.netflix.spectator.api.DefaultRegistry;
+import org.apache.commons.exec.DefaultExecutor;
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares handing a job directory over to the job user with {@link JobDirectoryOwnership} against the previous
+ * recursive chown of the whole directory, for job directories with a varying number of dependencies hard linked from
+ * the file cache.
+ * <p>
+ * Changing the owner of a file to another user needs root, so both approaches change the owner to the user running the
+ * benchmark. The targeted approach works out its paths as if the job ran as a different user so it still changes the
+ * owner of everything which isn't shared with the cache.
+ * <p>
+ * Run with {@code ./gradlew :genie-core:jmh}.
+ *
+ * @author agent
+ * @since 3.1.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JobDirectoryOwnershipBenchmark {
+
+    private static final List<String> CHOWN = Collections.singletonList("chown");
+    private static final String JOB_USER = "genie-benchmark-user";
+    private static final int GENIE_FILES = 10;
+
+    @Param({"100", "1000", "10000"})
+    private int dependencies;
+
+    private File root;
+    private Path jobDir;
+    private String user;
+    private ProcessLauncher launcher;
+
+    /**
+     * Create a cache with the dependencies and a job directory linking to them next to the few files Genie writes.
+     *
+     * @throws IOException on error
+     */
+    @Setup
+    public void setup() throws IOException {
+        this.root = Files.createTempDirectory("genie-ownership").toFile().getCanonicalFile();
+        final File cache = new File(this.root, "cache");
+        final File dependencyDir = new File(this.root, "job/genie/applications/app/dependencies");
+        final File logDir = new File(this.root, "job/genie/logs");
+        if (!cache.mkdirs() || !dependencyDir.mkdirs() || !logDir.mkdirs()) {
+            throw new IOException("Unable to create the directories under " + this.root);
+        }
+        final byte[] contents = new byte[4096];
+        for (int i = 0; i < this.dependencies; i++) {
+            final Path cached = new File(cache, "dependency" + i).toPath();
+            Files.write(cached, contents);
+            Files.createLink(new File(dependencyDir, "dependency" + i).toPath(), cached);
+        }
+        for (int i = 0; i < GENIE_FILES; i++) {
+            Files.write(new File(logDir, "file" + i).toPath(), contents);
+        }
+        this.jobDir = new File(this.root, "job").toPath();
+        this.user = System.getProperty("user.name");
+        this.launcher = new LocalProcessLauncher(new DefaultExecutor(), new DefaultRegistry());
+    }
+
+    /**
+     * Remove the cache and job directory.
+     *
+     * @throws IOException on error
+     */
+    @TearDown
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(this.root);
+    }
+
+    /**
+     * Change the owner of the whole job directory recursively.
+     *
+     * @throws IOException on error
+     */
+    @Benchmark
+    public void recursiveChown() throws IOException {
+        this.launcher.run(Arrays.asList("chown", "-R", this.user, this.jobDir.toString()));
+    }
+
+    /**
+     * Change the owner of only the files and directories which belong to the job alone.
+     *
+     * @throws IOException on error
+     */
+    @Benchmark
+    public void targetedChown() throws IOException {
+        for (final List<String> command : JobDirectoryOwnership.getCommands(CHOWN, this.jobDir, JOB_USER)) {
+            command.set(CHOWN.size(), this.user);
+            this.launcher.run(command);
+        }
+    }
+}
@@ -0,0 +1,207 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.jobs;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares admitting jobs through the {@link JobResourceLedger} against the previous approach of locking the
+ * coordinator and summing the memory of every running job, with a varying number of jobs already running and a
+ * varying number of concurrent submitters.
+ * <p>
+ * Run with {@code ./gradlew :genie-core:jmh}.
+ *
+ * @author agent
+ * @since 3.1.0
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JobResourceLedgerBenchmark {
+
+    private static final int MAX_MEMORY = Integer.MAX_VALUE;
+
+    @Param({"0", "100", "1000"})
+    private int runningJobs;
+
+    private JobResourceLedger ledger;
+    private LockingLedger lockingLedger;
+
+    /**
+     * Fill both ledgers with the jobs which are already running.
+     */
+    @Setup
+    public void setup() {
+        this.ledger = new JobResourceLedger();
+        this.lockingLedger = new LockingLedger();
+        for (int i = 0; i < this.runningJobs; i++) {
+            final String jobId = UUID.randomUUID().toString();
+            this.ledger.record(jobId, 1);
+            this.lockingLedger.record(jobId, 1);
+        }
+    }
+
+    /**
+     * Admit and release a job through the ledger from a single submitter.
+     *
+     * @param submitter The state of the submitting thread
+     * @return Whether the job was admitted
+     */
+    @Benchmark
+    @Threads(1)
+    public boolean ledger1Thread(final Submitter submitter) {
+        return this.admitThroughLedger(submitter);
+    }
+
+    /**
+     * Admit and release a job through the ledger from four concurrent submitters.
+     *
+     * @param submitter The state of the submitting thread
+     * @return Whether the job was admitted
+     */
+    @Benchmark
+    @Threads(4)
+    public boolean ledger4Threads(final Submitter submitter) {
+        return this.admitThroughLedger(submitter);
+    }
+
+    /**
+     * Admit and release a job through the ledger from sixteen concurrent submitters.
+     *
+     * @param submitter The state of the submitting thread
+     * @return Whether the job was admitted
+     */
+    @Benchmark
+    @Threads(16)
+    public boolean ledger16Threads(final Submitter submitter) {
+        return this.admitThroughLedger(submitter);
+    }
+
+    /**
+     * Admit and release a job by locking and summing from a single submitter.
+     *
+     * @param submitter The state of the submitting thread
+     * @return Whether the job was admitted
+     */
+    @Benchmark
+    @Threads(1)
+    public boolean locking1Thread(final Submitter submitter) {
+        return this.admitThroughLock(submitter);
+    }
+
+    /**
+     * Admit and release a job by locking and summing from four concurrent submitters.
+     *
+     * @param submitter The state of the submitting thread
+     * @return Whether the job was admitted
+     */
+    @Benchmark
+    @Threads(4)
+    public boolean locking4Threads(final Submitter submitter) {
+        return this.admitThroughLock(submitter);
+    }
+
+    /**
+     * Admit and release a job by locking and summing from sixteen concurrent submitters.
+     *
+     * @param submitter The state of the submitting thread
+     * @return Whether the job was admitted
+     */
+    @Benchmark
+    @Threads(16)
+    public boolean locking16Threads(final Submitter submitter) {
+        return this.admitThroughLock(submitter);
+    }
+
+    private boolean admitThroughLedger(final Submitter submitter) {
+        final boolean admitted = this.ledger.reserve(submitter.getJobId(), 1, MAX_MEMORY);
+        this.ledger.release(submitter.getJobId());
+        return admitted;
+    }
+
+    private boolean admitThroughLock(final Submitter submitter) {
+        final boolean admitted = this.lockingLedger.reserve(submitter.getJobId(), 1, MAX_MEMORY);
+        this.lockingLedger.release(submitter.getJobId());
+        return admitted;
+    }
+
+    /**
+     * The state of a single submitting thread.
+     */
+    @State(Scope.Thread)
+    public static class Submitter {
+        private final String jobId = UUID.randomUUID().toString();
+
+        /**
+         * Get the id of the job this thread keeps submitting.
+         *
+         * @return The job id
+         */
+        public String getJobId() {
+            return this.jobId;
+        }
+    }
+
+    /**
+     * How admission worked before the ledger. Every submitter takes the same monitor and sums the memory of all the
+     * running jobs while holding it.
+     */
+    private static class LockingLedger {
+        private final Map<String, Integer> jobs = Collections.synchronizedMap(new HashMap<>());
+
+        void record(final String jobId, final int memory) {
+            this.jobs.put(jobId, memory);
+        }
+
+        synchronized boolean reserve(final String jobId, final int memory, final int maxMemory) {
+            final int usedMemory;
+            synchronized (this.jobs) {
+                usedMemory = this.jobs.values().stream().reduce((a, b) -> a + b).orElse(0);
+            }
+            if ((long) usedMemory + memory <= maxMemory) {
+                this.jobs.put(jobId, memory);
+                return true;
+            }
+            return false;
+        }
+
+        void release(final String jobId) {
+            this.jobs.remove(jobId);
+        }
+    }
+}
@@ -0,0 +1,218 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.jobs;
+
+import com.netflix.genie.common.dto.Application;
+import com.netflix.genie.common.dto.ApplicationStatus;
+import com.netflix.genie.common.dto.Cluster;
+import com.netflix.genie.common.dto.ClusterStatus;
+import com.netflix.genie.common.dto.Command;
+import com.netflix.genie.common.dto.CommandStatus;
+import com.netflix.genie.common.exceptions.GenieException;
+import com.netflix.spectator.api.DefaultRegistry;
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares creating the working directory of a job with {@link JobWorkspaceFactory}, with and without a pool of
+ * working directories created ahead of time, against the previous creation of one directory at a time with
+ * {@link File#mkdirs()}.
+ * <p>
+ * Run with {@code ./gradlew :genie-core:jmh}.
+ *
+ * @author agent
+ * @since 3.1.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JobWorkspaceFactoryBenchmark {
+
+    private static final String[] GENIE_DIRECTORIES = {
+        JobConstants.LOGS_PATH_VAR,
+        JobConstants.APPLICATION_PATH_VAR,
+        JobConstants.COMMAND_PATH_VAR,
+        JobConstants.CLUSTER_PATH_VAR
+    };
+
+    @Param({"1", "10"})
+    private int numApplications;
+
+    @Param({"0", "16"})
+    private int poolSize;
+
+    private File jobsDir;
+    private ExecutorService executor;
+    private JobWorkspaceFactory factory;
+    private Cluster cluster;
+    private Command command;
+    private List<Application> applications;
+    private long jobs;
+
+    /**
+     * Create the jobs directory and the entities of the jobs.
+     *
+     * @throws IOException on error
+     */
+    @Setup
+    public void setup() throws IOException {
+        this.jobsDir = Files.createTempDirectory("genie-workspace").toFile().getCanonicalFile();
+        this.executor = Executors.newSingleThreadExecutor();
+        this.factory = new JobWorkspaceFactory(
+            this.jobsDir.toPath(),
+            this.poolSize,
+            this.executor,
+            new DefaultRegistry()
+        );
+        this.cluster = new Cluster.Builder("cluster", "genie", "1.0", ClusterStatus.UP).withId("cluster").build();
+        this.command = new Command.Builder("command", "genie", "1.0", CommandStatus.ACTIVE, "foo", 5000L)
+            .withId("command")
+            .build();
+        this.applications = new ArrayList<>(this.numApplications);
+        for (int i = 0; i < this.numApplications; i++) {
+            this.applications.add(
+                new Application.Builder("app" + i, "genie", "1.0", ApplicationStatus.ACTIVE).withId("app" + i).build()
+            );
+        }
+    }
+
+    /**
+     * Remove the working directories created by the iteration, leaving the pool alone.
+     *
+     * @throws IOException on error
+     */
+    @TearDown(Level.Iteration)
+    public void cleanJobs() throws IOException {
+        final File[] jobDirs = this.jobsDir.listFiles();
+        if (jobDirs != null) {
+            for (final File jobDir : jobDirs) {
+                if (!JobWorkspaceFactory.POOL_DIRECTORY.equals(jobDir.getName())) {
+                    FileUtils.deleteDirectory(jobDir);
+                }
+            }
+        }
+    }
+
+    /**
+     * Remove the jobs directory.
+     *
+     * @throws IOException on error
+     */
+    @TearDown
+    public void tearDown() throws IOException {
+        this.executor.shutdownNow();
+        FileUtils.deleteDirectory(this.jobsDir);
+    }
+
+    /**
+     * Create the working directory of a job from the precomputed layout, taking it from the pool if there is one.
+     *
+     * @return The working directory
+     * @throws GenieException on error
+     */
+    @Benchmark
+    public File factory() throws GenieException {
+        return this.factory.create("job" + this.jobs++, this.cluster, this.command, this.applications);
+    }
+
+    /**
+     * Create the working directory of a job one directory at a time building each path as a string.
+     *
+     * @return The working directory
+     * @throws IOException on error
+     */
+    @Benchmark
+    public File mkdirs() throws IOException {
+        final File jobDir = new File(this.jobsDir, "job" + this.jobs++);
+        final String genieDir = jobDir.getPath() + JobConstants.FILE_PATH_DELIMITER + JobConstants.GENIE_PATH_VAR;
+        mkdirs(jobDir.getPath());
+        mkdirs(genieDir);
+        for (final String dir : GENIE_DIRECTORIES) {
+            mkdirs(genieDir + JobConstants.FILE_PATH_DELIMITER + dir);
+        }
+        createFile(new File(jobDir, JobConstants.GENIE_JOB_LAUNCHER_SCRIPT)).setExecutable(true);
+        createFile(new File(jobDir, JobConstants.STDOUT_LOG_FILE_NAME));
+        createFile(new File(jobDir, JobConstants.STDERR_LOG_FILE_NAME));
+        this.mkdirsEntity(genieDir, JobConstants.CLUSTER_PATH_VAR, "cluster", false);
+        this.mkdirsEntity(genieDir, JobConstants.COMMAND_PATH_VAR, "command", false);
+        for (final Application application : this.applications) {
+            this.mkdirsEntity(
+                genieDir,
+                JobConstants.APPLICATION_PATH_VAR,
+                application.getId().orElseThrow(IllegalStateException::new),
+                true
+            );
+        }
+        return jobDir;
+    }
+
+    private void mkdirsEntity(
+        final String genieDir,
+        final String entityPathVar,
+        final String id,
+        final boolean dependencies
+    ) throws IOException {
+        final String entityDir = genieDir
+            + JobConstants.FILE_PATH_DELIMITER
+            + entityPathVar
+            + JobConstants.FILE_PATH_DELIMITER
+            + id;
+        mkdirs(entityDir);
+        mkdirs(entityDir + JobConstants.FILE_PATH_DELIMITER + JobConstants.CONFIG_FILE_PATH_PREFIX);
+        if (dependencies) {
+            mkdirs(entityDir + JobConstants.FILE_PATH_DELIMITER + JobConstants.DEPENDENCY_FILE_PATH_PREFIX);
+        }
+    }
+
+    private static void mkdirs(final String dirPath) throws IOException {
+        if (!new File(dirPath).mkdirs()) {
+            throw new IOException("Could not create directory: " + dirPath);
+        }
+    }
+
+    private static File createFile(final File file) throws IOException {
+        if (!file.exists() && !file.createNewFile()) {
+            throw new IOException("Unable to create " + file);
+        }
+        return file;
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.jobs.workflow.impl;
+
+import com.netflix.genie.common.dto.Application;
+import com.netflix.genie.common.dto.ApplicationStatus;
+import com.netflix.genie.common.exceptions.GenieException;
+import com.netflix.genie.core.jobs.AdminResources;
+import com.netflix.genie.core.jobs.FileType;
+import com.netflix.genie.core.jobs.JobConstants;
+import com.netflix.spectator.api.DefaultRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares writing the part of the run script which sources the setup files of the applications of a job from
+ * fragments cached per application version against the previous approach of rendering them for every job, for jobs
+ * with a varying number of applications.
+ * <p>
+ * Run with {@code ./gradlew :genie-core:jmh}.
+ *
+ * @author agent
+ * @since 3.1.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RunScriptBenchmark {
+
+    private static final String JOB_DIR = "/mnt/genie/jobs/" + UUID.randomUUID().toString();
+
+    @Param({"1", "10", "100"})
+    private int numApplications;
+
+    private List<Application> applications;
+    private ScriptFragmentCache fragments;
+    private GenieBaseTask task;
+
+    /**
+     * Create the applications of the job.
+     */
+    @Setup
+    public void setup() {
+        this.applications = new ArrayList<>(this.numApplications);
+        for (int i = 0; i < this.numApplications; i++) {
+            final String id = UUID.randomUUID().toString();
+            this.applications.add(
+                new Application.Builder("app" + i, "genie", "1.0", ApplicationStatus.ACTIVE)
+                    .withId(id)
+                    .withUpdated(new Date())
+                    .withSetupFile("s3://genie/applications/" + id + "/setup.sh")
+                    .build()
+            );
+        }
+        this.fragments = new ScriptFragmentCache(new DefaultRegistry(), "benchmark");
+        // No files are fetched so the task doesn't need a file transfer service
+        this.task = new ApplicationTask(new DefaultRegistry(), null, null);
+    }
+
+    /**
+     * Write the setup of every application from the cached fragments.
+     *
+     * @return The run script
+     * @throws GenieException on error
+     * @throws IOException    on error
+     */
+    @Benchmark
+    public String cachedFragments() throws GenieException, IOException {
+        final Writer writer = new StringWriter();
+        for (final Application application : this.applications) {
+            final String id = application.getId().orElseThrow(IllegalStateException::new);
+            final String setupFile = application.getSetupFile().orElseThrow(IllegalStateException::new);
+            writer.write(
+                this.fragments.get(
+                    application,
+                    () -> this.task.renderSetupFileSourceSnippet(
+                        id,
+                        "Application:",
+                        setupFile,
+                        AdminResources.APPLICATION
+                    )
+                )
+            );
+        }
+        return writer.toString();
+    }
+
+    /**
+     * Write the setup of every application by rendering it for the job.
+     *
+     * @return The run script
+     * @throws GenieException on error
+     * @throws IOException    on error
+     */
+    @Benchmark
+    public String renderedPerJob() throws GenieException, IOException {
+        final Writer writer = new StringWriter();
+        for (final Application application : this.applications) {
+            final String id = application.getId().orElseThrow(IllegalStateException::new);
+            final String localPath = this.task.buildLocalFilePath(
+                JOB_DIR,
+                id,
+                application.getSetupFile().orElseThrow(IllegalStateException::new),
+                FileType.SETUP,
+                AdminResources.APPLICATION
+            );
+            // How the snippet was written before it was cached
+            writer.write("# Sourcing setup file from Application: " + id + System.lineSeparator());
+            writer.write(
+                JobConstants.SOURCE
+                    + localPath.replace(JOB_DIR, "${" + JobConstants.GENIE_JOB_DIR_ENV_VAR + "}")
+                    + System.lineSeparator());
+            writer.write(System.lineSeparator());
+        }
+        return writer.toString();
+    }
+}
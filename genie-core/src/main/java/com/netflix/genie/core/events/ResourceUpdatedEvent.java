@@ -0,0 +1,59 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.events;
+
+import com.google.common.collect.ImmutableSet;
+import lombok.Getter;
+import org.hibernate.validator.constraints.NotBlank;
+import org.springframework.context.ApplicationEvent;
+
+import javax.validation.constraints.NotNull;
+import java.util.Set;
+
+/**
+ * An event fired when an application, command or cluster which jobs can currently run with is created or updated
+ * through this node.
+ *
+ * @author agent
+ * @since 3.1.0
+ */
+@Getter
+public class ResourceUpdatedEvent extends ApplicationEvent {
+
+    private static final long serialVersionUID = -2896151424437453092L;
+
+    private final String id;
+    private final Set<String> files;
+
+    /**
+     * Constructor.
+     *
+     * @param id     The id of the resource which was updated
+     * @param files  The setup file, configs and dependencies of the resource which jobs using it download
+     * @param source The source object which threw this event
+     */
+    public ResourceUpdatedEvent(
+        @NotBlank final String id,
+        @NotNull final Set<String> files,
+        @NotNull final Object source
+    ) {
+        super(source);
+        this.id = id;
+        this.files = ImmutableSet.copyOf(files);
+    }
+}
@@ -50,6 +50,11 @@ public final class JobConstants {
      **/
     public static final String JOB_EXECUTION_DTO_KEY = "jexecdto";
 
+    /**
+     * Key used for look up of the staging of the job files in a Context Map for workflows.
+     **/
+    public static final String JOB_FILE_STAGING_KEY = "staging";
+
     /**
      * The launcher script name that genie creates to setup a job for running.
      **/
@@ -0,0 +1,135 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.jobs;
+
+import org.hibernate.validator.constraints.NotBlank;
+import org.hibernate.validator.constraints.NotEmpty;
+
+import javax.validation.constraints.NotNull;
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.UserPrincipal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Works out the commands which hand a job directory over to the user the job runs as.
+ * <p>
+ * Rather than recursively changing the owner of everything in the directory only the directories and files which
+ * belong to this job alone, and aren't already owned by the user, are changed. Files hard linked from the file cache
+ * are shared with other jobs and stay owned by Genie so one user can't modify what another user's job runs, and
+ * symbolic links are skipped as jobs only ever read through them. Usually that leaves the handful of files Genie wrote
+ * for the job itself, so the cost no longer grows with the size of the job's dependencies.
+ *
+ * @author agent
+ * @since 3.1.0
+ */
+public final class JobDirectoryOwnership {
+
+    static final int MAX_PATHS_PER_COMMAND = 512;
+    private static final String ATTRIBUTES = "unix:nlink,owner";
+    private static final String LINK_COUNT = "nlink";
+    private static final String OWNER = "owner";
+
+    /**
+     * Private constructor for utility class.
+     */
+    private JobDirectoryOwnership() {
+    }
+
+    /**
+     * Get the commands which change the owner of the given directory to the given user.
+     *
+     * @param chown     The command to change the owner of files with, for example sudo chown
+     * @param directory The directory to hand over to the user
+     * @param user      The user
+     * @return The commands to run in order. Empty if nothing needs to change.
+     * @throws IOException If the directory couldn't be walked
+     */
+    public static List<List<String>> getCommands(
+        @NotEmpty final List<String> chown,
+        @NotNull final Path directory,
+        @NotBlank final String user
+    ) throws IOException {
+        final List<String> paths = new ArrayList<>();
+        try {
+            Files.walkFileTree(
+                directory,
+                new SimpleFileVisitor<Path>() {
+                    @Override
+                    public FileVisitResult preVisitDirectory(
+                        final Path dir,
+                        final BasicFileAttributes attrs
+                    ) throws IOException {
+                        addIfNeeded(dir, false, user, paths);
+                        return FileVisitResult.CONTINUE;
+                    }
+
+                    @Override
+                    public FileVisitResult visitFile(
+                        final Path file,
+                        final BasicFileAttributes attrs
+                    ) throws IOException {
+                        if (attrs.isRegularFile()) {
+                            addIfNeeded(file, true, user, paths);
+                        }
+                        return FileVisitResult.CONTINUE;
+                    }
+                }
+            );
+        } catch (final UnsupportedOperationException uoe) {
+            // Can't tell which files are shared on this file system so fall back to changing everything
+            final List<String> command = new ArrayList<>(chown);
+            command.addAll(Arrays.asList("-R", user, directory.toString()));
+            return Collections.singletonList(command);
+        }
+
+        final List<List<String>> commands = new ArrayList<>();
+        for (int i = 0; i < paths.size(); i += MAX_PATHS_PER_COMMAND) {
+            final List<String> command = new ArrayList<>(chown);
+            command.add(user);
+            command.addAll(paths.subList(i, Math.min(i + MAX_PATHS_PER_COMMAND, paths.size())));
+            commands.add(command);
+        }
+        return commands;
+    }
+
+    private static void addIfNeeded(
+        final Path path,
+        final boolean isFile,
+        final String user,
+        final List<String> paths
+    ) throws IOException {
+        final Map<String, Object> attributes = Files.readAttributes(path, ATTRIBUTES, LinkOption.NOFOLLOW_LINKS);
+        // A file with more than one link is shared with the file cache and therefore other jobs
+        if (isFile && (Integer) attributes.get(LINK_COUNT) > 1) {
+            return;
+        }
+        if (!user.equals(((UserPrincipal) attributes.get(OWNER)).getName())) {
+            paths.add(path.toString());
+        }
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.jobs;
+
+import com.netflix.spectator.api.Registry;
+import com.netflix.spectator.api.Timer;
+import org.hibernate.validator.constraints.NotBlank;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Hands out a {@link JobFileStaging} per job. All the jobs on a node share one bounded pool of threads to fetch
+ * their setup files, configs and dependencies on while each job is limited in how many of those threads it can hold
+ * at once so a single job with many dependencies can't hold up all the others.
+ *
+ * @author agent
+ * @since 3.1.0
+ */
+public class JobFileStager {
+
+    private final ExecutorService executor;
+    private final int maxConcurrentFetchesPerJob;
+    private final Timer wallTimer;
+    private final Timer fetchTimer;
+
+    /**
+     * Constructor.
+     *
+     * @param executor                   The executor shared by all jobs to fetch files on
+     * @param maxConcurrentFetchesPerJob The maximum number of files a single job can fetch at the same time
+     * @param registry                   The metrics registry to use
+     */
+    public JobFileStager(
+        @NotNull final ExecutorService executor,
+        @Min(1) final int maxConcurrentFetchesPerJob,
+        @NotNull final Registry registry
+    ) {
+        this.executor = executor;
+        this.maxConcurrentFetchesPerJob = maxConcurrentFetchesPerJob;
+        this.wallTimer = registry.timer("genie.jobs.staging.wall.timer");
+        this.fetchTimer = registry.timer("genie.jobs.staging.fetch.timer");
+    }
+
+    /**
+     * Start staging the files of a job.
+     *
+     * @param jobId The id of the job the files are for
+     * @return The staging to add the files of the job to
+     */
+    public JobFileStaging forJob(@NotBlank final String jobId) {
+        return new JobFileStaging(
+            jobId,
+            this.executor,
+            this.maxConcurrentFetchesPerJob,
+            this.wallTimer,
+            this.fetchTimer
+        );
+    }
+}
@@ -0,0 +1,207 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.jobs;
+
+import com.netflix.genie.common.exceptions.GenieException;
+import com.netflix.genie.common.exceptions.GenieServerException;
+import com.netflix.genie.core.services.FileMaterializationStrategy;
+import com.netflix.genie.core.services.impl.GenieFileTransferService;
+import com.netflix.spectator.api.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.validator.constraints.NotBlank;
+
+import javax.validation.constraints.NotNull;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The files being fetched for a single job. The workflow tasks add files as they process the cluster, command,
+ * applications and job request and the files are fetched in the background while they go on. Before the job is
+ * launched {@link #await()} blocks until every file is in place.
+ * <p>
+ * The first fetch to fail cancels all the others and is rethrown by the next call to {@link #stage} or
+ * {@link #await()}. The time from the first file being staged until all are done is recorded along with the time
+ * spent in all the fetches added together. The closer the two are the less the job gained from fetching in parallel.
+ *
+ * @author agent
+ * @since 3.1.0
+ */
+@Slf4j
+public class JobFileStaging {
+
+    private final String jobId;
+    private final ExecutorService executor;
+    private final int maxConcurrentFetches;
+    private final Timer wallTimer;
+    private final Timer fetchTimer;
+
+    private final Queue<Runnable> pending = new ArrayDeque<>();
+    private final List<Future<?>> inFlight = new ArrayList<>();
+    private final AtomicLong fetchTime = new AtomicLong();
+    private int running;
+    private long start = -1L;
+    private GenieException failure;
+    private boolean cancelled;
+
+    /**
+     * Constructor.
+     *
+     * @param jobId                The id of the job the files are for
+     * @param executor             The executor to fetch the files on
+     * @param maxConcurrentFetches The maximum number of files to fetch at the same time
+     * @param wallTimer            The timer to record the time it took to stage all the files
+     * @param fetchTimer           The timer to record the summed up time of all the fetches
+     */
+    JobFileStaging(
+        @NotBlank final String jobId,
+        @NotNull final ExecutorService executor,
+        final int maxConcurrentFetches,
+        @NotNull final Timer wallTimer,
+        @NotNull final Timer fetchTimer
+    ) {
+        this.jobId = jobId;
+        this.executor = executor;
+        this.maxConcurrentFetches = maxConcurrentFetches;
+        this.wallTimer = wallTimer;
+        this.fetchTimer = fetchTimer;
+    }
+
+    /**
+     * Add a file to be fetched. Returns straight away unless a previous fetch already failed.
+     *
+     * @param fts             The file transfer service to fetch the file with
+     * @param srcPath         The path of the file to fetch
+     * @param dstPath         The local path to fetch the file to
+     * @param materialization How to place a locally cached copy of the file at the local path
+     * @throws GenieException If a previous fetch failed or staging was cancelled
+     */
+    public synchronized void stage(
+        @NotNull final GenieFileTransferService fts,
+        @NotBlank final String srcPath,
+        @NotBlank final String dstPath,
+        @NotNull final FileMaterializationStrategy materialization
+    ) throws GenieException {
+        this.checkFailed();
+        if (this.start < 0) {
+            this.start = System.nanoTime();
+        }
+        this.pending.add(() -> this.fetch(fts, srcPath, dstPath, materialization));
+        this.submitPending();
+    }
+
+    /**
+     * Wait for all the files added so far to be fetched.
+     *
+     * @throws GenieException If any fetch failed or the wait was interrupted
+     */
+    public synchronized void await() throws GenieException {
+        try {
+            while (this.failure == null && !this.cancelled && (this.running > 0 || !this.pending.isEmpty())) {
+                this.wait();
+            }
+        } catch (final InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            this.cancel();
+            throw new GenieServerException("Interrupted while staging files for job " + this.jobId, ie);
+        }
+        this.checkFailed();
+        if (this.start >= 0) {
+            this.wallTimer.record(System.nanoTime() - this.start, TimeUnit.NANOSECONDS);
+            this.fetchTimer.record(this.fetchTime.get(), TimeUnit.NANOSECONDS);
+            this.start = -1L;
+            this.fetchTime.set(0L);
+        }
+    }
+
+    /**
+     * Stop staging. Files which haven't started being fetched are dropped and running fetches are interrupted. Does
+     * nothing once all the files have been fetched.
+     */
+    public synchronized void cancel() {
+        if (this.running == 0 && this.pending.isEmpty()) {
+            return;
+        }
+        log.info("Cancelling staging of {} files for job {}", this.running + this.pending.size(), this.jobId);
+        this.cancelled = true;
+        this.pending.clear();
+        this.inFlight.forEach(future -> future.cancel(true));
+        this.notifyAll();
+    }
+
+    private void fetch(
+        final GenieFileTransferService fts,
+        final String srcPath,
+        final String dstPath,
+        final FileMaterializationStrategy materialization
+    ) {
+        final long fetchStart = System.nanoTime();
+        GenieException fetchFailure = null;
+        try {
+            fts.getFile(srcPath, dstPath, materialization);
+        } catch (final GenieException ge) {
+            fetchFailure = ge;
+        } catch (final Exception e) {
+            fetchFailure = new GenieServerException("Failed to fetch " + srcPath + " for job " + this.jobId, e);
+        } finally {
+            this.fetchTime.addAndGet(System.nanoTime() - fetchStart);
+            this.fetchDone(srcPath, fetchFailure);
+        }
+    }
+
+    private synchronized void fetchDone(final String srcPath, final GenieException fetchFailure) {
+        this.running--;
+        if (fetchFailure != null && this.failure == null && !this.cancelled) {
+            log.error("Failed to fetch {} for job {}", srcPath, this.jobId, fetchFailure);
+            this.failure = fetchFailure;
+            this.cancel();
+        }
+        this.submitPending();
+        this.notifyAll();
+    }
+
+    private void submitPending() {
+        this.inFlight.removeIf(Future::isDone);
+        while (this.running < this.maxConcurrentFetches && !this.pending.isEmpty() && !this.cancelled) {
+            final Runnable fetch = this.pending.poll();
+            this.running++;
+            try {
+                this.inFlight.add(this.executor.submit(fetch));
+            } catch (final RejectedExecutionException ree) {
+                this.running--;
+                this.failure = new GenieServerException("Unable to stage files for job " + this.jobId, ree);
+                this.cancel();
+            }
+        }
+    }
+
+    private void checkFailed() throws GenieException {
+        if (this.failure != null) {
+            throw this.failure;
+        }
+        if (this.cancelled) {
+            throw new GenieServerException("Staging files for job " + this.jobId + " was cancelled");
+        }
+    }
+}
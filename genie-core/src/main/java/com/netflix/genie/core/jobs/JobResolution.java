@@ -0,0 +1,70 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.jobs;
+
+import com.netflix.genie.common.dto.Application;
+import com.netflix.genie.common.dto.Cluster;
+import com.netflix.genie.common.dto.Command;
+import lombok.Getter;
+
+import javax.validation.constraints.NotNull;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The cluster, command and applications resolved to run a job request.
+ *
+ * @author agent
+ * @since 3.1.0
+ */
+@Getter
+public final class JobResolution {
+
+    private final Cluster cluster;
+    private final Command command;
+    private final List<Application> applications = new ArrayList<>();
+
+    /**
+     * Constructor.
+     *
+     * @param cluster      The cluster the job will run on
+     * @param command      The command the job will run
+     * @param applications The applications, in setup order, the job will use. Null treated as empty.
+     */
+    public JobResolution(
+        @NotNull final Cluster cluster,
+        @NotNull final Command command,
+        final List<Application> applications
+    ) {
+        this.cluster = cluster;
+        this.command = command;
+        if (applications != null) {
+            this.applications.addAll(applications);
+        }
+    }
+
+    /**
+     * Get the applications for this resolution.
+     *
+     * @return A read-only list of the applications
+     */
+    public List<Application> getApplications() {
+        return Collections.unmodifiableList(this.applications);
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.jobs;
+
+import org.hibernate.validator.constraints.NotBlank;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps track of how much of a resource, for example megabytes of memory or cpus, each job running on this node has
+ * reserved. Each resource is tracked by its own ledger.
+ * <p>
+ * The total is kept in a single atomic counter which is only ever moved with compare and set. Deciding whether a job
+ * fits on the node is therefore constant time regardless of how many jobs are running, and concurrent submitters
+ * never wait on each other. The per job reservations make releasing exact and idempotent.
+ *
+ * @author agent
+ * @since 3.1.0
+ */
+public class JobResourceLedger {
+
+    private final AtomicInteger used = new AtomicInteger();
+    private final ConcurrentMap<String, Integer> reservations = new ConcurrentHashMap<>();
+
+    /**
+     * Try to reserve an amount of the resource for the given job without the total reserved going over the given
+     * maximum.
+     *
+     * @param jobId     The id of the job to reserve the resource for
+     * @param amount    The amount of the resource to reserve
+     * @param maxAmount The maximum amount of the resource which can be reserved across all jobs
+     * @return True if the job now holds a reservation. False if there wasn't enough of the resource left for the job.
+     * If the job already held a reservation it is left as is and true is returned.
+     */
+    public boolean reserve(@NotBlank final String jobId, final int amount, final int maxAmount) {
+        if (this.reservations.containsKey(jobId)) {
+            return true;
+        }
+
+        int current;
+        do {
+            current = this.used.get();
+            // Compared as a subtraction so a maximum of Integer.MAX_VALUE can't overflow
+            if (amount > maxAmount - current) {
+                return false;
+            }
+        } while (!this.used.compareAndSet(current, current + amount));
+
+        if (this.reservations.putIfAbsent(jobId, amount) != null) {
+            // Lost a race with another reservation for the same job. Give the resource back.
+            this.used.addAndGet(-amount);
+        }
+        return true;
+    }
+
+    /**
+     * Record the amount of the resource used by a job regardless of how much is left. Used for jobs which are already
+     * running, for example ones discovered on the node at startup. Replaces any existing reservation for the job.
+     *
+     * @param jobId  The id of the job
+     * @param amount The amount of the resource the job uses
+     */
+    public void record(@NotBlank final String jobId, final int amount) {
+        final Integer previous = this.reservations.put(jobId, amount);
+        this.used.addAndGet(previous == null ? amount : amount - previous);
+    }
+
+    /**
+     * Release the resource reserved by the given job. Does nothing if the job holds no reservation.
+     *
+     * @param jobId The id of the job
+     */
+    public void release(@NotBlank final String jobId) {
+        final Integer amount = this.reservations.remove(jobId);
+        if (amount != null) {
+            this.used.addAndGet(-amount);
+        }
+    }
+
+    /**
+     * Get the total amount of the resource currently reserved across all jobs.
+     *
+     * @return The reserved amount
+     */
+    public int getUsed() {
+        return this.used.get();
+    }
+
+    /**
+     * Get the number of jobs which currently hold a reservation.
+     *
+     * @return The number of reservations
+     */
+    public int getNumReservations() {
+        return this.reservations.size();
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.jobs;
+
+import com.netflix.genie.common.dto.Job;
+import com.netflix.genie.common.dto.JobExecution;
+import com.netflix.genie.common.dto.JobMetadata;
+import com.netflix.genie.common.dto.JobRequest;
+import lombok.Getter;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotNull;
+
+/**
+ * Everything which is saved about a job when it is first submitted.
+ *
+ * @author agent
+ * @since 3.1.0
+ */
+@Getter
+public final class JobSubmission {
+
+    @Valid
+    @NotNull
+    private final JobRequest jobRequest;
+    @Valid
+    @NotNull
+    private final JobMetadata jobMetadata;
+    @Valid
+    @NotNull
+    private final Job job;
+    @Valid
+    @NotNull
+    private final JobExecution jobExecution;
+
+    /**
+     * Constructor.
+     *
+     * @param jobRequest   The job request. Must have an id.
+     * @param jobMetadata  Metadata about the request which submitted the job
+     * @param job          The initial state of the job
+     * @param jobExecution The initial execution information of the job
+     */
+    public JobSubmission(
+        @NotNull final JobRequest jobRequest,
+        @NotNull final JobMetadata jobMetadata,
+        @NotNull final Job job,
+        @NotNull final JobExecution jobExecution
+    ) {
+        this.jobRequest = jobRequest;
+        this.jobMetadata = jobMetadata;
+        this.job = job;
+        this.jobExecution = jobExecution;
+    }
+}
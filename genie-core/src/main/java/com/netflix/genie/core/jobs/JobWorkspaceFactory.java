@@ -0,0 +1,272 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.jobs;
+
+import com.google.common.collect.ImmutableList;
+import com.netflix.genie.common.dto.Application;
+import com.netflix.genie.common.dto.Cluster;
+import com.netflix.genie.common.dto.Command;
+import com.netflix.genie.common.exceptions.GenieException;
+import com.netflix.genie.common.exceptions.GeniePreconditionException;
+import com.netflix.genie.common.exceptions.GenieServerException;
+import com.netflix.spectator.api.Registry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.io.FileUtils;
+import org.hibernate.validator.constraints.NotBlank;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Creates the working directory of each job with all the directories and files the job workflow expects to exist.
+ * <p>
+ * The layout shared by all jobs is computed once and created parent first so every directory and file is a single
+ * system call without checking for parents. When a pool size is set that many empty working directories are created
+ * ahead of time under {@link #POOL_DIRECTORY} in the jobs directory and a job takes one with a single rename, leaving
+ * only the directories of its cluster, command and applications to create. The pool is refilled in the background.
+ *
+ * @author agent
+ * @since 3.1.0
+ */
+@Slf4j
+public class JobWorkspaceFactory {
+
+    /**
+     * The name of the directory in the jobs directory holding the working directories created ahead of time.
+     */
+    public static final String POOL_DIRECTORY = ".workspaces";
+
+    static final String CREATE_TIMER_NAME = "genie.jobs.workspace.create.timer";
+
+    private static final Path GENIE_DIR = Paths.get(JobConstants.GENIE_PATH_VAR);
+    private static final Path APPLICATIONS_DIR = GENIE_DIR.resolve(JobConstants.APPLICATION_PATH_VAR);
+    private static final Path COMMAND_DIR = GENIE_DIR.resolve(JobConstants.COMMAND_PATH_VAR);
+    private static final Path CLUSTER_DIR = GENIE_DIR.resolve(JobConstants.CLUSTER_PATH_VAR);
+    private static final List<Path> SKELETON_DIRECTORIES = ImmutableList.of(
+        GENIE_DIR,
+        GENIE_DIR.resolve(JobConstants.LOGS_PATH_VAR),
+        APPLICATIONS_DIR,
+        COMMAND_DIR,
+        CLUSTER_DIR
+    );
+    private static final List<Path> SKELETON_FILES = ImmutableList.of(
+        Paths.get(JobConstants.STDOUT_LOG_FILE_NAME),
+        Paths.get(JobConstants.STDERR_LOG_FILE_NAME),
+        Paths.get(JobConstants.GENIE_JOB_LAUNCHER_SCRIPT)
+    );
+
+    private final Path jobsDir;
+    private final Path poolDir;
+    private final int poolSize;
+    private final BlockingQueue<Path> pool;
+    private final Executor refillExecutor;
+    private final AtomicBoolean refilling = new AtomicBoolean(false);
+    private final Registry registry;
+
+    /**
+     * Constructor. If the pool size is greater than zero any working directories left in the pool by a previous run
+     * are deleted and the pool is filled in the background.
+     *
+     * @param jobsDir        The directory the working directories of the jobs are created in
+     * @param poolSize       The number of working directories to create ahead of time. 0 to disable the pool.
+     * @param refillExecutor The executor to fill the pool on
+     * @param registry       The metrics registry to use
+     */
+    public JobWorkspaceFactory(
+        @NotNull final Path jobsDir,
+        @Min(0) final int poolSize,
+        @NotNull final Executor refillExecutor,
+        @NotNull final Registry registry
+    ) {
+        this.jobsDir = jobsDir;
+        this.poolDir = jobsDir.resolve(POOL_DIRECTORY);
+        this.poolSize = poolSize;
+        this.pool = new LinkedBlockingQueue<>();
+        this.refillExecutor = refillExecutor;
+        this.registry = registry;
+
+        if (this.poolSize > 0) {
+            // Hold off refills triggered by jobs until the leftovers are gone
+            this.refilling.set(true);
+            this.refillExecutor.execute(this::initializePool);
+        }
+    }
+
+    /**
+     * Create the working directory of a job.
+     *
+     * @param jobId        The id of the job
+     * @param cluster      The cluster the job runs on
+     * @param command      The command the job runs
+     * @param applications The applications the job uses
+     * @return The working directory of the job
+     * @throws GenieException If the working directory couldn't be created, including when it already exists
+     */
+    public File create(
+        @NotBlank final String jobId,
+        @NotNull final Cluster cluster,
+        @NotNull final Command command,
+        @NotNull final List<Application> applications
+    ) throws GenieException {
+        final long start = System.nanoTime();
+        boolean pooled = false;
+        try {
+            final List<Path> entityDirectories = getEntityDirectories(cluster, command, applications);
+            final Path jobDir = this.jobsDir.resolve(jobId);
+            pooled = this.takeFromPool(jobDir);
+            if (!pooled) {
+                createSkeleton(jobDir);
+            }
+            for (final Path entityDirectory : entityDirectories) {
+                Files.createDirectory(jobDir.resolve(entityDirectory));
+            }
+            log.info("Created job dir {}", jobDir);
+            return jobDir.toFile();
+        } catch (final IOException ioe) {
+            throw new GenieServerException("Could not create job working directory for job " + jobId, ioe);
+        } finally {
+            this.registry
+                .timer(this.registry.createId(CREATE_TIMER_NAME).withTag("pooled", Boolean.toString(pooled)))
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            if (this.poolSize > 0) {
+                this.refillExecutor.execute(this::refill);
+            }
+        }
+    }
+
+    /**
+     * Get the number of working directories currently created ahead of time.
+     *
+     * @return The number of working directories in the pool
+     */
+    public int getPooled() {
+        return this.pool.size();
+    }
+
+    /**
+     * Get the directories of the cluster, command and applications of a job relative to its working directory. Parents
+     * come before their children.
+     *
+     * @param cluster      The cluster the job runs on
+     * @param command      The command the job runs
+     * @param applications The applications the job uses
+     * @return The directories to create in the working directory of the job
+     * @throws GenieException If any of the entities has no id
+     */
+    static List<Path> getEntityDirectories(
+        @NotNull final Cluster cluster,
+        @NotNull final Command command,
+        @NotNull final List<Application> applications
+    ) throws GenieException {
+        final List<Path> directories = new ArrayList<>(4 + applications.size() * 3);
+
+        final Path clusterDir = CLUSTER_DIR.resolve(
+            cluster.getId().orElseThrow(() -> new GeniePreconditionException("No cluster id found"))
+        );
+        directories.add(clusterDir);
+        directories.add(clusterDir.resolve(JobConstants.CONFIG_FILE_PATH_PREFIX));
+
+        final Path commandDir = COMMAND_DIR.resolve(
+            command.getId().orElseThrow(() -> new GeniePreconditionException("No command id found"))
+        );
+        directories.add(commandDir);
+        directories.add(commandDir.resolve(JobConstants.CONFIG_FILE_PATH_PREFIX));
+
+        for (final Application application : applications) {
+            final Path applicationDir = APPLICATIONS_DIR.resolve(
+                application.getId().orElseThrow(() -> new GeniePreconditionException("No application id found"))
+            );
+            directories.add(applicationDir);
+            directories.add(applicationDir.resolve(JobConstants.CONFIG_FILE_PATH_PREFIX));
+            directories.add(applicationDir.resolve(JobConstants.DEPENDENCY_FILE_PATH_PREFIX));
+        }
+
+        return directories;
+    }
+
+    private static void createSkeleton(final Path dir) throws IOException {
+        Files.createDirectory(dir);
+        for (final Path directory : SKELETON_DIRECTORIES) {
+            Files.createDirectory(dir.resolve(directory));
+        }
+        for (final Path file : SKELETON_FILES) {
+            Files.createFile(dir.resolve(file));
+        }
+        if (!dir.resolve(JobConstants.GENIE_JOB_LAUNCHER_SCRIPT).toFile().setExecutable(true)) {
+            throw new IOException("Unable to make run script in " + dir + " executable");
+        }
+    }
+
+    private boolean takeFromPool(final Path jobDir) {
+        final Path workspace = this.pool.poll();
+        if (workspace == null) {
+            return false;
+        }
+        try {
+            Files.move(workspace, jobDir, StandardCopyOption.ATOMIC_MOVE);
+            return true;
+        } catch (final IOException ioe) {
+            log.warn("Unable to move pooled workspace {} to {}. Creating it in place.", workspace, jobDir, ioe);
+            FileUtils.deleteQuietly(workspace.toFile());
+            return false;
+        }
+    }
+
+    private void initializePool() {
+        try {
+            FileUtils.deleteQuietly(this.poolDir.toFile());
+            Files.createDirectories(this.poolDir);
+        } catch (final IOException ioe) {
+            log.error("Unable to create job workspace pool {}. Workspaces won't be pooled.", this.poolDir, ioe);
+            return;
+        }
+        this.refilling.set(false);
+        this.refill();
+    }
+
+    private void refill() {
+        if (!this.refilling.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            while (this.pool.size() < this.poolSize) {
+                final Path workspace = this.poolDir.resolve(UUID.randomUUID().toString());
+                createSkeleton(workspace);
+                this.pool.offer(workspace);
+            }
+        } catch (final IOException ioe) {
+            log.error("Unable to create job workspace in pool directory {}", this.poolDir, ioe);
+        } finally {
+            this.refilling.set(false);
+        }
+    }
+}
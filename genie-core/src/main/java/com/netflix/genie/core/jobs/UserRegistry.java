@@ -0,0 +1,197 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.jobs;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.netflix.genie.common.exceptions.GenieException;
+import com.netflix.genie.common.exceptions.GenieServerException;
+import com.netflix.genie.core.jobs.launcher.ProcessLauncher;
+import com.netflix.spectator.api.Counter;
+import com.netflix.spectator.api.Registry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.hibernate.validator.constraints.NotBlank;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Makes sure the system users jobs run as exist on this node, creating them and their groups if they don't.
+ * <p>
+ * Users and groups known to exist are remembered for a while so the jobs of a user which was already seen don't fork
+ * any process at all. Provisioning of the same user is done once while other jobs of that user wait for it, but jobs
+ * of different users never wait on each other. Users which couldn't be created are remembered for a shorter while so
+ * a flood of jobs for such a user fails fast instead of retrying the creation for every job.
+ *
+ * @author agent
+ * @since 3.1.0
+ */
+@Slf4j
+public class UserRegistry {
+
+    static final String PROVISION_TIMER_NAME = "genie.jobs.users.provision.timer";
+    private static final int MAX_KNOWN_USERS = 10_000;
+
+    private final ProcessLauncher launcher;
+    private final Registry registry;
+    private final Cache<String, Boolean> users;
+    private final Cache<String, Boolean> groups;
+    private final Cache<String, String> failures;
+    private final Counter hitRate;
+    private final Counter missRate;
+    private final Counter failureHitRate;
+
+    /**
+     * Constructor.
+     *
+     * @param launcher        The launcher to run the system commands with
+     * @param cacheTtl        How long to remember users and groups which exist in milliseconds
+     * @param failureCacheTtl How long to remember users which couldn't be created in milliseconds
+     * @param registry        The metrics registry to use
+     */
+    public UserRegistry(
+        @NotNull final ProcessLauncher launcher,
+        @Min(1) final long cacheTtl,
+        @Min(1) final long failureCacheTtl,
+        @NotNull final Registry registry
+    ) {
+        this.launcher = launcher;
+        this.registry = registry;
+        this.users = CacheBuilder
+            .newBuilder()
+            .maximumSize(MAX_KNOWN_USERS)
+            .expireAfterWrite(cacheTtl, TimeUnit.MILLISECONDS)
+            .build();
+        this.groups = CacheBuilder
+            .newBuilder()
+            .maximumSize(MAX_KNOWN_USERS)
+            .expireAfterWrite(cacheTtl, TimeUnit.MILLISECONDS)
+            .build();
+        this.failures = CacheBuilder
+            .newBuilder()
+            .maximumSize(MAX_KNOWN_USERS)
+            .expireAfterWrite(failureCacheTtl, TimeUnit.MILLISECONDS)
+            .build();
+        this.hitRate = registry.counter("genie.jobs.users.cache.hit.rate");
+        this.missRate = registry.counter("genie.jobs.users.cache.miss.rate");
+        this.failureHitRate = registry.counter("genie.jobs.users.cache.failure.hit.rate");
+    }
+
+    /**
+     * Make sure the given user exists on the system, creating it if it doesn't.
+     *
+     * @param user  The user
+     * @param group The group the user should be a member of if created. Ignored if blank or the same as the user.
+     * @throws GenieException If the user doesn't exist and couldn't be created
+     */
+    public void provision(@NotBlank final String user, final String group) throws GenieException {
+        if (this.users.getIfPresent(user) != null) {
+            this.hitRate.increment();
+            return;
+        }
+        final String failure = this.failures.getIfPresent(user);
+        if (failure != null) {
+            this.failureHitRate.increment();
+            throw new GenieServerException(failure);
+        }
+
+        try {
+            // The cache only lets one thread load a given user and blocks the others asking for the same user
+            this.users.get(user, () -> this.load(user, group));
+        } catch (final ExecutionException | UncheckedExecutionException e) {
+            if (e.getCause() instanceof GenieException) {
+                throw (GenieException) e.getCause();
+            }
+            throw new GenieServerException("Could not provision user " + user, e.getCause());
+        }
+    }
+
+    private Boolean load(final String user, final String group) throws GenieException {
+        this.missRate.increment();
+        final long start = System.nanoTime();
+        String result = "exists";
+        try {
+            // First check if user already exists
+            try {
+                this.launcher.run(Arrays.asList("id", "-u", user));
+                log.debug("User {} already exists", user);
+                return true;
+            } catch (final IOException ioe) {
+                log.debug("User {} does not exist. Creating it now.", user);
+            }
+
+            // Determine if the group is valid by checking that its not null and not same as user.
+            final boolean isGroupValid = StringUtils.isNotBlank(group) && !group.equals(user);
+            if (isGroupValid) {
+                this.groups.get(group, () -> this.createGroup(group));
+            }
+
+            final List<String> userCreateCommand = new ArrayList<>(Arrays.asList("sudo", "useradd", user));
+            if (isGroupValid) {
+                userCreateCommand.add("-G");
+                userCreateCommand.add(group);
+            }
+            userCreateCommand.add("-M");
+
+            try {
+                log.debug("Running command to create user: {}", userCreateCommand);
+                this.launcher.run(userCreateCommand);
+                result = "created";
+                return true;
+            } catch (final IOException ioe) {
+                result = "failed";
+                final String message = "Could not create user " + user + " with exception " + ioe;
+                this.failures.put(user, message);
+                // The group creation may have failed for another reason than the group existing so try it again
+                if (isGroupValid) {
+                    this.groups.invalidate(group);
+                }
+                throw new GenieServerException(message);
+            }
+        } catch (final ExecutionException | UncheckedExecutionException e) {
+            result = "failed";
+            throw new GenieServerException("Could not provision group " + group + " for user " + user, e.getCause());
+        } finally {
+            this.registry
+                .timer(this.registry.createId(PROVISION_TIMER_NAME).withTag("result", result))
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private Boolean createGroup(final String group) {
+        final List<String> groupCreateCommand = Arrays.asList("sudo", "groupadd", group);
+
+        // We create the group and ignore the error as it will fail if group already exists.
+        // If the failure is due to some other reason, then user creation will fail and we catch that.
+        try {
+            log.debug("Running command to create group: {}", groupCreateCommand);
+            this.launcher.run(groupCreateCommand);
+        } catch (final IOException ioe) {
+            log.debug("Group creation threw an error as it might already exist");
+        }
+        return true;
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.jobs.admission;
+
+import com.netflix.genie.common.dto.JobRequest;
+import com.netflix.genie.core.properties.JobsAdmissionFairShareProperties;
+
+import javax.validation.constraints.NotNull;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Admits queued jobs by weighted fair share. Jobs are shared by user, or by group when configured and the job has
+ * one. The next job admitted is the earliest queued job of the share using the least memory relative to its weight,
+ * so one share's burst of jobs can't starve every other share on the node. A share can also be capped at a maximum
+ * amount of memory.
+ * <p>
+ * The properties are read on every call so weights and caps can be changed at runtime.
+ *
+ * @author agent
+ * @since 3.1.0
+ */
+public class FairShareJobAdmissionPolicy implements JobAdmissionPolicy {
+
+    private final JobsAdmissionFairShareProperties properties;
+
+    /**
+     * Constructor.
+     *
+     * @param properties The fair share properties to use
+     */
+    public FairShareJobAdmissionPolicy(@NotNull final JobsAdmissionFairShareProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getShare(@NotNull final JobRequest jobRequest) {
+        if (this.properties.isShareByGroup()) {
+            return jobRequest.getGroup().orElse(jobRequest.getUser());
+        }
+        return jobRequest.getUser();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean canAdmit(@NotNull final String share, final int memory, final int reservedMemory) {
+        return this.fitsInShare(reservedMemory, memory);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Optional<QueuedJob> next(
+        @NotNull final List<QueuedJob> queuedJobs,
+        @NotNull final Map<String, Integer> reservedMemory
+    ) {
+        final Map<String, Integer> weights = this.properties.getWeights();
+        QueuedJob next = null;
+        double lowestUsage = Double.MAX_VALUE;
+        for (final QueuedJob queuedJob : queuedJobs) {
+            final int reserved = reservedMemory.getOrDefault(queuedJob.getShare(), 0);
+            if (!this.fitsInShare(reserved, queuedJob.getMemory())) {
+                continue;
+            }
+            final double usage = (double) reserved / Math.max(1, weights.getOrDefault(queuedJob.getShare(), 1));
+            // Strictly less than so the earliest queued job wins between shares using the same amount
+            if (usage < lowestUsage) {
+                next = queuedJob;
+                lowestUsage = usage;
+            }
+        }
+        return Optional.ofNullable(next);
+    }
+
+    private boolean fitsInShare(final int reserved, final int memory) {
+        final int maxShareMemory = this.properties.getMaxShareMemory();
+        return maxShareMemory <= 0 || reserved + memory <= maxShareMemory;
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.jobs.admission;
+
+import com.netflix.genie.common.dto.JobRequest;
+
+import javax.validation.constraints.NotNull;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Admits queued jobs strictly in the order they were queued. A job at the head of the queue which doesn't fit holds
+ * up every job behind it so large jobs aren't starved by smaller ones. Jobs are shared by user for metrics only.
+ *
+ * @author agent
+ * @since 3.1.0
+ */
+public class FifoJobAdmissionPolicy implements JobAdmissionPolicy {
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getShare(@NotNull final JobRequest jobRequest) {
+        return jobRequest.getUser();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean canAdmit(@NotNull final String share, final int memory, final int reservedMemory) {
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Optional<QueuedJob> next(
+        @NotNull final List<QueuedJob> queuedJobs,
+        @NotNull final Map<String, Integer> reservedMemory
+    ) {
+        return queuedJobs.stream().findFirst();
+    }
+}
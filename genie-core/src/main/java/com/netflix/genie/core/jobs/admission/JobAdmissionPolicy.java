@@ -0,0 +1,72 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.jobs.admission;
+
+import com.netflix.genie.common.dto.JobRequest;
+
+import javax.validation.constraints.NotNull;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Decides which job waiting for memory on a Genie node should be admitted next. Every job belongs to a share of the
+ * node, for example its user, and the policy is told how much memory each share's running jobs currently use.
+ * <p>
+ * Implementations must be thread safe. They're called while the queue or the share of the job is locked so should be
+ * fast.
+ *
+ * @author agent
+ * @since 3.1.0
+ */
+public interface JobAdmissionPolicy {
+
+    /**
+     * Get the share of the node a job counts against.
+     *
+     * @param jobRequest The request of the job. Not null.
+     * @return The share. Not null.
+     */
+    @NotNull
+    String getShare(@NotNull final JobRequest jobRequest);
+
+    /**
+     * Whether a new job may be admitted straight away when there is enough memory free for it and no job is queued.
+     * Jobs which may not are queued and only admitted once {@link #next(List, Map)} picks them. Called with the share
+     * locked for every job admitted so must be cheap.
+     *
+     * @param share          The share of the node the job counts against. Not null.
+     * @param memory         The memory, in megabytes, the job needs
+     * @param reservedMemory The memory, in megabytes, currently reserved by the jobs of the share
+     * @return true if the job may be admitted
+     */
+    boolean canAdmit(@NotNull final String share, final int memory, final int reservedMemory);
+
+    /**
+     * Pick the queued job which should be admitted next if there is enough memory free for it.
+     *
+     * @param queuedJobs     The queued jobs in the order they were queued. Not empty.
+     * @param reservedMemory The memory, in megabytes, reserved by the running jobs of each share. Shares with no
+     *                       running jobs may be missing.
+     * @return The job to admit next or empty if none of the queued jobs should be admitted right now
+     */
+    Optional<QueuedJob> next(
+        @NotNull final List<QueuedJob> queuedJobs,
+        @NotNull final Map<String, Integer> reservedMemory
+    );
+}
@@ -0,0 +1,82 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.jobs.admission;
+
+import com.netflix.genie.common.dto.Application;
+import com.netflix.genie.common.dto.Cluster;
+import com.netflix.genie.common.dto.Command;
+import com.netflix.genie.common.dto.JobRequest;
+import lombok.Getter;
+
+import javax.validation.constraints.NotNull;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A resolved job waiting on a Genie node for enough memory to be free to be scheduled.
+ *
+ * @author agent
+ * @since 3.1.0
+ */
+@Getter
+public class QueuedJob {
+
+    private final String id;
+    private final String share;
+    private final JobRequest jobRequest;
+    private final Cluster cluster;
+    private final Command command;
+    private final List<Application> applications;
+    private final int memory;
+    private final int cpu;
+    private final long queued;
+
+    /**
+     * Constructor.
+     *
+     * @param id           The id of the job
+     * @param share        The share of the node the job counts against, for example its user
+     * @param jobRequest   The job request
+     * @param cluster      The cluster the job will run on
+     * @param command      The command the job will run
+     * @param applications The applications the job will use
+     * @param memory       The memory, in megabytes, the job needs
+     * @param cpu          The number of cpus the job needs
+     */
+    public QueuedJob(
+        @NotNull final String id,
+        @NotNull final String share,
+        @NotNull final JobRequest jobRequest,
+        @NotNull final Cluster cluster,
+        @NotNull final Command command,
+        @NotNull final List<Application> applications,
+        final int memory,
+        final int cpu
+    ) {
+        this.id = id;
+        this.share = share;
+        this.jobRequest = jobRequest;
+        this.cluster = cluster;
+        this.command = command;
+        this.applications = Collections.unmodifiableList(new ArrayList<>(applications));
+        this.memory = memory;
+        this.cpu = cpu;
+        this.queued = System.nanoTime();
+    }
+}
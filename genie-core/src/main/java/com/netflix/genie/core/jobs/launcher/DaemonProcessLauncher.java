@@ -0,0 +1,320 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.jobs.launcher;
+
+import com.netflix.spectator.api.Counter;
+import com.netflix.spectator.api.Registry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.exec.ExecuteException;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.StringUtils;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Starts processes through a {@link LauncherDaemon} running in its own small JVM so the Genie JVM doesn't fork itself
+ * for every job and system command. The daemon is started on first use and talked to over its standard input and
+ * output. If it can't be started, or has died, requests fall back to forking the Genie JVM. A request which was
+ * already sent to the daemon is never retried locally as the daemon may have acted on it. A process the daemon starts
+ * after the launch was given up on is killed as nothing else would ever track it.
+ *
+ * @author agent
+ * @since 3.1.0
+ */
+@Slf4j
+public class DaemonProcessLauncher implements ProcessLauncher, Closeable {
+
+    private final ProcessLauncher fallback;
+    private final String javaOptions;
+    private final long requestTimeout;
+    private final long runTimeout;
+    private final Registry registry;
+    private final Counter fallbackRate;
+    private final Counter lateLaunchRate;
+    private final AtomicInteger requestIds = new AtomicInteger();
+    private Process daemon;
+    // The requests sent to the running daemon which it didn't respond to yet
+    private ConcurrentMap<Integer, CompletableFuture<Long>> requests;
+    private DataOutputStream daemonInput;
+    private Path classesDirectory;
+
+    /**
+     * Constructor.
+     *
+     * @param fallback       The launcher to use while the daemon is unavailable
+     * @param javaOptions    The options to start the daemon JVM with, separated by whitespace
+     * @param requestTimeout How long to wait for the daemon to start a process in milliseconds
+     * @param runTimeout     How long to wait for the daemon to run a command in milliseconds. 0 waits until done.
+     * @param registry       The metrics registry to use
+     */
+    public DaemonProcessLauncher(
+        @NotNull final ProcessLauncher fallback,
+        @NotNull final String javaOptions,
+        @Min(1) final long requestTimeout,
+        @Min(0) final long runTimeout,
+        @NotNull final Registry registry
+    ) {
+        this.fallback = fallback;
+        this.javaOptions = javaOptions;
+        this.requestTimeout = requestTimeout;
+        this.runTimeout = runTimeout;
+        this.registry = registry;
+        this.fallbackRate = registry.counter("genie.jobs.launcher.fallback.rate");
+        this.lateLaunchRate = registry.counter("genie.jobs.launcher.lateLaunch.rate");
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int launch(
+        @NotNull final List<String> command,
+        @NotNull final File directory,
+        @NotNull final File output
+    ) throws IOException {
+        final long start = System.nanoTime();
+        final CompletableFuture<Long> response
+            = this.send(LauncherDaemon.LAUNCH, command, directory.getPath(), output.getPath());
+        if (response == null) {
+            return this.fallback.launch(command, directory, output);
+        }
+        try {
+            return this.await(response, command, this.requestTimeout).intValue();
+        } catch (final IOException ioe) {
+            // The daemon may still start the process but the caller already treats the launch as failed
+            response.thenAcceptAsync(pid -> this.killLateLaunch(pid.intValue(), command));
+            throw ioe;
+        } finally {
+            this.record(LocalProcessLauncher.LAUNCH_OPERATION, start);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void run(@NotNull final List<String> command) throws IOException {
+        final long start = System.nanoTime();
+        final CompletableFuture<Long> response = this.send(LauncherDaemon.RUN, command, "", "");
+        if (response == null) {
+            this.fallback.run(command);
+            return;
+        }
+        try {
+            final int exitValue = this.await(response, command, this.runTimeout).intValue();
+            if (exitValue != 0) {
+                throw new ExecuteException("Process exited with an error: " + exitValue, exitValue);
+            }
+        } finally {
+            this.record(LocalProcessLauncher.getOperation(command), start);
+        }
+    }
+
+    /**
+     * Stop the daemon. Processes it started keep running.
+     */
+    @Override
+    public synchronized void close() {
+        if (this.daemon != null) {
+            this.daemon.destroy();
+            this.daemon = null;
+        }
+        if (this.classesDirectory != null) {
+            FileUtils.deleteQuietly(this.classesDirectory.toFile());
+            this.classesDirectory = null;
+        }
+    }
+
+    /**
+     * Send a request to the daemon, starting it if it isn't running.
+     *
+     * @return The future response or null if the daemon is unavailable
+     */
+    private synchronized CompletableFuture<Long> send(
+        final int operation,
+        final List<String> command,
+        final String directory,
+        final String output
+    ) {
+        try {
+            if (this.daemon == null || !this.daemon.isAlive()) {
+                this.start();
+            }
+            final int id = this.requestIds.incrementAndGet();
+            final CompletableFuture<Long> response = new CompletableFuture<>();
+            this.requests.put(id, response);
+            try {
+                this.daemonInput.writeInt(id);
+                this.daemonInput.writeInt(operation);
+                this.daemonInput.writeUTF(directory);
+                this.daemonInput.writeUTF(output);
+                this.daemonInput.writeInt(command.size());
+                for (final String argument : command) {
+                    this.daemonInput.writeUTF(argument);
+                }
+                this.daemonInput.flush();
+            } catch (final IOException ioe) {
+                this.requests.remove(id);
+                throw ioe;
+            }
+            return response;
+        } catch (final IOException ioe) {
+            log.warn("Launcher daemon unavailable. Forking the Genie JVM instead.", ioe);
+            this.fallbackRate.increment();
+            this.close();
+            return null;
+        }
+    }
+
+    private Long await(
+        final CompletableFuture<Long> response,
+        final List<String> command,
+        final long timeout
+    ) throws IOException {
+        try {
+            return timeout > 0 ? response.get(timeout, TimeUnit.MILLISECONDS) : response.get();
+        } catch (final InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted waiting for the launcher daemon to run " + command, ie);
+        } catch (final TimeoutException te) {
+            throw new IOException("Timed out waiting for the launcher daemon to run " + command, te);
+        } catch (final ExecutionException ee) {
+            throw new IOException("Launcher daemon failed to run " + command, ee.getCause());
+        }
+    }
+
+    private void killLateLaunch(final int pid, final List<String> command) {
+        log.warn("Launcher daemon started {} as pid {} after the launch timed out. Killing it.", command, pid);
+        this.lateLaunchRate.increment();
+        // A process started through sudo belongs to another user so needs sudo to be killed too
+        final List<String> killCommand = new ArrayList<>();
+        if (!command.isEmpty() && "sudo".equals(command.get(0))) {
+            killCommand.add("sudo");
+        }
+        killCommand.add("kill");
+        killCommand.add(Integer.toString(pid));
+        try {
+            this.fallback.run(killCommand);
+        } catch (final IOException ioe) {
+            log.error("Unable to kill pid {} started late by the launcher daemon", pid, ioe);
+        }
+    }
+
+    private void start() throws IOException {
+        this.close();
+        this.classesDirectory = Files.createTempDirectory("genie-launcher");
+        final String resource = LauncherDaemon.class.getName().replace('.', '/') + ".class";
+        final Path classFile = this.classesDirectory.resolve(resource);
+        Files.createDirectories(classFile.getParent());
+        try (final InputStream classBytes = LauncherDaemon.class.getClassLoader().getResourceAsStream(resource)) {
+            if (classBytes == null) {
+                throw new IOException("Unable to find " + resource + " on the classpath");
+            }
+            Files.copy(classBytes, classFile, StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        final List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(Arrays.asList(StringUtils.split(this.javaOptions)));
+        command.add("-cp");
+        command.add(this.classesDirectory.toString());
+        command.add(LauncherDaemon.class.getName());
+        log.info("Starting launcher daemon with {}", command);
+        final Process process = new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+        this.daemon = process;
+        this.daemonInput = new DataOutputStream(new BufferedOutputStream(process.getOutputStream()));
+        final ConcurrentMap<Integer, CompletableFuture<Long>> daemonRequests = new ConcurrentHashMap<>();
+        this.requests = daemonRequests;
+
+        final DataInputStream daemonOutput = new DataInputStream(new BufferedInputStream(process.getInputStream()));
+        final Thread reader = new Thread(
+            () -> readResponses(daemonOutput, daemonRequests),
+            "genie-launcher-daemon-reader"
+        );
+        reader.setDaemon(true);
+        reader.start();
+    }
+
+    private static void readResponses(
+        final DataInputStream daemonOutput,
+        final ConcurrentMap<Integer, CompletableFuture<Long>> daemonRequests
+    ) {
+        try {
+            while (true) {
+                final int id = daemonOutput.readInt();
+                final int status = daemonOutput.readInt();
+                final long value = daemonOutput.readLong();
+                final String message = daemonOutput.readUTF();
+                final CompletableFuture<Long> response = daemonRequests.remove(id);
+                if (response == null) {
+                    continue;
+                }
+                if (status == LauncherDaemon.OK) {
+                    response.complete(value);
+                } else {
+                    response.completeExceptionally(new IOException(message));
+                }
+            }
+        } catch (final IOException ioe) {
+            log.warn("Launcher daemon stopped responding", ioe);
+        }
+        // Requests sent to a daemon which died can't be answered any more
+        daemonRequests.keySet().forEach(
+            id -> {
+                final CompletableFuture<Long> response = daemonRequests.remove(id);
+                if (response != null) {
+                    response.completeExceptionally(new IOException("Launcher daemon exited"));
+                }
+            }
+        );
+    }
+
+    private void record(final String operation, final long start) {
+        this.registry
+            .timer(
+                this.registry
+                    .createId(LocalProcessLauncher.TIMER_NAME)
+                    .withTag("operation", operation)
+                    .withTag("launcher", "daemon")
+            )
+            .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+}
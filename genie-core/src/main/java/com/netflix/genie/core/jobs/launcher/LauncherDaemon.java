@@ -0,0 +1,165 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.jobs.launcher;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * A small helper process which starts job processes and runs system commands on behalf of the Genie JVM so that the
+ * Genie JVM, with its large heap, doesn't fork itself for every one of them. Requests are read from standard input
+ * and responses written to standard output as frames of {@link DataOutputStream} primitives. Requests are served in
+ * parallel so responses may be written in a different order than the requests were read. The daemon exits once its
+ * standard input is closed, which also happens if the Genie JVM dies.
+ * <p>
+ * This class is copied out of the Genie classpath to run in its own JVM, so it must only depend on the JDK and must
+ * not have any nested classes.
+ *
+ * @author agent
+ * @since 3.1.0
+ */
+public final class LauncherDaemon {
+
+    /**
+     * Request to start a process and respond with its pid.
+     */
+    public static final int LAUNCH = 1;
+
+    /**
+     * Request to run a command to completion and respond with its exit value.
+     */
+    public static final int RUN = 2;
+
+    /**
+     * The request succeeded.
+     */
+    public static final int OK = 0;
+
+    /**
+     * The request failed. The response message holds the error.
+     */
+    public static final int ERROR = 1;
+
+    private static final File DEV_NULL = new File("/dev/null");
+
+    private LauncherDaemon() {
+    }
+
+    /**
+     * Serve requests until standard input is closed.
+     * <p>
+     * A request is the request id, the operation, the working directory and output file, which are empty for
+     * {@link #RUN}, the number of command arguments and the arguments. A response is the request id, the status, the
+     * pid or exit value and a message.
+     *
+     * @param args Unused
+     * @throws IOException If the requests can't be read
+     */
+    public static void main(final String[] args) throws IOException {
+        final DataInputStream in = new DataInputStream(new BufferedInputStream(System.in));
+        final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(System.out));
+        // Nothing else may write to the response stream
+        System.setOut(new PrintStream(System.err, true));
+        final ExecutorService executor = Executors.newCachedThreadPool();
+        try {
+            while (true) {
+                final int id;
+                try {
+                    id = in.readInt();
+                } catch (final EOFException eofe) {
+                    break;
+                }
+                final int operation = in.readInt();
+                final String directory = in.readUTF();
+                final String output = in.readUTF();
+                final int argumentCount = in.readInt();
+                final List<String> command = new ArrayList<>(argumentCount);
+                for (int i = 0; i < argumentCount; i++) {
+                    command.add(in.readUTF());
+                }
+                executor.execute(() -> serve(out, id, operation, command, directory, output));
+            }
+        } finally {
+            executor.shutdown();
+        }
+        System.exit(0);
+    }
+
+    private static void serve(
+        final DataOutputStream out,
+        final int id,
+        final int operation,
+        final List<String> command,
+        final String directory,
+        final String output
+    ) {
+        int status = OK;
+        long value = 0L;
+        String message = "";
+        try {
+            if (operation == LAUNCH) {
+                final Process process = new ProcessBuilder(command)
+                    .directory(new File(directory))
+                    .redirectOutput(new File(output))
+                    .redirectError(new File(output))
+                    .start();
+                value = getProcessId(process);
+            } else if (operation == RUN) {
+                value = new ProcessBuilder(command)
+                    .redirectOutput(DEV_NULL)
+                    .redirectError(DEV_NULL)
+                    .start()
+                    .waitFor();
+            } else {
+                throw new IllegalArgumentException("Unknown operation " + operation);
+            }
+        } catch (final Exception e) {
+            status = ERROR;
+            message = String.valueOf(e);
+        }
+        try {
+            synchronized (out) {
+                out.writeInt(id);
+                out.writeInt(status);
+                out.writeLong(value);
+                out.writeUTF(message);
+                out.flush();
+            }
+        } catch (final IOException ioe) {
+            // Genie is gone
+            System.exit(1);
+        }
+    }
+
+    private static int getProcessId(final Process process) throws ReflectiveOperationException {
+        final Field field = process.getClass().getDeclaredField("pid");
+        field.setAccessible(true);
+        return field.getInt(process);
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.jobs.launcher;
+
+import com.netflix.genie.core.jobs.JobConstants;
+import com.netflix.spectator.api.Registry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.exec.CommandLine;
+import org.apache.commons.exec.Executor;
+
+import javax.validation.constraints.NotNull;
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Starts processes by forking the Genie JVM itself. Used when the launcher daemon is disabled or unavailable.
+ *
+ * @author agent
+ * @since 3.1.0
+ */
+@Slf4j
+public class LocalProcessLauncher implements ProcessLauncher {
+
+    static final String TIMER_NAME = "genie.jobs.launcher.timer";
+    static final String LAUNCH_OPERATION = "launch";
+    private static final String SUDO = "sudo";
+
+    private final Executor executor;
+    private final Registry registry;
+
+    /**
+     * Constructor.
+     *
+     * @param executor The executor to run commands to completion with
+     * @param registry The metrics registry to use
+     */
+    public LocalProcessLauncher(@NotNull final Executor executor, @NotNull final Registry registry) {
+        this.executor = executor;
+        this.registry = registry;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int launch(
+        @NotNull final List<String> command,
+        @NotNull final File directory,
+        @NotNull final File output
+    ) throws IOException {
+        final long start = System.nanoTime();
+        try {
+            // Cannot use the executor because it does not provide an api to get process id.
+            final Process process = new ProcessBuilder(command)
+                .directory(directory)
+                .redirectOutput(output)
+                .redirectError(output)
+                .start();
+            return getProcessId(process);
+        } finally {
+            this.record(LAUNCH_OPERATION, start);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void run(@NotNull final List<String> command) throws IOException {
+        final long start = System.nanoTime();
+        try {
+            final CommandLine commandLine = new CommandLine(command.get(0));
+            command.stream().skip(1).forEach(argument -> commandLine.addArgument(argument, false));
+            this.executor.execute(commandLine);
+        } finally {
+            this.record(getOperation(command), start);
+        }
+    }
+
+    private void record(final String operation, final long start) {
+        this.registry
+            .timer(
+                this.registry
+                    .createId(TIMER_NAME)
+                    .withTag("operation", operation)
+                    .withTag("launcher", "local")
+            )
+            .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Get the name of the operation a command performs for metrics, which is the program it runs with sudo if any.
+     *
+     * @param command The command
+     * @return The operation name
+     */
+    static String getOperation(final List<String> command) {
+        return command.size() > 1 && SUDO.equals(command.get(0)) ? command.get(1) : command.get(0);
+    }
+
+    /**
+     * Get the process id of the given process.
+     *
+     * @param process The process
+     * @return The process id
+     * @throws IOException If the process id can't be read
+     */
+    static int getProcessId(final Process process) throws IOException {
+        try {
+            final Field f = process.getClass().getDeclaredField(JobConstants.PID);
+            f.setAccessible(true);
+            return f.getInt(process);
+        } catch (final IllegalAccessException
+            | IllegalArgumentException
+            | NoSuchFieldException
+            | SecurityException e) {
+            throw new IOException("Can't get process id of " + process, e);
+        }
+    }
+}
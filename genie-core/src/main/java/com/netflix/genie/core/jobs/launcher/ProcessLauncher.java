@@ -0,0 +1,55 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.jobs.launcher;
+
+import javax.validation.constraints.NotNull;
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Starts job processes and runs the system commands, like changing ownership or creating users, jobs need.
+ *
+ * @author agent
+ * @since 3.1.0
+ */
+public interface ProcessLauncher {
+
+    /**
+     * Start a process which keeps running after this call returns.
+     *
+     * @param command   The command to run and its arguments
+     * @param directory The working directory of the process
+     * @param output    The file the standard output and error of the process are written to
+     * @return The process id of the started process
+     * @throws IOException If the process couldn't be started
+     */
+    int launch(
+        @NotNull final List<String> command,
+        @NotNull final File directory,
+        @NotNull final File output
+    ) throws IOException;
+
+    /**
+     * Run a command to completion discarding its output.
+     *
+     * @param command The command to run and its arguments
+     * @throws IOException If the command couldn't be run or exited with a non zero exit value
+     */
+    void run(@NotNull final List<String> command) throws IOException;
+}
@@ -0,0 +1,294 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.jobs.workflow;
+
+import com.netflix.genie.common.exceptions.GenieException;
+import com.netflix.genie.common.exceptions.GenieServerException;
+import com.netflix.genie.core.jobs.JobConstants;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.validation.constraints.NotNull;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the tasks of a job workflow as a graph so tasks which don't depend on each other run at the same time.
+ * <p>
+ * The dependencies each task declares have to be on tasks before it in the workflow so the graph can't have cycles.
+ * Every task gets its own copy of the context. Anything a task adds to its copy is made visible to the tasks which
+ * start after it finishes. Tasks which may run alongside others write their part of the run script to a buffer. The
+ * buffers are added to the run script in the order of the tasks in the workflow. A task which depends, directly or
+ * not, on every task before it sees all those parts in the script already and writes straight to the script. Run
+ * with the default dependencies the workflow behaves exactly as if the tasks were run one after the other.
+ *
+ * @author agent
+ * @since 3.1.0
+ */
+@Slf4j
+public class WorkflowGraph {
+
+    private final List<WorkflowTask> tasks;
+    private final List<int[]> dependencies;
+    private final boolean[] dependsOnAllBefore;
+
+    /**
+     * Constructor.
+     *
+     * @param tasks The tasks of the workflow in the order their parts of the run script should be written
+     * @throws IllegalArgumentException If a task depends on a task which comes after it
+     */
+    public WorkflowGraph(@NotNull final List<WorkflowTask> tasks) {
+        this.tasks = Collections.unmodifiableList(new ArrayList<>(tasks));
+        this.dependencies = new ArrayList<>(this.tasks.size());
+        this.dependsOnAllBefore = new boolean[this.tasks.size()];
+
+        final List<BitSet> ancestors = new ArrayList<>(this.tasks.size());
+        for (int i = 0; i < this.tasks.size(); i++) {
+            final BitSet direct = this.getDirectDependencies(i);
+            final BitSet all = (BitSet) direct.clone();
+            direct.stream().forEach(dependency -> all.or(ancestors.get(dependency)));
+            ancestors.add(all);
+            this.dependencies.add(direct.stream().toArray());
+            this.dependsOnAllBefore[i] = all.cardinality() == i;
+        }
+    }
+
+    /**
+     * Run all the tasks of the workflow. Returns once all the tasks are done, one of them fails or the calling
+     * thread is interrupted. When interrupted the tasks which haven't started yet are never run and the interrupt
+     * flag of the calling thread is left set.
+     *
+     * @param context  The context for the tasks
+     * @param writer   The writer for the run script
+     * @param executor The executor to run the tasks on
+     * @param jobId    The id of the job the workflow is for
+     * @return The time, in nanoseconds, spent in the longest chain of dependent tasks
+     * @throws GenieException If a task fails
+     * @throws IOException    If a task fails to write to the disk
+     */
+    public long execute(
+        @NotNull final Map<String, Object> context,
+        @NotNull final Writer writer,
+        @NotNull final Executor executor,
+        @NotNull final String jobId
+    ) throws GenieException, IOException {
+        final int numTasks = this.tasks.size();
+        final Execution execution = new Execution(context, writer, numTasks);
+        final List<CompletableFuture<Void>> futures = new ArrayList<>(numTasks);
+        final CompletableFuture<Void> failed = new CompletableFuture<>();
+        for (int i = 0; i < numTasks; i++) {
+            final int task = i;
+            final CompletableFuture<Void> future = CompletableFuture
+                .allOf(
+                    Arrays.stream(this.dependencies.get(task)).mapToObj(futures::get).toArray(CompletableFuture[]::new)
+                )
+                .thenRunAsync(() -> this.runTask(task, execution), executor);
+            future.whenComplete(
+                (result, throwable) -> {
+                    if (throwable != null) {
+                        failed.completeExceptionally(throwable);
+                    }
+                }
+            );
+            futures.add(future);
+        }
+
+        try {
+            CompletableFuture
+                .anyOf(CompletableFuture.allOf(futures.toArray(new CompletableFuture[numTasks])), failed)
+                .get();
+        } catch (final InterruptedException ie) {
+            log.info("Interrupted job workflow for job {}", jobId);
+            futures.forEach(future -> future.cancel(true));
+            Thread.currentThread().interrupt();
+            return 0L;
+        } catch (final ExecutionException ee) {
+            futures.forEach(future -> future.cancel(true));
+            throw this.unwrap(ee.getCause());
+        }
+
+        execution.flushBuffers(numTasks);
+        return this.reportCriticalPath(execution.durations, jobId);
+    }
+
+    private BitSet getDirectDependencies(final int task) {
+        final BitSet direct = new BitSet(task);
+        final Optional<Set<Class<? extends WorkflowTask>>> declared = this.tasks.get(task).getDependencies();
+        if (!declared.isPresent()) {
+            direct.set(0, task);
+            return direct;
+        }
+        for (final Class<? extends WorkflowTask> type : declared.get()) {
+            for (int i = 0; i < this.tasks.size(); i++) {
+                if (type.isInstance(this.tasks.get(i))) {
+                    if (i >= task) {
+                        throw new IllegalArgumentException(
+                            this.getName(task) + " depends on " + this.getName(i) + " which comes after it"
+                        );
+                    }
+                    direct.set(i);
+                }
+            }
+        }
+        return direct;
+    }
+
+    private void runTask(final int task, final Execution execution) {
+        final WorkflowTask workflowTask = this.tasks.get(task);
+        final Map<String, Object> taskContext;
+        final Map<String, Object> snapshot;
+        synchronized (execution) {
+            snapshot = new HashMap<>(execution.context);
+            taskContext = new HashMap<>(snapshot);
+            if (this.dependsOnAllBefore[task]) {
+                try {
+                    execution.flushBuffers(task);
+                } catch (final IOException ioe) {
+                    throw new CompletionException(ioe);
+                }
+                taskContext.put(JobConstants.WRITER_KEY, execution.writer);
+            } else {
+                taskContext.put(JobConstants.WRITER_KEY, execution.buffers[task]);
+            }
+        }
+
+        final long start = System.nanoTime();
+        try {
+            workflowTask.executeTask(taskContext);
+        } catch (final GenieException | IOException e) {
+            throw new CompletionException(e);
+        } finally {
+            execution.durations[task] = System.nanoTime() - start;
+        }
+
+        synchronized (execution) {
+            if (this.dependsOnAllBefore[task]) {
+                execution.flushed = task + 1;
+            }
+            taskContext.forEach(
+                (key, value) -> {
+                    if (!JobConstants.WRITER_KEY.equals(key) && snapshot.get(key) != value) {
+                        execution.context.put(key, value);
+                    }
+                }
+            );
+        }
+    }
+
+    private long reportCriticalPath(final long[] durations, final String jobId) {
+        final int numTasks = durations.length;
+        if (numTasks == 0) {
+            return 0L;
+        }
+        final long[] pathTimes = new long[numTasks];
+        final int[] previous = new int[numTasks];
+        int last = 0;
+        for (int i = 0; i < numTasks; i++) {
+            previous[i] = -1;
+            for (final int dependency : this.dependencies.get(i)) {
+                if (previous[i] < 0 || pathTimes[dependency] > pathTimes[previous[i]]) {
+                    previous[i] = dependency;
+                }
+            }
+            pathTimes[i] = durations[i] + (previous[i] < 0 ? 0L : pathTimes[previous[i]]);
+            if (pathTimes[i] > pathTimes[last]) {
+                last = i;
+            }
+        }
+
+        if (log.isInfoEnabled()) {
+            final StringBuilder path = new StringBuilder();
+            for (int i = last; i >= 0; i = previous[i]) {
+                path.insert(0, (path.length() == 0 ? "" : " -> "))
+                    .insert(0, this.getName(i) + " (" + TimeUnit.NANOSECONDS.toMillis(durations[i]) + "ms)");
+            }
+            log.info(
+                "Workflow critical path for job {} took {}ms: {}",
+                jobId,
+                TimeUnit.NANOSECONDS.toMillis(pathTimes[last]),
+                path
+            );
+        }
+        return pathTimes[last];
+    }
+
+    private String getName(final int task) {
+        return this.tasks.get(task).getClass().getSimpleName();
+    }
+
+    private GenieException unwrap(final Throwable throwable) throws IOException {
+        final Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null
+            ? throwable.getCause()
+            : throwable;
+        if (cause instanceof GenieException) {
+            return (GenieException) cause;
+        } else if (cause instanceof IOException) {
+            throw (IOException) cause;
+        } else {
+            return new GenieServerException("Job workflow failed due to: " + cause.getMessage(), cause);
+        }
+    }
+
+    /**
+     * The state of one run of the workflow.
+     */
+    private static final class Execution {
+        private final Map<String, Object> context;
+        private final Writer writer;
+        private final StringWriter[] buffers;
+        private final long[] durations;
+        private int flushed;
+
+        private Execution(final Map<String, Object> context, final Writer writer, final int numTasks) {
+            this.context = context;
+            this.writer = writer;
+            this.buffers = new StringWriter[numTasks];
+            for (int i = 0; i < numTasks; i++) {
+                this.buffers[i] = new StringWriter();
+            }
+            this.durations = new long[numTasks];
+        }
+
+        /**
+         * Write the buffered parts of the run script of the tasks before the given one which aren't written yet.
+         *
+         * @param task The task to write the parts of the run script up to
+         * @throws IOException If the run script can't be written to
+         */
+        private void flushBuffers(final int task) throws IOException {
+            for (; this.flushed < task; this.flushed++) {
+                this.writer.write(this.buffers[this.flushed].toString());
+            }
+        }
+    }
+}
@@ -21,6 +21,8 @@ import com.netflix.genie.common.exceptions.GenieException;
 
 import java.io.IOException;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 
 /**
  * Interface that defines a task in a workflow.
@@ -40,4 +42,14 @@ public interface WorkflowTask {
     void executeTask(
         Map<String, Object> context
     ) throws GenieException, IOException;
+
+    /**
+     * Get the types of the tasks which need to finish before this task can start. Tasks which don't depend on each
+     * other may run at the same time. By default a task depends on every task before it in the workflow.
+     *
+     * @return The types of the tasks this task depends on or empty if it depends on every task before it
+     */
+    default Optional<Set<Class<? extends WorkflowTask>>> getDependencies() {
+        return Optional.empty();
+    }
 }
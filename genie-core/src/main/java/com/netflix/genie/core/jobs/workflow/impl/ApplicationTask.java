@@ -24,6 +24,8 @@ import com.netflix.genie.core.jobs.AdminResources;
 import com.netflix.genie.core.jobs.FileType;
 import com.netflix.genie.core.jobs.JobConstants;
 import com.netflix.genie.core.jobs.JobExecutionEnvironment;
+import com.netflix.genie.core.jobs.workflow.WorkflowTask;
+import com.netflix.genie.core.services.FileMaterializationStrategy;
 import com.netflix.genie.core.services.impl.GenieFileTransferService;
 import com.netflix.spectator.api.Registry;
 import com.netflix.spectator.api.Timer;
@@ -33,8 +35,10 @@ import org.apache.commons.lang3.StringUtils;
 import javax.validation.constraints.NotNull;
 import java.io.IOException;
 import java.io.Writer;
+import java.util.Collections;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -46,19 +50,28 @@ import java.util.concurrent.TimeUnit;
 @Slf4j
 public class ApplicationTask extends GenieBaseTask {
 
+    // The job directory structure is created before the workflow runs so nothing needs to finish first
+    private static final Set<Class<? extends WorkflowTask>> DEPENDENCIES = Collections.emptySet();
+
     private final Timer timer;
     private final GenieFileTransferService fts;
+    private final FileMaterializationStrategy materialization;
+    private final ScriptFragmentCache setupFragments;
 
     /**
      * Constructor.
      *
-     * @param registry The metrics registry to use for recording any metrics
-     * @param fts      File transfer service
+     * @param registry        The metrics registry to use for recording any metrics
+     * @param fts             File transfer service
+     * @param materialization How to place cached application files in the job directory
      */
     public ApplicationTask(@NotNull final Registry registry,
-                           @NotNull final GenieFileTransferService fts) {
+                           @NotNull final GenieFileTransferService fts,
+                           @NotNull final FileMaterializationStrategy materialization) {
         this.timer = registry.timer("genie.jobs.tasks.applicationTask.timer");
+        this.setupFragments = new ScriptFragmentCache(registry, "applicationSetup");
         this.fts = fts;
+        this.materialization = materialization;
     }
 
     /**
@@ -74,9 +87,6 @@ public class ApplicationTask extends GenieBaseTask {
             final JobExecutionEnvironment jobExecEnv =
                 (JobExecutionEnvironment) context.get(JobConstants.JOB_EXECUTION_ENV_KEY);
             final String jobWorkingDirectory = jobExecEnv.getJobWorkingDir().getCanonicalPath();
-            final String genieDir = jobWorkingDirectory
-                + JobConstants.FILE_PATH_DELIMITER
-                + JobConstants.GENIE_PATH_VAR;
             final Writer writer = (Writer) context.get(JobConstants.WRITER_KEY);
             log.info("Starting Application Task for job {}", jobExecEnv.getJobRequest().getId());
 
@@ -87,27 +97,6 @@ public class ApplicationTask extends GenieBaseTask {
                         .getId()
                         .orElseThrow(() -> new GeniePreconditionException("Application without id"));
 
-                    // Create the directory for this application under applications in the cwd
-                    createEntityInstanceDirectory(
-                        genieDir,
-                        applicationId,
-                        AdminResources.APPLICATION
-                    );
-
-                    // Create the config directory for this id
-                    createEntityInstanceConfigDirectory(
-                        genieDir,
-                        applicationId,
-                        AdminResources.APPLICATION
-                    );
-
-                    // Create the dependencies directory for this id
-                    createEntityInstanceDependenciesDirectory(
-                        genieDir,
-                        applicationId,
-                        AdminResources.APPLICATION
-                    );
-
                     // Get the setup file if specified and add it as source command in launcher script
                     final Optional<String> setupFile = application.getSetupFile();
                     if (setupFile.isPresent()) {
@@ -120,14 +109,19 @@ public class ApplicationTask extends GenieBaseTask {
                                 FileType.SETUP,
                                 AdminResources.APPLICATION
                             );
-                            this.fts.getFile(applicationSetupFile, localPath);
+                            super.fetchFile(context, this.fts, applicationSetupFile, localPath, this.materialization);
 
-                            super.generateSetupFileSourceSnippet(
-                                applicationId,
-                                "Application:",
-                                localPath,
-                                writer,
-                                jobWorkingDirectory);
+                            writer.write(
+                                this.setupFragments.get(
+                                    application,
+                                    () -> super.renderSetupFileSourceSnippet(
+                                        applicationId,
+                                        "Application:",
+                                        applicationSetupFile,
+                                        AdminResources.APPLICATION
+                                    )
+                                )
+                            );
                         }
                     }
 
@@ -140,7 +134,7 @@ public class ApplicationTask extends GenieBaseTask {
                             FileType.DEPENDENCIES,
                             AdminResources.APPLICATION
                         );
-                        fts.getFile(dependencyFile, localPath);
+                        super.fetchFile(context, this.fts, dependencyFile, localPath, this.materialization);
                     }
 
                     // Iterate over and get all configuration files
@@ -152,7 +146,7 @@ public class ApplicationTask extends GenieBaseTask {
                             FileType.CONFIG,
                             AdminResources.APPLICATION
                         );
-                        fts.getFile(configFile, localPath);
+                        super.fetchFile(context, this.fts, configFile, localPath, this.materialization);
                     }
                 }
             }
@@ -162,4 +156,12 @@ public class ApplicationTask extends GenieBaseTask {
             this.timer.record(finish - start, TimeUnit.NANOSECONDS);
         }
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Optional<Set<Class<? extends WorkflowTask>>> getDependencies() {
+        return Optional.of(DEPENDENCIES);
+    }
 }
@@ -23,6 +23,8 @@ import com.netflix.genie.core.jobs.AdminResources;
 import com.netflix.genie.core.jobs.FileType;
 import com.netflix.genie.core.jobs.JobConstants;
 import com.netflix.genie.core.jobs.JobExecutionEnvironment;
+import com.netflix.genie.core.jobs.workflow.WorkflowTask;
+import com.netflix.genie.core.services.FileMaterializationStrategy;
 import com.netflix.genie.core.services.impl.GenieFileTransferService;
 import com.netflix.spectator.api.Registry;
 import com.netflix.spectator.api.Timer;
@@ -32,8 +34,10 @@ import org.apache.commons.lang3.StringUtils;
 import javax.validation.constraints.NotNull;
 import java.io.IOException;
 import java.io.Writer;
+import java.util.Collections;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -45,19 +49,28 @@ import java.util.concurrent.TimeUnit;
 @Slf4j
 public class ClusterTask extends GenieBaseTask {
 
+    // The job directory structure is created before the workflow runs so nothing needs to finish first
+    private static final Set<Class<? extends WorkflowTask>> DEPENDENCIES = Collections.emptySet();
+
     private final Timer timer;
     private final GenieFileTransferService fts;
+    private final FileMaterializationStrategy materialization;
+    private final ScriptFragmentCache setupFragments;
 
     /**
      * Constructor.
      *
      * @param registry The metrics registry to use
      * @param fts File transfer service
+     * @param materialization How to place cached cluster files in the job directory
      */
     public ClusterTask(@NotNull final Registry registry,
-            @NotNull final GenieFileTransferService fts) {
+            @NotNull final GenieFileTransferService fts,
+            @NotNull final FileMaterializationStrategy materialization) {
         this.timer = registry.timer("genie.jobs.tasks.clusterTask.timer");
+        this.setupFragments = new ScriptFragmentCache(registry, "clusterSetup");
         this.fts = fts;
+        this.materialization = materialization;
     }
 
     /**
@@ -70,9 +83,6 @@ public class ClusterTask extends GenieBaseTask {
             final JobExecutionEnvironment jobExecEnv =
                 (JobExecutionEnvironment) context.get(JobConstants.JOB_EXECUTION_ENV_KEY);
             final String jobWorkingDirectory = jobExecEnv.getJobWorkingDir().getCanonicalPath();
-            final String genieDir = jobWorkingDirectory
-                + JobConstants.FILE_PATH_DELIMITER
-                + JobConstants.GENIE_PATH_VAR;
             final Writer writer = (Writer) context.get(JobConstants.WRITER_KEY);
             log.info("Starting Cluster Task for job {}", jobExecEnv.getJobRequest().getId());
 
@@ -81,20 +91,6 @@ public class ClusterTask extends GenieBaseTask {
                 .getId()
                 .orElseThrow(() -> new GeniePreconditionException("No cluster id found"));
 
-            // Create the directory for this application under applications in the cwd
-            createEntityInstanceDirectory(
-                genieDir,
-                clusterId,
-                AdminResources.CLUSTER
-            );
-
-            // Create the config directory for this id
-            createEntityInstanceConfigDirectory(
-                genieDir,
-                clusterId,
-                AdminResources.CLUSTER
-            );
-
             // Get the set up file for cluster and add it to source in launcher script
             final Optional<String> setupFile = jobExecEnv.getCluster().getSetupFile();
             if (setupFile.isPresent()) {
@@ -108,14 +104,19 @@ public class ClusterTask extends GenieBaseTask {
                         AdminResources.CLUSTER
                     );
 
-                    fts.getFile(clusterSetupFile, localPath);
+                    super.fetchFile(context, this.fts, clusterSetupFile, localPath, this.materialization);
 
-                    super.generateSetupFileSourceSnippet(
-                        clusterId,
-                        "Cluster:",
-                        localPath,
-                        writer,
-                        jobWorkingDirectory);
+                    writer.write(
+                        this.setupFragments.get(
+                            jobExecEnv.getCluster(),
+                            () -> super.renderSetupFileSourceSnippet(
+                                clusterId,
+                                "Cluster:",
+                                clusterSetupFile,
+                                AdminResources.CLUSTER
+                            )
+                        )
+                    );
                 }
             }
 
@@ -128,7 +129,7 @@ public class ClusterTask extends GenieBaseTask {
                     FileType.CONFIG,
                     AdminResources.CLUSTER
                 );
-                fts.getFile(configFile, localPath);
+                super.fetchFile(context, this.fts, configFile, localPath, this.materialization);
             }
             log.info("Finished Cluster Task for job {}", jobExecEnv.getJobRequest().getId());
         } finally {
@@ -136,4 +137,12 @@ public class ClusterTask extends GenieBaseTask {
             this.timer.record(finish - start, TimeUnit.NANOSECONDS);
         }
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Optional<Set<Class<? extends WorkflowTask>>> getDependencies() {
+        return Optional.of(DEPENDENCIES);
+    }
 }
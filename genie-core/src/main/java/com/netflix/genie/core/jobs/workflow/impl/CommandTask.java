@@ -23,6 +23,8 @@ import com.netflix.genie.core.jobs.AdminResources;
 import com.netflix.genie.core.jobs.FileType;
 import com.netflix.genie.core.jobs.JobConstants;
 import com.netflix.genie.core.jobs.JobExecutionEnvironment;
+import com.netflix.genie.core.jobs.workflow.WorkflowTask;
+import com.netflix.genie.core.services.FileMaterializationStrategy;
 import com.netflix.genie.core.services.impl.GenieFileTransferService;
 import com.netflix.spectator.api.Registry;
 import com.netflix.spectator.api.Timer;
@@ -32,8 +34,10 @@ import org.apache.commons.lang3.StringUtils;
 import javax.validation.constraints.NotNull;
 import java.io.IOException;
 import java.io.Writer;
+import java.util.Collections;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -45,18 +49,30 @@ import java.util.concurrent.TimeUnit;
 @Slf4j
 public class CommandTask extends GenieBaseTask {
 
+    // The job directory structure is created before the workflow runs so nothing needs to finish first
+    private static final Set<Class<? extends WorkflowTask>> DEPENDENCIES = Collections.emptySet();
+
     private final Timer timer;
     private final GenieFileTransferService fts;
+    private final FileMaterializationStrategy materialization;
+    private final ScriptFragmentCache setupFragments;
 
     /**
      * Constructor.
      *
-     * @param registry The metrics registry to use
-     * @param fts      File transfer service
+     * @param registry        The metrics registry to use
+     * @param fts             File transfer service
+     * @param materialization How to place cached command files in the job directory
      */
-    public CommandTask(@NotNull final Registry registry, @NotNull final GenieFileTransferService fts) {
+    public CommandTask(
+        @NotNull final Registry registry,
+        @NotNull final GenieFileTransferService fts,
+        @NotNull final FileMaterializationStrategy materialization
+    ) {
         this.timer = registry.timer("genie.jobs.tasks.commandTask.timer");
+        this.setupFragments = new ScriptFragmentCache(registry, "commandSetup");
         this.fts = fts;
+        this.materialization = materialization;
     }
 
     /**
@@ -69,9 +85,6 @@ public class CommandTask extends GenieBaseTask {
             final JobExecutionEnvironment jobExecEnv =
                 (JobExecutionEnvironment) context.get(JobConstants.JOB_EXECUTION_ENV_KEY);
             final String jobWorkingDirectory = jobExecEnv.getJobWorkingDir().getCanonicalPath();
-            final String genieDir = jobWorkingDirectory
-                + JobConstants.FILE_PATH_DELIMITER
-                + JobConstants.GENIE_PATH_VAR;
             final Writer writer = (Writer) context.get(JobConstants.WRITER_KEY);
 
             log.info("Starting Command Task for job {}", jobExecEnv.getJobRequest().getId());
@@ -81,20 +94,6 @@ public class CommandTask extends GenieBaseTask {
                 .getId()
                 .orElseThrow(() -> new GeniePreconditionException("No command id found"));
 
-            // Create the directory for this command under command dir in the cwd
-            createEntityInstanceDirectory(
-                genieDir,
-                commandId,
-                AdminResources.COMMAND
-            );
-
-            // Create the config directory for this id
-            createEntityInstanceConfigDirectory(
-                genieDir,
-                commandId,
-                AdminResources.COMMAND
-            );
-
             // Get the setup file if specified and add it as source command in launcher script
             final Optional<String> setupFile = jobExecEnv.getCommand().getSetupFile();
             if (setupFile.isPresent()) {
@@ -108,14 +107,19 @@ public class CommandTask extends GenieBaseTask {
                         AdminResources.COMMAND
                     );
 
-                    fts.getFile(commandSetupFile, localPath);
+                    super.fetchFile(context, this.fts, commandSetupFile, localPath, this.materialization);
 
-                    super.generateSetupFileSourceSnippet(
-                        commandId,
-                        "Command:",
-                        localPath,
-                        writer,
-                        jobWorkingDirectory);
+                    writer.write(
+                        this.setupFragments.get(
+                            jobExecEnv.getCommand(),
+                            () -> super.renderSetupFileSourceSnippet(
+                                commandId,
+                                "Command:",
+                                commandSetupFile,
+                                AdminResources.COMMAND
+                            )
+                        )
+                    );
                 }
             }
 
@@ -128,7 +132,7 @@ public class CommandTask extends GenieBaseTask {
                     FileType.CONFIG,
                     AdminResources.COMMAND
                 );
-                fts.getFile(configFile, localPath);
+                super.fetchFile(context, this.fts, configFile, localPath, this.materialization);
             }
             log.info("Finished Command Task for job {}", jobExecEnv.getJobRequest().getId());
         } finally {
@@ -136,4 +140,12 @@ public class CommandTask extends GenieBaseTask {
             this.timer.record(finish - start, TimeUnit.NANOSECONDS);
         }
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Optional<Set<Class<? extends WorkflowTask>>> getDependencies() {
+        return Optional.of(DEPENDENCIES);
+    }
 }
@@ -18,18 +18,18 @@
 package com.netflix.genie.core.jobs.workflow.impl;
 
 import com.netflix.genie.common.exceptions.GenieException;
-import com.netflix.genie.common.exceptions.GenieServerException;
 import com.netflix.genie.core.jobs.AdminResources;
 import com.netflix.genie.core.jobs.FileType;
 import com.netflix.genie.core.jobs.JobConstants;
+import com.netflix.genie.core.jobs.JobFileStaging;
 import com.netflix.genie.core.jobs.workflow.WorkflowTask;
+import com.netflix.genie.core.services.FileMaterializationStrategy;
+import com.netflix.genie.core.services.impl.GenieFileTransferService;
 import lombok.extern.slf4j.Slf4j;
 import org.hibernate.validator.constraints.NotBlank;
 
 import javax.validation.constraints.NotNull;
-import java.io.File;
-import java.io.IOException;
-import java.io.Writer;
+import java.util.Map;
 
 /**
  * An abstract class that all classes that implement a workflow task should inherit from. Provides some
@@ -41,6 +41,9 @@ import java.io.Writer;
 @Slf4j
 public abstract class GenieBaseTask implements WorkflowTask {
 
+    private static final String JOB_DIR_VARIABLE = "${" + JobConstants.GENIE_JOB_DIR_ENV_VAR + "}";
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+
     /**
      * Helper Function to fetch file to local dir.
      *
@@ -119,166 +122,87 @@ public abstract class GenieBaseTask implements WorkflowTask {
     }
 
     /**
-     * Helper method to create the directory for a particular application, cluster or command in the
-     * current working directory for the job.
-     *
-     * @param genieDir The genie directory in the cwd for the job
-     * @param id The id of entity instance
-     * @param adminResources The type of entity Application, Cluster or Command
+     * Helper method to fetch a file to the job directory. If the job files are being staged the file is added to the
+     * staging and fetched in the background, otherwise it is fetched before returning.
      *
+     * @param context         The context of the workflow
+     * @param fts             The file transfer service to fetch the file with
+     * @param srcPath         The path of the file to fetch
+     * @param dstPath         The local path to fetch the file to
+     * @param materialization How to place a locally cached copy of the file at the local path
      * @throws GenieException If there is any problem
      */
-    protected void createEntityInstanceDirectory(
+    protected void fetchFile(
+        @NotNull
+        final Map<String, Object> context,
+        @NotNull
+        final GenieFileTransferService fts,
         @NotBlank
-        final String genieDir,
+        final String srcPath,
         @NotBlank
-        final String id,
+        final String dstPath,
         @NotNull
-        final AdminResources adminResources
+        final FileMaterializationStrategy materialization
     ) throws GenieException {
-        String entityPathVar = null;
-
-        switch (adminResources) {
-            case APPLICATION:
-                entityPathVar = JobConstants.APPLICATION_PATH_VAR;
-                break;
-            case COMMAND:
-                entityPathVar = JobConstants.COMMAND_PATH_VAR;
-                break;
-            case CLUSTER:
-                entityPathVar = JobConstants.CLUSTER_PATH_VAR;
-                break;
-            // TODO The @NotNull validation will make sure we never reach default, but checkstyle forces a default.
-            default:
+        final JobFileStaging staging = (JobFileStaging) context.get(JobConstants.JOB_FILE_STAGING_KEY);
+        if (staging != null) {
+            staging.stage(fts, srcPath, dstPath, materialization);
+        } else {
+            fts.getFile(srcPath, dstPath, materialization);
         }
-
-        this.createDirectory(
-            genieDir
-                + JobConstants.FILE_PATH_DELIMITER
-                + entityPathVar
-                + JobConstants.FILE_PATH_DELIMITER
-                + id);
     }
 
     /**
-     * Helper method to create the config directory for a particular application, cluster or command in the
-     * current working directory for the job.
+     * Helper method to wait for all the files of the job which are being staged to be fetched.
      *
-     * @param genieDir The genie directory in the cwd for the job
-     * @param id The id of entity instance
-     * @param adminResources The type of entity Application, Cluster or Command
-     *
-     * @throws GenieException If there is any problem
+     * @param context The context of the workflow
+     * @throws GenieException If any of the files couldn't be fetched
      */
-    protected void createEntityInstanceConfigDirectory(
-        @NotBlank
-        final String genieDir,
-        @NotBlank
-        final String id,
+    protected void awaitStagedFiles(
         @NotNull
-        final AdminResources adminResources
+        final Map<String, Object> context
     ) throws GenieException {
-        String entityPathVar = null;
-
-        switch (adminResources) {
-            case APPLICATION:
-                entityPathVar = JobConstants.APPLICATION_PATH_VAR;
-                break;
-            case COMMAND:
-                entityPathVar = JobConstants.COMMAND_PATH_VAR;
-                break;
-            case CLUSTER:
-                entityPathVar = JobConstants.CLUSTER_PATH_VAR;
-                break;
-            // TODO The @NotNull validation will make sure we never reach default, but checkstyle forces a default.
-            default:
+        final JobFileStaging staging = (JobFileStaging) context.get(JobConstants.JOB_FILE_STAGING_KEY);
+        if (staging != null) {
+            staging.await();
         }
-
-        this.createDirectory(
-            genieDir
-                + JobConstants.FILE_PATH_DELIMITER
-                + entityPathVar
-                + JobConstants.FILE_PATH_DELIMITER
-                + id
-                + JobConstants.FILE_PATH_DELIMITER
-                + JobConstants.CONFIG_FILE_PATH_PREFIX);
     }
 
     /**
-     * Helper method to create the dependency directory for a particular application, cluster or command in the
-     * current working directory for the job.
+     * Helper method to render the part of the run script which sources the setup file of an application, cluster or
+     * command. The path of the setup file is relative to the job directory environment variable so the same part can
+     * be used for every job.
      *
-     * @param genieDir The genie directory in the cwd for the job
-     * @param id The id of entity instance
+     * @param id The id of the entity instance
+     * @param type The description of the type of entity written in the comment
+     * @param setupFile The path of the setup file of the entity
      * @param adminResources The type of entity Application, Cluster or Command
+     * @return The part of the run script
      *
      * @throws GenieException If there is any problem
      */
-    protected void createEntityInstanceDependenciesDirectory(
-        @NotBlank
-        final String genieDir,
+    protected String renderSetupFileSourceSnippet(
         @NotBlank
         final String id,
+        @NotBlank
+        final String type,
+        @NotBlank
+        final String setupFile,
         @NotNull
         final AdminResources adminResources
     ) throws GenieException {
-        String entityPathVar = null;
-
-        switch (adminResources) {
-            case APPLICATION:
-                entityPathVar = JobConstants.APPLICATION_PATH_VAR;
-                break;
-            case COMMAND:
-                entityPathVar = JobConstants.COMMAND_PATH_VAR;
-                break;
-            case CLUSTER:
-                entityPathVar = JobConstants.CLUSTER_PATH_VAR;
-                break;
-            // TODO The @NotNull validation will make sure we never reach default, but checkstyle forces a default.
-            default:
-        }
-
-        this.createDirectory(
-            genieDir
-                + JobConstants.FILE_PATH_DELIMITER
-                + entityPathVar
-                + JobConstants.FILE_PATH_DELIMITER
-                + id
-                + JobConstants.FILE_PATH_DELIMITER
-                + JobConstants.DEPENDENCY_FILE_PATH_PREFIX);
-    }
-
-    /**
-     * Helper method to create directories on local filesystem.
-     *
-     * @param dirPath The directory path to create
-     * @throws GenieException If there is a problem.
-     */
-    protected void createDirectory(
-        @NotBlank(message = "Directory path cannot be blank.")
-        final String dirPath
-    ) throws GenieException {
-        final File dir = new File(dirPath);
-        if (!dir.mkdirs()) {
-            throw new GenieServerException("Could not create directory: " + dirPath);
-        }
-    }
-
-    protected void generateSetupFileSourceSnippet(
-        final String id,
-        final String type,
-        final String filePath,
-        final Writer writer,
-        final String jobWorkingDirectory
-    ) throws IOException {
-        writer.write("# Sourcing setup file from " + type + " " + id + System.lineSeparator());
-
-        writer.write(
-            JobConstants.SOURCE
-                + filePath.replace(jobWorkingDirectory, "${" + JobConstants.GENIE_JOB_DIR_ENV_VAR + "}")
-                + System.lineSeparator());
-
-        // Append new line
-        writer.write(System.lineSeparator());
+        final String localPath = this.buildLocalFilePath(
+            JOB_DIR_VARIABLE,
+            id,
+            setupFile,
+            FileType.SETUP,
+            adminResources
+        );
+        return new StringBuilder()
+            .append("# Sourcing setup file from ").append(type).append(' ').append(id).append(LINE_SEPARATOR)
+            .append(JobConstants.SOURCE).append(localPath).append(LINE_SEPARATOR)
+            // Append new line
+            .append(LINE_SEPARATOR)
+            .toString();
     }
 }
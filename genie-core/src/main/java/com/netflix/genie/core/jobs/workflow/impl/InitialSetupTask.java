@@ -24,15 +24,18 @@ import com.netflix.genie.common.exceptions.GeniePreconditionException;
 import com.netflix.genie.common.exceptions.GenieServerException;
 import com.netflix.genie.core.jobs.JobConstants;
 import com.netflix.genie.core.jobs.JobExecutionEnvironment;
+import com.netflix.genie.core.jobs.workflow.WorkflowTask;
 import com.netflix.spectator.api.Registry;
 import com.netflix.spectator.api.Timer;
 import lombok.extern.slf4j.Slf4j;
 
 import javax.validation.constraints.NotNull;
-import java.io.File;
 import java.io.IOException;
 import java.io.Writer;
+import java.util.Collections;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -44,10 +47,30 @@ import java.util.concurrent.TimeUnit;
 @Slf4j
 public class InitialSetupTask extends GenieBaseTask {
 
+    private static final Set<Class<? extends WorkflowTask>> DEPENDENCIES = Collections.emptySet();
+
     private static final String GENIE_VERSION_EXPORT = "export GENIE_VERSION=3";
     private static final String LINE_SEPARATOR = System.lineSeparator();
+    // create environment variable for the application directory. The same for every job.
+    private static final String APPLICATION_ENVIRONMENT_VARIABLES = JobConstants.EXPORT
+        + JobConstants.GENIE_APPLICATION_DIR_ENV_VAR
+        + JobConstants.EQUALS_SYMBOL
+        + JobConstants.DOUBLE_QUOTE_SYMBOL
+        + "${"
+        + JobConstants.GENIE_JOB_DIR_ENV_VAR
+        + "}"
+        + JobConstants.FILE_PATH_DELIMITER
+        + JobConstants.GENIE_PATH_VAR
+        + JobConstants.FILE_PATH_DELIMITER
+        + JobConstants.APPLICATION_PATH_VAR
+        + JobConstants.DOUBLE_QUOTE_SYMBOL
+        + LINE_SEPARATOR
+        // Append new line
+        + LINE_SEPARATOR;
 
     private final Timer timer;
+    private final ScriptFragmentCache commandFragments;
+    private final ScriptFragmentCache clusterFragments;
 
     /**
      * Constructor.
@@ -56,6 +79,8 @@ public class InitialSetupTask extends GenieBaseTask {
      */
     public InitialSetupTask(@NotNull final Registry registry) {
         this.timer = registry.timer("genie.jobs.tasks.initialSetupTask.timer");
+        this.commandFragments = new ScriptFragmentCache(registry, "commandEnvironment");
+        this.clusterFragments = new ScriptFragmentCache(registry, "clusterEnvironment");
     }
 
     /**
@@ -75,32 +100,36 @@ public class InitialSetupTask extends GenieBaseTask {
                 .orElseThrow(() -> new GeniePreconditionException("No job id found. Unable to continue"));
             log.info("Starting Initial Setup Task for job {}", jobId);
 
-            this.createJobDirStructure(jobWorkingDirectory);
-
-            // set the env variables in the launcher script
-            this.createJobDirEnvironmentVariables(writer, jobWorkingDirectory);
-            this.createApplicationEnvironmentVariables(writer);
+            // set the env variables in the launcher script. Built up first so they are written to the script at once.
+            final StringBuilder script = new StringBuilder();
+            this.createJobDirEnvironmentVariables(script, jobWorkingDirectory);
+            script.append(APPLICATION_ENVIRONMENT_VARIABLES);
 
             // create environment variables for the command
             final Command command = jobExecEnv.getCommand();
-            this.createCommandEnvironmentVariables(writer, command);
+            script.append(
+                this.commandFragments.get(command, () -> this.createCommandEnvironmentVariables(command))
+            );
 
             // create environment variables for the cluster
             final Cluster cluster = jobExecEnv.getCluster();
-            this.createClusterEnvironmentVariables(writer, cluster);
+            script.append(
+                this.clusterFragments.get(cluster, () -> this.createClusterEnvironmentVariables(cluster))
+            );
 
             // create environment variable for the job itself
             this.createJobEnvironmentVariables(
-                writer,
+                script,
                 jobId,
                 jobExecEnv.getJobRequest().getName(),
                 jobExecEnv.getMemory()
             );
 
             //Export the Genie Version
-            writer.write(GENIE_VERSION_EXPORT);
-            writer.write(LINE_SEPARATOR);
-            writer.write(LINE_SEPARATOR);
+            script.append(GENIE_VERSION_EXPORT);
+            script.append(LINE_SEPARATOR);
+            script.append(LINE_SEPARATOR);
+            writer.write(script.toString());
 
             log.info("Finished Initial Setup Task for job {}", jobId);
         } finally {
@@ -108,225 +137,147 @@ public class InitialSetupTask extends GenieBaseTask {
         }
     }
 
-    private void createJobDirStructure(final String jobWorkingDirectory) throws GenieException, IOException {
-        // create top level directory structure for the job
-
-        // Genie Directory {basedir/genie}
-        this.createDirectory(jobWorkingDirectory + JobConstants.FILE_PATH_DELIMITER + JobConstants.GENIE_PATH_VAR);
-
-        // Genie Logs directory {basedir/genie/logs}
-        this.createDirectory(jobWorkingDirectory
-            + JobConstants.FILE_PATH_DELIMITER
-            + JobConstants.GENIE_PATH_VAR
-            + JobConstants.FILE_PATH_DELIMITER
-            + JobConstants.LOGS_PATH_VAR);
-
-        // Genie applications directory {basedir/genie/applications}
-        this.createDirectory(jobWorkingDirectory
-            + JobConstants.FILE_PATH_DELIMITER
-            + JobConstants.GENIE_PATH_VAR
-            + JobConstants.FILE_PATH_DELIMITER
-            + JobConstants.APPLICATION_PATH_VAR);
-
-        // Genie command directory {basedir/genie/command}
-        this.createDirectory(jobWorkingDirectory
-            + JobConstants.FILE_PATH_DELIMITER
-            + JobConstants.GENIE_PATH_VAR
-            + JobConstants.FILE_PATH_DELIMITER
-            + JobConstants.COMMAND_PATH_VAR);
-
-        // Genie cluster directory {basedir/genie/cluster}
-        this.createDirectory(jobWorkingDirectory
-            + JobConstants.FILE_PATH_DELIMITER
-            + JobConstants.GENIE_PATH_VAR
-            + JobConstants.FILE_PATH_DELIMITER
-            + JobConstants.CLUSTER_PATH_VAR);
-
-        // Create std out file
-        final File stdout = new File(jobWorkingDirectory, JobConstants.STDOUT_LOG_FILE_NAME);
-        if (!stdout.exists() && !stdout.createNewFile()) {
-            throw new GenieServerException("Unable to create std out file at " + stdout);
-        }
-        final File stderr = new File(jobWorkingDirectory, JobConstants.STDERR_LOG_FILE_NAME);
-        if (!stderr.exists() && !stderr.createNewFile()) {
-            throw new GenieServerException("Unable to create std err file at " + stderr);
-        }
-    }
-
-    private void createJobDirEnvironmentVariables(final Writer writer, final String jobWorkingDirectory)
-        throws GenieException, IOException {
+    private void createJobDirEnvironmentVariables(final StringBuilder script, final String jobWorkingDirectory) {
         // set environment variable for the job directory
-        writer.write(JobConstants.EXPORT
-            + JobConstants.GENIE_JOB_DIR_ENV_VAR
-            + JobConstants.EQUALS_SYMBOL
-            + JobConstants.DOUBLE_QUOTE_SYMBOL
-            + jobWorkingDirectory
-            + JobConstants.DOUBLE_QUOTE_SYMBOL
-            + LINE_SEPARATOR);
+        script.append(JobConstants.EXPORT)
+            .append(JobConstants.GENIE_JOB_DIR_ENV_VAR)
+            .append(JobConstants.EQUALS_SYMBOL)
+            .append(JobConstants.DOUBLE_QUOTE_SYMBOL)
+            .append(jobWorkingDirectory)
+            .append(JobConstants.DOUBLE_QUOTE_SYMBOL)
+            .append(LINE_SEPARATOR);
 
         // Append new line
-        writer.write(LINE_SEPARATOR);
+        script.append(LINE_SEPARATOR);
     }
 
-    private void createApplicationEnvironmentVariables(final Writer writer)
-        throws GenieException, IOException {
-        // create environment variable for the application directory
-        writer.write(JobConstants.EXPORT
-            + JobConstants.GENIE_APPLICATION_DIR_ENV_VAR
-            + JobConstants.EQUALS_SYMBOL
-            + JobConstants.DOUBLE_QUOTE_SYMBOL
-            + "${"
-            + JobConstants.GENIE_JOB_DIR_ENV_VAR
-            + "}"
-            + JobConstants.FILE_PATH_DELIMITER
-            + JobConstants.GENIE_PATH_VAR
-            + JobConstants.FILE_PATH_DELIMITER
-            + JobConstants.APPLICATION_PATH_VAR
-            + JobConstants.DOUBLE_QUOTE_SYMBOL
-            + LINE_SEPARATOR);
-
-        // Append new line
-        writer.write(LINE_SEPARATOR);
-    }
-
-    private void createCommandEnvironmentVariables(final Writer writer, final Command command)
-        throws GenieException, IOException {
+    private String createCommandEnvironmentVariables(final Command command) throws GenieException {
         final String commandId = command.getId().orElseThrow(() -> new GenieServerException("No command id"));
-        writer.write(JobConstants.EXPORT
-            + JobConstants.GENIE_COMMAND_DIR_ENV_VAR
-            + JobConstants.EQUALS_SYMBOL
-            + JobConstants.DOUBLE_QUOTE_SYMBOL
-            + "${"
-            + JobConstants.GENIE_JOB_DIR_ENV_VAR
-            + "}"
-            + JobConstants.FILE_PATH_DELIMITER
-            + JobConstants.GENIE_PATH_VAR
-            + JobConstants.FILE_PATH_DELIMITER
-            + JobConstants.COMMAND_PATH_VAR
-            + JobConstants.FILE_PATH_DELIMITER
-            + commandId
-            + JobConstants.DOUBLE_QUOTE_SYMBOL
-            + LINE_SEPARATOR);
-
-        // Append new line
-        writer.write(LINE_SEPARATOR);
-
-        writer.write(
-            JobConstants.EXPORT
-                + JobConstants.GENIE_COMMAND_ID_ENV_VAR
-                + JobConstants.EQUALS_SYMBOL
-                + JobConstants.DOUBLE_QUOTE_SYMBOL
-                + commandId
-                + JobConstants.DOUBLE_QUOTE_SYMBOL
-                + LINE_SEPARATOR
-        );
-
-        // Append new line
-        writer.write(System.lineSeparator());
-
-        writer.write(
-            JobConstants.EXPORT
-                + JobConstants.GENIE_COMMAND_NAME_ENV_VAR
-                + JobConstants.EQUALS_SYMBOL
-                + JobConstants.DOUBLE_QUOTE_SYMBOL
-                + command.getName()
-                + JobConstants.DOUBLE_QUOTE_SYMBOL
-                + LINE_SEPARATOR
-        );
-
-        // Append new line
-        writer.write(System.lineSeparator());
+        return new StringBuilder()
+            .append(JobConstants.EXPORT)
+            .append(JobConstants.GENIE_COMMAND_DIR_ENV_VAR)
+            .append(JobConstants.EQUALS_SYMBOL)
+            .append(JobConstants.DOUBLE_QUOTE_SYMBOL)
+            .append("${")
+            .append(JobConstants.GENIE_JOB_DIR_ENV_VAR)
+            .append("}")
+            .append(JobConstants.FILE_PATH_DELIMITER)
+            .append(JobConstants.GENIE_PATH_VAR)
+            .append(JobConstants.FILE_PATH_DELIMITER)
+            .append(JobConstants.COMMAND_PATH_VAR)
+            .append(JobConstants.FILE_PATH_DELIMITER)
+            .append(commandId)
+            .append(JobConstants.DOUBLE_QUOTE_SYMBOL)
+            .append(LINE_SEPARATOR)
+            // Append new line
+            .append(LINE_SEPARATOR)
+            .append(JobConstants.EXPORT)
+            .append(JobConstants.GENIE_COMMAND_ID_ENV_VAR)
+            .append(JobConstants.EQUALS_SYMBOL)
+            .append(JobConstants.DOUBLE_QUOTE_SYMBOL)
+            .append(commandId)
+            .append(JobConstants.DOUBLE_QUOTE_SYMBOL)
+            .append(LINE_SEPARATOR)
+            // Append new line
+            .append(LINE_SEPARATOR)
+            .append(JobConstants.EXPORT)
+            .append(JobConstants.GENIE_COMMAND_NAME_ENV_VAR)
+            .append(JobConstants.EQUALS_SYMBOL)
+            .append(JobConstants.DOUBLE_QUOTE_SYMBOL)
+            .append(command.getName())
+            .append(JobConstants.DOUBLE_QUOTE_SYMBOL)
+            .append(LINE_SEPARATOR)
+            // Append new line
+            .append(LINE_SEPARATOR)
+            .toString();
     }
 
-    private void createClusterEnvironmentVariables(final Writer writer, final Cluster cluster)
-        throws GenieException, IOException {
+    private String createClusterEnvironmentVariables(final Cluster cluster) throws GenieException {
         final String clusterId = cluster.getId().orElseThrow(() -> new GenieServerException("No cluster id"));
-
-        writer.write(JobConstants.EXPORT
-            + JobConstants.GENIE_CLUSTER_DIR_ENV_VAR
-            + JobConstants.EQUALS_SYMBOL
-            + JobConstants.DOUBLE_QUOTE_SYMBOL
-            + "${"
-            + JobConstants.GENIE_JOB_DIR_ENV_VAR
-            + "}"
-            + JobConstants.FILE_PATH_DELIMITER
-            + JobConstants.GENIE_PATH_VAR
-            + JobConstants.FILE_PATH_DELIMITER
-            + JobConstants.CLUSTER_PATH_VAR
-            + JobConstants.FILE_PATH_DELIMITER
-            + clusterId
-            + JobConstants.DOUBLE_QUOTE_SYMBOL
-            + LINE_SEPARATOR);
-
-        // Append new line
-        writer.write(System.lineSeparator());
-
-        writer.write(
-            JobConstants.EXPORT
-                + JobConstants.GENIE_CLUSTER_ID_ENV_VAR
-                + JobConstants.EQUALS_SYMBOL
-                + JobConstants.DOUBLE_QUOTE_SYMBOL
-                + clusterId
-                + JobConstants.DOUBLE_QUOTE_SYMBOL
-                + LINE_SEPARATOR
-        );
-
-        // Append new line
-        writer.write(System.lineSeparator());
-
-        writer.write(
-            JobConstants.EXPORT
-                + JobConstants.GENIE_CLUSTER_NAME_ENV_VAR
-                + JobConstants.EQUALS_SYMBOL
-                + JobConstants.DOUBLE_QUOTE_SYMBOL
-                + cluster.getName()
-                + JobConstants.DOUBLE_QUOTE_SYMBOL
-                + LINE_SEPARATOR
-        );
-
-        // Append new line
-        writer.write(System.lineSeparator());
+        return new StringBuilder()
+            .append(JobConstants.EXPORT)
+            .append(JobConstants.GENIE_CLUSTER_DIR_ENV_VAR)
+            .append(JobConstants.EQUALS_SYMBOL)
+            .append(JobConstants.DOUBLE_QUOTE_SYMBOL)
+            .append("${")
+            .append(JobConstants.GENIE_JOB_DIR_ENV_VAR)
+            .append("}")
+            .append(JobConstants.FILE_PATH_DELIMITER)
+            .append(JobConstants.GENIE_PATH_VAR)
+            .append(JobConstants.FILE_PATH_DELIMITER)
+            .append(JobConstants.CLUSTER_PATH_VAR)
+            .append(JobConstants.FILE_PATH_DELIMITER)
+            .append(clusterId)
+            .append(JobConstants.DOUBLE_QUOTE_SYMBOL)
+            .append(LINE_SEPARATOR)
+            // Append new line
+            .append(LINE_SEPARATOR)
+            .append(JobConstants.EXPORT)
+            .append(JobConstants.GENIE_CLUSTER_ID_ENV_VAR)
+            .append(JobConstants.EQUALS_SYMBOL)
+            .append(JobConstants.DOUBLE_QUOTE_SYMBOL)
+            .append(clusterId)
+            .append(JobConstants.DOUBLE_QUOTE_SYMBOL)
+            .append(LINE_SEPARATOR)
+            // Append new line
+            .append(LINE_SEPARATOR)
+            .append(JobConstants.EXPORT)
+            .append(JobConstants.GENIE_CLUSTER_NAME_ENV_VAR)
+            .append(JobConstants.EQUALS_SYMBOL)
+            .append(JobConstants.DOUBLE_QUOTE_SYMBOL)
+            .append(cluster.getName())
+            .append(JobConstants.DOUBLE_QUOTE_SYMBOL)
+            .append(LINE_SEPARATOR)
+            // Append new line
+            .append(LINE_SEPARATOR)
+            .toString();
     }
 
     private void createJobEnvironmentVariables(
-        final Writer writer,
+        final StringBuilder script,
         final String jobId,
         final String jobName,
         final int memory
-    ) throws GenieException, IOException {
-        writer.write(JobConstants.EXPORT
-            + JobConstants.GENIE_JOB_ID_ENV_VAR
-            + JobConstants.EQUALS_SYMBOL
-            + JobConstants.DOUBLE_QUOTE_SYMBOL
-            + jobId
-            + JobConstants.DOUBLE_QUOTE_SYMBOL
-            + LINE_SEPARATOR);
+    ) {
+        script.append(JobConstants.EXPORT)
+            .append(JobConstants.GENIE_JOB_ID_ENV_VAR)
+            .append(JobConstants.EQUALS_SYMBOL)
+            .append(JobConstants.DOUBLE_QUOTE_SYMBOL)
+            .append(jobId)
+            .append(JobConstants.DOUBLE_QUOTE_SYMBOL)
+            .append(LINE_SEPARATOR);
 
         // Append new line
-        writer.write(System.lineSeparator());
+        script.append(LINE_SEPARATOR);
 
         // create environment variable for the job name
-        writer.write(JobConstants.EXPORT
-            + JobConstants.GENIE_JOB_NAME_ENV_VAR
-            + JobConstants.EQUALS_SYMBOL
-            + JobConstants.DOUBLE_QUOTE_SYMBOL
-            + jobName
-            + JobConstants.DOUBLE_QUOTE_SYMBOL
-            + LINE_SEPARATOR);
+        script.append(JobConstants.EXPORT)
+            .append(JobConstants.GENIE_JOB_NAME_ENV_VAR)
+            .append(JobConstants.EQUALS_SYMBOL)
+            .append(JobConstants.DOUBLE_QUOTE_SYMBOL)
+            .append(jobName)
+            .append(JobConstants.DOUBLE_QUOTE_SYMBOL)
+            .append(LINE_SEPARATOR);
 
         // Append new line
-        writer.write(LINE_SEPARATOR);
+        script.append(LINE_SEPARATOR);
 
-        // create environment variable for the job name
-        writer.write(
-            JobConstants.EXPORT
-                + JobConstants.GENIE_JOB_MEMORY_ENV_VAR
-                + JobConstants.EQUALS_SYMBOL
-                + memory
-                + LINE_SEPARATOR
-        );
+        // create environment variable for the job memory
+        script.append(JobConstants.EXPORT)
+            .append(JobConstants.GENIE_JOB_MEMORY_ENV_VAR)
+            .append(JobConstants.EQUALS_SYMBOL)
+            .append(memory)
+            .append(LINE_SEPARATOR);
 
         // Append new line
-        writer.write(LINE_SEPARATOR);
+        script.append(LINE_SEPARATOR);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Optional<Set<Class<? extends WorkflowTask>>> getDependencies() {
+        return Optional.of(DEPENDENCIES);
     }
 }
@@ -20,6 +20,7 @@ package com.netflix.genie.core.jobs.workflow.impl;
 import com.netflix.genie.common.exceptions.GenieException;
 import com.netflix.genie.core.jobs.JobConstants;
 import com.netflix.genie.core.jobs.JobExecutionEnvironment;
+import com.netflix.genie.core.jobs.workflow.WorkflowTask;
 import com.netflix.spectator.api.Registry;
 import com.netflix.spectator.api.Timer;
 import lombok.extern.slf4j.Slf4j;
@@ -27,7 +28,10 @@ import lombok.extern.slf4j.Slf4j;
 import javax.validation.constraints.NotNull;
 import java.io.IOException;
 import java.io.Writer;
+import java.util.Collections;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -39,6 +43,9 @@ import java.util.concurrent.TimeUnit;
 @Slf4j
 public class JobFailureAndKillHandlerLogicTask extends GenieBaseTask {
 
+    // Only writes to the run script so it can start straight away
+    private static final Set<Class<? extends WorkflowTask>> DEPENDENCIES = Collections.emptySet();
+
     private final Timer timer;
 
     /**
@@ -71,4 +78,12 @@ public class JobFailureAndKillHandlerLogicTask extends GenieBaseTask {
             this.timer.record(finish - start, TimeUnit.NANOSECONDS);
         }
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Optional<Set<Class<? extends WorkflowTask>>> getDependencies() {
+        return Optional.of(DEPENDENCIES);
+    }
 }
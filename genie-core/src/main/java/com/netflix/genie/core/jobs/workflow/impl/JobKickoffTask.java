@@ -23,14 +23,14 @@ import com.netflix.genie.common.exceptions.GenieException;
 import com.netflix.genie.common.exceptions.GeniePreconditionException;
 import com.netflix.genie.common.exceptions.GenieServerException;
 import com.netflix.genie.core.jobs.JobConstants;
+import com.netflix.genie.core.jobs.JobDirectoryOwnership;
 import com.netflix.genie.core.jobs.JobExecutionEnvironment;
+import com.netflix.genie.core.jobs.UserRegistry;
+import com.netflix.genie.core.jobs.launcher.ProcessLauncher;
 import com.netflix.spectator.api.Registry;
 import com.netflix.spectator.api.Timer;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.exec.CommandLine;
-import org.apache.commons.exec.Executor;
 import org.apache.commons.io.FileUtils;
-import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.SystemUtils;
 import org.springframework.retry.backoff.ExponentialBackOffPolicy;
 import org.springframework.retry.support.RetryTemplate;
@@ -39,9 +39,11 @@ import javax.validation.constraints.NotNull;
 import java.io.File;
 import java.io.IOException;
 import java.io.Writer;
-import java.lang.reflect.Field;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Calendar;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.TimeZone;
@@ -57,10 +59,12 @@ import java.util.concurrent.TimeUnit;
 public class JobKickoffTask extends GenieBaseTask {
 
     private static final TimeZone UTC = TimeZone.getTimeZone("UTC");
+    private static final List<String> CHOWN = Collections.unmodifiableList(Arrays.asList("sudo", "chown"));
 
     private final boolean isRunAsUserEnabled;
     private final boolean isUserCreationEnabled;
-    private final Executor executor;
+    private final ProcessLauncher launcher;
+    private final UserRegistry userRegistry;
     private final String hostname;
     private final Timer timer;
     private final Registry registry;
@@ -71,20 +75,23 @@ public class JobKickoffTask extends GenieBaseTask {
      *
      * @param runAsUserEnabled    Flag that tells if job should be run as user specified in the request
      * @param userCreationEnabled Flag that tells if the user specified should be created
-     * @param executor            An executor object used to run jobs
+     * @param launcher            The launcher to start jobs and run system commands with
+     * @param userRegistry        The registry making sure the users jobs run as exist
      * @param hostname            Hostname for the node the job is running on
      * @param registry            The metrics registry to use
      */
     public JobKickoffTask(
         final boolean runAsUserEnabled,
         final boolean userCreationEnabled,
-        @NotNull final Executor executor,
+        @NotNull final ProcessLauncher launcher,
+        @NotNull final UserRegistry userRegistry,
         @NotNull final String hostname,
         @NotNull final Registry registry
     ) {
         this.isRunAsUserEnabled = runAsUserEnabled;
         this.isUserCreationEnabled = userCreationEnabled;
-        this.executor = executor;
+        this.launcher = launcher;
+        this.userRegistry = userRegistry;
         this.hostname = hostname;
         this.registry = registry;
         this.timer = registry.timer("genie.jobs.tasks.jobKickoffTask.timer");
@@ -110,6 +117,9 @@ public class JobKickoffTask extends GenieBaseTask {
                 .orElseThrow(() -> new GeniePreconditionException("No job id found. Unable to continue."));
             log.info("Starting Job Kickoff Task for job {}", jobId);
 
+            // Make sure all the files the job needs are in place before it is launched
+            super.awaitStagedFiles(context);
+
             // At this point all contents are written to the run script and we call an explicit flush and close to write
             // the contents to the file before we execute it.
             try {
@@ -120,7 +130,7 @@ public class JobKickoffTask extends GenieBaseTask {
             }
             // Create user, if enabled
             if (isUserCreationEnabled) {
-                createUser(user, jobRequest.getGroup().orElse(null));
+                this.userRegistry.provision(user, jobRequest.getGroup().orElse(null));
             }
             // Set the ownership to the user and run as the user, if enabled
             final List<String> command = new ArrayList<>();
@@ -145,21 +155,17 @@ public class JobKickoffTask extends GenieBaseTask {
                 + JobConstants.GENIE_JOB_LAUNCHER_SCRIPT;
             command.add(runScript);
 
-
-            // Cannot convert to executor because it does not provide an api to get process id.
-            final ProcessBuilder pb = new ProcessBuilder(command)
-                .directory(jobExecEnv.getJobWorkingDir())
-                .redirectOutput(new File(jobExecEnv.getJobWorkingDir() + JobConstants.GENIE_LOG_PATH))
-                .redirectError(new File(jobExecEnv.getJobWorkingDir() + JobConstants.GENIE_LOG_PATH));
-
             //
             // Check if file can be executed. This is to fix issue where execution of the run script fails because
             // the file may be used by some other program
             //
             canExecute(runScript);
             try {
-                final Process process = pb.start();
-                final int processId = this.getProcessId(process);
+                final int processId = this.launcher.launch(
+                    command,
+                    jobExecEnv.getJobWorkingDir(),
+                    new File(jobExecEnv.getJobWorkingDir() + JobConstants.GENIE_LOG_PATH)
+                );
                 final Calendar calendar = Calendar.getInstance(UTC);
                 calendar.add(Calendar.SECOND, jobRequest.getTimeout().orElse(JobRequest.DEFAULT_TIMEOUT_DURATION));
                 final JobExecution jobExecution = new JobExecution
@@ -197,110 +203,30 @@ public class JobKickoffTask extends GenieBaseTask {
     // Helper method to add write permissions to a directory for the group owner
     private void makeDirGroupWritable(final String dir) throws GenieServerException {
         log.debug("Adding write permissions for the directory " + dir + " for the group.");
-        final CommandLine commandLIne = new CommandLine("sudo").addArgument("chmod").addArgument("g+w")
-            .addArgument(dir);
-
         try {
-            this.executor.execute(commandLIne);
+            this.launcher.run(Arrays.asList("sudo", "chmod", "g+w", dir));
         } catch (IOException ioe) {
             throw new GenieServerException("Could not make the job working logs directory group writable.");
         }
     }
 
     /**
-     * Create user on the system. Synchronized to prevent multiple threads from trying to create user at the same time.
-     *
-     * @param user  user id
-     * @param group group id
-     * @throws GenieException If there is any problem.
-     */
-    protected synchronized void createUser(final String user, final String group) throws GenieException {
-
-        // First check if user already exists
-        final CommandLine idCheckCommandLine = new CommandLine("id").addArgument("-u").addArgument(user);
-
-        try {
-            this.executor.execute(idCheckCommandLine);
-            log.debug("User already exists");
-        } catch (final IOException ioe) {
-            log.debug("User does not exist. Creating it now.");
-
-            // Determine if the group is valid by checking that its not null and not same as user.
-            final boolean isGroupValid = StringUtils.isNotBlank(group) && !group.equals(user);
-
-            // Create the group for the user if its not the same as the user.
-            if (isGroupValid) {
-                log.debug("Group and User are different so creating group now.");
-                final CommandLine groupCreateCommandLine = new CommandLine("sudo").addArgument("groupadd")
-                    .addArgument(group);
-
-                // We create the group and ignore the error as it will fail if group already exists.
-                // If the failure is due to some other reason, then user creation will fail and we catch that.
-                try {
-                    log.debug("Running command to create group:  [" + groupCreateCommandLine.toString() + "]");
-                    this.executor.execute(groupCreateCommandLine);
-                } catch (IOException ioexception) {
-                    log.debug("Group creation threw an error as it might already exist");
-                }
-            }
-
-            final CommandLine userCreateCommandLine = new CommandLine("sudo").addArgument("useradd").addArgument(user);
-            if (isGroupValid) {
-                userCreateCommandLine.addArgument("-G").addArgument(group);
-            }
-            userCreateCommandLine.addArgument("-M");
-
-            try {
-                log.debug("Running command to create user: [" + userCreateCommandLine.toString() + "]");
-                this.executor.execute(userCreateCommandLine);
-            } catch (IOException ioexception) {
-                throw new GenieServerException("Could not create user " + user + " with exception " + ioexception);
-            }
-        }
-    }
-
-    /**
-     * Method to change the ownership of a directory.
+     * Method to change the ownership of a directory. Files shared with the file cache are left as they are.
      *
      * @param dir  The directory to change the ownership of.
      * @param user Userid of the user.
      * @throws GenieException If there is a problem.
+     * @see JobDirectoryOwnership
      */
     protected void changeOwnershipOfDirectory(
         final String dir,
         final String user) throws GenieException {
-
-        final CommandLine commandLine = new CommandLine("sudo").addArgument("chown").addArgument("-R")
-            .addArgument(user).addArgument(dir);
-
         try {
-            this.executor.execute(commandLine);
+            for (final List<String> command : JobDirectoryOwnership.getCommands(CHOWN, Paths.get(dir), user)) {
+                this.launcher.run(command);
+            }
         } catch (IOException ioexception) {
             throw new GenieServerException("Could not change ownership with exception " + ioexception);
         }
     }
-
-    /**
-     * Helper method  to get process id for the given process.
-     *
-     * @param proc java process object representing the job launcher
-     * @return pid for this process
-     * @throws GenieException if there is an error getting the process id
-     */
-    private int getProcessId(final Process proc) throws GenieException {
-        log.debug("called");
-
-        try {
-            final Field f = proc.getClass().getDeclaredField(JobConstants.PID);
-            f.setAccessible(true);
-            return f.getInt(proc);
-        } catch (final IllegalAccessException
-            | IllegalArgumentException
-            | NoSuchFieldException
-            | SecurityException e) {
-            final String msg = "Can't get process id for job";
-            log.error(msg, e);
-            throw new GenieServerException(msg, e);
-        }
-    }
 }
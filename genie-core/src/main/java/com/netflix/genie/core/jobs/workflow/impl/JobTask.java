@@ -21,7 +21,9 @@ import com.netflix.genie.common.exceptions.GenieException;
 import com.netflix.genie.common.exceptions.GeniePreconditionException;
 import com.netflix.genie.core.jobs.JobConstants;
 import com.netflix.genie.core.jobs.JobExecutionEnvironment;
+import com.netflix.genie.core.jobs.workflow.WorkflowTask;
 import com.netflix.genie.core.services.AttachmentService;
+import com.netflix.genie.core.services.FileMaterializationStrategy;
 import com.netflix.genie.core.services.impl.GenieFileTransferService;
 import com.netflix.spectator.api.Registry;
 import com.netflix.spectator.api.Timer;
@@ -31,8 +33,10 @@ import org.apache.commons.lang3.StringUtils;
 import javax.validation.constraints.NotNull;
 import java.io.IOException;
 import java.io.Writer;
+import java.util.Collections;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -44,6 +48,9 @@ import java.util.concurrent.TimeUnit;
 @Slf4j
 public class JobTask extends GenieBaseTask {
 
+    // The job directory structure is created before the workflow runs so nothing needs to finish first
+    private static final Set<Class<? extends WorkflowTask>> DEPENDENCIES = Collections.emptySet();
+
     private final AttachmentService attachmentService;
     private final Timer timer;
     private final GenieFileTransferService fts;
@@ -95,7 +102,7 @@ public class JobTask extends GenieBaseTask {
                             + JobConstants.FILE_PATH_DELIMITER
                             + jobSetupFile.substring(jobSetupFile.lastIndexOf(JobConstants.FILE_PATH_DELIMITER) + 1);
 
-                    fts.getFile(jobSetupFile, localPath);
+                    super.fetchFile(context, this.fts, jobSetupFile, localPath, FileMaterializationStrategy.COPY);
 
                     writer.write("# Sourcing setup file specified in job request" + System.lineSeparator());
                     writer.write(
@@ -115,7 +122,7 @@ public class JobTask extends GenieBaseTask {
                         + JobConstants.FILE_PATH_DELIMITER
                         + dependencyFile.substring(dependencyFile.lastIndexOf(JobConstants.FILE_PATH_DELIMITER) + 1);
 
-                    fts.getFile(dependencyFile, localPath);
+                    super.fetchFile(context, this.fts, dependencyFile, localPath, FileMaterializationStrategy.COPY);
                 }
             }
 
@@ -172,4 +179,12 @@ public class JobTask extends GenieBaseTask {
             this.timer.record(finish - start, TimeUnit.NANOSECONDS);
         }
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Optional<Set<Class<? extends WorkflowTask>>> getDependencies() {
+        return Optional.of(DEPENDENCIES);
+    }
 }
@@ -0,0 +1,107 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.jobs.workflow.impl;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.netflix.genie.common.dto.BaseDTO;
+import com.netflix.genie.common.exceptions.GenieException;
+import com.netflix.genie.common.exceptions.GenieServerException;
+import com.netflix.spectator.api.Counter;
+import com.netflix.spectator.api.Registry;
+import org.hibernate.validator.constraints.NotBlank;
+
+import javax.validation.constraints.NotNull;
+import java.util.Date;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Caches a part of the run script which only depends on a cluster, command or application, such as the environment
+ * variables describing it or the sourcing of its setup file. The part is rendered once per version of the entity,
+ * identified by its id and update time, and every later job using that version gets the same string back.
+ *
+ * @author agent
+ * @since 3.1.0
+ */
+class ScriptFragmentCache {
+
+    private static final String METRIC_PREFIX = "genie.jobs.tasks.scriptFragments.";
+    private static final int MAX_FRAGMENTS = 10_000;
+
+    private final Cache<String, String> fragments = CacheBuilder
+        .newBuilder()
+        .maximumSize(MAX_FRAGMENTS)
+        .build();
+    private final Counter hitRate;
+    private final Counter missRate;
+
+    /**
+     * Constructor.
+     *
+     * @param registry The metrics registry to use
+     * @param fragment The name of the fragment the cache holds, used to tag the metrics
+     */
+    ScriptFragmentCache(@NotNull final Registry registry, @NotBlank final String fragment) {
+        this.hitRate = registry.counter(registry.createId(METRIC_PREFIX + "hit.rate").withTag("fragment", fragment));
+        this.missRate = registry.counter(registry.createId(METRIC_PREFIX + "miss.rate").withTag("fragment", fragment));
+    }
+
+    /**
+     * Get the fragment of the run script for the given entity, rendering it if this version of the entity wasn't seen
+     * before. Entities without an id or update time can't be told apart from their other versions so their fragment
+     * is rendered every time.
+     *
+     * @param entity   The entity the fragment is for
+     * @param renderer Renders the fragment from the entity
+     * @return The fragment
+     * @throws GenieException If the fragment couldn't be rendered
+     */
+    String get(@NotNull final BaseDTO entity, @NotNull final Callable<String> renderer) throws GenieException {
+        final Optional<String> id = entity.getId();
+        final Optional<Date> updated = entity.getUpdated();
+        try {
+            if (!id.isPresent() || !updated.isPresent()) {
+                this.missRate.increment();
+                return renderer.call();
+            }
+
+            final String key = id.get() + ':' + updated.get().getTime();
+            final String fragment = this.fragments.getIfPresent(key);
+            if (fragment != null) {
+                this.hitRate.increment();
+                return fragment;
+            }
+            this.missRate.increment();
+            return this.fragments.get(key, renderer);
+        } catch (final ExecutionException | UncheckedExecutionException e) {
+            throw this.toGenieException(e.getCause());
+        } catch (final Exception e) {
+            throw this.toGenieException(e);
+        }
+    }
+
+    private GenieException toGenieException(final Throwable throwable) {
+        if (throwable instanceof GenieException) {
+            return (GenieException) throwable;
+        }
+        return new GenieServerException("Unable to render run script fragment", throwable);
+    }
+}
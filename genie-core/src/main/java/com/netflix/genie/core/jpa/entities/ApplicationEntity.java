@@ -82,6 +82,14 @@ public class ApplicationEntity extends SetupFileEntity {
     @Column(name = "dependency", nullable = false, length = 1024)
     private Set<String> dependencies = new HashSet<>();
 
+    @ElementCollection(fetch = FetchType.LAZY)
+    @CollectionTable(
+        name = "application_tags",
+        joinColumns = @JoinColumn(name = "application_id", referencedColumnName = "id")
+    )
+    @Column(name = "tag", nullable = false, length = 2048)
+    private Set<String> indexedTags = new HashSet<>();
+
     @ManyToMany(mappedBy = "applications", fetch = FetchType.LAZY)
     private Set<CommandEntity> commands = new HashSet<>();
 
@@ -103,6 +111,17 @@ public class ApplicationEntity extends SetupFileEntity {
         this.setTags(this.getFinalTags());
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void onTagsSet(@NotNull final Set<String> newTags) {
+        if (!this.indexedTags.equals(newTags)) {
+            this.indexedTags.clear();
+            this.indexedTags.addAll(newTags);
+        }
+    }
+
     /**
      * Get the type of this application.
      *
@@ -75,6 +75,14 @@ public class ClusterEntity extends SetupFileEntity {
     @Column(name = "config", nullable = false, length = 1024)
     private Set<String> configs = new HashSet<>();
 
+    @ElementCollection(fetch = FetchType.LAZY)
+    @CollectionTable(
+        name = "cluster_tags",
+        joinColumns = @JoinColumn(name = "cluster_id", referencedColumnName = "id")
+    )
+    @Column(name = "tag", nullable = false, length = 2048)
+    private Set<String> indexedTags = new HashSet<>();
+
     // TODO: Make lazy?
     @ManyToMany(fetch = FetchType.EAGER)
     @JoinTable(
@@ -107,6 +115,17 @@ public class ClusterEntity extends SetupFileEntity {
         this.setTags(this.getFinalTags());
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void onTagsSet(@NotNull final Set<String> newTags) {
+        if (!this.indexedTags.equals(newTags)) {
+            this.indexedTags.clear();
+            this.indexedTags.addAll(newTags);
+        }
+    }
+
     /**
      * Sets the configurations for this cluster.
      *
@@ -85,6 +85,11 @@ public class CommandEntity extends SetupFileEntity {
     @Min(1)
     private Integer memory;
 
+    @Basic
+    @Column(name = "cpu")
+    @Min(1)
+    private Integer cpu;
+
     @ElementCollection(fetch = FetchType.EAGER)
     @CollectionTable(
         name = "command_configs",
@@ -93,6 +98,14 @@ public class CommandEntity extends SetupFileEntity {
     @Column(name = "config", nullable = false, length = 1024)
     private Set<String> configs = new HashSet<>();
 
+    @ElementCollection(fetch = FetchType.LAZY)
+    @CollectionTable(
+        name = "command_tags",
+        joinColumns = @JoinColumn(name = "command_id", referencedColumnName = "id")
+    )
+    @Column(name = "tag", nullable = false, length = 2048)
+    private Set<String> indexedTags = new HashSet<>();
+
     // TODO: Make lazy?
     @ManyToMany(fetch = FetchType.EAGER)
     @JoinTable(
@@ -128,6 +141,17 @@ public class CommandEntity extends SetupFileEntity {
         this.setTags(this.getFinalTags());
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void onTagsSet(@NotNull final Set<String> newTags) {
+        if (!this.indexedTags.equals(newTags)) {
+            this.indexedTags.clear();
+            this.indexedTags.addAll(newTags);
+        }
+    }
+
     /**
      * Get the default memory for a job using this command.
      *
@@ -137,6 +161,15 @@ public class CommandEntity extends SetupFileEntity {
         return Optional.ofNullable(this.memory);
     }
 
+    /**
+     * Get the default number of cpus for a job using this command.
+     *
+     * @return Optional of Integer as it could be null
+     */
+    public Optional<Integer> getCpu() {
+        return Optional.ofNullable(this.cpu);
+    }
+
     /**
      * Sets the configurations for this command.
      *
@@ -240,7 +273,8 @@ public class CommandEntity extends SetupFileEntity {
             .withUpdated(this.getUpdated())
             .withTags(this.getTags())
             .withConfigs(this.configs)
-            .withMemory(this.memory);
+            .withMemory(this.memory)
+            .withCpu(this.cpu);
 
         this.getDescription().ifPresent(builder::withDescription);
         this.getSetupFile().ifPresent(builder::withSetupFile);
@@ -128,6 +128,16 @@ public class CommonFieldsEntity extends BaseEntity {
                 .orElse("")
                 + TAG_DELIMITER;
         }
+        this.onTagsSet(tags == null ? Sets.newHashSet() : tags);
+    }
+
+    /**
+     * Called whenever the tags of this entity are set. Entities which also store their tags in a normalized table
+     * for searching override this to keep that table in sync with the delimited tags column.
+     *
+     * @param newTags The tags which were set. Not null.
+     */
+    protected void onTagsSet(@NotNull final Set<String> newTags) {
     }
 
     /**
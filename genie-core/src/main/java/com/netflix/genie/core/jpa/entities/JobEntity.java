@@ -25,7 +25,9 @@ import org.hibernate.validator.constraints.Length;
 
 import javax.annotation.Nullable;
 import javax.persistence.Basic;
+import javax.persistence.CollectionTable;
 import javax.persistence.Column;
+import javax.persistence.ElementCollection;
 import javax.persistence.Entity;
 import javax.persistence.EnumType;
 import javax.persistence.Enumerated;
@@ -46,8 +48,10 @@ import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Size;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * Representation of the state of a Genie 3.0 job.
@@ -143,6 +147,14 @@ public class JobEntity extends CommonFieldsEntity {
     @OrderColumn(name = "application_order", nullable = false)
     private List<ApplicationEntity> applications = new ArrayList<>();
 
+    @ElementCollection(fetch = FetchType.LAZY)
+    @CollectionTable(
+        name = "job_tags",
+        joinColumns = @JoinColumn(name = "job_id", referencedColumnName = "id")
+    )
+    @Column(name = "tag", nullable = false, length = 2048)
+    private Set<String> indexedTags = new HashSet<>();
+
     /**
      * Default Constructor.
      */
@@ -151,6 +163,17 @@ public class JobEntity extends CommonFieldsEntity {
         this.setVersion(DEFAULT_VERSION);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void onTagsSet(@NotNull final Set<String> newTags) {
+        if (!this.indexedTags.equals(newTags)) {
+            this.indexedTags.clear();
+            this.indexedTags.addAll(newTags);
+        }
+    }
+
     /**
      * Gets the name of the cluster on which this job was run.
      *
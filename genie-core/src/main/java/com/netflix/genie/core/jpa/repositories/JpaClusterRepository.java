@@ -18,6 +18,9 @@ package com.netflix.genie.core.jpa.repositories;
 import com.netflix.genie.core.jpa.entities.ClusterEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.Date;
 
 /**
  * Cluster repository.
@@ -25,4 +28,21 @@ import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
  * @author tgianos
  */
 public interface JpaClusterRepository extends JpaRepository<ClusterEntity, String>, JpaSpecificationExecutor {
+    /**
+     * Get the sum of the entity versions of all clusters. Changes whenever any cluster is modified so it can be
+     * combined with the count to tell whether anything changed since it was last read.
+     *
+     * @return The sum of all the entity versions or 0 if there are no clusters
+     */
+    @Query("SELECT COALESCE(SUM(e.entityVersion), 0) FROM ClusterEntity e")
+    Long sumEntityVersions();
+
+    /**
+     * Get the latest time any cluster was created or updated. Moves forward whenever a cluster is created or updated,
+     * unlike the sum of the versions which deleting one cluster and creating another can leave unchanged.
+     *
+     * @return The latest updated time or null if there are no clusters
+     */
+    @Query("SELECT MAX(e.updated) FROM ClusterEntity e")
+    Date findMaxUpdated();
 }
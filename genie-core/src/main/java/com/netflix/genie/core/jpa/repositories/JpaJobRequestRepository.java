@@ -18,8 +18,11 @@ package com.netflix.genie.core.jpa.repositories;
 import com.netflix.genie.core.jpa.entities.JobRequestEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import javax.validation.constraints.NotNull;
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 
@@ -45,4 +48,13 @@ public interface JpaJobRequestRepository extends JpaRepository<JobRequestEntity,
      * @return no. of requests deleted
      */
     Long deleteByIdIn(@NotNull final List<String> ids);
+
+    /**
+     * Find which of the given ids already belong to a job request.
+     *
+     * @param ids The ids to check
+     * @return The ids which are already in use
+     */
+    @Query("SELECT r.id FROM JobRequestEntity r WHERE r.id IN :ids")
+    List<String> findIdsByIdIn(@Param("ids") @NotNull final Collection<String> ids);
 }
@@ -0,0 +1,460 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.jpa.services;
+
+import com.netflix.genie.common.dto.ClusterCriteria;
+import com.netflix.genie.common.dto.ClusterStatus;
+import com.netflix.genie.common.dto.CommandStatus;
+import com.netflix.genie.core.jpa.entities.ClusterEntity;
+import com.netflix.genie.core.jpa.entities.CommandEntity;
+import com.netflix.genie.core.jpa.repositories.JpaClusterRepository;
+import com.netflix.genie.core.jpa.repositories.JpaCommandRepository;
+import com.netflix.spectator.api.Counter;
+import com.netflix.spectator.api.Registry;
+import com.netflix.spectator.api.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.validation.constraints.NotNull;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * A node local, read optimized index of the cluster and command tags used to match job requests to clusters without
+ * going to the database. Each cluster and command is given a slot and every tag maps to a bit set of the slots carrying
+ * it, so matching a set of criteria is an intersection of bit sets.
+ * <p>
+ * The index is built in full from the repositories, updated incrementally after local writes to clusters and commands
+ * commit and rebuilt whenever the version stamp of the cluster and command tables shows another node changed them.
+ *
+ * @author agent
+ * @since 3.1.0
+ */
+@Slf4j
+public class JobResolutionIndex {
+
+    private static final BitSet EMPTY = new BitSet();
+
+    private final JpaClusterRepository clusterRepo;
+    private final JpaCommandRepository commandRepo;
+    private final boolean enabled;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AtomicBoolean ready = new AtomicBoolean(false);
+    private Slots clusters = new Slots();
+    private Slots commands = new Slots();
+    private List<BitSet> clusterCommands = new ArrayList<>();
+    private String versionStamp;
+
+    private final Timer rebuildTimer;
+    private final Counter incrementalUpdateCounter;
+
+    /**
+     * Constructor.
+     *
+     * @param clusterRepo The cluster repository to build the index from
+     * @param commandRepo The command repository to build the index from
+     * @param enabled     Whether the index should be used at all. If false it never becomes ready.
+     * @param registry    The metrics registry to use
+     */
+    public JobResolutionIndex(
+        @NotNull final JpaClusterRepository clusterRepo,
+        @NotNull final JpaCommandRepository commandRepo,
+        final boolean enabled,
+        @NotNull final Registry registry
+    ) {
+        this.clusterRepo = clusterRepo;
+        this.commandRepo = commandRepo;
+        this.enabled = enabled;
+
+        this.rebuildTimer = registry.timer("genie.jobs.resolution.index.rebuild.timer");
+        this.incrementalUpdateCounter = registry.counter("genie.jobs.resolution.index.incrementalUpdates.rate");
+        registry.methodValue("genie.jobs.resolution.index.clusters.gauge", this, "getNumClusters");
+        registry.methodValue("genie.jobs.resolution.index.commands.gauge", this, "getNumCommands");
+    }
+
+    /**
+     * Whether the index has been built and can be used to answer queries.
+     *
+     * @return true if the index is enabled and built
+     */
+    public boolean isReady() {
+        return this.enabled && this.ready.get();
+    }
+
+    /**
+     * Find the ids of the UP clusters matching the highest priority cluster criteria which any cluster matches and
+     * having at least one ACTIVE command matching all the command criteria.
+     *
+     * @param clusterCriterias The cluster criterias in priority order
+     * @param commandCriteria  The tags every command must have
+     * @return The ids of the matching clusters or empty if the index isn't ready to answer
+     */
+    public Optional<List<String>> findClusterIds(
+        @NotNull final List<ClusterCriteria> clusterCriterias,
+        @NotNull final Set<String> commandCriteria
+    ) {
+        if (!this.isReady()) {
+            return Optional.empty();
+        }
+        this.lock.readLock().lock();
+        try {
+            final BitSet matchingCommands = this.commands.match(commandCriteria);
+            final List<String> clusterIds = new ArrayList<>();
+            if (matchingCommands.isEmpty()) {
+                return Optional.of(clusterIds);
+            }
+            for (final ClusterCriteria clusterCriteria : clusterCriterias) {
+                final BitSet matchingClusters = this.clusters.match(clusterCriteria.getTags());
+                matchingClusters
+                    .stream()
+                    .filter(slot -> this.clusterCommands.get(slot).intersects(matchingCommands))
+                    .forEach(slot -> clusterIds.add(this.clusters.ids.get(slot)));
+                if (!clusterIds.isEmpty()) {
+                    break;
+                }
+            }
+            return Optional.of(clusterIds);
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Rebuild the index if the cluster or command tables have changed since it was last built.
+     */
+    public void refreshIfStale() {
+        if (!this.enabled) {
+            return;
+        }
+        final String currentStamp = this.getCurrentVersionStamp();
+        if (!this.ready.get() || !currentStamp.equals(this.versionStamp)) {
+            log.info("Resolution index version stamp changed to {}. Rebuilding.", currentStamp);
+            this.rebuild(currentStamp);
+        }
+    }
+
+    /**
+     * Rebuild the entire index from the repositories.
+     */
+    public void rebuild() {
+        if (this.enabled) {
+            this.rebuild(this.getCurrentVersionStamp());
+        }
+    }
+
+    /**
+     * Called when a cluster has been created or modified. Applied once the current transaction, if any, commits.
+     *
+     * @param id The id of the cluster
+     */
+    public void clusterChanged(@NotNull final String id) {
+        this.afterCommit(() -> {
+            final ClusterEntity clusterEntity = this.clusterRepo.findOne(id);
+            this.lock.writeLock().lock();
+            try {
+                if (clusterEntity == null) {
+                    this.removeCluster(id);
+                } else {
+                    this.putCluster(clusterEntity);
+                }
+            } finally {
+                this.lock.writeLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * Called when a cluster has been deleted. Applied once the current transaction, if any, commits.
+     *
+     * @param id The id of the cluster
+     */
+    public void clusterDeleted(@NotNull final String id) {
+        this.afterCommit(() -> {
+            this.lock.writeLock().lock();
+            try {
+                this.removeCluster(id);
+            } finally {
+                this.lock.writeLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * Called when a command has been created or modified. Applied once the current transaction, if any, commits.
+     *
+     * @param id The id of the command
+     */
+    public void commandChanged(@NotNull final String id) {
+        this.afterCommit(() -> {
+            final CommandEntity commandEntity = this.commandRepo.findOne(id);
+            this.lock.writeLock().lock();
+            try {
+                if (commandEntity == null) {
+                    this.commands.remove(id);
+                } else {
+                    this.putCommand(commandEntity);
+                }
+            } finally {
+                this.lock.writeLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * Called when a command has been deleted. Applied once the current transaction, if any, commits.
+     *
+     * @param id The id of the command
+     */
+    public void commandDeleted(@NotNull final String id) {
+        this.afterCommit(() -> {
+            this.lock.writeLock().lock();
+            try {
+                this.commands.remove(id);
+            } finally {
+                this.lock.writeLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * Get the number of clusters currently in the index.
+     *
+     * @return The number of clusters
+     */
+    public int getNumClusters() {
+        this.lock.readLock().lock();
+        try {
+            return this.clusters.slots.size();
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Get the number of commands currently in the index.
+     *
+     * @return The number of commands
+     */
+    public int getNumCommands() {
+        this.lock.readLock().lock();
+        try {
+            return this.commands.slots.size();
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    private void rebuild(final String stamp) {
+        final long start = System.nanoTime();
+        try {
+            final Slots newClusters = new Slots();
+            final Slots newCommands = new Slots();
+            final List<BitSet> newClusterCommands = new ArrayList<>();
+            for (final CommandEntity commandEntity : this.commandRepo.findAll()) {
+                newCommands.put(commandEntity.getId(), commandEntity.getTags(), this.isActive(commandEntity));
+            }
+            for (final ClusterEntity clusterEntity : this.clusterRepo.findAll()) {
+                final int slot = newClusters.put(
+                    clusterEntity.getId(),
+                    clusterEntity.getTags(),
+                    clusterEntity.getStatus() == ClusterStatus.UP
+                );
+                final BitSet commandSlots = new BitSet();
+                for (final CommandEntity commandEntity : clusterEntity.getCommands()) {
+                    final Integer commandSlot = newCommands.slots.get(commandEntity.getId());
+                    if (commandSlot != null) {
+                        commandSlots.set(commandSlot);
+                    }
+                }
+                setSlot(newClusterCommands, slot, commandSlots);
+            }
+
+            this.lock.writeLock().lock();
+            try {
+                this.clusters = newClusters;
+                this.commands = newCommands;
+                this.clusterCommands = newClusterCommands;
+                this.versionStamp = stamp;
+                this.ready.set(true);
+            } finally {
+                this.lock.writeLock().unlock();
+            }
+            log.info(
+                "Built resolution index with {} clusters and {} commands",
+                newClusters.slots.size(),
+                newCommands.slots.size()
+            );
+        } finally {
+            this.rebuildTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private String getCurrentVersionStamp() {
+        // The latest updated time moves forward with any creation or update so a deletion offset by a creation can't
+        // leave the stamp unchanged. The versions still catch updates stamped by a node whose clock is behind.
+        return this.clusterRepo.count()
+            + ":" + getTime(this.clusterRepo.findMaxUpdated())
+            + ":" + this.clusterRepo.sumEntityVersions()
+            + ":" + this.commandRepo.count()
+            + ":" + getTime(this.commandRepo.findMaxUpdated())
+            + ":" + this.commandRepo.sumEntityVersions();
+    }
+
+    private static long getTime(final Date date) {
+        return date == null ? 0L : date.getTime();
+    }
+
+    private void afterCommit(final Runnable update) {
+        if (!this.isReady()) {
+            return;
+        }
+        final Runnable counted = () -> {
+            try {
+                update.run();
+                this.incrementalUpdateCounter.increment();
+            } catch (final RuntimeException e) {
+                // The next refresh will pick up the change from the version stamp
+                log.error("Unable to incrementally update resolution index", e);
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronizationAdapter() {
+                    @Override
+                    public void afterCommit() {
+                        counted.run();
+                    }
+                }
+            );
+        } else {
+            counted.run();
+        }
+    }
+
+    private void putCluster(final ClusterEntity clusterEntity) {
+        final BitSet commandSlots = new BitSet();
+        for (final CommandEntity commandEntity : clusterEntity.getCommands()) {
+            commandSlots.set(this.putCommand(commandEntity));
+        }
+        final int slot = this.clusters.put(
+            clusterEntity.getId(),
+            clusterEntity.getTags(),
+            clusterEntity.getStatus() == ClusterStatus.UP
+        );
+        setSlot(this.clusterCommands, slot, commandSlots);
+    }
+
+    private int putCommand(final CommandEntity commandEntity) {
+        return this.commands.put(commandEntity.getId(), commandEntity.getTags(), this.isActive(commandEntity));
+    }
+
+    private void removeCluster(final String id) {
+        final Integer slot = this.clusters.remove(id);
+        if (slot != null) {
+            this.clusterCommands.get(slot).clear();
+        }
+    }
+
+    private boolean isActive(final CommandEntity commandEntity) {
+        return commandEntity.getStatus() == CommandStatus.ACTIVE;
+    }
+
+    private static void setSlot(final List<BitSet> list, final int slot, final BitSet value) {
+        while (list.size() <= slot) {
+            list.add(new BitSet());
+        }
+        list.set(slot, value);
+    }
+
+    /**
+     * The slot assignments and inverted tag index for one type of entity. Not thread safe.
+     */
+    private static final class Slots {
+        private final Map<String, Integer> slots = new HashMap<>();
+        private final List<String> ids = new ArrayList<>();
+        private final List<Set<String>> tags = new ArrayList<>();
+        private final Map<String, BitSet> tagIndex = new HashMap<>();
+        private final BitSet usable = new BitSet();
+
+        private int put(final String id, final Set<String> entityTags, final boolean isUsable) {
+            Integer slot = this.slots.get(id);
+            if (slot == null) {
+                slot = this.ids.size();
+                this.slots.put(id, slot);
+                this.ids.add(id);
+                this.tags.add(new HashSet<>());
+            } else {
+                this.clearTags(slot);
+            }
+            for (final String tag : entityTags) {
+                this.tagIndex.computeIfAbsent(tag, key -> new BitSet()).set(slot);
+            }
+            this.tags.set(slot, new HashSet<>(entityTags));
+            this.usable.set(slot, isUsable);
+            return slot;
+        }
+
+        private Integer remove(final String id) {
+            final Integer slot = this.slots.remove(id);
+            if (slot != null) {
+                this.clearTags(slot);
+                this.usable.clear(slot);
+            }
+            return slot;
+        }
+
+        private void clearTags(final int slot) {
+            for (final String tag : this.tags.get(slot)) {
+                final BitSet tagged = this.tagIndex.get(tag);
+                if (tagged != null) {
+                    tagged.clear(slot);
+                    if (tagged.isEmpty()) {
+                        this.tagIndex.remove(tag);
+                    }
+                }
+            }
+            this.tags.get(slot).clear();
+        }
+
+        private BitSet match(final Set<String> requiredTags) {
+            final BitSet result = (BitSet) this.usable.clone();
+            if (requiredTags != null) {
+                for (final String tag : requiredTags) {
+                    result.and(this.tagIndex.getOrDefault(tag, EMPTY));
+                    if (result.isEmpty()) {
+                        break;
+                    }
+                }
+            }
+            return result;
+        }
+    }
+}
@@ -32,6 +32,7 @@ import com.netflix.genie.common.exceptions.GenieException;
 import com.netflix.genie.common.exceptions.GenieNotFoundException;
 import com.netflix.genie.common.exceptions.GeniePreconditionException;
 import com.netflix.genie.common.exceptions.GenieServerException;
+import com.netflix.genie.core.events.ResourceUpdatedEvent;
 import com.netflix.genie.core.jpa.entities.ApplicationEntity;
 import com.netflix.genie.core.jpa.entities.CommandEntity;
 import com.netflix.genie.core.jpa.repositories.JpaApplicationRepository;
@@ -42,6 +43,7 @@ import com.netflix.genie.core.services.ApplicationService;
 import lombok.extern.slf4j.Slf4j;
 import org.hibernate.validator.constraints.NotBlank;
 import org.hibernate.validator.constraints.NotEmpty;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.transaction.annotation.Transactional;
@@ -75,19 +77,23 @@ public class JpaApplicationServiceImpl implements ApplicationService {
     private final ObjectMapper mapper = new ObjectMapper();
     private final JpaApplicationRepository applicationRepo;
     private final JpaCommandRepository commandRepo;
+    private final ApplicationEventPublisher publisher;
 
     /**
      * Default constructor.
      *
      * @param applicationRepo The application repository to use
      * @param commandRepo     The command repository to use
+     * @param publisher       The publisher to notify of active applications being created or updated
      */
     public JpaApplicationServiceImpl(
         final JpaApplicationRepository applicationRepo,
-        final JpaCommandRepository commandRepo
+        final JpaCommandRepository commandRepo,
+        final ApplicationEventPublisher publisher
     ) {
         this.applicationRepo = applicationRepo;
         this.commandRepo = commandRepo;
+        this.publisher = publisher;
     }
 
     /**
@@ -463,6 +469,12 @@ public class JpaApplicationServiceImpl implements ApplicationService {
         entity.setType(type.isPresent() ? type.get() : null);
 
         this.applicationRepo.save(entity);
+        if (dto.getStatus() == ApplicationStatus.ACTIVE) {
+            final Set<String> files = Sets.newHashSet(dto.getConfigs());
+            files.addAll(dto.getDependencies());
+            setupFile.ifPresent(files::add);
+            this.publisher.publishEvent(new ResourceUpdatedEvent(entity.getId(), files, this));
+        }
     }
 
     private void checkCommands(
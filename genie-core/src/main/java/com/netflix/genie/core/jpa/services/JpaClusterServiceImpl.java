@@ -34,6 +34,7 @@ import com.netflix.genie.common.exceptions.GenieException;
 import com.netflix.genie.common.exceptions.GenieNotFoundException;
 import com.netflix.genie.common.exceptions.GeniePreconditionException;
 import com.netflix.genie.common.exceptions.GenieServerException;
+import com.netflix.genie.core.events.ResourceUpdatedEvent;
 import com.netflix.genie.core.jpa.entities.ClusterEntity;
 import com.netflix.genie.core.jpa.entities.CommandEntity;
 import com.netflix.genie.core.jpa.repositories.JpaClusterRepository;
@@ -43,6 +44,7 @@ import com.netflix.genie.core.services.ClusterService;
 import lombok.extern.slf4j.Slf4j;
 import org.hibernate.validator.constraints.NotBlank;
 import org.hibernate.validator.constraints.NotEmpty;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.transaction.annotation.Transactional;
@@ -77,19 +79,27 @@ public class JpaClusterServiceImpl implements ClusterService {
     private final ObjectMapper mapper = new ObjectMapper();
     private final JpaClusterRepository clusterRepo;
     private final JpaCommandRepository commandRepo;
+    private final JobResolutionIndex resolutionIndex;
+    private final ApplicationEventPublisher publisher;
 
     /**
      * Default constructor - initialize all required dependencies.
      *
-     * @param clusterRepo The cluster repository to use.
-     * @param commandRepo The command repository to use.
+     * @param clusterRepo     The cluster repository to use.
+     * @param commandRepo     The command repository to use.
+     * @param resolutionIndex The resolution index to notify of changes to clusters.
+     * @param publisher       The publisher to notify of up clusters being created or updated.
      */
     public JpaClusterServiceImpl(
         final JpaClusterRepository clusterRepo,
-        final JpaCommandRepository commandRepo
+        final JpaCommandRepository commandRepo,
+        final JobResolutionIndex resolutionIndex,
+        final ApplicationEventPublisher publisher
     ) {
         this.clusterRepo = clusterRepo;
         this.commandRepo = commandRepo;
+        this.resolutionIndex = resolutionIndex;
+        this.publisher = publisher;
     }
 
     /**
@@ -110,6 +120,7 @@ public class JpaClusterServiceImpl implements ClusterService {
         final ClusterEntity clusterEntity = new ClusterEntity();
         clusterEntity.setId(cluster.getId().orElse(UUID.randomUUID().toString()));
         this.updateAndSaveClusterEntity(clusterEntity, cluster);
+        this.resolutionIndex.clusterChanged(clusterEntity.getId());
         return clusterEntity.getId();
     }
 
@@ -206,6 +217,7 @@ public class JpaClusterServiceImpl implements ClusterService {
 
         //TODO: Move update of common fields to super classes
         this.updateAndSaveClusterEntity(this.clusterRepo.findOne(id), updateCluster);
+        this.resolutionIndex.clusterChanged(id);
     }
 
     /**
@@ -222,6 +234,7 @@ public class JpaClusterServiceImpl implements ClusterService {
             final Cluster patchedCluster = this.mapper.treeToValue(postPatchNode, Cluster.class);
             log.debug("Finished patching cluster {}. New state: {}", id, patchedCluster);
             this.updateAndSaveClusterEntity(clusterEntity, patchedCluster);
+            this.resolutionIndex.clusterChanged(id);
         } catch (final JsonPatchException | IOException e) {
             log.error("Unable to patch cluster {} with patch {} due to exception.", id, patch, e);
             throw new GenieServerException(e.getLocalizedMessage(), e);
@@ -260,6 +273,7 @@ public class JpaClusterServiceImpl implements ClusterService {
             }
         }
         this.clusterRepo.delete(clusterEntity);
+        this.resolutionIndex.clusterDeleted(id);
     }
 
     /**
@@ -328,6 +342,7 @@ public class JpaClusterServiceImpl implements ClusterService {
         final Set<String> clusterTags = cluster.getTags();
         clusterTags.addAll(tags);
         cluster.setTags(clusterTags);
+        this.resolutionIndex.clusterChanged(id);
     }
 
     /**
@@ -353,6 +368,7 @@ public class JpaClusterServiceImpl implements ClusterService {
         final Set<String> tags
     ) throws GenieException {
         this.findCluster(id).setTags(tags);
+        this.resolutionIndex.clusterChanged(id);
     }
 
     /**
@@ -364,6 +380,7 @@ public class JpaClusterServiceImpl implements ClusterService {
         final String id
     ) throws GenieException {
         this.findCluster(id).setTags(Sets.newHashSet());
+        this.resolutionIndex.clusterChanged(id);
     }
 
     /**
@@ -380,6 +397,7 @@ public class JpaClusterServiceImpl implements ClusterService {
         final Set<String> tags = cluster.getTags();
         tags.remove(tag);
         cluster.setTags(tags);
+        this.resolutionIndex.clusterChanged(id);
     }
 
     /**
@@ -400,6 +418,7 @@ public class JpaClusterServiceImpl implements ClusterService {
         for (final String commandId : commandIds) {
             clusterEntity.addCommand(this.commandRepo.findOne(commandId));
         }
+        this.resolutionIndex.clusterChanged(id);
     }
 
     /**
@@ -442,6 +461,7 @@ public class JpaClusterServiceImpl implements ClusterService {
         commandIds.forEach(commandId -> commandEntities.add(this.commandRepo.findOne(commandId)));
 
         clusterEntity.setCommands(commandEntities);
+        this.resolutionIndex.clusterChanged(id);
     }
 
     /**
@@ -453,6 +473,7 @@ public class JpaClusterServiceImpl implements ClusterService {
         final String id
     ) throws GenieException {
         this.findCluster(id).removeAllCommands();
+        this.resolutionIndex.clusterChanged(id);
     }
 
     /**
@@ -469,6 +490,7 @@ public class JpaClusterServiceImpl implements ClusterService {
         final CommandEntity commandEntity = this.commandRepo.findOne(cmdId);
         if (commandEntity != null) {
             clusterEntity.removeCommand(commandEntity);
+            this.resolutionIndex.clusterChanged(id);
         } else {
             throw new GenieNotFoundException("No command with id " + cmdId + " exists.");
         }
@@ -503,5 +525,10 @@ public class JpaClusterServiceImpl implements ClusterService {
         clusterEntity.setSetupFile(setupFile.isPresent() ? setupFile.get() : null);
 
         this.clusterRepo.save(clusterEntity);
+        if (updateCluster.getStatus() == ClusterStatus.UP) {
+            final Set<String> files = Sets.newHashSet(updateCluster.getConfigs());
+            setupFile.ifPresent(files::add);
+            this.publisher.publishEvent(new ResourceUpdatedEvent(clusterEntity.getId(), files, this));
+        }
     }
 }
@@ -34,6 +34,7 @@ import com.netflix.genie.common.exceptions.GenieException;
 import com.netflix.genie.common.exceptions.GenieNotFoundException;
 import com.netflix.genie.common.exceptions.GeniePreconditionException;
 import com.netflix.genie.common.exceptions.GenieServerException;
+import com.netflix.genie.core.events.ResourceUpdatedEvent;
 import com.netflix.genie.core.jpa.entities.ApplicationEntity;
 import com.netflix.genie.core.jpa.entities.ClusterEntity;
 import com.netflix.genie.core.jpa.entities.CommandEntity;
@@ -46,6 +47,7 @@ import com.netflix.genie.core.services.CommandService;
 import lombok.extern.slf4j.Slf4j;
 import org.hibernate.validator.constraints.NotBlank;
 import org.hibernate.validator.constraints.NotEmpty;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.transaction.annotation.Transactional;
@@ -81,22 +83,30 @@ public class JpaCommandServiceImpl implements CommandService {
     private final JpaCommandRepository commandRepo;
     private final JpaApplicationRepository appRepo;
     private final JpaClusterRepository clusterRepo;
+    private final JobResolutionIndex resolutionIndex;
+    private final ApplicationEventPublisher publisher;
 
     /**
      * Default constructor.
      *
-     * @param commandRepo the command repository to use
-     * @param appRepo     the application repository to use
-     * @param clusterRepo the cluster repository to use
+     * @param commandRepo     the command repository to use
+     * @param appRepo         the application repository to use
+     * @param clusterRepo     the cluster repository to use
+     * @param resolutionIndex the resolution index to notify of changes to commands
+     * @param publisher       the publisher to notify of active commands being created or updated
      */
     public JpaCommandServiceImpl(
         final JpaCommandRepository commandRepo,
         final JpaApplicationRepository appRepo,
-        final JpaClusterRepository clusterRepo
+        final JpaClusterRepository clusterRepo,
+        final JobResolutionIndex resolutionIndex,
+        final ApplicationEventPublisher publisher
     ) {
         this.commandRepo = commandRepo;
         this.appRepo = appRepo;
         this.clusterRepo = clusterRepo;
+        this.resolutionIndex = resolutionIndex;
+        this.publisher = publisher;
     }
 
     /**
@@ -117,6 +127,7 @@ public class JpaCommandServiceImpl implements CommandService {
         final CommandEntity commandEntity = new CommandEntity();
         commandEntity.setId(command.getId().orElse(UUID.randomUUID().toString()));
         this.updateAndSaveCommandEntity(commandEntity, command);
+        this.resolutionIndex.commandChanged(commandEntity.getId());
         return commandEntity.getId();
     }
 
@@ -183,6 +194,7 @@ public class JpaCommandServiceImpl implements CommandService {
         log.debug("Called to update command with id {} {}", id, updateCommand);
 
         this.updateAndSaveCommandEntity(this.findCommand(id), updateCommand);
+        this.resolutionIndex.commandChanged(id);
     }
 
     /**
@@ -199,6 +211,7 @@ public class JpaCommandServiceImpl implements CommandService {
             final Command patchedCommand = this.mapper.treeToValue(postPatchNode, Command.class);
             log.debug("Finished patching command {}. New state: {}", id, patchedCommand);
             this.updateAndSaveCommandEntity(commandEntity, patchedCommand);
+            this.resolutionIndex.commandChanged(id);
         } catch (final JsonPatchException | IOException e) {
             log.error("Unable to patch cluster {} with patch {} due to exception.", id, patch, e);
             throw new GenieServerException(e.getLocalizedMessage(), e);
@@ -240,6 +253,7 @@ public class JpaCommandServiceImpl implements CommandService {
             clusterEntities.forEach(clusterEntity -> clusterEntity.removeCommand(commandEntity));
         }
         this.commandRepo.delete(commandEntity);
+        this.resolutionIndex.commandDeleted(id);
     }
 
     /**
@@ -318,6 +332,7 @@ public class JpaCommandServiceImpl implements CommandService {
         final Set<String> commandTags = command.getTags();
         commandTags.addAll(tags);
         command.setTags(commandTags);
+        this.resolutionIndex.commandChanged(id);
     }
 
     /**
@@ -343,6 +358,7 @@ public class JpaCommandServiceImpl implements CommandService {
         final Set<String> tags
     ) throws GenieException {
         this.findCommand(id).setTags(tags);
+        this.resolutionIndex.commandChanged(id);
     }
 
     /**
@@ -354,6 +370,7 @@ public class JpaCommandServiceImpl implements CommandService {
         final String id
     ) throws GenieException {
         this.findCommand(id).setTags(Sets.newHashSet());
+        this.resolutionIndex.commandChanged(id);
     }
 
     /**
@@ -370,6 +387,7 @@ public class JpaCommandServiceImpl implements CommandService {
         final Set<String> commandTags = command.getTags();
         commandTags.remove(tag);
         command.setTags(commandTags);
+        this.resolutionIndex.commandChanged(id);
     }
 
     /**
@@ -518,7 +536,14 @@ public class JpaCommandServiceImpl implements CommandService {
         commandEntity.setTags(command.getTags());
         final Optional<Integer> memory = command.getMemory();
         commandEntity.setMemory(memory.isPresent() ? memory.get() : null);
+        final Optional<Integer> cpu = command.getCpu();
+        commandEntity.setCpu(cpu.isPresent() ? cpu.get() : null);
 
         this.commandRepo.save(commandEntity);
+        if (command.getStatus() == CommandStatus.ACTIVE) {
+            final Set<String> files = Sets.newHashSet(command.getConfigs());
+            setupFile.ifPresent(files::add);
+            this.publisher.publishEvent(new ResourceUpdatedEvent(commandEntity.getId(), files, this));
+        }
     }
 }
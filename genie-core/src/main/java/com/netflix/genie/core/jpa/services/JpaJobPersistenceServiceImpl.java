@@ -27,6 +27,7 @@ import com.netflix.genie.common.exceptions.GenieConflictException;
 import com.netflix.genie.common.exceptions.GenieException;
 import com.netflix.genie.common.exceptions.GenieNotFoundException;
 import com.netflix.genie.common.exceptions.GeniePreconditionException;
+import com.netflix.genie.core.jobs.JobSubmission;
 import com.netflix.genie.core.jpa.entities.ApplicationEntity;
 import com.netflix.genie.core.jpa.entities.BaseEntity;
 import com.netflix.genie.core.jpa.entities.ClusterEntity;
@@ -51,8 +52,11 @@ import javax.annotation.Nullable;
 import javax.validation.ConstraintViolationException;
 import javax.validation.constraints.Min;
 import javax.validation.constraints.NotNull;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -144,6 +148,59 @@ public class JpaJobPersistenceServiceImpl implements JobPersistenceService {
         this.jobExecutionRepo.save(jobExecutionEntity);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Set<String> createJobs(@NotNull final List<JobSubmission> jobSubmissions) throws GenieException {
+        log.debug("Called to create {} jobs", jobSubmissions.size());
+
+        final List<String> ids = new ArrayList<>(jobSubmissions.size());
+        for (final JobSubmission jobSubmission : jobSubmissions) {
+            ids.add(
+                jobSubmission
+                    .getJobRequest()
+                    .getId()
+                    .orElseThrow(() -> new GeniePreconditionException("No job id entered"))
+            );
+        }
+        final Set<String> existingIds = ids.isEmpty()
+            ? new HashSet<>()
+            : new HashSet<>(this.jobRequestRepo.findIdsByIdIn(ids));
+
+        final List<JobRequestEntity> jobRequestEntities = new ArrayList<>();
+        final List<JobEntity> jobEntities = new ArrayList<>();
+        final List<JobMetadataEntity> metadataEntities = new ArrayList<>();
+        final List<JobExecutionEntity> jobExecutionEntities = new ArrayList<>();
+        for (int i = 0; i < jobSubmissions.size(); i++) {
+            final String jobId = ids.get(i);
+            if (existingIds.contains(jobId)) {
+                continue;
+            }
+            final JobSubmission jobSubmission = jobSubmissions.get(i);
+            final JobRequestEntity jobRequestEntity = this.jobRequestDtoToEntity(jobId, jobSubmission.getJobRequest());
+            final JobEntity jobEntity = this.jobDtoToEntity(jobSubmission.getJob());
+            jobEntity.setRequest(jobRequestEntity);
+            final JobMetadataEntity metadataEntity = this.jobMetadataDtoToEntity(jobSubmission.getJobMetadata());
+            metadataEntity.setRequest(jobRequestEntity);
+            final JobExecutionEntity jobExecutionEntity = this.jobExecutionDtoToEntity(jobSubmission.getJobExecution());
+            jobExecutionEntity.setJob(jobEntity);
+
+            jobRequestEntities.add(jobRequestEntity);
+            jobEntities.add(jobEntity);
+            metadataEntities.add(metadataEntity);
+            jobExecutionEntities.add(jobExecutionEntity);
+        }
+
+        // Save each type of entity together so the inserts can be sent to the database in JDBC batches
+        this.jobRequestRepo.save(jobRequestEntities);
+        this.jobRepo.save(jobEntities);
+        this.jobMetadataRepository.save(metadataEntities);
+        this.jobExecutionRepo.save(jobExecutionEntities);
+
+        return existingIds;
+    }
+
     /**
      * {@inheritDoc}
      */
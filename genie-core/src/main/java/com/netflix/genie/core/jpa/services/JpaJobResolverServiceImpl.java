@@ -0,0 +1,236 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.jpa.services;
+
+import com.netflix.genie.common.dto.Application;
+import com.netflix.genie.common.dto.Cluster;
+import com.netflix.genie.common.dto.ClusterCriteria;
+import com.netflix.genie.common.dto.ClusterStatus;
+import com.netflix.genie.common.dto.CommandStatus;
+import com.netflix.genie.common.dto.JobRequest;
+import com.netflix.genie.common.exceptions.GenieException;
+import com.netflix.genie.common.exceptions.GenieNotFoundException;
+import com.netflix.genie.common.exceptions.GeniePreconditionException;
+import com.netflix.genie.common.exceptions.GenieServerException;
+import com.netflix.genie.core.jobs.JobResolution;
+import com.netflix.genie.core.jpa.entities.ApplicationEntity;
+import com.netflix.genie.core.jpa.entities.ClusterEntity;
+import com.netflix.genie.core.jpa.entities.CommandEntity;
+import com.netflix.genie.core.jpa.repositories.JpaApplicationRepository;
+import com.netflix.genie.core.jpa.repositories.JpaClusterRepository;
+import com.netflix.genie.core.jpa.specifications.JpaClusterSpecs;
+import com.netflix.genie.core.services.ClusterLoadBalancer;
+import com.netflix.genie.core.services.JobResolverService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotNull;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * JPA implementation of the JobResolverService. All candidate clusters for the job request are fetched with a single
+ * query, with their commands and the commands' applications loaded eagerly, and ranked in memory. At most one more
+ * query is made within the same transaction when the request names its own applications.
+ * <p>
+ * When the {@link JobResolutionIndex} is ready the candidate clusters are found in memory and fetched by primary key
+ * instead of with the tag LIKE query. As the index may briefly lag other nodes the candidates are re-checked and the
+ * LIKE query is used if none of them still match.
+ *
+ * @author agent
+ * @since 3.1.0
+ */
+@Slf4j
+@Transactional(readOnly = true)
+public class JpaJobResolverServiceImpl implements JobResolverService {
+
+    private final JpaClusterRepository clusterRepo;
+    private final JpaApplicationRepository applicationRepo;
+    private final ClusterLoadBalancer clusterLoadBalancer;
+    private final JobResolutionIndex resolutionIndex;
+
+    /**
+     * Constructor.
+     *
+     * @param clusterRepo         The cluster repository to use
+     * @param applicationRepo     The application repository to use
+     * @param clusterLoadBalancer The load balancer used to pick between equally ranked clusters
+     * @param resolutionIndex     The in memory index used to find candidate clusters when it is ready
+     */
+    public JpaJobResolverServiceImpl(
+        final JpaClusterRepository clusterRepo,
+        final JpaApplicationRepository applicationRepo,
+        final ClusterLoadBalancer clusterLoadBalancer,
+        final JobResolutionIndex resolutionIndex
+    ) {
+        this.clusterRepo = clusterRepo;
+        this.applicationRepo = applicationRepo;
+        this.clusterLoadBalancer = clusterLoadBalancer;
+        this.resolutionIndex = resolutionIndex;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public JobResolution resolveJob(
+        @NotNull(message = "No job request provided. Unable to resolve.")
+        @Valid final JobRequest jobRequest
+    ) throws GenieException {
+        final String jobId = jobRequest.getId().orElseThrow(() -> new GenieServerException("No job id"));
+        log.info("Resolving cluster, command and applications for job {}", jobId);
+
+        final ClusterEntity clusterEntity = this.selectCluster(jobRequest);
+        log.info("Selected cluster {} for job {}", clusterEntity.getId(), jobId);
+
+        final CommandEntity commandEntity = this.selectCommand(jobRequest, clusterEntity);
+        log.info("Selected command {} for job {}", commandEntity.getId(), jobId);
+
+        final List<Application> applications = this.selectApplications(jobRequest, commandEntity);
+        log.info(
+            "Selected applications {} for job {}",
+            applications
+                .stream()
+                .map(application -> application.getId().orElse(null))
+                .collect(Collectors.joining(",")),
+            jobId
+        );
+
+        return new JobResolution(clusterEntity.getDTO(), commandEntity.getDTO(), applications);
+    }
+
+    private ClusterEntity selectCluster(final JobRequest jobRequest) throws GenieException {
+        final List<ClusterCriteria> clusterCriterias = jobRequest.getClusterCriterias();
+        final Set<String> commandCriteria = jobRequest.getCommandCriteria();
+
+        List<ClusterEntity> candidates = new ArrayList<>();
+        if (clusterCriterias != null && !clusterCriterias.isEmpty()) {
+            final Optional<List<String>> indexedClusterIds
+                = this.resolutionIndex.findClusterIds(clusterCriterias, commandCriteria);
+            if (indexedClusterIds.isPresent() && !indexedClusterIds.get().isEmpty()) {
+                candidates = this.rankClusters(
+                    clusterCriterias,
+                    commandCriteria,
+                    this.clusterRepo.findAll(indexedClusterIds.get())
+                );
+            }
+            if (candidates.isEmpty()) {
+                @SuppressWarnings("unchecked")
+                final List<ClusterEntity> clusterEntities = this.clusterRepo.findAll(
+                    JpaClusterSpecs.findByAnyClusterCriteriaAndCommandCriteria(clusterCriterias, commandCriteria)
+                );
+                candidates = this.rankClusters(clusterCriterias, commandCriteria, clusterEntities);
+            }
+        }
+
+        final Map<String, ClusterEntity> candidatesById = candidates
+            .stream()
+            .collect(Collectors.toMap(ClusterEntity::getId, Function.identity()));
+        final Cluster cluster = this.clusterLoadBalancer.selectCluster(
+            candidates.stream().map(ClusterEntity::getDTO).collect(Collectors.toList())
+        );
+        final String clusterId = cluster.getId().orElseThrow(() -> new GenieServerException("No cluster id."));
+        final ClusterEntity clusterEntity = candidatesById.get(clusterId);
+        if (clusterEntity == null) {
+            throw new GenieServerException("Load balancer selected unknown cluster " + clusterId);
+        }
+        return clusterEntity;
+    }
+
+    private List<ClusterEntity> rankClusters(
+        final List<ClusterCriteria> clusterCriterias,
+        final Set<String> commandCriteria,
+        final List<ClusterEntity> clusterEntities
+    ) {
+        // The criteria are in priority order so the first one matched by any cluster wins
+        for (final ClusterCriteria clusterCriteria : clusterCriterias) {
+            final List<ClusterEntity> matches = clusterEntities
+                .stream()
+                .filter(clusterEntity -> clusterEntity.getStatus() == ClusterStatus.UP)
+                .filter(clusterEntity -> clusterEntity.getTags().containsAll(clusterCriteria.getTags()))
+                .filter(clusterEntity -> this.findCommand(clusterEntity, commandCriteria).isPresent())
+                .collect(Collectors.toList());
+            if (!matches.isEmpty()) {
+                return matches;
+            }
+        }
+        return new ArrayList<>();
+    }
+
+    private CommandEntity selectCommand(
+        final JobRequest jobRequest,
+        final ClusterEntity clusterEntity
+    ) throws GenieException {
+        final Set<String> commandCriteria = jobRequest.getCommandCriteria();
+        return this.findCommand(clusterEntity, commandCriteria)
+            .orElseThrow(
+                () -> new GeniePreconditionException(
+                    "No command found matching all command criteria ["
+                        + commandCriteria
+                        + "] attached to cluster with id: "
+                        + clusterEntity.getId()
+                )
+            );
+    }
+
+    private Optional<CommandEntity> findCommand(
+        final ClusterEntity clusterEntity,
+        final Set<String> commandCriteria
+    ) {
+        return clusterEntity
+            .getCommands()
+            .stream()
+            .filter(commandEntity -> commandEntity.getStatus() == CommandStatus.ACTIVE)
+            .filter(commandEntity -> commandEntity.getTags().containsAll(commandCriteria))
+            .findFirst();
+    }
+
+    private List<Application> selectApplications(
+        final JobRequest jobRequest,
+        final CommandEntity commandEntity
+    ) throws GenieException {
+        final List<String> applicationIds = jobRequest.getApplications();
+        if (applicationIds.isEmpty()) {
+            return commandEntity
+                .getApplications()
+                .stream()
+                .map(ApplicationEntity::getDTO)
+                .collect(Collectors.toList());
+        }
+
+        final Map<String, ApplicationEntity> applicationEntities = this.applicationRepo
+            .findAll(applicationIds)
+            .stream()
+            .collect(Collectors.toMap(ApplicationEntity::getId, Function.identity()));
+        final List<Application> applications = new ArrayList<>();
+        for (final String applicationId : applicationIds) {
+            final ApplicationEntity applicationEntity = applicationEntities.get(applicationId);
+            if (applicationEntity == null) {
+                throw new GenieNotFoundException("No application with id " + applicationId + " exists.");
+            }
+            applications.add(applicationEntity.getDTO());
+        }
+        return applications;
+    }
+}
@@ -17,6 +17,8 @@
  */
 package com.netflix.genie.core.jpa.services;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.Lists;
 import com.netflix.genie.common.dto.Application;
 import com.netflix.genie.common.dto.Cluster;
@@ -64,6 +66,7 @@ import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 /**
@@ -75,12 +78,23 @@ import java.util.stream.Collectors;
 @Transactional(readOnly = true)
 public class JpaJobSearchServiceImpl implements JobSearchService {
 
+    private static final int MAX_KNOWN_JOB_IDS = 10_000;
+    private static final long KNOWN_JOB_ID_TTL_MINUTES = 60L;
+
     private final JpaJobRepository jobRepository;
     private final JpaJobRequestRepository jobRequestRepository;
     private final JpaJobExecutionRepository jobExecutionRepository;
     private final JpaClusterRepository clusterRepository;
     private final JpaCommandRepository commandRepository;
 
+    // Ids of jobs this node has seen exist. Clients retrying a submission usually retry the same id many times so
+    // remembering the ids keeps the retries off the database. Entries expire as old jobs can be purged.
+    private final Cache<String, Boolean> knownJobIds = CacheBuilder
+        .newBuilder()
+        .maximumSize(MAX_KNOWN_JOB_IDS)
+        .expireAfterWrite(KNOWN_JOB_ID_TTL_MINUTES, TimeUnit.MINUTES)
+        .build();
+
     @PersistenceContext
     private EntityManager entityManager;
 
@@ -249,6 +263,24 @@ public class JpaJobSearchServiceImpl implements JobSearchService {
         }
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean jobExists(@NotBlank final String id) {
+        log.debug("Called with id {}", id);
+        if (this.knownJobIds.getIfPresent(id) != null) {
+            return true;
+        }
+        // Only ids which exist are remembered. Ids are never reused so a positive answer can't go stale while a
+        // negative one would as soon as the job is saved.
+        if (this.jobRequestRepository.exists(id)) {
+            this.knownJobIds.put(id, Boolean.TRUE);
+            return true;
+        }
+        return false;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -78,12 +78,7 @@ public final class JpaApplicationSpecs {
                 predicates.add(cb.or(orPredicates.toArray(new Predicate[orPredicates.size()])));
             }
             if (tags != null && !tags.isEmpty()) {
-                predicates.add(
-                    cb.like(
-                        root.get(ApplicationEntity_.tags),
-                        JpaSpecificationUtils.getTagLikeString(tags)
-                    )
-                );
+                predicates.add(JpaSpecificationUtils.getTagsPredicate(root, cb, ApplicationEntity_.indexedTags, tags));
             }
             if (StringUtils.isNotBlank(type)) {
                 predicates.add(cb.equal(root.get(ApplicationEntity_.type), type));
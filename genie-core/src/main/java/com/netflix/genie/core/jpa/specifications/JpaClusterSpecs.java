@@ -79,12 +79,7 @@ public final class JpaClusterSpecs {
                 predicates.add(cb.lessThan(root.get(ClusterEntity_.updated), maxUpdateTime));
             }
             if (tags != null && !tags.isEmpty()) {
-                predicates.add(
-                    cb.like(
-                        root.get(ClusterEntity_.tags),
-                        JpaSpecificationUtils.getTagLikeString(tags)
-                    )
-                );
+                predicates.add(JpaSpecificationUtils.getTagsPredicate(root, cb, ClusterEntity_.indexedTags, tags));
             }
             if (statuses != null && !statuses.isEmpty()) {
                 //Could optimize this as we know size could use native array
@@ -121,9 +116,11 @@ public final class JpaClusterSpecs {
 
             if (clusterCriteria != null && clusterCriteria.getTags() != null && !clusterCriteria.getTags().isEmpty()) {
                 predicates.add(
-                    cb.like(
-                        root.get(ClusterEntity_.tags),
-                        JpaSpecificationUtils.getTagLikeString(clusterCriteria.getTags())
+                    JpaSpecificationUtils.getTagsPredicate(
+                        root,
+                        cb,
+                        ClusterEntity_.indexedTags,
+                        clusterCriteria.getTags()
                     )
                 );
             }
@@ -132,10 +129,59 @@ public final class JpaClusterSpecs {
 
             if (commandCriteria != null && !commandCriteria.isEmpty()) {
                 predicates.add(
-                    cb.like(
-                        commands.get(CommandEntity_.tags),
-                        JpaSpecificationUtils.getTagLikeString(commandCriteria)
+                    JpaSpecificationUtils.getTagsPredicate(commands, cb, CommandEntity_.indexedTags, commandCriteria)
+                );
+            }
+
+            return cb.and(predicates.toArray(new Predicate[predicates.size()]));
+        };
+    }
+
+    /**
+     * Get all the clusters matching any of the given cluster criteria and having an active command matching the
+     * command criteria. Used to fetch every candidate for a job request in a single query; the caller is expected to
+     * rank the results by the priority order of the cluster criteria.
+     *
+     * @param clusterCriterias The cluster criterias. Any one must match.
+     * @param commandCriteria  The command criteria
+     * @return The specification
+     */
+    public static Specification<ClusterEntity> findByAnyClusterCriteriaAndCommandCriteria(
+        final List<ClusterCriteria> clusterCriterias,
+        final Set<String> commandCriteria
+    ) {
+        return (final Root<ClusterEntity> root, final CriteriaQuery<?> cq, final CriteriaBuilder cb) -> {
+            final List<Predicate> predicates = new ArrayList<>();
+            final Join<ClusterEntity, CommandEntity> commands = root.join(ClusterEntity_.commands);
+
+            cq.distinct(true);
+
+            predicates.add(cb.equal(root.get(ClusterEntity_.status), ClusterStatus.UP));
+
+            if (clusterCriterias != null
+                && clusterCriterias
+                .stream()
+                .noneMatch(criteria -> criteria == null || criteria.getTags() == null || criteria.getTags().isEmpty())
+                ) {
+                final List<Predicate> orPredicates = clusterCriterias
+                    .stream()
+                    .map(
+                        criteria -> JpaSpecificationUtils.getTagsPredicate(
+                            root,
+                            cb,
+                            ClusterEntity_.indexedTags,
+                            criteria.getTags()
+                        )
                     )
+                    .collect(Collectors.toList());
+                predicates.add(cb.or(orPredicates.toArray(new Predicate[orPredicates.size()])));
+            }
+
+            predicates.add(cb.equal(commands.get(CommandEntity_.status), CommandStatus.ACTIVE));
+
+            if (commandCriteria != null && !commandCriteria.isEmpty()) {
+                predicates.add(
+                    JpaSpecificationUtils.getTagsPredicate(commands, cb, CommandEntity_.indexedTags, commandCriteria)
                 );
             }
 
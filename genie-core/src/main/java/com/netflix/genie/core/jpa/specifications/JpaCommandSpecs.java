@@ -79,12 +79,7 @@ public final class JpaCommandSpecs {
                 predicates.add(cb.or(orPredicates.toArray(new Predicate[orPredicates.size()])));
             }
             if (tags != null && !tags.isEmpty()) {
-                predicates.add(
-                    cb.like(
-                        root.get(CommandEntity_.tags),
-                        JpaSpecificationUtils.getTagLikeString(tags)
-                    )
-                );
+                predicates.add(JpaSpecificationUtils.getTagsPredicate(root, cb, CommandEntity_.indexedTags, tags));
             }
             return cb.and(predicates.toArray(new Predicate[predicates.size()]));
         };
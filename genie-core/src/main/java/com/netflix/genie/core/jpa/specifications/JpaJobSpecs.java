@@ -101,7 +101,7 @@ public final class JpaJobSpecs {
             predicates.add(cb.or(orPredicates.toArray(new Predicate[orPredicates.size()])));
         }
         if (tags != null && !tags.isEmpty()) {
-            predicates.add(cb.like(root.get(JobEntity_.tags), JpaSpecificationUtils.getTagLikeString(tags)));
+            predicates.add(JpaSpecificationUtils.getTagsPredicate(root, cb, JobEntity_.indexedTags, tags));
         }
         if (cluster != null) {
             predicates.add(cb.equal(root.get(JobEntity_.cluster), cluster));
@@ -20,8 +20,16 @@ package com.netflix.genie.core.jpa.specifications;
 import com.netflix.genie.core.jpa.entities.CommonFieldsEntity;
 import org.apache.commons.lang3.StringUtils;
 
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.From;
+import javax.persistence.criteria.JoinType;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.SetJoin;
+import javax.persistence.metamodel.SetAttribute;
 import javax.validation.constraints.NotNull;
+import java.util.List;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * Utility methods for the specification classes.
@@ -56,4 +64,39 @@ public final class JpaSpecificationUtils {
                 );
         return builder.append(PERCENT).toString();
     }
+
+    /**
+     * Get a predicate which only matches entities having all the given tags in their normalized tag table.
+     * <p>
+     * Each tag gets its own join against the tag table constrained on the tag value so every join is an index
+     * lookup on (entity id, tag) rather than a pattern match over the delimited tags column. The joins are left joins
+     * so the returned predicate can also be used inside a disjunction.
+     *
+     * @param from          The root or join of the entity whose tags should be matched
+     * @param cb            The criteria builder to use
+     * @param tagsAttribute The normalized tags attribute of the entity
+     * @param tags          The tags the entity must have. Blank tags are ignored. Not null.
+     * @param <E>           The type of the entity
+     * @return The conjunction of a predicate per tag
+     */
+    public static <E> Predicate getTagsPredicate(
+        @NotNull final From<?, E> from,
+        @NotNull final CriteriaBuilder cb,
+        @NotNull final SetAttribute<? super E, String> tagsAttribute,
+        @NotNull final Set<String> tags
+    ) {
+        final List<Predicate> predicates = tags
+            .stream()
+            .filter(StringUtils::isNotBlank)
+            .distinct()
+            .map(
+                tag -> {
+                    final SetJoin<E, String> tagJoin = from.join(tagsAttribute, JoinType.LEFT);
+                    tagJoin.on(cb.equal(tagJoin, tag));
+                    return cb.isNotNull(tagJoin);
+                }
+            )
+            .collect(Collectors.toList());
+        return cb.and(predicates.toArray(new Predicate[predicates.size()]));
+    }
 }
@@ -0,0 +1,53 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.properties;
+
+import com.netflix.genie.core.services.FileMaterializationStrategy;
+import lombok.Getter;
+import lombok.Setter;
+
+import javax.validation.constraints.NotNull;
+
+/**
+ * Properties controlling how the files of each kind of entity are placed into job directories from the local file
+ * cache.
+ *
+ * @author agent
+ * @since 3.1.0
+ */
+@Getter
+@Setter
+public class FileCacheMaterializationProperties {
+    /**
+     * How the setup, configuration and dependency files of applications are placed in the job directory.
+     */
+    @NotNull
+    private FileMaterializationStrategy applications = FileMaterializationStrategy.COPY;
+
+    /**
+     * How the setup and configuration files of clusters are placed in the job directory.
+     */
+    @NotNull
+    private FileMaterializationStrategy clusters = FileMaterializationStrategy.COPY;
+
+    /**
+     * How the setup and configuration files of commands are placed in the job directory.
+     */
+    @NotNull
+    private FileMaterializationStrategy commands = FileMaterializationStrategy.COPY;
+}
@@ -0,0 +1,64 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.properties;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import javax.validation.constraints.DecimalMax;
+import javax.validation.constraints.DecimalMin;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Properties controlling how often files in the local file cache are revalidated against their remote location.
+ *
+ * @author agent
+ * @since 3.1.0
+ */
+@Getter
+@Setter
+public class FileCacheRevalidationProperties {
+    /**
+     * How long in milliseconds a cached file is used without checking the remote location for a newer version.
+     * Defaults to 0 which revalidates on every use.
+     */
+    @Min(0)
+    private long ttl;
+
+    /**
+     * Overrides of the ttl keyed by the URI scheme of the remote location e.g. s3.
+     */
+    @NotNull
+    private Map<String, Long> schemeTtls = new HashMap<>();
+
+    /**
+     * Whether a file which is used after the refresh ahead threshold of its ttl has passed is revalidated in the
+     * background so that jobs don't wait on the revalidation once the ttl expires.
+     */
+    private boolean refreshAheadEnabled;
+
+    /**
+     * The fraction of the ttl after which a file is revalidated in the background if refresh ahead is enabled.
+     */
+    @DecimalMin("0.0")
+    @DecimalMax("1.0")
+    private double refreshAheadThreshold = 0.75;
+}
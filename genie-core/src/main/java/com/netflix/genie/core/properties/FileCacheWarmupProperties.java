@@ -0,0 +1,57 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.properties;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import javax.validation.constraints.Min;
+
+/**
+ * Properties controlling how the files of applications, commands and clusters are fetched into the local file cache
+ * before the first job needs them.
+ *
+ * @author agent
+ * @since 3.1.0
+ */
+@Getter
+@Setter
+public class FileCacheWarmupProperties {
+    /**
+     * Whether files are fetched into the cache when active resources are created or updated through this node.
+     */
+    private boolean enabled;
+
+    /**
+     * Whether the files of all the active resources are fetched into the cache when the node starts.
+     */
+    private boolean scanOnStartup = true;
+
+    /**
+     * How many files are fetched at once.
+     */
+    @Min(1)
+    private int concurrency = 2;
+
+    /**
+     * The average number of bytes per second fetching files may download so warm up doesn't compete with running
+     * jobs for bandwidth. 0 means unlimited.
+     */
+    @Min(0)
+    private long maxBytesPerSecond;
+}
@@ -0,0 +1,72 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.properties;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Pattern;
+
+/**
+ * Properties controlling how files are transferred to and from HTTP[S] locations.
+ *
+ * @author agent
+ * @since 3.1.0
+ */
+@Getter
+@Setter
+public class HttpFileTransferProperties {
+    /**
+     * The number of milliseconds to wait for a connection to be established.
+     */
+    @Min(0)
+    private int connectTimeout = 2000;
+
+    /**
+     * The number of milliseconds to wait for data on an established connection.
+     */
+    @Min(0)
+    private int readTimeout = 60000;
+
+    /**
+     * The maximum number of pooled connections across all hosts. Should allow for every job staging thread.
+     */
+    @Min(1)
+    private int maxConnections = 64;
+
+    /**
+     * The maximum number of pooled connections to a single host.
+     */
+    @Min(1)
+    private int maxConnectionsPerRoute = 16;
+
+    /**
+     * How many times a download which broke off is resumed from the last byte received.
+     */
+    @Min(0)
+    private int maxResumes = 3;
+
+    /**
+     * The HTTP method files are uploaded with.
+     */
+    @NotNull
+    @Pattern(regexp = "PUT|POST")
+    private String uploadMethod = "PUT";
+}
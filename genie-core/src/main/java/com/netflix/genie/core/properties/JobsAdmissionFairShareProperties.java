@@ -0,0 +1,46 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.properties;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Properties related to admitting queued jobs by weighted fair share between the users, or groups, of a Genie node.
+ *
+ * @author agent
+ * @since 3.1.0
+ */
+@Getter
+@Setter
+public class JobsAdmissionFairShareProperties {
+    private boolean enabled;
+
+    private boolean shareByGroup;
+
+    @NotNull
+    private Map<String, Integer> weights = new HashMap<>();
+
+    @Min(value = 0, message = "The maximum share memory can't be negative")
+    private int maxShareMemory;
+}
@@ -0,0 +1,50 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.properties;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+
+/**
+ * Properties related to how jobs are admitted to run on a Genie node once they're resolved.
+ * <p>
+ * By default a job which needs more memory than is currently free on the node is rejected as unavailable. When the
+ * queue is enabled the job instead stays in the INIT state in a bounded queue on the node and is scheduled, in the
+ * order it was queued, once running jobs finish and free enough memory. A job still queued after the wait timeout
+ * fails. Which queued job is admitted next is decided by the configured admission policy.
+ *
+ * @author agent
+ * @since 3.1.0
+ */
+@Getter
+@Setter
+public class JobsAdmissionProperties {
+    private boolean queueEnabled;
+
+    @Min(value = 1, message = "The admission queue needs to be able to hold at least one job")
+    private int queueCapacity = 100;
+
+    @Min(value = 1, message = "The wait timeout has to be at least one millisecond")
+    private long waitTimeout = 600_000L;
+
+    @NotNull
+    private JobsAdmissionFairShareProperties fairShare = new JobsAdmissionFairShareProperties();
+}
@@ -0,0 +1,46 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.properties;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import javax.validation.constraints.Min;
+
+/**
+ * Properties pertaining to how many cpus jobs can reserve on a Genie node.
+ *
+ * @author agent
+ * @since 3.1.0
+ */
+@Getter
+@Setter
+public class JobsCpuProperties {
+
+    /**
+     * Defaults to 0 which means cpus are tracked but never limit how many jobs run on the node.
+     */
+    @Min(value = 0, message = "The maximum system cpus can't be negative")
+    private int maxSystemCpu;
+
+    /**
+     * Defaults to 1 cpu.
+     */
+    @Min(value = 1, message = "A job must reserve at least 1 cpu")
+    private int defaultJobCpu = 1;
+}
@@ -0,0 +1,59 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.properties;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.hibernate.validator.constraints.NotBlank;
+
+import javax.validation.constraints.Min;
+
+/**
+ * Properties pertaining to how the processes of a job are launched.
+ *
+ * @author agent
+ * @since 3.1.0
+ */
+@Getter
+@Setter
+public class JobsLauncherProperties {
+
+    /**
+     * Defaults to forking every process directly from the Genie JVM.
+     */
+    private boolean daemonEnabled;
+
+    /**
+     * Keep the launcher daemon small as it only forks processes on behalf of Genie.
+     */
+    @NotBlank(message = "Java options for the launcher daemon are required")
+    private String daemonJavaOptions = "-Xmx32m -XX:+UseSerialGC";
+
+    /**
+     * Defaults to waiting one minute for the daemon to start a process.
+     */
+    @Min(value = 1, message = "The request timeout must be at least one millisecond")
+    private long requestTimeout = 60000L;
+
+    /**
+     * Defaults to waiting for system commands run by the daemon, like changing the ownership of a large job
+     * directory, for as long as they take.
+     */
+    @Min(value = 0, message = "The run timeout can't be negative")
+    private long runTimeout;
+}
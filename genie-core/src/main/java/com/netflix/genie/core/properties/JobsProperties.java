@@ -31,12 +31,21 @@ import javax.validation.constraints.NotNull;
 @Getter
 @Setter
 public class JobsProperties {
+    @NotNull
+    private JobsAdmissionProperties admission = new JobsAdmissionProperties();
+
     @NotNull
     private JobsCleanupProperties cleanup = new JobsCleanupProperties();
 
+    @NotNull
+    private JobsCpuProperties cpu = new JobsCpuProperties();
+
     @NotNull
     private JobsForwardingProperties forwarding = new JobsForwardingProperties();
 
+    @NotNull
+    private JobsLauncherProperties launcher = new JobsLauncherProperties();
+
     @NotNull
     private JobsLocationsProperties locations = new JobsLocationsProperties();
 
@@ -46,6 +55,18 @@ public class JobsProperties {
     @NotNull
     private JobsMemoryProperties memory = new JobsMemoryProperties();
 
+    @NotNull
+    private JobsStagingProperties staging = new JobsStagingProperties();
+
+    @NotNull
+    private JobsSubmissionProperties submission = new JobsSubmissionProperties();
+
     @NotNull
     private JobsUsersProperties users = new JobsUsersProperties();
+
+    @NotNull
+    private JobsWorkflowProperties workflow = new JobsWorkflowProperties();
+
+    @NotNull
+    private JobsWorkspaceProperties workspace = new JobsWorkspaceProperties();
 }
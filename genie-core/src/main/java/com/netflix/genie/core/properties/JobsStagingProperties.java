@@ -0,0 +1,46 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.properties;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import javax.validation.constraints.Min;
+
+/**
+ * Properties pertaining to how the setup files, configs and dependencies of jobs are fetched before they run.
+ *
+ * @author agent
+ * @since 3.1.0
+ */
+@Getter
+@Setter
+public class JobsStagingProperties {
+
+    /**
+     * Defaults to 16 threads shared by all the jobs on the node.
+     */
+    @Min(value = 1, message = "The staging pool needs at least one thread")
+    private int poolSize = 16;
+
+    /**
+     * Defaults to 4 files fetched at the same time for a single job.
+     */
+    @Min(value = 1, message = "A job has to be able to fetch at least one file at a time")
+    private int maxConcurrentFetchesPerJob = 4;
+}
@@ -0,0 +1,54 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.properties;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import javax.validation.constraints.Min;
+
+/**
+ * Properties related to how job submissions are accepted by a Genie node.
+ * <p>
+ * When asynchronous submission is enabled a job request is only persisted in the INIT state before it is accepted.
+ * Resolution of the cluster and command, saving the runtime environment and scheduling then happen on a bounded pool
+ * of threads. Once as many jobs as the queue capacity are waiting or in flight new submissions are rejected as
+ * unavailable and clients are told when to retry.
+ * <p>
+ * The maximum batch size bounds how many job requests a client can submit in a single batch request.
+ *
+ * @author agent
+ * @since 3.1.0
+ */
+@Getter
+@Setter
+public class JobsSubmissionProperties {
+    private boolean asyncEnabled;
+
+    @Min(value = 1, message = "The submission pool needs at least one thread")
+    private int poolSize = 4;
+
+    @Min(value = 1, message = "The submission queue needs to be able to hold at least one job")
+    private int queueCapacity = 100;
+
+    @Min(value = 1, message = "A batch has to be allowed to hold at least one job")
+    private int maxBatchSize = 100;
+
+    @Min(value = 1, message = "Retry after has to be at least one second")
+    private int retryAfter = 30;
+}
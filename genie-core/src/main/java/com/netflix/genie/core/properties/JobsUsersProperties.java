@@ -20,6 +20,8 @@ package com.netflix.genie.core.properties;
 import lombok.Getter;
 import lombok.Setter;
 
+import javax.validation.constraints.Min;
+
 /**
  * Properties related to users running jobs.
  *
@@ -31,4 +33,16 @@ import lombok.Setter;
 public class JobsUsersProperties {
     private boolean creationEnabled;
     private boolean runAsUserEnabled;
+
+    /**
+     * Defaults to remembering users and groups which exist for ten minutes.
+     */
+    @Min(value = 1, message = "The cache ttl must be at least one millisecond")
+    private long cacheTtl = 600000L;
+
+    /**
+     * Defaults to remembering users which couldn't be created for thirty seconds.
+     */
+    @Min(value = 1, message = "The failure cache ttl must be at least one millisecond")
+    private long failureCacheTtl = 30000L;
 }
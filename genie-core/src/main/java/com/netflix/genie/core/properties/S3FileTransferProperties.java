@@ -0,0 +1,59 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.properties;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import javax.validation.constraints.Min;
+
+/**
+ * Properties controlling how files are transferred to and from S3. Files at least as large as the multipart threshold
+ * are split into parts which are transferred in parallel and retried individually.
+ *
+ * @author agent
+ * @since 3.1.0
+ */
+@Getter
+@Setter
+public class S3FileTransferProperties {
+    /**
+     * The size in bytes from which files are transferred in parts.
+     */
+    @Min(1)
+    private long multipartThreshold = 134217728L;
+
+    /**
+     * The size in bytes of each part. S3 requires every part but the last to be at least 5 MiB. The part size is
+     * increased for files which would otherwise need more than the 10000 parts S3 allows.
+     */
+    @Min(5242880)
+    private long partSize = 67108864L;
+
+    /**
+     * The number of threads shared by all transfers to transfer parts on.
+     */
+    @Min(1)
+    private int poolSize = 8;
+
+    /**
+     * How many times a failed part is retried before the whole transfer fails.
+     */
+    @Min(0)
+    private int maxPartRetries = 3;
+}
@@ -0,0 +1,45 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.services;
+
+/**
+ * How a file held in a local cache is placed into a job directory.
+ *
+ * @author agent
+ * @since 3.1.0
+ */
+public enum FileMaterializationStrategy {
+    /**
+     * Copy the file. Always works but writes the full file for every job.
+     */
+    COPY,
+
+    /**
+     * Hard link the file. Writes nothing but the job file shares the inode, and so the owner and permissions, of the
+     * cached file, which means it's read-only. Falls back to a copy when the job directory is on a different file
+     * system than the cache. The link keeps the cached content on disk until the job directory is cleaned up even if
+     * it's evicted meanwhile.
+     */
+    HARD_LINK,
+
+    /**
+     * Symbolically link to the file. Writes nothing and works across file systems but the file is read-only and the
+     * link is left dangling if the file is evicted from the cache while the job still needs it.
+     */
+    SYMBOLIC_LINK
+}
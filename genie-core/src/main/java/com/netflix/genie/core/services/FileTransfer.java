@@ -19,6 +19,8 @@ package com.netflix.genie.core.services;
 
 import com.netflix.genie.common.exceptions.GenieException;
 
+import java.util.Optional;
+
 /**
  * API to handle file transfer for genie jobs. There will be an implementation for different files systems
  * including local.
@@ -64,4 +66,31 @@ public interface FileTransfer {
      * @throws GenieException exception in case of IO error
      */
     long getLastModifiedTime(String path) throws GenieException;
+
+    /**
+     * Gets a file from a remote location only if it differs from the version already held locally. Implementations
+     * which can make the request conditional (e.g. on an ETag) should override this so that revalidating an unchanged
+     * file and fetching a changed one each take a single remote call. By default the last modified time is used as
+     * the version.
+     *
+     * @param srcRemotePath Source path of the file to copy
+     * @param dstLocalPath  Destination path of the file to copy to
+     * @param version       The version of the file held locally as returned by a previous call or null to always
+     *                      get the file
+     * @return The version of the file copied to the destination or empty if the given version is still current and
+     * nothing was copied
+     * @throws GenieException exception in case of an error
+     */
+    default Optional<String> getFileIfChanged(
+        final String srcRemotePath,
+        final String dstLocalPath,
+        final String version
+    ) throws GenieException {
+        final String currentVersion = String.valueOf(this.getLastModifiedTime(srcRemotePath));
+        if (currentVersion.equals(version)) {
+            return Optional.empty();
+        }
+        this.getFile(srcRemotePath, dstLocalPath);
+        return Optional.of(currentVersion);
+    }
 }
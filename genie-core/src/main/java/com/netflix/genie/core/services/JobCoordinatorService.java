@@ -19,12 +19,15 @@ package com.netflix.genie.core.services;
 
 import com.netflix.genie.common.dto.JobMetadata;
 import com.netflix.genie.common.dto.JobRequest;
+import com.netflix.genie.common.dto.JobSubmissionResult;
 import com.netflix.genie.common.exceptions.GenieException;
 import org.hibernate.validator.constraints.NotBlank;
+import org.hibernate.validator.constraints.NotEmpty;
 import org.springframework.validation.annotation.Validated;
 
 import javax.validation.Valid;
 import javax.validation.constraints.NotNull;
+import java.util.List;
 
 /**
  * Job Coordination APIs.
@@ -50,6 +53,23 @@ public interface JobCoordinatorService {
         @Valid final JobMetadata jobMetadata
     ) throws GenieException;
 
+    /**
+     * Takes in a batch of job requests and does the necessary preparation for execution of each. The initial
+     * information of all the jobs is saved together. A job which can't be accepted doesn't stop the rest of the batch,
+     * instead its result carries the HTTP status it would have received had it been submitted on its own.
+     *
+     * @param jobRequests The job requests to submit. Each must have an id.
+     * @param jobMetadata Metadata about the http request which submitted the batch. Shared by all the jobs.
+     * @return The result for each job in the same order as the job requests
+     * @throws GenieException if there is an error which affects the whole batch
+     */
+    List<JobSubmissionResult> coordinateJobs(
+        @NotEmpty(message = "No job requests provided. Unable to submit jobs for execution.")
+        @Valid final List<JobRequest> jobRequests,
+        @NotNull(message = "No job metadata provided. Unable to submit jobs for execution.")
+        @Valid final JobMetadata jobMetadata
+    ) throws GenieException;
+
     /**
      * Kill the job identified by the given id.
      *
@@ -23,14 +23,17 @@ import com.netflix.genie.common.dto.JobMetadata;
 import com.netflix.genie.common.dto.JobRequest;
 import com.netflix.genie.common.dto.JobStatus;
 import com.netflix.genie.common.exceptions.GenieException;
+import com.netflix.genie.core.jobs.JobSubmission;
 import org.hibernate.validator.constraints.NotBlank;
 import org.springframework.validation.annotation.Validated;
 
 import javax.annotation.Nullable;
+import javax.validation.Valid;
 import javax.validation.constraints.Min;
 import javax.validation.constraints.NotNull;
 import java.util.Date;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Interfaces for providing persistence functions for jobs other than search.
@@ -57,6 +60,16 @@ public interface JobPersistenceService {
         @NotNull final JobExecution jobExecution
     ) throws GenieException;
 
+    /**
+     * Save all the initial job fields for many jobs at once. The jobs are saved together so the data store can group
+     * the writes. Jobs whose ids already exist are skipped rather than failing the whole batch.
+     *
+     * @param jobSubmissions The jobs to save. Each job request must have an id and the ids must be unique. Not null.
+     * @return The ids of the jobs which were skipped because a job with that id already exists
+     * @throws GenieException if there is an error
+     */
+    Set<String> createJobs(@NotNull @Valid final List<JobSubmission> jobSubmissions) throws GenieException;
+
     /**
      * Update the job with the various resources used to run the job including the cluster, command and applications.
      *
@@ -0,0 +1,49 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.services;
+
+import com.netflix.genie.common.dto.JobRequest;
+import com.netflix.genie.common.exceptions.GenieException;
+import com.netflix.genie.core.jobs.JobResolution;
+import org.springframework.validation.annotation.Validated;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotNull;
+
+/**
+ * APIs for resolving the cluster, command and applications a job request should run with.
+ * Implementations should do this in as few trips to the backing store as possible as it sits on the submission path.
+ *
+ * @author agent
+ * @since 3.1.0
+ */
+@Validated
+public interface JobResolverService {
+
+    /**
+     * Resolve the cluster, command and applications to use for the given job request.
+     *
+     * @param jobRequest The job request to resolve. Must have an id.
+     * @return The resolved cluster, command and applications
+     * @throws GenieException If no cluster or command matches the criteria or a requested application doesn't exist
+     */
+    JobResolution resolveJob(
+        @NotNull(message = "No job request provided. Unable to resolve.")
+        @Valid final JobRequest jobRequest
+    ) throws GenieException;
+}
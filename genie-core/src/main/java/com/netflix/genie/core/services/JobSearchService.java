@@ -105,6 +105,15 @@ public interface JobSearchService {
      */
     Job getJob(@NotBlank(message = "No id entered. Unable to get job.") final String id) throws GenieException;
 
+    /**
+     * Check whether a job with the given id has already been submitted. Meant as a cheap check before doing any work
+     * for a submission which supplied its own id so retried submissions can be rejected straight away.
+     *
+     * @param id The id of the job to check for
+     * @return true if a job with the id exists
+     */
+    boolean jobExists(@NotBlank final String id);
+
     /**
      * Get the status of the job with the given id.
      *
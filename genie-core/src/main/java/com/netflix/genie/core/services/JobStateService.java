@@ -38,6 +38,56 @@ public interface JobStateService extends JobMetricsService {
      */
     void init(final String jobId);
 
+    /**
+     * Try to reserve memory and cpus on this node for an initialized job. Either both are reserved or neither is.
+     * Reserved resources are counted as used until the job is done.
+     *
+     * @param jobId           job id
+     * @param memory          the memory, in megabytes, the job needs
+     * @param maxSystemMemory the total memory, in megabytes, jobs on this node are allowed to use
+     * @param cpu             the number of cpus the job needs
+     * @param maxSystemCpu    the total number of cpus jobs on this node are allowed to use. 0 or less is no limit.
+     * @return true if the resources were reserved, false if the job isn't known or there isn't enough memory or cpus
+     * available
+     */
+    boolean reserveResources(final String jobId, final int memory, final int maxSystemMemory, final int cpu,
+                             final int maxSystemCpu);
+
+    /**
+     * Try to admit a new initialized job straight away by reserving memory and cpus on this node for it. Jobs already
+     * waiting in the admission queue go first so while any job is queued no new job is admitted directly, even if it
+     * would fit, and it should be queued behind them instead. The admission policy is asked as well so a job of a
+     * share at its limits is queued too.
+     *
+     * @param jobId           job id
+     * @param jobRequest      job request
+     * @param memory          the memory, in megabytes, the job needs
+     * @param maxSystemMemory the total memory, in megabytes, jobs on this node are allowed to use
+     * @param cpu             the number of cpus the job needs
+     * @param maxSystemCpu    the total number of cpus jobs on this node are allowed to use. 0 or less is no limit.
+     * @return true if the resources were reserved, false if jobs are queued, the admission policy doesn't allow it, the
+     * job isn't known or there isn't enough memory or cpus available
+     */
+    boolean admit(final String jobId, final JobRequest jobRequest, final int memory, final int maxSystemMemory,
+                  final int cpu, final int maxSystemCpu);
+
+    /**
+     * Queue an initialized job on this node until enough memory and cpus are free for it to be scheduled. Which
+     * queued job is scheduled next as resources are released by jobs which are done is decided by the admission
+     * policy. A job still queued after the configured wait timeout is failed.
+     *
+     * @param jobId        job id
+     * @param jobRequest   job request
+     * @param cluster      cluster for the job request based on the tags specified
+     * @param command      command for the job request based on command tags and cluster chosen
+     * @param applications applications to use based on the command that was selected
+     * @param memory       job memory
+     * @param cpu          job cpus
+     * @return true if the job was queued, false if queueing is disabled, the queue is full or the job isn't known
+     */
+    boolean queue(final String jobId, final JobRequest jobRequest, final Cluster cluster, final Command command,
+                  final List<Application> applications, final int memory, final int cpu);
+
     /**
      * Schedules the job.
      *
@@ -65,4 +115,11 @@ public interface JobStateService extends JobMetricsService {
      * @return true if job exists
      */
     boolean jobExists(final String jobId);
+
+    /**
+     * Get the number of cpus currently reserved by jobs on this node.
+     *
+     * @return The total cpus reserved by jobs
+     */
+    int getUsedCpu();
 }
@@ -13,110 +13,659 @@
 
 package com.netflix.genie.core.services.impl;
 
+import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.CacheLoader;
-import com.google.common.cache.LoadingCache;
+import com.google.common.cache.RemovalCause;
+import com.google.common.cache.RemovalNotification;
+import com.google.common.io.BaseEncoding;
 import com.netflix.genie.common.exceptions.GenieException;
 import com.netflix.genie.common.exceptions.GenieServerException;
+import com.netflix.genie.core.properties.FileCacheRevalidationProperties;
+import com.netflix.genie.core.services.FileMaterializationStrategy;
 import com.netflix.genie.core.services.FileTransfer;
 import com.netflix.genie.core.services.FileTransferFactory;
+import com.netflix.spectator.api.Counter;
 import com.netflix.spectator.api.Registry;
+import com.netflix.spectator.api.Timer;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
 import org.hibernate.validator.constraints.NotBlank;
 
+import javax.validation.constraints.Min;
 import javax.validation.constraints.NotNull;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
+import java.net.URISyntaxException;
 import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.ToDoubleFunction;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Caches the downloaded file from the remote location.
+ * <p>
+ * The cache is bounded by the total size in bytes of the cached files. When the budget is exceeded the least recently
+ * used files are evicted and deleted from disk. The remote paths currently cached are written to an index file in the
+ * cache location so that the files which are still on disk are reused after a restart instead of downloaded again.
+ * <p>
+ * A cached file is used without contacting the remote location until its ttl expires. It is then revalidated with a
+ * single conditional fetch which only downloads the file again if its version changed. With refresh ahead enabled
+ * files in frequent use are revalidated in the background before their ttl expires. Only one thread loads or
+ * revalidates a given file at a time. Others needing the same file wait for it, up to a timeout, while files at other
+ * paths are fetched in parallel. Files can also be prefetched before any job needs them.
+ * <p>
+ * The cached files are stored by the SHA-256 digest of their content so remote files with the same content, e.g. the
+ * same jar referenced by different applications and commands under different URLs, are only stored once. Cached files
+ * can be hard or symbolically linked into job directories instead of copied to avoid writing them again for every
+ * job. Stored files are read-only as every job linking them shares them. A hard link counts as a reference from a
+ * running job: a stored file which no remote path refers to any more is only deleted once no job directory links it
+ * either. Stored files are reference counted so releasing one never scans the cache, and content only kept for its
+ * links is checked again by {@link #collectLinkedContent()}, which is meant to be run periodically.
  * Created by amajumdar on 7/22/16.
  */
 @Slf4j
 public class CacheGenieFileTransferService extends GenieFileTransferService {
+    protected static final String INDEX_FILE_NAME = ".index";
+    private static final String INDEX_TMP_FILE_NAME = ".index.tmp";
+    private static final String INDEX_VERSION_SEPARATOR = "\t";
+    private static final String TMP_FILE_SUFFIX = ".tmp";
+    private static final String CONTENT_DIRECTORY_NAME = "content";
+    private static final String DIGEST_ALGORITHM = "SHA-256";
+    private static final String LINK_COUNT_ATTRIBUTE = "unix:nlink";
+    private static final int BUFFER_SIZE = 64 * 1024;
+    // The size in bytes of a unit of weight of a cached file
+    private static final long WEIGHT_UNIT = 1024L;
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final Set<PosixFilePermission> READ_ONLY = PosixFilePermissions.fromString("r--r--r--");
+
     //File cache location
     private final String baseCacheLocation;
     //File transfer service to get/put files on a local system
     private final FileTransfer localFileTransfer;
+    private final FileCacheRevalidationProperties revalidationProperties;
+    private final Executor refreshExecutor;
     //File cache
-    private final LoadingCache<String, File> fileCache = CacheBuilder.newBuilder()
-            .recordStats()
-            .build(
-                    new CacheLoader<String, File>() {
-                        public File load(
-                                @NotNull
-                                final String path) throws GenieException {
-                            return loadFile(path);
-                        }
-                    });
+    private final Cache<String, CachedFile> fileCache;
+    private final Path indexFile;
+    private final Path indexTmpFile;
+    private final Path contentDirectory;
+    // Guards storing content together with adding the entry referring to it against collecting unreferenced content
+    private final Object contentLock = new Object();
+    // How many cache entries refer to the content with each digest plus how many callers are placing it in a job
+    // directory. Content is collected when its count drops to zero. Guarded by the content lock.
+    private final Map<String, Integer> references = new HashMap<>();
+    // Unreferenced content kept as job directories still link it. Guarded by the content lock.
+    private final Set<String> linkedDigests = new HashSet<>();
+    private final Counter evictionRate;
+    private final Counter bytesSavedRate;
+    private final Counter revalidationRate;
+    private final Counter refreshAheadRate;
+    private final Counter bytesAvoidedRate;
+    private final Counter materializationFallbackRate;
+    private final Counter coalescedRate;
+    private final Counter dedupeRate;
+    private final Counter collectedRate;
+    private final Counter warmupRate;
+    private final Counter warmupHitRate;
+    private final Timer fetchWaitTimer;
+    private final long fetchWaitTimeout;
+    // The fetches currently loading or revalidating a file keyed by the remote path of the file
+    private final ConcurrentMap<String, CompletableFuture<CachedFile>> flights = new ConcurrentHashMap<>();
+    private final AtomicLong loadSuccessCount = new AtomicLong();
+    private final AtomicLong loadExceptionCount = new AtomicLong();
 
     /**
      * Constructor.
      *
      * @param fileTransferFactory file transfer implementation factory
      * @param baseCacheLocation file cache location
+     * @param maxCacheSize maximum total size in bytes of the cached files
+     * @param revalidationProperties properties controlling when cached files are revalidated
+     * @param fetchWaitTimeout how long in milliseconds to wait for another thread fetching the same file
      * @param localFileTransfer Local file transfer service
+     * @param refreshExecutor executor to revalidate files ahead of their ttl on
      * @param registry spectator registry
      * @throws GenieException If there is any problem
      */
     public CacheGenieFileTransferService(
             @NotNull final FileTransferFactory fileTransferFactory,
             @NotNull final String baseCacheLocation,
+            @Min(1) final long maxCacheSize,
+            @NotNull final FileCacheRevalidationProperties revalidationProperties,
+            @Min(1) final long fetchWaitTimeout,
             @NotNull final FileTransfer localFileTransfer,
+            @NotNull final Executor refreshExecutor,
             @NotNull final Registry registry) throws GenieException {
         super(fileTransferFactory);
-        this.baseCacheLocation = createDirectories(baseCacheLocation).toString();
+        final Path cacheDirectory = createDirectories(baseCacheLocation);
+        this.baseCacheLocation = cacheDirectory.toString();
+        this.indexFile = cacheDirectory.resolve(INDEX_FILE_NAME);
+        this.indexTmpFile = cacheDirectory.resolve(INDEX_TMP_FILE_NAME);
+        this.contentDirectory = createDirectories(cacheDirectory.resolve(CONTENT_DIRECTORY_NAME).toUri().toString());
         this.localFileTransfer = localFileTransfer;
+        this.revalidationProperties = revalidationProperties;
+        this.refreshExecutor = refreshExecutor;
+        this.fetchWaitTimeout = fetchWaitTimeout;
+        this.evictionRate = registry.counter("genie.jobs.file.cache.eviction.rate");
+        this.bytesSavedRate = registry.counter("genie.jobs.file.cache.bytesSaved.rate");
+        this.revalidationRate = registry.counter("genie.jobs.file.cache.revalidation.rate");
+        this.refreshAheadRate = registry.counter("genie.jobs.file.cache.refreshAhead.rate");
+        this.bytesAvoidedRate = registry.counter("genie.jobs.file.cache.materialization.bytesAvoided.rate");
+        this.materializationFallbackRate = registry.counter("genie.jobs.file.cache.materialization.fallback.rate");
+        this.coalescedRate = registry.counter("genie.jobs.file.cache.fetch.coalesced.rate");
+        this.fetchWaitTimer = registry.timer("genie.jobs.file.cache.fetch.wait.timer");
+        this.dedupeRate = registry.counter("genie.jobs.file.cache.dedupe.bytes.rate");
+        this.collectedRate = registry.counter("genie.jobs.file.cache.collected.rate");
+        this.warmupRate = registry.counter("genie.jobs.file.cache.warmup.rate");
+        this.warmupHitRate = registry.counter("genie.jobs.file.cache.warmup.hit.rate");
+        // A single segment so the weight budget applies to the cache as a whole rather than being split between
+        // segments, which would evict any file larger than a fraction of the budget straight away. Files are weighed
+        // in KiB as weights are ints, rounding sizes up and the budget down so the budget is never exceeded. Remote
+        // paths sharing content are each weighed in full.
+        this.fileCache = CacheBuilder.newBuilder()
+                .recordStats()
+                .concurrencyLevel(1)
+                .maximumWeight(maxCacheSize / WEIGHT_UNIT)
+                .weigher(
+                        (final String path, final CachedFile cachedFile) -> (int) Math.min(
+                                (cachedFile.content.file.length() + WEIGHT_UNIT - 1) / WEIGHT_UNIT,
+                                Integer.MAX_VALUE
+                        )
+                )
+                .removalListener(this::onRemoval)
+                .build();
+        this.loadIndex();
         registry.gauge("genie.jobs.file.cache.hitRate", fileCache,
-                (ToDoubleFunction<LoadingCache<String, File>>) value -> value.stats().hitRate());
+                (ToDoubleFunction<Cache<String, CachedFile>>) value -> value.stats().hitRate());
         registry.gauge("genie.jobs.file.cache.missRate", fileCache,
-                (ToDoubleFunction<LoadingCache<String, File>>) value -> value.stats().missRate());
-        registry.gauge("genie.jobs.file.cache.loadExceptionRate", fileCache,
-                (ToDoubleFunction<LoadingCache<String, File>>) value -> value.stats().loadExceptionRate());
+                (ToDoubleFunction<Cache<String, CachedFile>>) value -> value.stats().missRate());
+        // Files are loaded outside of the cache so that waiters can time out, hence the load stats are kept here
+        registry.gauge("genie.jobs.file.cache.loadExceptionRate", loadExceptionCount,
+                (ToDoubleFunction<AtomicLong>) value -> {
+                    final long loadCount = value.get() + loadSuccessCount.get();
+                    return loadCount == 0 ? 0.0 : (double) value.get() / loadCount;
+                });
+        registry.gauge("genie.jobs.file.cache.size", fileCache,
+                (ToDoubleFunction<Cache<String, CachedFile>>) value -> value
+                        .asMap()
+                        .values()
+                        .stream()
+                        .map(cachedFile -> cachedFile.content.file)
+                        .distinct()
+                        .mapToLong(File::length)
+                        .sum());
     }
 
     /**
-     * Get the file needed by Genie for job execution.
+     * Get the file needed by Genie for job execution. The cached file is copied to the local path.
      *
      * @param srcRemotePath Path of the file in the remote location to be fetched
      * @param dstLocalPath  Local path where the file needs to be placed
      * @throws GenieException If there is any problem
      */
+    @Override
     public void getFile(
             @NotBlank(message = "Source file path cannot be empty.")
             final String srcRemotePath,
             @NotBlank(message = "Destination local path cannot be empty")
             final String dstLocalPath
     ) throws GenieException {
-        log.debug("Called with src path {} and destination path {}", srcRemotePath, dstLocalPath);
-        File cachedFile = null;
+        this.getFile(srcRemotePath, dstLocalPath, FileMaterializationStrategy.COPY);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void getFile(
+            @NotBlank(message = "Source file path cannot be empty.")
+            final String srcRemotePath,
+            @NotBlank(message = "Destination local path cannot be empty")
+            final String dstLocalPath,
+            @NotNull
+            final FileMaterializationStrategy materialization
+    ) throws GenieException {
+        log.debug(
+                "Called with src path {}, destination path {} and materialization {}",
+                srcRemotePath,
+                dstLocalPath,
+                materialization
+        );
+        final CachedFile cachedFile = this.lookup(srcRemotePath);
+        if (cachedFile.warmed.compareAndSet(true, false)) {
+            this.warmupHitRate.increment();
+        }
+        // Pinned so the content isn't collected, e.g. once a concurrent revalidation replaced it, until it's in place
+        Content content = this.pin(cachedFile);
+        if (content == null) {
+            // Evicted and collected since it was looked up so fetch it again
+            content = this.pin(this.singleFlight(srcRemotePath, () -> this.loadOrRevalidate(srcRemotePath, 0L)));
+            if (content == null) {
+                throw new GenieServerException("Cached content for " + srcRemotePath + " was deleted while in use");
+            }
+        }
+        try {
+            this.materialize(content.file, dstLocalPath, materialization);
+        } finally {
+            this.unpin(content);
+        }
+    }
+
+    private CachedFile lookup(final String srcRemotePath) throws GenieException {
         try {
-            cachedFile = fileCache.get(srcRemotePath);
-            // Before using the cached file check if the real file has been modified after we have cached
-            final long lastModifiedTime = getFileTransfer(srcRemotePath).getLastModifiedTime(srcRemotePath);
-            if (lastModifiedTime > cachedFile.lastModified()) {
-                synchronized (this) {
-                    // Check the modification time again because threads that were waiting for a file might have
-                    // been refreshed by a previous thread.
-                    if (lastModifiedTime > cachedFile.lastModified()) {
-                        fileCache.invalidate(srcRemotePath);
-                        deleteFile(cachedFile);
-                        cachedFile = fileCache.get(srcRemotePath);
+            final long ttl = this.getTtl(srcRemotePath);
+            final CachedFile current = this.fileCache.getIfPresent(srcRemotePath);
+            if (current != null && isFresh(current, ttl)) {
+                this.bytesSavedRate.increment(current.content.file.length());
+                if (this.revalidationProperties.isRefreshAheadEnabled()) {
+                    final long refreshAge = (long) (ttl * this.revalidationProperties.getRefreshAheadThreshold());
+                    if (!isFresh(current, refreshAge)) {
+                        this.refreshAhead(srcRemotePath, current, refreshAge);
                     }
                 }
+                return current;
             }
+            // Missing, stale or deleted from disk since it was looked up
+            return this.singleFlight(srcRemotePath, () -> this.loadOrRevalidate(srcRemotePath, ttl));
         } catch (Exception e) {
             final String message = String.format("Failed getting the file %s", srcRemotePath);
             log.error(message);
             throw new GenieServerException(message, e);
         }
+    }
+
+    private Content pin(final CachedFile cachedFile) {
+        synchronized (this.contentLock) {
+            final Content content = cachedFile.content;
+            if (!content.file.exists()) {
+                return null;
+            }
+            this.reference(content.digest);
+            return content;
+        }
+    }
+
+    private void unpin(final Content content) {
+        synchronized (this.contentLock) {
+            // Any revalidation or eviction releasing it meanwhile left it to the last caller to unpin it
+            this.release(content.digest);
+        }
+    }
+
+    /**
+     * Fetch the file into the cache ahead of its first use by a job, or revalidate it if it's cached but no longer
+     * fresh, so that the job doesn't wait on the download.
+     *
+     * @param srcRemotePath Path of the file in the remote location to be fetched
+     * @return The number of bytes downloaded. 0 if the cached file was fresh or hadn't changed.
+     * @throws GenieException If the file can't be fetched
+     */
+    public long prefetch(
+            @NotBlank(message = "Source file path cannot be empty.")
+            final String srcRemotePath
+    ) throws GenieException {
+        final long ttl;
+        try {
+            ttl = this.getTtl(srcRemotePath);
+        } catch (final URISyntaxException use) {
+            throw new GenieServerException("Failed getting the file " + srcRemotePath, use);
+        }
+        // Not counted as a cache hit or miss as no job asked for the file yet
+        final CachedFile current = this.fileCache.asMap().get(srcRemotePath);
+        if (current != null && isFresh(current, ttl)) {
+            return 0L;
+        }
+        final String previousDigest = current == null ? null : current.content.digest;
+        final CachedFile cachedFile
+                = this.singleFlight(srcRemotePath, () -> this.loadOrRevalidate(srcRemotePath, ttl));
+        final Content content = cachedFile.content;
+        if (content.digest.equals(previousDigest)) {
+            return 0L;
+        }
+        cachedFile.warmed.set(true);
+        this.warmupRate.increment();
+        return content.file.length();
+    }
+
+    /**
+     * Place the cached file at the local path. Links fall back to a copy if they can't be created, for instance
+     * because the local path is on a different file system than the cache. Links are read-only like the cached file
+     * while copies belong to the job and so are writable.
+     *
+     * @param cachedFile      The cached file
+     * @param dstLocalPath    The local path to place the file at
+     * @param materialization How to place the file
+     * @throws GenieException If the file couldn't be copied either
+     */
+    private void materialize(
+            final File cachedFile,
+            final String dstLocalPath,
+            final FileMaterializationStrategy materialization
+    ) throws GenieException {
+        if (materialization != FileMaterializationStrategy.COPY) {
+            final Path dst = Paths.get(dstLocalPath);
+            try {
+                Files.deleteIfExists(dst);
+                if (materialization == FileMaterializationStrategy.HARD_LINK) {
+                    Files.createLink(dst, cachedFile.toPath());
+                } else {
+                    Files.createSymbolicLink(dst, cachedFile.toPath());
+                }
+                this.bytesAvoidedRate.increment(cachedFile.length());
+                return;
+            } catch (final IOException | UnsupportedOperationException e) {
+                log.debug("Unable to {} {} to {}. Copying instead.", materialization, cachedFile, dstLocalPath, e);
+                this.materializationFallbackRate.increment();
+            }
+        }
         localFileTransfer.getFile(cachedFile.getPath(), dstLocalPath);
+        // The copy may have taken the permissions of the read-only cached file
+        final File dst = new File(dstLocalPath);
+        if (dst.isFile() && !dst.setWritable(true, true)) {
+            log.warn("Unable to make the copy {} of {} writable", dstLocalPath, cachedFile);
+        }
+    }
+
+    private long getTtl(final String path) throws URISyntaxException {
+        final String scheme = new URI(path).getScheme();
+        return this.revalidationProperties.getSchemeTtls().getOrDefault(scheme, this.revalidationProperties.getTtl());
+    }
+
+    private static boolean isFresh(final CachedFile cachedFile, final long maxAge) {
+        return System.currentTimeMillis() - cachedFile.validatedAt < maxAge && cachedFile.content.file.exists();
+    }
+
+    /**
+     * Run the given fetch of the file at the path unless one is already in flight, in which case wait for that one
+     * instead. Fetches of different paths never wait on each other.
+     *
+     * @param path  The remote path of the file
+     * @param fetch The fetch to run if none is in flight
+     * @return The cached file fetched by whichever thread ran the fetch
+     * @throws GenieException If the fetch failed or the wait for another thread's fetch timed out
+     */
+    private CachedFile singleFlight(final String path, final Fetch fetch) throws GenieException {
+        final CompletableFuture<CachedFile> flight = new CompletableFuture<>();
+        final CompletableFuture<CachedFile> inFlight = this.flights.putIfAbsent(path, flight);
+        if (inFlight != null) {
+            this.coalescedRate.increment();
+            final long start = System.nanoTime();
+            try {
+                return inFlight.get(this.fetchWaitTimeout, TimeUnit.MILLISECONDS);
+            } catch (final TimeoutException te) {
+                throw new GenieServerException(
+                        "Timed out after " + this.fetchWaitTimeout + "ms waiting for another fetch of " + path, te
+                );
+            } catch (final InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                throw new GenieServerException("Interrupted while waiting for another fetch of " + path, ie);
+            } catch (final ExecutionException ee) {
+                if (ee.getCause() instanceof GenieException) {
+                    throw (GenieException) ee.getCause();
+                }
+                throw new GenieServerException("Failed fetching " + path, ee.getCause());
+            } finally {
+                this.fetchWaitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        }
+        try {
+            final CachedFile cachedFile = fetch.fetch();
+            flight.complete(cachedFile);
+            return cachedFile;
+        } catch (final GenieException | RuntimeException e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            this.flights.remove(path, flight);
+        }
+    }
+
+    /**
+     * Load the file if it isn't cached or revalidate it if it wasn't validated within the max age. Must only be
+     * called by the thread leading the single flight of the path.
+     *
+     * @param path   The remote path of the file
+     * @param maxAge Only revalidate if the file was last validated at least this many milliseconds ago
+     * @return The cached file
+     * @throws GenieException If the file can't be loaded or revalidated
+     */
+    private CachedFile loadOrRevalidate(final String path, final long maxAge) throws GenieException {
+        // Looked up again as a previous flight may have just loaded or revalidated it
+        final CachedFile cachedFile = this.fileCache.asMap().get(path);
+        if (cachedFile == null) {
+            final CachedFile loaded;
+            try {
+                loaded = this.loadFile(path);
+            } catch (final GenieException | RuntimeException e) {
+                this.loadExceptionCount.incrementAndGet();
+                throw e;
+            }
+            this.loadSuccessCount.incrementAndGet();
+            this.writeIndex();
+            return loaded;
+        }
+        if (!isFresh(cachedFile, maxAge)) {
+            this.revalidate(path, cachedFile);
+        }
+        return cachedFile;
+    }
+
+    private void refreshAhead(final String path, final CachedFile cachedFile, final long maxAge) {
+        if (!cachedFile.refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            this.refreshExecutor.execute(
+                    () -> {
+                        try {
+                            // Nothing to do if a job is already fetching the file
+                            if (!this.flights.containsKey(path)) {
+                                this.refreshAheadRate.increment();
+                                this.singleFlight(path, () -> this.loadOrRevalidate(path, maxAge));
+                            }
+                        } catch (final GenieException ge) {
+                            log.warn("Unable to refresh the cached file for {} ahead of its ttl", path, ge);
+                        } finally {
+                            cachedFile.refreshing.set(false);
+                        }
+                    }
+            );
+        } catch (final RejectedExecutionException ree) {
+            cachedFile.refreshing.set(false);
+            log.debug("Skipping refreshing the cached file for {} ahead of its ttl", path, ree);
+        }
+    }
+
+    /**
+     * Check whether the remote file changed since it was cached and replace the cached file if it did.
+     *
+     * @param path       The remote path of the file
+     * @param cachedFile The cached file to revalidate
+     * @throws GenieException If the file can't be revalidated
+     */
+    private void revalidate(final String path, final CachedFile cachedFile) throws GenieException {
+        final long now = System.currentTimeMillis();
+        this.revalidationRate.increment();
+        final String version = cachedFile.content.file.exists() ? cachedFile.version : null;
+        final File tmpFile = this.getTmpFile();
+        try {
+            final Optional<String> newVersion
+                    = getFileTransfer(path).getFileIfChanged(path, tmpFile.getPath(), version);
+            if (newVersion.isPresent()) {
+                log.debug("Cached file for {} changed from version {} to {}", path, version, newVersion.get());
+                final String digest = digest(tmpFile);
+                synchronized (this.contentLock) {
+                    final String previousDigest = cachedFile.content.digest;
+                    // Read before the replace below as it may evict the entry, releasing the new content
+                    final boolean released = cachedFile.released;
+                    this.reference(digest);
+                    cachedFile.content = new Content(this.store(tmpFile, digest), digest);
+                    cachedFile.version = newVersion.get();
+                    // Replace the entry with itself so its weight is recomputed for the new size
+                    this.fileCache.asMap().replace(path, cachedFile, cachedFile);
+                    // The reference of the entry moves to the new content unless its removal already released it
+                    this.release(released ? digest : previousDigest);
+                }
+                this.writeIndex();
+            }
+            cachedFile.validatedAt = now;
+        } catch (final IOException ioe) {
+            throw new GenieServerException("Failed replacing the cached file for " + path, ioe);
+        } finally {
+            this.deleteQuietly(tmpFile);
+        }
+    }
+
+    private void onRemoval(final RemovalNotification<String, CachedFile> notification) {
+        // Whoever replaces an entry moves its reference to the new content
+        if (notification.getCause() == RemovalCause.REPLACED) {
+            return;
+        }
+        final CachedFile cachedFile = notification.getValue();
+        if (notification.wasEvicted()) {
+            log.debug("Evicting {} cached as {}", notification.getKey(), cachedFile);
+            this.evictionRate.increment();
+        }
+        // Other remote paths or running jobs may still refer to the same content
+        synchronized (this.contentLock) {
+            if (!cachedFile.released) {
+                cachedFile.released = true;
+                this.release(cachedFile.content.digest);
+            }
+        }
+        this.writeIndex();
+    }
+
+    /**
+     * Re-populate the cache with the files recorded in the index which are still on disk and delete any other files
+     * left in the cache location as nothing would otherwise ever remove them. Reloaded files are revalidated on
+     * their first use.
+     *
+     * @throws GenieException If the cache location can't be read
+     */
+    private void loadIndex() throws GenieException {
+        if (Files.exists(this.indexFile)) {
+            try {
+                for (final String line : Files.readAllLines(this.indexFile, UTF_8)) {
+                    // The remote path, its version which may be empty and the digest of its content
+                    final String[] fields = line.split(INDEX_VERSION_SEPARATOR, -1);
+                    if (fields.length != 3 || StringUtils.isBlank(fields[0]) || StringUtils.isBlank(fields[2])) {
+                        continue;
+                    }
+                    final File contentFile = this.getContentFile(fields[2]);
+                    if (contentFile.isFile()) {
+                        // Content stored by earlier versions may still be writable
+                        try {
+                            setReadOnly(contentFile.toPath());
+                        } catch (final IOException ioe) {
+                            log.warn("Unable to make the cached content {} read-only", contentFile, ioe);
+                        }
+                        synchronized (this.contentLock) {
+                            this.cache(
+                                    fields[0],
+                                    new CachedFile(
+                                            new Content(contentFile, fields[2]),
+                                            StringUtils.trimToNull(fields[1]),
+                                            0L
+                                    )
+                            );
+                        }
+                    }
+                }
+            } catch (final IOException ioe) {
+                log.error("Unable to read the file cache index {}. Starting with an empty cache.", this.indexFile, ioe);
+            }
+        }
+        // Only the index and content directory belong in the cache location, anything else is left over from a
+        // download that never completed
+        try (final Stream<Path> files = Files.list(Paths.get(this.baseCacheLocation))) {
+            files
+                    .filter(Files::isRegularFile)
+                    .filter(file -> !file.equals(this.indexFile))
+                    .forEach(
+                            file -> {
+                                try {
+                                    deleteFile(file.toFile());
+                                } catch (final IOException ioe) {
+                                    log.error("Unable to delete unindexed cache file {}", file, ioe);
+                                }
+                            }
+                    );
+        } catch (final IOException ioe) {
+            throw new GenieServerException("Failed listing the cache location " + this.baseCacheLocation, ioe);
+        }
+        // The only time the whole content directory is listed. Afterwards only released content is collected.
+        try (final Stream<Path> files = Files.list(this.contentDirectory)) {
+            synchronized (this.contentLock) {
+                files
+                        .map(file -> file.getFileName().toString())
+                        .filter(digest -> !this.references.containsKey(digest))
+                        .forEach(this::collect);
+            }
+        } catch (final IOException ioe) {
+            log.error("Unable to list the content directory {}", this.contentDirectory, ioe);
+        }
+        this.writeIndex();
+        log.info("Loaded {} files into the file cache from {}", this.fileCache.size(), this.indexFile);
+    }
+
+    /**
+     * Write the remote paths currently cached and their versions to the index. The index is replaced atomically so a
+     * crash mid write never leaves a truncated index behind.
+     */
+    private synchronized void writeIndex() {
+        try {
+            Files.write(
+                    this.indexTmpFile,
+                    this.fileCache
+                            .asMap()
+                            .entrySet()
+                            .stream()
+                            .map(
+                                    entry -> entry.getKey()
+                                            + INDEX_VERSION_SEPARATOR
+                                            + StringUtils.defaultString(entry.getValue().version)
+                                            + INDEX_VERSION_SEPARATOR
+                                            + entry.getValue().content.digest
+                            )
+                            .collect(Collectors.toList()),
+                    UTF_8
+            );
+            Files.move(
+                    this.indexTmpFile,
+                    this.indexFile,
+                    StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE
+            );
+        } catch (final IOException ioe) {
+            log.error("Unable to write the file cache index {}", this.indexFile, ioe);
+        }
     }
 
     protected void deleteFile(final File file) throws IOException {
@@ -138,20 +687,239 @@ public class CacheGenieFileTransferService extends GenieFileTransferService {
     }
 
     /**
-     * Loads the file given the path and stores it under the cache location with file name as UUID string created using
-     * the path.
+     * Loads the file given the path, stores it in the content directory under the digest of its content and adds it
+     * to the cache. The file is downloaded to a temporary file first so a partially downloaded file is never used.
      * @param path Path of the file to be loaded
      * @return loaded file
      * @throws GenieException Exception if the file does not load
      */
-    protected File loadFile(final String path) throws GenieException {
-        final byte[] pathBytes = path.getBytes(Charset.forName("UTF-8"));
-        final String pathUUID = UUID.nameUUIDFromBytes(pathBytes).toString();
-        final String cacheFilePath = String.format("%s/%s", baseCacheLocation, pathUUID);
-        final File cacheFile = new File(cacheFilePath);
-        if (!cacheFile.exists()) {
-            getFileTransfer(path).getFile(path, cacheFilePath);
+    private CachedFile loadFile(final String path) throws GenieException {
+        final long now = System.currentTimeMillis();
+        final File tmpFile = this.getTmpFile();
+        try {
+            final String version = getFileTransfer(path).getFileIfChanged(path, tmpFile.getPath(), null).orElse(null);
+            final String digest = digest(tmpFile);
+            synchronized (this.contentLock) {
+                final CachedFile cachedFile
+                        = new CachedFile(new Content(this.store(tmpFile, digest), digest), version, now);
+                this.cache(path, cachedFile);
+                return cachedFile;
+            }
+        } catch (final IOException ioe) {
+            throw new GenieServerException("Failed moving the downloaded file for " + path + " into the cache", ioe);
+        } finally {
+            this.deleteQuietly(tmpFile);
+        }
+    }
+
+    private File getTmpFile() {
+        return new File(String.format("%s/%s%s", baseCacheLocation, UUID.randomUUID(), TMP_FILE_SUFFIX));
+    }
+
+    private void deleteQuietly(final File file) {
+        try {
+            deleteFile(file);
+        } catch (final IOException ioe) {
+            log.error("Unable to delete cache file {}", file, ioe);
+        }
+    }
+
+    private void moveIntoPlace(final File source, final File target) throws IOException {
+        // Readers still copying the previous file keep reading it as the move only replaces the directory entry
+        Files.move(
+                source.toPath(),
+                target.toPath(),
+                StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE
+        );
+    }
+
+    /**
+     * Move the downloaded file into the content directory unless the same content is already stored. Must be called
+     * holding the content lock.
+     *
+     * @param tmpFile The downloaded file
+     * @param digest  The digest of the content of the downloaded file
+     * @return The stored file
+     * @throws IOException If the file can't be moved into the content directory
+     */
+    private File store(final File tmpFile, final String digest) throws IOException {
+        final File contentFile = this.getContentFile(digest);
+        if (contentFile.isFile()) {
+            log.debug("Content {} is already stored", digest);
+            this.dedupeRate.increment(contentFile.length());
+        } else {
+            // Read-only before it's visible under its digest as every job linking it shares the one file
+            setReadOnly(tmpFile.toPath());
+            this.moveIntoPlace(tmpFile, contentFile);
+        }
+        return contentFile;
+    }
+
+    /**
+     * Delete the content kept earlier only because job directories linked it whose jobs have cleaned up since.
+     * Content referenced again meanwhile is left to be collected once it's released. Each digest is checked under
+     * the content lock on its own so jobs fetching files only ever wait for a single check.
+     */
+    public void collectLinkedContent() {
+        final Set<String> digests;
+        synchronized (this.contentLock) {
+            digests = new HashSet<>(this.linkedDigests);
+        }
+        for (final String digest : digests) {
+            synchronized (this.contentLock) {
+                if (this.linkedDigests.remove(digest) && !this.references.containsKey(digest)) {
+                    this.collect(digest);
+                }
+            }
+        }
+    }
+
+    /**
+     * Add the file to the cache taking a reference to its content, and release the content of the entry it replaces
+     * if any. Must be called holding the content lock.
+     *
+     * @param path       The remote path of the file
+     * @param cachedFile The cached file
+     */
+    private void cache(final String path, final CachedFile cachedFile) {
+        // Referenced before it's added as adding it may evict it straight away, releasing it again
+        this.reference(cachedFile.content.digest);
+        final CachedFile previous = this.fileCache.asMap().put(path, cachedFile);
+        if (previous != null && !previous.released) {
+            previous.released = true;
+            this.release(previous.content.digest);
+        }
+    }
+
+    /**
+     * Count a reference to the content with the digest. Must be called holding the content lock.
+     *
+     * @param digest The digest of the content
+     */
+    private void reference(final String digest) {
+        this.references.merge(digest, 1, Integer::sum);
+    }
+
+    /**
+     * Drop a reference to the content with the digest and collect the content if it was the last one. Must be
+     * called holding the content lock.
+     *
+     * @param digest The digest of the content
+     */
+    private void release(final String digest) {
+        if (this.references.computeIfPresent(digest, (key, count) -> count == 1 ? null : count - 1) == null) {
+            this.collect(digest);
+        }
+    }
+
+    /**
+     * Delete the stored content with the digest, which nothing references any more, unless a job directory links it.
+     * Content only kept for its links is remembered so {@link #collectLinkedContent()} checks it again. Must be
+     * called holding the content lock.
+     *
+     * @param digest The digest of the content
+     */
+    private void collect(final String digest) {
+        final File file = this.getContentFile(digest);
+        if (!file.exists()) {
+            return;
+        }
+        if (getLinkCount(file.toPath()) > 1) {
+            this.linkedDigests.add(digest);
+            return;
+        }
+        log.debug("Deleting unreferenced content {}", file);
+        this.deleteQuietly(file);
+        this.collectedRate.increment();
+    }
+
+    private File getContentFile(final String digest) {
+        return this.contentDirectory.resolve(digest).toFile();
+    }
+
+    private static String digest(final File file) throws IOException {
+        final MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance(DIGEST_ALGORITHM);
+        } catch (final NoSuchAlgorithmException nsae) {
+            // Every JVM is required to support SHA-256
+            throw new IllegalStateException(nsae);
+        }
+        try (final InputStream in = Files.newInputStream(file.toPath())) {
+            final byte[] buffer = new byte[BUFFER_SIZE];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return BaseEncoding.base16().lowerCase().encode(digest.digest());
+    }
+
+    private static void setReadOnly(final Path file) throws IOException {
+        try {
+            Files.setPosixFilePermissions(file, READ_ONLY);
+        } catch (final UnsupportedOperationException uoe) {
+            if (!file.toFile().setReadOnly()) {
+                throw new IOException("Unable to make " + file + " read-only", uoe);
+            }
+        }
+    }
+
+    private static int getLinkCount(final Path file) {
+        try {
+            return (Integer) Files.getAttribute(file, LINK_COUNT_ATTRIBUTE);
+        } catch (final IOException | UnsupportedOperationException | IllegalArgumentException e) {
+            // Without link counts hard links from job directories can't be told apart so treat the file as unused
+            return 1;
+        }
+    }
+
+    /**
+     * A fetch of a file into the cache.
+     */
+    @FunctionalInterface
+    private interface Fetch {
+        CachedFile fetch() throws GenieException;
+    }
+
+    /**
+     * A stored file along with the digest of its content. Replaced as a whole so the two always match.
+     */
+    private static final class Content {
+        private final File file;
+        private final String digest;
+
+        Content(final File file, final String digest) {
+            this.file = file;
+            this.digest = digest;
+        }
+    }
+
+    /**
+     * A file in the cache along with its content, the version of the remote file it holds and when it was last
+     * validated.
+     */
+    private static final class CachedFile {
+        private final AtomicBoolean refreshing = new AtomicBoolean(false);
+        // Whether the file was fetched ahead of use and no job used it yet
+        private final AtomicBoolean warmed = new AtomicBoolean(false);
+        private volatile Content content;
+        private volatile String version;
+        private volatile long validatedAt;
+        // Whether the entry was removed from the cache and its reference to its content dropped. Guarded by the
+        // content lock.
+        private boolean released;
+
+        CachedFile(final Content content, final String version, final long validatedAt) {
+            this.content = content;
+            this.version = version;
+            this.validatedAt = validatedAt;
+        }
+
+        @Override
+        public String toString() {
+            return this.content.file.getPath();
         }
-        return cacheFile;
     }
 }
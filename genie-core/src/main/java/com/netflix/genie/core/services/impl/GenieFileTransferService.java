@@ -19,6 +19,7 @@ package com.netflix.genie.core.services.impl;
 
 import com.netflix.genie.common.exceptions.GenieException;
 import com.netflix.genie.common.exceptions.GenieNotFoundException;
+import com.netflix.genie.core.services.FileMaterializationStrategy;
 import com.netflix.genie.core.services.FileTransfer;
 import com.netflix.genie.core.services.FileTransferFactory;
 import lombok.extern.slf4j.Slf4j;
@@ -71,6 +72,26 @@ public class GenieFileTransferService {
         getFileTransfer(srcRemotePath).getFile(srcRemotePath, dstLocalPath);
     }
 
+    /**
+     * Get the file needed by Genie for job execution placing it in the local path with the given strategy. The
+     * strategy only applies to implementations which hold a local copy of the file. Others always download it.
+     *
+     * @param srcRemotePath   Path of the file in the remote location to be fetched
+     * @param dstLocalPath    Local path where the file needs to be placed
+     * @param materialization How to place a locally held copy of the file at the local path
+     * @throws GenieException If there is any problem
+     */
+    public void getFile(
+            @NotBlank(message = "Source file path cannot be empty.")
+            final String srcRemotePath,
+            @NotBlank(message = "Destination local path cannot be empty")
+            final String dstLocalPath,
+            @NotNull
+            final FileMaterializationStrategy materialization
+    ) throws GenieException {
+        this.getFile(srcRemotePath, dstLocalPath);
+    }
+
     /**
      * Put the file provided by Genie.
      *
@@ -20,39 +20,46 @@ package com.netflix.genie.core.services.impl;
 import com.netflix.genie.common.dto.Application;
 import com.netflix.genie.common.dto.Cluster;
 import com.netflix.genie.common.dto.Command;
-import com.netflix.genie.common.dto.CommandStatus;
 import com.netflix.genie.common.dto.Job;
 import com.netflix.genie.common.dto.JobExecution;
 import com.netflix.genie.common.dto.JobMetadata;
 import com.netflix.genie.common.dto.JobRequest;
 import com.netflix.genie.common.dto.JobStatus;
+import com.netflix.genie.common.dto.JobSubmissionResult;
 import com.netflix.genie.common.exceptions.GenieConflictException;
 import com.netflix.genie.common.exceptions.GenieException;
 import com.netflix.genie.common.exceptions.GeniePreconditionException;
 import com.netflix.genie.common.exceptions.GenieServerException;
 import com.netflix.genie.common.exceptions.GenieServerUnavailableException;
 import com.netflix.genie.core.jobs.JobConstants;
+import com.netflix.genie.core.jobs.JobResolution;
+import com.netflix.genie.core.jobs.JobSubmission;
 import com.netflix.genie.core.properties.JobsProperties;
-import com.netflix.genie.core.services.ApplicationService;
-import com.netflix.genie.core.services.ClusterLoadBalancer;
-import com.netflix.genie.core.services.ClusterService;
-import com.netflix.genie.core.services.CommandService;
 import com.netflix.genie.core.services.JobCoordinatorService;
 import com.netflix.genie.core.services.JobKillService;
 import com.netflix.genie.core.services.JobPersistenceService;
+import com.netflix.genie.core.services.JobResolverService;
 import com.netflix.genie.core.services.JobStateService;
+import com.netflix.spectator.api.Counter;
 import com.netflix.spectator.api.Registry;
 import com.netflix.spectator.api.Timer;
 import lombok.extern.slf4j.Slf4j;
 import org.hibernate.validator.constraints.NotBlank;
+import org.hibernate.validator.constraints.NotEmpty;
 
 import javax.validation.Valid;
 import javax.validation.constraints.NotNull;
+import java.net.HttpURLConnection;
 import java.util.ArrayList;
-import java.util.EnumSet;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
@@ -70,22 +77,20 @@ public class JobCoordinatorServiceImpl implements JobCoordinatorService {
     private final JobPersistenceService jobPersistenceService;
     private final JobKillService jobKillService;
     private final JobStateService jobStateService;
-    private final ApplicationService applicationService;
-    private final ClusterService clusterService;
-    private final CommandService commandService;
-    private final ClusterLoadBalancer clusterLoadBalancer;
+    private final JobResolverService jobResolverService;
     private final JobsProperties jobsProperties;
     private final String hostName;
-
-    // For reuse in queries
-    private final Set<CommandStatus> commandStatuses;
+    private final Executor submissionExecutor;
+    private final Semaphore submissionPermits;
 
     // Metrics
     private final Timer coordinationTimer;
-    private final Timer selectClusterTimer;
-    private final Timer selectCommandTimer;
-    private final Timer selectApplicationsTimer;
+    private final Timer batchCoordinationTimer;
+    private final Timer resolveJobTimer;
     private final Timer setJobEnvironmentTimer;
+    private final Timer submissionQueueTimer;
+    private final Timer submissionPipelineTimer;
+    private final Counter submissionRejectedRate;
 
     /**
      * Constructor.
@@ -95,45 +100,42 @@ public class JobCoordinatorServiceImpl implements JobCoordinatorService {
      * @param jobStateService       The service where we report the job state and keep track of various metrics about
      *                              jobs currently running
      * @param jobsProperties        The jobs properties to use
-     * @param applicationService    Implementation of application service interface
-     * @param clusterService        Implementation of cluster service interface
-     * @param commandService        Implementation of command service interface
-     * @param clusterLoadBalancer   Implementation of the cluster load balancer interface
+     * @param jobResolverService    Implementation of the job resolver service interface
      * @param registry              The registry
      * @param hostName              The name of the host this Genie instance is running on
+     * @param submissionExecutor    The executor to resolve and schedule jobs on when asynchronous submission is
+     *                              enabled
      */
     public JobCoordinatorServiceImpl(
         @NotNull final JobPersistenceService jobPersistenceService,
         @NotNull final JobKillService jobKillService,
         @NotNull final JobStateService jobStateService,
         @NotNull final JobsProperties jobsProperties,
-        @NotNull final ApplicationService applicationService,
-        @NotNull final ClusterService clusterService,
-        @NotNull final CommandService commandService,
-        @NotNull final ClusterLoadBalancer clusterLoadBalancer,
+        @NotNull final JobResolverService jobResolverService,
         @NotNull final Registry registry,
-        @NotBlank final String hostName
+        @NotBlank final String hostName,
+        @NotNull final Executor submissionExecutor
     ) {
         this.jobPersistenceService = jobPersistenceService;
         this.jobKillService = jobKillService;
         this.jobStateService = jobStateService;
-        this.applicationService = applicationService;
-        this.clusterService = clusterService;
-        this.commandService = commandService;
-        this.clusterLoadBalancer = clusterLoadBalancer;
+        this.jobResolverService = jobResolverService;
         this.jobsProperties = jobsProperties;
         this.hostName = hostName;
-
-        // We'll only care about active statuses
-        this.commandStatuses = EnumSet.noneOf(CommandStatus.class);
-        this.commandStatuses.add(CommandStatus.ACTIVE);
+        this.submissionExecutor = submissionExecutor;
+        this.submissionPermits = jobsProperties.getSubmission().isAsyncEnabled()
+            ? new Semaphore(jobsProperties.getSubmission().getQueueCapacity())
+            : null;
 
         // Metrics
         this.coordinationTimer = registry.timer("genie.jobs.coordination.timer");
-        this.selectClusterTimer = registry.timer("genie.jobs.submit.localRunner.selectCluster.timer");
-        this.selectCommandTimer = registry.timer("genie.jobs.submit.localRunner.selectCommand.timer");
-        this.selectApplicationsTimer = registry.timer("genie.jobs.submit.localRunner.selectApplications.timer");
+        this.batchCoordinationTimer = registry.timer("genie.jobs.coordination.batch.timer");
+        this.resolveJobTimer = registry.timer("genie.jobs.submit.localRunner.resolveJob.timer");
         this.setJobEnvironmentTimer = registry.timer("genie.jobs.submit.localRunner.setJobEnvironment.timer");
+        this.submissionQueueTimer = registry.timer("genie.jobs.submission.queue.timer");
+        this.submissionPipelineTimer = registry.timer("genie.jobs.submission.pipeline.timer");
+        this.submissionRejectedRate = registry.counter("genie.jobs.submission.rejected.rate");
+        registry.methodValue("genie.jobs.submission.pending.gauge", this, "getNumPendingSubmissions");
     }
 
     /**
@@ -152,48 +154,264 @@ public class JobCoordinatorServiceImpl implements JobCoordinatorService {
         final String jobId = jobRequest
             .getId()
             .orElseThrow(() -> new GenieServerException("Id of the jobRequest cannot be null"));
-        JobStatus jobStatus = JobStatus.FAILED;
         try {
             log.info("Called to schedule job launch for job {}", jobId);
-            // create the job object in the database with status INIT
-            final Job.Builder jobBuilder = new Job.Builder(
-                jobRequest.getName(),
-                jobRequest.getUser(),
-                jobRequest.getVersion(),
-                jobRequest.getCommandArgs()
-            )
-                .withId(jobId)
-                .withTags(jobRequest.getTags())
-                .withStatus(JobStatus.INIT)
-                .withStatusMsg("Job Accepted and in initialization phase.");
-
-            jobRequest.getDescription().ifPresent(jobBuilder::withDescription);
-            if (!jobRequest.isDisableLogArchival()) {
-                jobBuilder.withArchiveLocation(
-                    this.jobsProperties.getLocations().getArchives()
-                        + JobConstants.FILE_PATH_DELIMITER + jobId + ".tar.gz"
+            if (this.submissionPermits != null) {
+                this.submitJob(jobId, jobRequest, jobMetadata);
+            } else {
+                this.initializeJob(jobId, jobRequest, jobMetadata);
+                this.launchJob(jobId, jobRequest);
+            }
+            return jobId;
+        } finally {
+            this.coordinationTimer.record(System.nanoTime() - coordinationStart, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<JobSubmissionResult> coordinateJobs(
+        @Valid
+        @NotEmpty(message = "No job requests provided. Unable to submit jobs for execution.")
+        final List<JobRequest> jobRequests,
+        @Valid
+        @NotNull(message = "No job metadata provided. Unable to submit jobs for execution.")
+        final JobMetadata jobMetadata
+    ) throws GenieException {
+        final long coordinationStart = System.nanoTime();
+        try {
+            final List<String> jobIds = new ArrayList<>(jobRequests.size());
+            for (final JobRequest jobRequest : jobRequests) {
+                jobIds.add(
+                    jobRequest
+                        .getId()
+                        .orElseThrow(() -> new GenieServerException("Id of the jobRequest cannot be null"))
                 );
             }
+            log.info("Called to schedule job launch for {} jobs", jobIds.size());
 
-            final JobExecution jobExecution = new JobExecution.Builder(
-                this.hostName
-            )
-                .withId(jobId)
-                .build();
+            final JobSubmissionResult[] results = new JobSubmissionResult[jobRequests.size()];
+            final Set<String> batchIds = new HashSet<>();
+            final List<Integer> admitted = new ArrayList<>();
+            final List<JobSubmission> jobSubmissions = new ArrayList<>();
+            for (int i = 0; i < jobRequests.size(); i++) {
+                final String jobId = jobIds.get(i);
+                if (!batchIds.add(jobId)) {
+                    results[i] = new JobSubmissionResult(
+                        jobId,
+                        HttpURLConnection.HTTP_CONFLICT,
+                        "Job id " + jobId + " is used more than once in the batch"
+                    );
+                    continue;
+                }
+                if (this.submissionPermits != null && !this.submissionPermits.tryAcquire()) {
+                    this.submissionRejectedRate.increment();
+                    results[i] = new JobSubmissionResult(
+                        jobId,
+                        HttpURLConnection.HTTP_UNAVAILABLE,
+                        "Job submission queue is full. Unable to accept job " + jobId + " on this node right now"
+                    );
+                    continue;
+                }
+                final JobRequest jobRequest = jobRequests.get(i);
+                admitted.add(i);
+                jobSubmissions.add(
+                    new JobSubmission(
+                        jobRequest,
+                        jobMetadata,
+                        this.buildJob(jobId, jobRequest),
+                        this.buildJobExecution(jobId)
+                    )
+                );
+            }
+
+            // Save the initial information of every admitted job in one go
+            final Set<String> existingIds;
+            try {
+                existingIds = jobSubmissions.isEmpty()
+                    ? Collections.emptySet()
+                    : this.jobPersistenceService.createJobs(jobSubmissions);
+            } catch (final GenieException | RuntimeException e) {
+                if (this.submissionPermits != null) {
+                    this.submissionPermits.release(jobSubmissions.size());
+                }
+                throw e;
+            }
+
+            for (final int i : admitted) {
+                final String jobId = jobIds.get(i);
+                if (existingIds.contains(jobId)) {
+                    // Job has not been initiated so we don't have to call JobStateService.done()
+                    if (this.submissionPermits != null) {
+                        this.submissionPermits.release();
+                    }
+                    results[i] = new JobSubmissionResult(
+                        jobId,
+                        HttpURLConnection.HTTP_CONFLICT,
+                        "A job with id " + jobId + " already exists"
+                    );
+                    continue;
+                }
+                this.jobStateService.init(jobId);
+                try {
+                    if (this.submissionPermits != null) {
+                        this.queueJob(jobId, jobRequests.get(i));
+                    } else {
+                        this.launchJob(jobId, jobRequests.get(i));
+                    }
+                    results[i] = JobSubmissionResult.accepted(jobId);
+                } catch (final GenieException e) {
+                    log.error("Unable to submit job {} from batch", jobId, e);
+                    results[i] = new JobSubmissionResult(jobId, e.getErrorCode(), e.getMessage());
+                }
+            }
+            return Arrays.asList(results);
+        } finally {
+            this.batchCoordinationTimer.record(System.nanoTime() - coordinationStart, TimeUnit.NANOSECONDS);
+        }
+    }
 
+    /**
+     * Get the number of asynchronously submitted jobs which are either waiting for or going through resolution and
+     * scheduling.
+     *
+     * @return The number of pending submissions. Always zero when asynchronous submission is disabled.
+     */
+    public int getNumPendingSubmissions() {
+        return this.submissionPermits == null
+            ? 0
+            : this.jobsProperties.getSubmission().getQueueCapacity() - this.submissionPermits.availablePermits();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void killJob(@NotBlank final String jobId) throws GenieException {
+        this.jobKillService.killJob(jobId);
+    }
+
+    private void submitJob(
+        final String jobId,
+        final JobRequest jobRequest,
+        final JobMetadata jobMetadata
+    ) throws GenieException {
+        // Reserve a place in the queue before persisting anything so a rejected request leaves no trace and can be
+        // retried with the same id
+        if (!this.submissionPermits.tryAcquire()) {
+            this.submissionRejectedRate.increment();
+            throw new GenieServerUnavailableException(
+                "Job submission queue is full. Unable to accept job " + jobId + " on this node right now"
+            );
+        }
+        try {
+            this.initializeJob(jobId, jobRequest, jobMetadata);
+        } catch (final GenieException | RuntimeException e) {
+            this.submissionPermits.release();
+            throw e;
+        }
+
+        this.queueJob(jobId, jobRequest);
+    }
+
+    private void queueJob(final String jobId, final JobRequest jobRequest) throws GenieException {
+        final long submitted = System.nanoTime();
+        try {
+            this.submissionExecutor.execute(() -> this.runSubmittedJob(jobId, jobRequest, submitted));
+        } catch (final RejectedExecutionException ree) {
+            this.submissionPermits.release();
+            this.submissionRejectedRate.increment();
+            this.cleanUpFailedJob(jobId, JobStatus.FAILED, ree);
+            throw new GenieServerUnavailableException("Unable to queue job " + jobId + " for submission", ree);
+        }
+    }
+
+    private void runSubmittedJob(final String jobId, final JobRequest jobRequest, final long submitted) {
+        final long start = System.nanoTime();
+        this.submissionQueueTimer.record(start - submitted, TimeUnit.NANOSECONDS);
+        try {
+            this.launchJob(jobId, jobRequest);
+        } catch (final GenieException | RuntimeException e) {
+            log.error("Unable to launch asynchronously submitted job {}", jobId, e);
+        } finally {
+            this.submissionPermits.release();
+            this.submissionPipelineTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void initializeJob(
+        final String jobId,
+        final JobRequest jobRequest,
+        final JobMetadata jobMetadata
+    ) throws GenieException {
+        try {
             // Log all the job initial job information
-            this.jobPersistenceService.createJob(jobRequest, jobMetadata, jobBuilder.build(), jobExecution);
-            jobStateService.init(jobId);
-            //TODO: Combine the cluster and command selection into a single method/database query for efficiency
-            // Resolve the cluster for the job request based on the tags specified
-            final Cluster cluster = this.getCluster(jobRequest);
-            // Resolve the command for the job request based on command tags and cluster chosen
-            final Command command = this.getCommand(jobRequest, cluster);
-            // Resolve the applications to use based on the command that was selected
-            final List<Application> applications = this.getApplications(jobRequest, command);
+            this.jobPersistenceService.createJob(
+                jobRequest,
+                jobMetadata,
+                this.buildJob(jobId, jobRequest),
+                this.buildJobExecution(jobId)
+            );
+            this.jobStateService.init(jobId);
+        } catch (final GenieConflictException e) {
+            // Job has not been initiated so we don't have to call JobStateService.done()
+            throw e;
+        } catch (final GenieException e) {
+            this.cleanUpFailedJob(jobId, JobStatus.FAILED, e);
+            throw e;
+        } catch (final Exception e) {
+            this.cleanUpFailedJob(jobId, JobStatus.FAILED, e);
+            throw new GenieServerException(e);
+        }
+    }
+
+    private Job buildJob(final String jobId, final JobRequest jobRequest) {
+        // create the job object in the database with status INIT
+        final Job.Builder jobBuilder = new Job.Builder(
+            jobRequest.getName(),
+            jobRequest.getUser(),
+            jobRequest.getVersion(),
+            jobRequest.getCommandArgs()
+        )
+            .withId(jobId)
+            .withTags(jobRequest.getTags())
+            .withStatus(JobStatus.INIT)
+            .withStatusMsg("Job Accepted and in initialization phase.");
+
+        jobRequest.getDescription().ifPresent(jobBuilder::withDescription);
+        if (!jobRequest.isDisableLogArchival()) {
+            jobBuilder.withArchiveLocation(
+                this.jobsProperties.getLocations().getArchives()
+                    + JobConstants.FILE_PATH_DELIMITER + jobId + ".tar.gz"
+            );
+        }
+        return jobBuilder.build();
+    }
+
+    private JobExecution buildJobExecution(final String jobId) {
+        return new JobExecution.Builder(
+            this.hostName
+        )
+            .withId(jobId)
+            .build();
+    }
+
+    private void launchJob(final String jobId, final JobRequest jobRequest) throws GenieException {
+        JobStatus jobStatus = JobStatus.FAILED;
+        try {
+            // Resolve the cluster, command and applications for the job request in one trip to the data store
+            final JobResolution jobResolution = this.resolveJob(jobRequest);
+            final Cluster cluster = jobResolution.getCluster();
+            final Command command = jobResolution.getCommand();
+            final List<Application> applications = jobResolution.getApplications();
             // Now that we have command how much memory should the job use?
             final int memory = jobRequest.getMemory()
                 .orElse(command.getMemory().orElse(this.jobsProperties.getMemory().getDefaultJobMemory()));
+            // And how many cpus?
+            final int cpu = jobRequest.getCpu()
+                .orElse(command.getCpu().orElse(this.jobsProperties.getCpu().getDefaultJobCpu()));
 
             // Save all the runtime information
             this.setRuntimeEnvironment(jobId, cluster, command, applications, memory);
@@ -210,70 +428,92 @@ public class JobCoordinatorServiceImpl implements JobCoordinatorService {
                 );
             }
 
-            synchronized (this) {
-                log.info("Checking if can run job {} on this node", jobRequest.getId());
-                final int maxSystemMemory = this.jobsProperties.getMemory().getMaxSystemMemory();
-                final int usedMemory = this.jobStateService.getUsedMemory();
-                if (usedMemory + memory <= maxSystemMemory) {
-                    log.info(
-                        "Job {} can run on this node as only {}/{} MB are used and requested {} MB",
-                        jobId,
-                        usedMemory,
-                        maxSystemMemory,
-                        memory
-                    );
-                    // Tell the system a new job has been scheduled so any actions can be taken
-                    log.info("Publishing job scheduled event for job {}", jobId);
-                    jobStateService.schedule(jobId, jobRequest, cluster, command, applications, memory);
-                    return jobId;
-                } else {
-                    throw new GenieServerUnavailableException(
-                        "Job "
-                            + jobId
-                            + " can't run on this node "
-                            + usedMemory
-                            + "/"
-                            + maxSystemMemory
-                            + " MB are used and requested "
-                            + memory
-                            + " MB"
-                    );
-                }
+            final int maxSystemCpu = this.jobsProperties.getCpu().getMaxSystemCpu();
+            if (maxSystemCpu > 0 && cpu > maxSystemCpu) {
+                jobStatus = JobStatus.INVALID;
+                throw new GeniePreconditionException(
+                    "Requested "
+                        + cpu
+                        + " cpus to run job which is more than the "
+                        + maxSystemCpu
+                        + " cpus allowed"
+                );
             }
-        } catch (GenieConflictException e) {
-            // Job has not been initiated so we don't have to call JobStateService.done()
-            throw e;
-        } catch (GenieException e) {
-            //
-            // Need to check if the job exists in the JobStateService
-            // because this error can happen before the job is initiated.
-            //
-            if (jobStateService.jobExists(jobId)) {
-                jobStateService.done(jobId);
-                jobPersistenceService.updateJobStatus(jobId, jobStatus, e.getMessage());
+
+            log.info("Checking if can run job {} on this node", jobId);
+            final int maxSystemMemory = this.jobsProperties.getMemory().getMaxSystemMemory();
+            // Jobs already queued go first so a job which happens to fit can't starve them
+            if (this.jobStateService.admit(jobId, jobRequest, memory, maxSystemMemory, cpu, maxSystemCpu)) {
+                log.info(
+                    "Job {} can run on this node as {} MB out of {} MB and {} cpus were reserved",
+                    jobId,
+                    memory,
+                    maxSystemMemory,
+                    cpu
+                );
+                // Tell the system a new job has been scheduled so any actions can be taken
+                log.info("Publishing job scheduled event for job {}", jobId);
+                this.jobStateService.schedule(jobId, jobRequest, cluster, command, applications, memory);
+            } else if (this.waitForResources(jobId, jobRequest, cluster, command, applications, memory, cpu)) {
+                log.info("Job {} is waiting for {} MB and {} cpus to be free on this node", jobId, memory, cpu);
+            } else {
+                throw new GenieServerUnavailableException(
+                    "Job "
+                        + jobId
+                        + " can't run on this node "
+                        + this.jobStateService.getUsedMemory()
+                        + "/"
+                        + maxSystemMemory
+                        + " MB and "
+                        + this.jobStateService.getUsedCpu()
+                        + (maxSystemCpu > 0 ? "/" + maxSystemCpu : "")
+                        + " cpus are used and requested "
+                        + memory
+                        + " MB and "
+                        + cpu
+                        + " cpus"
+                );
             }
+        } catch (final GenieException e) {
+            this.cleanUpFailedJob(jobId, jobStatus, e);
             throw e;
-        } catch (Exception e) {
-            //
-            // Need to check if the job exists in the JobStateService
-            // because this error can happen before the job is initiated.
-            //
-            if (jobStateService.jobExists(jobId)) {
-                jobStateService.done(jobId);
-                jobPersistenceService.updateJobStatus(jobId, jobStatus, e.getMessage());
-            }
+        } catch (final Exception e) {
+            this.cleanUpFailedJob(jobId, jobStatus, e);
             throw new GenieServerException(e);
-        } finally {
-            this.coordinationTimer.record(System.nanoTime() - coordinationStart, TimeUnit.MILLISECONDS);
         }
     }
 
-    /**
-     * {@inheritDoc}
-     */
-    @Override
-    public void killJob(@NotBlank final String jobId) throws GenieException {
-        this.jobKillService.killJob(jobId);
+    private boolean waitForResources(
+        final String jobId,
+        final JobRequest jobRequest,
+        final Cluster cluster,
+        final Command command,
+        final List<Application> applications,
+        final int memory,
+        final int cpu
+    ) throws GenieException {
+        if (!this.jobsProperties.getAdmission().isQueueEnabled()) {
+            return false;
+        }
+        // Set the message before queueing as once queued the job could be scheduled and started at any time
+        this.jobPersistenceService.updateJobStatus(
+            jobId,
+            JobStatus.INIT,
+            "Job is queued waiting for " + memory + " MB of memory and " + cpu + " cpus to be available on the node"
+        );
+        return this.jobStateService.queue(jobId, jobRequest, cluster, command, applications, memory, cpu);
+    }
+
+    private void cleanUpFailedJob(final String jobId, final JobStatus jobStatus, final Exception e)
+        throws GenieException {
+        //
+        // Need to check if the job exists in the JobStateService
+        // because this error can happen before the job is initiated.
+        //
+        if (this.jobStateService.jobExists(jobId)) {
+            this.jobStateService.done(jobId);
+            this.jobPersistenceService.updateJobStatus(jobId, jobStatus, e.getMessage());
+        }
     }
 
     private void setRuntimeEnvironment(
@@ -308,78 +548,12 @@ public class JobCoordinatorServiceImpl implements JobCoordinatorService {
         }
     }
 
-    private Cluster getCluster(final JobRequest jobRequest) throws GenieException {
-        final long start = System.nanoTime();
-        try {
-            log.info("Selecting cluster for job {}", jobRequest.getId());
-            final Cluster cluster
-                = this.clusterLoadBalancer.selectCluster(this.clusterService.chooseClusterForJobRequest(jobRequest));
-            log.info("Selected cluster {} for job {}", cluster.getId(), jobRequest.getId());
-            return cluster;
-        } finally {
-            this.selectClusterTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
-        }
-    }
-
-    private Command getCommand(final JobRequest jobRequest, final Cluster cluster) throws GenieException {
+    private JobResolution resolveJob(final JobRequest jobRequest) throws GenieException {
         final long start = System.nanoTime();
         try {
-            final String clusterId = cluster.getId().orElseThrow(() -> new GenieServerException("No cluster id."));
-            final String jobId = jobRequest.getId().orElseThrow(() -> new GenieServerException("No job id"));
-            log.info("Selecting command attached to cluster {} for job {} ", clusterId, jobId);
-            final Set<String> commandCriteria = jobRequest.getCommandCriteria();
-            // TODO: what happens if the get method throws an error we don't mark the job failed here
-            for (
-                final Command command : this.clusterService.getCommandsForCluster(clusterId, this.commandStatuses)
-                ) {
-                if (command.getTags().containsAll(jobRequest.getCommandCriteria())) {
-                    log.info("Selected command {} for job {} ", command.getId(), jobRequest.getId());
-                    return command;
-                }
-            }
-
-            throw new GeniePreconditionException(
-                "No command found matching all command criteria ["
-                    + commandCriteria
-                    + "] attached to cluster with id: "
-                    + cluster.getId()
-            );
-        } finally {
-            this.selectCommandTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
-        }
-    }
-
-    private List<Application> getApplications(
-        final JobRequest jobRequest,
-        final Command command
-    ) throws GenieException {
-        final long start = System.nanoTime();
-        try {
-            final String jobId = jobRequest.getId().orElseThrow(() -> new GenieServerException("No job Id"));
-            final String commandId = command.getId().orElseThrow(() -> new GenieServerException("No command Id"));
-            log.info("Selecting applications for job {} and command {}", jobId, commandId);
-            // TODO: What do we do about application status? Should probably check here
-            final List<Application> applications = new ArrayList<>();
-            if (jobRequest.getApplications().isEmpty()) {
-                applications.addAll(this.commandService.getApplicationsForCommand(commandId));
-            } else {
-                for (final String applicationId : jobRequest.getApplications()) {
-                    applications.add(this.applicationService.getApplication(applicationId));
-                }
-            }
-            log.info(
-                "Selected applications {} for job {}",
-                applications
-                    .stream()
-                    .map(Application::getId)
-                    .filter(Optional::isPresent)
-                    .map(Optional::get)
-                    .reduce((one, two) -> one + "," + two),
-                jobRequest.getId()
-            );
-            return applications;
+            return this.jobResolverService.resolveJob(jobRequest);
         } finally {
-            this.selectApplicationsTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            this.resolveJobTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         }
     }
 }
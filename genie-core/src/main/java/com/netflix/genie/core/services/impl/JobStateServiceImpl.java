@@ -17,17 +17,25 @@
  */
 package com.netflix.genie.core.services.impl;
 
+import com.google.common.collect.Maps;
 import com.netflix.genie.common.dto.Application;
 import com.netflix.genie.common.dto.Cluster;
 import com.netflix.genie.common.dto.Command;
 import com.netflix.genie.common.dto.JobRequest;
 import com.netflix.genie.common.exceptions.GenieException;
+import com.netflix.genie.core.events.JobFinishedEvent;
+import com.netflix.genie.core.events.JobFinishedReason;
 import com.netflix.genie.core.events.JobScheduledEvent;
 import com.netflix.genie.core.jobs.JobLauncher;
+import com.netflix.genie.core.jobs.JobResourceLedger;
+import com.netflix.genie.core.jobs.admission.JobAdmissionPolicy;
+import com.netflix.genie.core.jobs.admission.QueuedJob;
+import com.netflix.genie.core.properties.JobsProperties;
 import com.netflix.genie.core.services.JobStateService;
 import com.netflix.genie.core.services.JobSubmitterService;
 import com.netflix.spectator.api.Counter;
 import com.netflix.spectator.api.Registry;
+import com.netflix.spectator.api.Timer;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
@@ -35,12 +43,21 @@ import org.joda.time.Instant;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.scheduling.TaskScheduler;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 /**
  * A Service to monitor the state of locally run jobs.
@@ -54,8 +71,24 @@ public class JobStateServiceImpl implements JobStateService {
     protected final Registry registry;
     protected final ApplicationEventPublisher publisher;
     private final Map<String, JobInfo> jobs = Collections.synchronizedMap(new HashMap<>());
+    private final JobResourceLedger memoryLedger = new JobResourceLedger();
+    private final JobResourceLedger cpuLedger = new JobResourceLedger();
+    // Jobs waiting for memory in the order they were queued. All access is synchronized on the map itself.
+    private final Map<String, QueueEntry> queuedJobs = new LinkedHashMap<>();
+    // The size of the queue, readable without its lock. Only changed while holding it.
+    private final AtomicInteger numQueuedJobs = new AtomicInteger();
+    private final Map<String, ShareStats> shares = new ConcurrentHashMap<>();
+    // A live read only view of the memory reserved by each share's jobs, as admitting a job charges its share
+    private final Map<String, Integer> reservedMemory = Collections.unmodifiableMap(
+        Maps.transformValues(this.shares, stats -> stats.getRunningMemory().get())
+    );
     private final JobSubmitterService jobSubmitterService;
+    private final JobsProperties jobsProperties;
+    private final JobAdmissionPolicy admissionPolicy;
     private final Counter unableToCancel;
+    private final Counter queueRejectedRate;
+    private final Counter queueTimeoutRate;
+    private final Timer queueWaitTimer;
 
     /**
      * Constructor.
@@ -63,20 +96,32 @@ public class JobStateServiceImpl implements JobStateService {
      * @param scheduler           The task scheduler to use to register scheduling of job checkers
      * @param publisher           The application event publisher to use to publish synchronous events
      * @param registry            The metrics registry
+     * @param jobsProperties      The jobs properties to use
+     * @param admissionPolicy     The policy deciding which queued job to admit next
      */
     public JobStateServiceImpl(final JobSubmitterService jobSubmitterService,
                                final TaskScheduler scheduler,
                                final ApplicationEventPublisher publisher,
-                               final Registry registry) {
+                               final Registry registry,
+                               final JobsProperties jobsProperties,
+                               final JobAdmissionPolicy admissionPolicy) {
         this.jobSubmitterService = jobSubmitterService;
         this.scheduler = scheduler;
         this.registry = registry;
         this.publisher = publisher;
+        this.jobsProperties = jobsProperties;
+        this.admissionPolicy = admissionPolicy;
 
         this.registry.mapSize("genie.jobs.running.gauge", this.jobs);
         this.registry.methodValue("genie.jobs.active.gauge", this, "getNumActiveJobs");
         this.registry.methodValue("genie.jobs.memory.used.gauge", this, "getUsedMemory");
+        this.registry.methodValue("genie.jobs.memory.reservations.gauge", this.memoryLedger, "getNumReservations");
+        this.registry.methodValue("genie.jobs.cpu.used.gauge", this, "getUsedCpu");
+        this.registry.methodValue("genie.jobs.admission.queued.gauge", this, "getNumQueuedJobs");
         this.unableToCancel = registry.counter("genie.jobs.unableToCancel.rate");
+        this.queueRejectedRate = registry.counter("genie.jobs.admission.rejected.rate");
+        this.queueTimeoutRate = registry.counter("genie.jobs.admission.timeout.rate");
+        this.queueWaitTimer = registry.timer("genie.jobs.admission.wait.timer");
     }
 
     /**
@@ -86,6 +131,89 @@ public class JobStateServiceImpl implements JobStateService {
     public void init(final String jobId) {
         jobs.putIfAbsent(jobId, new JobInfo());
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean reserveResources(final String jobId, final int memory, final int maxSystemMemory, final int cpu,
+                                    final int maxSystemCpu) {
+        final int cpuLimit = maxSystemCpu > 0 ? maxSystemCpu : Integer.MAX_VALUE;
+        // Only locks on the job itself so a concurrent done() can't leave a reservation behind
+        final AtomicBoolean reserved = new AtomicBoolean(false);
+        handle(jobId, () -> {
+            if (this.memoryLedger.reserve(jobId, memory, maxSystemMemory)) {
+                if (this.cpuLedger.reserve(jobId, cpu, cpuLimit)) {
+                    reserved.set(true);
+                } else {
+                    this.memoryLedger.release(jobId);
+                }
+            }
+            return null;
+        });
+        return reserved.get();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean admit(final String jobId, final JobRequest jobRequest, final int memory,
+                         final int maxSystemMemory, final int cpu, final int maxSystemCpu) {
+        // Jobs already queued go first. Checked without the queue lock so admission stays uncontended while nothing
+        // is queued. A job queued right after the check is admitted by the queue once this one leaves enough room.
+        if (this.jobsProperties.getAdmission().isQueueEnabled() && this.numQueuedJobs.get() > 0) {
+            return false;
+        }
+        return this.reserveResources(
+            jobId,
+            this.admissionPolicy.getShare(jobRequest),
+            memory,
+            maxSystemMemory,
+            cpu,
+            maxSystemCpu
+        );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean queue(final String jobId, final JobRequest jobRequest, final Cluster cluster,
+                         final Command command, final List<Application> applications, final int memory,
+                         final int cpu) {
+        if (!this.jobsProperties.getAdmission().isQueueEnabled() || !this.jobExists(jobId)) {
+            return false;
+        }
+        final long waitTimeout = this.jobsProperties.getAdmission().getWaitTimeout();
+        final String share = this.admissionPolicy.getShare(jobRequest);
+        synchronized (this.queuedJobs) {
+            if (this.queuedJobs.size() >= this.jobsProperties.getAdmission().getQueueCapacity()) {
+                this.queueRejectedRate.increment();
+                return false;
+            }
+            final QueueEntry entry = new QueueEntry(
+                new QueuedJob(jobId, share, jobRequest, cluster, command, applications, memory, cpu)
+            );
+            this.queuedJobs.put(jobId, entry);
+            this.numQueuedJobs.incrementAndGet();
+            this.updateShare(share, 0, 0, 1);
+            entry.setTimeoutTask(
+                this.scheduler.schedule(() -> this.expire(jobId), new Date(System.currentTimeMillis() + waitTimeout))
+            );
+        }
+        log.info(
+            "Job {} of share {} queued until {} MB of memory and {} cpus are free on this node",
+            jobId,
+            share,
+            memory,
+            cpu
+        );
+        // Memory may have been released between the caller failing to reserve it and the job being queued
+        this.admitQueuedJobs();
+        return true;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -94,7 +222,10 @@ public class JobStateServiceImpl implements JobStateService {
                          final Command command, final List<Application> applications, final int memory) {
         handle(jobId, () -> {
             final JobInfo jobInfo = jobs.get(jobId);
-            jobInfo.setMemory(memory);
+            this.memoryLedger.record(jobId, memory);
+            if (jobRequest != null) {
+                this.chargeShare(jobInfo, this.admissionPolicy.getShare(jobRequest), memory, false);
+            }
             final JobLauncher jobLauncher = new JobLauncher(this.jobSubmitterService,
                 jobRequest,
                 cluster,
@@ -133,8 +264,193 @@ public class JobStateServiceImpl implements JobStateService {
                 }
             }
             jobs.remove(jobId);
+            this.memoryLedger.release(jobId);
+            this.cpuLedger.release(jobId);
+            if (jobInfo.getShare() != null) {
+                this.updateShare(jobInfo.getShare(), -1, -jobInfo.getMemory(), 0);
+            }
+            return null;
+        });
+        // Outside the job lock as admitting queued jobs takes the locks of those jobs
+        synchronized (this.queuedJobs) {
+            this.dequeue(this.queuedJobs.remove(jobId));
+        }
+        this.admitQueuedJobs();
+    }
+
+    /**
+     * Get the number of jobs on this node which are waiting for memory to be available before being scheduled.
+     *
+     * @return The number of queued jobs
+     */
+    public int getNumQueuedJobs() {
+        return this.numQueuedJobs.get();
+    }
+
+    private void admitQueuedJobs() {
+        if (this.numQueuedJobs.get() == 0) {
+            return;
+        }
+        final int maxSystemMemory = this.jobsProperties.getMemory().getMaxSystemMemory();
+        final int maxSystemCpu = this.jobsProperties.getCpu().getMaxSystemCpu();
+        final List<QueuedJob> admitted = new ArrayList<>();
+        synchronized (this.queuedJobs) {
+            this.queuedJobs.values().removeIf(
+                entry -> {
+                    if (this.jobExists(entry.getQueuedJob().getId())) {
+                        return false;
+                    }
+                    this.dequeue(entry);
+                    return true;
+                }
+            );
+            // The policy decides the order. Stop at the first job which doesn't fit so it isn't starved.
+            while (!this.queuedJobs.isEmpty()) {
+                final Optional<QueuedJob> next = this.admissionPolicy.next(
+                    this.queuedJobs.values().stream().map(QueueEntry::getQueuedJob).collect(Collectors.toList()),
+                    this.reservedMemory
+                );
+                if (!next.isPresent()) {
+                    break;
+                }
+                final QueuedJob queuedJob = next.get();
+                if (
+                    !this.reserveResources(
+                        queuedJob.getId(),
+                        queuedJob.getShare(),
+                        queuedJob.getMemory(),
+                        maxSystemMemory,
+                        queuedJob.getCpu(),
+                        maxSystemCpu
+                    )
+                ) {
+                    break;
+                }
+                this.dequeue(this.queuedJobs.remove(queuedJob.getId()));
+                admitted.add(queuedJob);
+            }
+        }
+        // Schedule outside of the queue lock as it publishes events synchronously
+        for (final QueuedJob queuedJob : admitted) {
+            this.queueWaitTimer.record(System.nanoTime() - queuedJob.getQueued(), TimeUnit.NANOSECONDS);
+            log.info(
+                "Job {} of share {} admitted from the queue as {} MB and {} cpus were reserved",
+                queuedJob.getId(),
+                queuedJob.getShare(),
+                queuedJob.getMemory(),
+                queuedJob.getCpu()
+            );
+            this.schedule(
+                queuedJob.getId(),
+                queuedJob.getJobRequest(),
+                queuedJob.getCluster(),
+                queuedJob.getCommand(),
+                queuedJob.getApplications(),
+                queuedJob.getMemory()
+            );
+        }
+    }
+
+    private boolean reserveResources(final String jobId, final String share, final int memory,
+                                     final int maxSystemMemory, final int cpu, final int maxSystemCpu) {
+        // Charges the share along with the reservation so jobs admitted at the same time can't go over its limits
+        final AtomicBoolean reserved = new AtomicBoolean(false);
+        handle(jobId, () -> {
+            if (this.reserveResources(jobId, memory, maxSystemMemory, cpu, maxSystemCpu)) {
+                if (this.chargeShare(jobs.get(jobId), share, memory, true)) {
+                    reserved.set(true);
+                } else {
+                    log.info("Job {} of share {} can't be admitted by the admission policy", jobId, share);
+                    this.memoryLedger.release(jobId);
+                    this.cpuLedger.release(jobId);
+                }
+            }
             return null;
         });
+        return reserved.get();
+    }
+
+    private boolean chargeShare(final JobInfo jobInfo, final String share, final int memory,
+                                final boolean checkPolicy) {
+        if (jobInfo.getShare() != null) {
+            return true;
+        }
+        final AtomicBoolean charged = new AtomicBoolean(false);
+        // The policy reads the share's own counter while the share is locked so its limits hold without a global lock
+        this.shares.compute(
+            share,
+            (key, current) -> {
+                final ShareStats stats = current == null ? new ShareStats(this.registry, key) : current;
+                if (!checkPolicy || this.admissionPolicy.canAdmit(key, memory, stats.getRunningMemory().get())) {
+                    stats.getRunningJobs().incrementAndGet();
+                    stats.getRunningMemory().addAndGet(memory);
+                    charged.set(true);
+                }
+                return stats.isIdle() ? null : stats;
+            }
+        );
+        if (charged.get()) {
+            jobInfo.setShare(share);
+            jobInfo.setMemory(memory);
+        }
+        return charged.get();
+    }
+
+    private void dequeue(final QueueEntry entry) {
+        if (entry != null) {
+            this.numQueuedJobs.decrementAndGet();
+            entry.cancelTimeout();
+            this.updateShare(entry.getQueuedJob().getShare(), 0, 0, -1);
+        }
+    }
+
+    private void updateShare(final String share, final int runningJobs, final int runningMemory,
+                             final int queuedJobs) {
+        // Atomic for the share so an update racing with the share being dropped isn't lost
+        this.shares.compute(
+            share,
+            (key, current) -> {
+                final ShareStats stats = current == null ? new ShareStats(this.registry, key) : current;
+                stats.getRunningJobs().addAndGet(runningJobs);
+                stats.getRunningMemory().addAndGet(runningMemory);
+                stats.getQueuedJobs().addAndGet(queuedJobs);
+                // Drop idle shares so gauges only exist for shares with jobs on this node. The registry only holds
+                // the gauges weakly so they are expired once the stats are gone.
+                return stats.isIdle() ? null : stats;
+            }
+        );
+    }
+
+    private void expire(final String jobId) {
+        final QueueEntry entry;
+        synchronized (this.queuedJobs) {
+            entry = this.queuedJobs.remove(jobId);
+            this.dequeue(entry);
+        }
+        if (entry == null) {
+            // Already admitted or done
+            return;
+        }
+        final QueuedJob queuedJob = entry.getQueuedJob();
+        final long waited = System.nanoTime() - queuedJob.getQueued();
+        this.queueTimeoutRate.increment();
+        this.queueWaitTimer.record(waited, TimeUnit.NANOSECONDS);
+        log.info("Job {} timed out waiting for memory on this node", jobId);
+        // Same path as killing a job in INIT so the job is marked failed and cleaned up
+        this.publisher.publishEvent(
+            new JobFinishedEvent(
+                jobId,
+                JobFinishedReason.FAILED_TO_INIT,
+                "Timed out after waiting "
+                    + TimeUnit.NANOSECONDS.toMillis(waited)
+                    + " ms for "
+                    + queuedJob.getMemory()
+                    + " MB of memory and "
+                    + queuedJob.getCpu()
+                    + " cpus to be available on the node",
+                this
+            )
+        );
     }
 
     private void handle(final String jobId, final Supplier<Void> supplier) {
@@ -160,7 +476,7 @@ public class JobStateServiceImpl implements JobStateService {
     protected void setMemoryAndTask(final String jobId, final int memory, final Future<?> task) {
         handle(jobId, () -> {
             final JobInfo jobInfo = jobs.get(jobId);
-            jobInfo.setMemory(memory);
+            this.memoryLedger.record(jobId, memory);
             jobInfo.setRunningTask(task);
             jobInfo.setActive(true);
             return null;
@@ -182,18 +498,70 @@ public class JobStateServiceImpl implements JobStateService {
      */
     @Override
     public int getUsedMemory() {
-        // Synchronized to avoid concurrent modification exception
-        synchronized (this.jobs) {
-            return this.jobs.values().stream().map(JobInfo::getMemory)
-                .reduce((a, b) -> a + b).orElse(0);
-        }
+        return this.memoryLedger.getUsed();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getUsedCpu() {
+        return this.cpuLedger.getUsed();
     }
 
     @Getter
     @Setter
     private static class JobInfo {
         private Future<?> runningTask;
-        private Integer memory = 0;
         private boolean active;
+        private String share;
+        private int memory;
+    }
+
+    @Getter
+    private static class QueueEntry {
+        private final QueuedJob queuedJob;
+        @Setter
+        private Future<?> timeoutTask;
+
+        QueueEntry(final QueuedJob queuedJob) {
+            this.queuedJob = queuedJob;
+        }
+
+        void cancelTimeout() {
+            if (this.timeoutTask != null) {
+                this.timeoutTask.cancel(false);
+            }
+        }
+    }
+
+    /**
+     * Running and queued jobs of a share of this node, exported as gauges tagged with the share for as long as the
+     * share has jobs on this node.
+     */
+    @Getter
+    private static class ShareStats {
+        private final AtomicInteger runningJobs = new AtomicInteger();
+        private final AtomicInteger runningMemory = new AtomicInteger();
+        private final AtomicInteger queuedJobs = new AtomicInteger();
+
+        ShareStats(final Registry registry, final String share) {
+            registry.gauge(
+                registry.createId("genie.jobs.share.running.gauge").withTag("share", share),
+                this.runningJobs
+            );
+            registry.gauge(
+                registry.createId("genie.jobs.share.memory.gauge").withTag("share", share),
+                this.runningMemory
+            );
+            registry.gauge(
+                registry.createId("genie.jobs.share.queued.gauge").withTag("share", share),
+                this.queuedJobs
+            );
+        }
+
+        boolean isIdle() {
+            return this.runningJobs.get() == 0 && this.queuedJobs.get() == 0;
+        }
     }
 }
@@ -30,6 +30,10 @@ import com.netflix.genie.core.events.JobFinishedReason;
 import com.netflix.genie.core.events.JobStartedEvent;
 import com.netflix.genie.core.jobs.JobConstants;
 import com.netflix.genie.core.jobs.JobExecutionEnvironment;
+import com.netflix.genie.core.jobs.JobFileStager;
+import com.netflix.genie.core.jobs.JobFileStaging;
+import com.netflix.genie.core.jobs.JobWorkspaceFactory;
+import com.netflix.genie.core.jobs.workflow.WorkflowGraph;
 import com.netflix.genie.core.jobs.workflow.WorkflowTask;
 import com.netflix.genie.core.services.JobPersistenceService;
 import com.netflix.genie.core.services.JobSubmitterService;
@@ -39,7 +43,6 @@ import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.event.ApplicationEventMulticaster;
-import org.springframework.core.io.Resource;
 
 import javax.validation.Valid;
 import javax.validation.constraints.Min;
@@ -52,6 +55,7 @@ import java.io.Writer;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -65,15 +69,16 @@ import java.util.concurrent.TimeUnit;
 public class LocalJobRunner implements JobSubmitterService {
 
     private final JobPersistenceService jobPersistenceService;
-    private final List<WorkflowTask> jobWorkflowTasks;
-    private final Resource baseWorkingDirPath;
+    private final WorkflowGraph jobWorkflow;
+    private final ExecutorService workflowExecutor;
+    private final JobWorkspaceFactory workspaceFactory;
+    private final JobFileStager fileStager;
     private final ApplicationEventPublisher eventPublisher;
     private final ApplicationEventMulticaster eventMulticaster;
 
     private final Timer overallSubmitTimer;
-    private final Timer createJobDirTimer;
-    private final Timer createRunScriptTimer;
     private final Timer executeJobTimer;
+    private final Timer workflowCriticalPathTimer;
     private final Timer saveJobExecutionTimer;
     private final Timer publishJobStartedEventTimer;
 
@@ -84,7 +89,9 @@ public class LocalJobRunner implements JobSubmitterService {
      * @param eventPublisher        The synchronous event publisher to use
      * @param eventMulticaster      Instance of the asynchronous event publisher to use
      * @param workflowTasks         List of all the workflow tasks to be executed
-     * @param genieWorkingDir       Working directory for genie where it creates jobs directories
+     * @param workflowExecutor      The executor to run the workflow tasks on
+     * @param workspaceFactory      The factory to create the working directory of each job with
+     * @param fileStager            The stager to fetch the files of each job with
      * @param registry              The metrics registry to use
      */
     public LocalJobRunner(
@@ -92,20 +99,23 @@ public class LocalJobRunner implements JobSubmitterService {
         @NotNull final ApplicationEventPublisher eventPublisher,
         @NotNull final ApplicationEventMulticaster eventMulticaster,
         @NotNull final List<WorkflowTask> workflowTasks,
-        @NotNull final Resource genieWorkingDir,
+        @NotNull final ExecutorService workflowExecutor,
+        @NotNull final JobWorkspaceFactory workspaceFactory,
+        @NotNull final JobFileStager fileStager,
         @NotNull final Registry registry
     ) {
         this.jobPersistenceService = jobPersistenceService;
-        this.jobWorkflowTasks = workflowTasks;
-        this.baseWorkingDirPath = genieWorkingDir;
+        this.jobWorkflow = new WorkflowGraph(workflowTasks);
+        this.workflowExecutor = workflowExecutor;
+        this.workspaceFactory = workspaceFactory;
+        this.fileStager = fileStager;
         this.eventPublisher = eventPublisher;
         this.eventMulticaster = eventMulticaster;
 
         // Metrics
         this.overallSubmitTimer = registry.timer("genie.jobs.submit.localRunner.overall.timer");
-        this.createJobDirTimer = registry.timer("genie.jobs.submit.localRunner.createJobDir.timer");
-        this.createRunScriptTimer = registry.timer("genie.jobs.submit.localRunner.createRunScript.timer");
         this.executeJobTimer = registry.timer("genie.jobs.submit.localRunner.executeJob.timer");
+        this.workflowCriticalPathTimer = registry.timer("genie.jobs.submit.localRunner.workflowCriticalPath.timer");
         this.saveJobExecutionTimer = registry.timer("genie.jobs.submit.localRunner.saveJobExecution.timer");
         this.publishJobStartedEventTimer = registry.timer("genie.jobs.submit.localRunner.publishJobStartedEvent.timer");
     }
@@ -140,8 +150,9 @@ public class LocalJobRunner implements JobSubmitterService {
             final String id = jobRequest.getId().orElseThrow(() -> new GenieServerException("No job id found."));
 
             try {
-                final File jobWorkingDir = this.createJobWorkingDirectory(id);
-                final File runScript = this.createRunScript(jobWorkingDir);
+                // Creates the whole layout of the working directory including the empty run script
+                final File jobWorkingDir = this.workspaceFactory.create(id, cluster, command, applications);
+                final File runScript = new File(jobWorkingDir, JobConstants.GENIE_JOB_LAUNCHER_SCRIPT);
 
                 // The map object stores the context for all the workflow tasks
                 final Map<String, Object> context
@@ -203,47 +214,6 @@ public class LocalJobRunner implements JobSubmitterService {
         }
     }
 
-    private File createJobWorkingDirectory(final String id) throws GenieException {
-        final long start = System.nanoTime();
-        try {
-            final File jobDir = new File(this.baseWorkingDirPath.getFile(), id);
-            if (!jobDir.mkdirs()) {
-                throw new GenieServerException(
-                    "Could not create job working directory directory: " + jobDir.getCanonicalPath()
-                );
-            }
-            log.info("Created job dir {}", jobDir);
-            return jobDir;
-        } catch (final IOException ioe) {
-            throw new GenieServerException("Could not resolve job working directory due to exception", ioe);
-        } finally {
-            this.createJobDirTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
-        }
-    }
-
-    private File createRunScript(final File jobWorkingDir) throws GenieException {
-        final long start = System.nanoTime();
-        try {
-            final File runScript = new File(jobWorkingDir, JobConstants.GENIE_JOB_LAUNCHER_SCRIPT);
-            if (!runScript.exists()) {
-                try {
-                    if (!runScript.createNewFile()) {
-                        throw new GenieServerException("Unable to create run script file due to unknown reason.");
-                    }
-                } catch (final IOException ioe) {
-                    throw new GenieServerException("Unable to create run script file due to IOException.", ioe);
-                }
-            }
-            if (!runScript.setExecutable(true)) {
-                throw new GenieServerException("Unable to make run script executable");
-            }
-            log.info("Created run script {}", runScript);
-            return runScript;
-        } finally {
-            this.createRunScriptTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
-        }
-    }
-
     private Map<String, Object> createJobContext(
         final JobRequest jobRequest,
         final Cluster cluster,
@@ -267,6 +237,12 @@ public class LocalJobRunner implements JobSubmitterService {
         final Map<String, Object> context = new HashMap<>();
 
         context.put(JobConstants.JOB_EXECUTION_ENV_KEY, jee);
+        context.put(
+            JobConstants.JOB_FILE_STAGING_KEY,
+            this.fileStager.forJob(
+                jobRequest.getId().orElseThrow(() -> new GenieServerException("No job id found."))
+            )
+        );
 
         return context;
     }
@@ -281,12 +257,9 @@ public class LocalJobRunner implements JobSubmitterService {
             log.info("Executing job workflow for job {}", jobId);
             context.put(JobConstants.WRITER_KEY, writer);
 
-            for (WorkflowTask workflowTask : this.jobWorkflowTasks) {
-                workflowTask.executeTask(context);
-                if (Thread.currentThread().isInterrupted()) {
-                    log.info("Interrupted job workflow for job {}", jobId);
-                    break;
-                }
+            final long criticalPath = this.jobWorkflow.execute(context, writer, this.workflowExecutor, jobId);
+            if (!Thread.currentThread().isInterrupted()) {
+                this.workflowCriticalPathTimer.record(criticalPath, TimeUnit.NANOSECONDS);
             }
 
             log.info("Finished Executing job workflow for job {}", jobId);
@@ -294,6 +267,8 @@ public class LocalJobRunner implements JobSubmitterService {
         } catch (final IOException ioe) {
             throw new GenieServerException("Failed to execute job due to: " + ioe.getMessage(), ioe);
         } finally {
+            // Don't leave files being fetched in the background if the workflow stopped before the job was launched
+            ((JobFileStaging) context.get(JobConstants.JOB_FILE_STAGING_KEY)).cancel();
             this.executeJobTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         }
     }
@@ -17,13 +17,22 @@
  */
 package com.netflix.genie.core.services.impl;
 
+import com.amazonaws.AmazonClientException;
 import com.amazonaws.services.s3.AmazonS3Client;
+import com.amazonaws.services.s3.model.AbortMultipartUploadRequest;
 import com.amazonaws.services.s3.model.AmazonS3Exception;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadRequest;
 import com.amazonaws.services.s3.model.GetObjectRequest;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadRequest;
 import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.PartETag;
+import com.amazonaws.services.s3.model.S3Object;
+import com.amazonaws.services.s3.model.UploadPartRequest;
 import com.netflix.genie.common.exceptions.GenieException;
 import com.netflix.genie.common.exceptions.GenieServerException;
+import com.netflix.genie.core.properties.S3FileTransferProperties;
 import com.netflix.genie.core.services.FileTransfer;
+import com.netflix.spectator.api.Counter;
 import com.netflix.spectator.api.Registry;
 import com.netflix.spectator.api.Timer;
 import lombok.Getter;
@@ -32,12 +41,30 @@ import org.hibernate.validator.constraints.NotBlank;
 
 import javax.validation.constraints.NotNull;
 import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 /**
  * An implementation of the FileTransferService interface in which the remote locations are on Amazon S3.
+ * <p>
+ * Files at least as large as the multipart threshold are transferred as parts in parallel. Downloads fetch byte
+ * ranges of the object straight into their place in the local file and uploads use the S3 multipart upload API. A
+ * failed part is retried on its own, and a download resumes from the last byte written, so a single failure doesn't
+ * restart the whole transfer.
  *
  * @author amsharma
  * @since 3.0.0
@@ -45,24 +72,45 @@ import java.util.regex.Pattern;
 @Slf4j
 public class S3FileTransferImpl implements FileTransfer {
 
+    // S3 rejects multipart uploads with more parts than this
+    private static final long MAX_PARTS = 10000L;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
     private final Pattern s3FilePattern = Pattern.compile("^(s3[n]?://)(.*?)/(.*/.*)");
     private final Pattern s3PrefixPattern = Pattern.compile("^s3[n]?://.*$");
     private AmazonS3Client s3Client;
+    private S3FileTransferProperties transferProperties;
+    private Executor transferExecutor;
     private Timer downloadTimer;
     private Timer uploadTimer;
     private Timer getTimer;
+    private Counter downloadBytesRate;
+    private Counter uploadBytesRate;
+    private Counter partRetryRate;
 
     /**
      * Constructor.
      *
-     * @param amazonS3Client An amazon s3 client object
-     * @param registry       The metrics registry to use
+     * @param amazonS3Client     An amazon s3 client object
+     * @param transferProperties The properties controlling multipart transfers
+     * @param transferExecutor   The executor to transfer the parts of large files on
+     * @param registry           The metrics registry to use
      */
-    public S3FileTransferImpl(@NotNull final AmazonS3Client amazonS3Client, @NotNull final Registry registry) {
+    public S3FileTransferImpl(
+        @NotNull final AmazonS3Client amazonS3Client,
+        @NotNull final S3FileTransferProperties transferProperties,
+        @NotNull final Executor transferExecutor,
+        @NotNull final Registry registry
+    ) {
         this.s3Client = amazonS3Client;
+        this.transferProperties = transferProperties;
+        this.transferExecutor = transferExecutor;
         this.downloadTimer = registry.timer("genie.files.s3.download.timer");
         this.uploadTimer = registry.timer("genie.files.s3.upload.timer");
         this.getTimer = registry.timer("genie.files.s3.getObjectMetadata.timer");
+        this.downloadBytesRate = registry.counter("genie.files.s3.download.bytes.rate");
+        this.uploadBytesRate = registry.counter("genie.files.s3.upload.bytes.rate");
+        this.partRetryRate = registry.counter("genie.files.s3.part.retry.rate");
     }
 
     /**
@@ -90,15 +138,41 @@ public class S3FileTransferImpl implements FileTransfer {
             log.debug("Called with src path {} and destination path {}", srcRemotePath, dstLocalPath);
 
             final S3Key s3Key = new S3Key(srcRemotePath);
-            try {
-                this.s3Client.getObject(
-                    new GetObjectRequest(s3Key.getBucket(), s3Key.getKey()),
-                    new File(dstLocalPath)
-                );
-            } catch (AmazonS3Exception ase) {
-                log.error("Error fetching file {} from s3 due to exception {}", srcRemotePath, ase);
-                throw new GenieServerException("Error downloading file from s3. Filename: " + srcRemotePath);
+            this.download(s3Key, this.getMetadata(s3Key), new File(dstLocalPath));
+        } finally {
+            this.downloadTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Uses the ETag of the object as the version so an unchanged object costs a single metadata request.
+     */
+    @Override
+    public Optional<String> getFileIfChanged(
+        @NotBlank(message = "Source file path cannot be empty.")
+        final String srcRemotePath,
+        @NotBlank(message = "Destination local path cannot be empty")
+        final String dstLocalPath,
+        final String version
+    ) throws GenieException {
+        final long start = System.nanoTime();
+        try {
+            log.debug(
+                "Called with src path {}, destination path {} and version {}",
+                srcRemotePath,
+                dstLocalPath,
+                version
+            );
+
+            final S3Key s3Key = new S3Key(srcRemotePath);
+            final ObjectMetadata metadata = this.getMetadata(s3Key);
+            if (metadata.getETag().equals(version)) {
+                return Optional.empty();
             }
+            this.download(s3Key, metadata, new File(dstLocalPath));
+            return Optional.of(metadata.getETag());
         } finally {
             this.downloadTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         }
@@ -119,8 +193,15 @@ public class S3FileTransferImpl implements FileTransfer {
             log.debug("Called with src path {} and destination path {}", srcLocalPath, dstRemotePath);
 
             final S3Key s3Key = new S3Key(dstRemotePath);
+            final File srcFile = new File(srcLocalPath);
+            final long size = srcFile.length();
+            if (size >= this.transferProperties.getMultipartThreshold()) {
+                this.uploadParts(s3Key, srcFile, size);
+                return;
+            }
             try {
-                this.s3Client.putObject(s3Key.getBucket(), s3Key.getKey(), new File(srcLocalPath));
+                this.s3Client.putObject(s3Key.getBucket(), s3Key.getKey(), srcFile);
+                this.uploadBytesRate.increment(size);
             } catch (AmazonS3Exception ase) {
                 log.error("Error posting file {} to s3 due to exception {}", dstRemotePath, ase);
                 throw new GenieServerException("Error uploading file to s3. Filename: " + dstRemotePath);
@@ -151,6 +232,237 @@ public class S3FileTransferImpl implements FileTransfer {
         }
     }
 
+    private ObjectMetadata getMetadata(final S3Key s3Key) throws GenieException {
+        final long start = System.nanoTime();
+        try {
+            return this.s3Client.getObjectMetadata(s3Key.getBucket(), s3Key.getKey());
+        } catch (final AmazonClientException ace) {
+            log.error("Error fetching the metadata of {} from s3 due to exception {}", s3Key, ace);
+            throw new GenieServerException("Error downloading file from s3. Filename: " + s3Key, ace);
+        } finally {
+            this.getTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Download the given version of the object. Every request is conditional on the ETag so that a file is never
+     * assembled from different versions of the object.
+     *
+     * @param s3Key    The key of the object
+     * @param metadata The metadata of the version of the object to download
+     * @param dstFile  The local file to download to
+     * @throws GenieException If the download fails or the object changes while it is downloaded
+     */
+    private void download(final S3Key s3Key, final ObjectMetadata metadata, final File dstFile) throws GenieException {
+        final long size = metadata.getContentLength();
+        final String etag = metadata.getETag();
+        if (size < this.transferProperties.getMultipartThreshold()) {
+            final ObjectMetadata downloaded;
+            try {
+                downloaded = this.s3Client.getObject(
+                    new GetObjectRequest(s3Key.getBucket(), s3Key.getKey()).withMatchingETagConstraint(etag),
+                    dstFile
+                );
+            } catch (AmazonClientException ace) {
+                log.error("Error fetching file {} from s3 due to exception {}", s3Key, ace);
+                throw new GenieServerException("Error downloading file from s3. Filename: " + s3Key);
+            }
+            if (downloaded == null) {
+                throw new GenieServerException("File changed in s3 while downloading it. Filename: " + s3Key);
+            }
+            this.downloadBytesRate.increment(size);
+            return;
+        }
+
+        try (final RandomAccessFile file = new RandomAccessFile(dstFile, "rw")) {
+            file.setLength(size);
+            final FileChannel channel = file.getChannel();
+            this.transferParts(
+                size,
+                (partNumber, offset, length) -> {
+                    this.downloadPart(s3Key, etag, channel, offset, offset + length - 1);
+                    return null;
+                }
+            );
+        } catch (final IOException ioe) {
+            throw new GenieServerException("Error writing file downloaded from s3. Filename: " + s3Key, ioe);
+        }
+    }
+
+    /**
+     * Download the inclusive byte range of the object into the same range of the local file. A failed request is
+     * resumed from the first byte not yet written.
+     */
+    private void downloadPart(
+        final S3Key s3Key,
+        final String etag,
+        final FileChannel channel,
+        final long first,
+        final long last
+    ) throws GenieException {
+        long position = first;
+        int attempt = 0;
+        final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        while (position <= last) {
+            final GetObjectRequest request
+                = new GetObjectRequest(s3Key.getBucket(), s3Key.getKey()).withMatchingETagConstraint(etag);
+            request.setRange(position, last);
+            try (final S3Object object = this.s3Client.getObject(request)) {
+                if (object == null) {
+                    throw new GenieServerException("File changed in s3 while downloading it. Filename: " + s3Key);
+                }
+                final ReadableByteChannel in = Channels.newChannel(object.getObjectContent());
+                buffer.clear();
+                while (position <= last && in.read(buffer) != -1) {
+                    buffer.flip();
+                    while (buffer.hasRemaining()) {
+                        final int written = channel.write(buffer, position);
+                        position += written;
+                        this.downloadBytesRate.increment(written);
+                    }
+                    buffer.clear();
+                }
+                if (position <= last) {
+                    throw new IOException("Response ended at byte " + position + " before byte " + last);
+                }
+            } catch (final IOException | AmazonClientException e) {
+                if (++attempt > this.transferProperties.getMaxPartRetries()) {
+                    log.error("Error fetching bytes {} to {} of file {} from s3", position, last, s3Key, e);
+                    throw new GenieServerException("Error downloading file from s3. Filename: " + s3Key, e);
+                }
+                this.partRetryRate.increment();
+                log.warn("Resuming download of file {} from s3 at byte {} after error", s3Key, position, e);
+            }
+        }
+    }
+
+    private void uploadParts(final S3Key s3Key, final File srcFile, final long size) throws GenieException {
+        final String uploadId;
+        try {
+            uploadId = this.s3Client
+                .initiateMultipartUpload(new InitiateMultipartUploadRequest(s3Key.getBucket(), s3Key.getKey()))
+                .getUploadId();
+        } catch (final AmazonClientException ace) {
+            log.error("Error starting the upload of file {} to s3 due to exception {}", s3Key, ace);
+            throw new GenieServerException("Error uploading file to s3. Filename: " + s3Key, ace);
+        }
+        try {
+            final List<PartETag> partETags = this.transferParts(
+                size,
+                (partNumber, offset, length) -> this.uploadPart(s3Key, uploadId, srcFile, partNumber, offset, length)
+            );
+            this.s3Client.completeMultipartUpload(
+                new CompleteMultipartUploadRequest(s3Key.getBucket(), s3Key.getKey(), uploadId, partETags)
+            );
+        } catch (final GenieException ge) {
+            this.abortUpload(s3Key, uploadId);
+            throw ge;
+        } catch (final AmazonClientException ace) {
+            this.abortUpload(s3Key, uploadId);
+            log.error("Error completing the upload of file {} to s3 due to exception {}", s3Key, ace);
+            throw new GenieServerException("Error uploading file to s3. Filename: " + s3Key, ace);
+        }
+    }
+
+    private PartETag uploadPart(
+        final S3Key s3Key,
+        final String uploadId,
+        final File srcFile,
+        final int partNumber,
+        final long offset,
+        final long length
+    ) throws GenieException {
+        int attempt = 0;
+        while (true) {
+            final UploadPartRequest request = new UploadPartRequest()
+                .withBucketName(s3Key.getBucket())
+                .withKey(s3Key.getKey())
+                .withUploadId(uploadId)
+                .withPartNumber(partNumber)
+                .withFile(srcFile)
+                .withFileOffset(offset)
+                .withPartSize(length);
+            try {
+                final PartETag partETag = this.s3Client.uploadPart(request).getPartETag();
+                this.uploadBytesRate.increment(length);
+                return partETag;
+            } catch (final AmazonClientException ace) {
+                if (++attempt > this.transferProperties.getMaxPartRetries()) {
+                    log.error("Error posting part {} of file {} to s3", partNumber, s3Key, ace);
+                    throw new GenieServerException("Error uploading file to s3. Filename: " + s3Key, ace);
+                }
+                this.partRetryRate.increment();
+                log.warn("Retrying upload of part {} of file {} to s3 after error", partNumber, s3Key, ace);
+            }
+        }
+    }
+
+    private void abortUpload(final S3Key s3Key, final String uploadId) {
+        try {
+            this.s3Client.abortMultipartUpload(
+                new AbortMultipartUploadRequest(s3Key.getBucket(), s3Key.getKey(), uploadId)
+            );
+        } catch (final AmazonClientException ace) {
+            // S3 lifecycle rules can still clean up the parts so don't hide the original error
+            log.error("Unable to abort upload {} of file {} to s3", uploadId, s3Key, ace);
+        }
+    }
+
+    /**
+     * Split the given number of bytes into parts and transfer them in parallel on the transfer executor. Once a part
+     * fails the parts which haven't started yet are skipped.
+     *
+     * @param size     The total number of bytes to transfer
+     * @param transfer The transfer of a single part
+     * @param <T>      The result of transferring a part
+     * @return The results of the parts in part order
+     * @throws GenieException The error of the first part which failed
+     */
+    private <T> List<T> transferParts(final long size, final PartTransfer<T> transfer) throws GenieException {
+        final long partSize = Math.max(this.transferProperties.getPartSize(), (size + MAX_PARTS - 1) / MAX_PARTS);
+        final AtomicReference<GenieException> error = new AtomicReference<>();
+        final List<CompletableFuture<T>> parts = new ArrayList<>();
+        for (long offset = 0; offset < size; offset += partSize) {
+            final int partNumber = parts.size() + 1;
+            final long partOffset = offset;
+            final long length = Math.min(partSize, size - offset);
+            parts.add(
+                CompletableFuture.supplyAsync(
+                    () -> {
+                        if (error.get() != null) {
+                            return null;
+                        }
+                        try {
+                            return transfer.transfer(partNumber, partOffset, length);
+                        } catch (final GenieException ge) {
+                            error.compareAndSet(null, ge);
+                        } catch (final RuntimeException re) {
+                            error.compareAndSet(null, new GenieServerException("Failed transferring part", re));
+                        }
+                        return null;
+                    },
+                    this.transferExecutor
+                )
+            );
+        }
+        // Wait for every part so none is still writing once the caller closes the file
+        CompletableFuture.allOf(parts.toArray(new CompletableFuture[parts.size()])).join();
+        if (error.get() != null) {
+            throw error.get();
+        }
+        return parts.stream().map(CompletableFuture::join).collect(Collectors.toList());
+    }
+
+    /**
+     * The transfer of a single part of a file.
+     *
+     * @param <T> The result of the transfer
+     */
+    @FunctionalInterface
+    private interface PartTransfer<T> {
+        T transfer(int partNumber, long offset, long length) throws GenieException;
+    }
+
     @Getter
     private class S3Key {
         private final String bucket;
@@ -165,5 +477,10 @@ public class S3FileTransferImpl implements FileTransfer {
                 throw new GenieServerException(String.format("Invalid path for s3 file %s", path));
             }
         }
+
+        @Override
+        public String toString() {
+            return "s3://" + this.bucket + "/" + this.key;
+        }
     }
 }
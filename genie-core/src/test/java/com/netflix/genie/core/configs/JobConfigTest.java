@@ -18,6 +18,11 @@
 package com.netflix.genie.core.configs;
 
 import com.netflix.genie.common.exceptions.GenieException;
+import com.netflix.genie.core.jobs.JobFileStager;
+import com.netflix.genie.core.jobs.JobWorkspaceFactory;
+import com.netflix.genie.core.jobs.UserRegistry;
+import com.netflix.genie.core.jobs.launcher.LocalProcessLauncher;
+import com.netflix.genie.core.jobs.launcher.ProcessLauncher;
 import com.netflix.genie.core.jobs.workflow.WorkflowTask;
 import com.netflix.genie.core.jobs.workflow.impl.ApplicationTask;
 import com.netflix.genie.core.jobs.workflow.impl.ClusterTask;
@@ -28,6 +33,7 @@ import com.netflix.genie.core.jobs.workflow.impl.JobKickoffTask;
 import com.netflix.genie.core.jobs.workflow.impl.JobTask;
 import com.netflix.genie.core.properties.JobsProperties;
 import com.netflix.genie.core.services.AttachmentService;
+import com.netflix.genie.core.services.FileMaterializationStrategy;
 import com.netflix.genie.core.services.FileTransfer;
 import com.netflix.genie.core.services.impl.GenieFileTransferService;
 import com.netflix.genie.core.services.impl.LocalFileTransferImpl;
@@ -37,6 +43,10 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.annotation.Order;
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.util.concurrent.Executors;
 
 /**
  * Configuration for Jobs Setup and Run.
@@ -57,6 +67,29 @@ public class JobConfigTest {
         return new LocalFileTransferImpl();
     }
 
+    /**
+     * Get the stager used to fetch the files of each job in parallel.
+     *
+     * @param registry The metrics registry to use
+     * @return The job file stager
+     */
+    @Bean
+    public JobFileStager jobFileStager(final Registry registry) {
+        return new JobFileStager(Executors.newFixedThreadPool(4), 4, registry);
+    }
+
+    /**
+     * Get the launcher used to start the processes of each job.
+     *
+     * @param executor The executor to launch processes with
+     * @param registry The metrics registry to use
+     * @return The process launcher
+     */
+    @Bean
+    public ProcessLauncher processLauncher(final Executor executor, final Registry registry) {
+        return new LocalProcessLauncher(executor, registry);
+    }
+
     /**
      * Create a task that adds logic to handle kill requests to a job.
      *
@@ -93,7 +126,7 @@ public class JobConfigTest {
     public WorkflowTask clusterProcessorTask(
         final Registry registry,
         final GenieFileTransferService fts) {
-        return new ClusterTask(registry, fts);
+        return new ClusterTask(registry, fts, FileMaterializationStrategy.COPY);
     }
 
     /**
@@ -108,7 +141,7 @@ public class JobConfigTest {
     public WorkflowTask applicationProcessorTask(
         final Registry registry,
         final GenieFileTransferService fts) {
-        return new ApplicationTask(registry, fts);
+        return new ApplicationTask(registry, fts, FileMaterializationStrategy.COPY);
     }
 
     /**
@@ -123,7 +156,7 @@ public class JobConfigTest {
     public WorkflowTask commandProcessorTask(
         final Registry registry,
         final GenieFileTransferService fts) {
-        return new CommandTask(registry, fts);
+        return new CommandTask(registry, fts, FileMaterializationStrategy.COPY);
     }
 
     /**
@@ -146,11 +179,57 @@ public class JobConfigTest {
         return new JobTask(attachmentService, registry, fts);
     }
 
+    /**
+     * Get the registry which makes sure the users jobs run as exist on this node.
+     *
+     * @param launcher       The launcher to run the system commands with
+     * @param jobsProperties The jobs properties to use
+     * @param registry       The metrics registry to use
+     * @return The user registry
+     */
+    @Bean
+    public UserRegistry userRegistry(
+        final ProcessLauncher launcher,
+        final JobsProperties jobsProperties,
+        final Registry registry
+    ) {
+        return new UserRegistry(
+            launcher,
+            jobsProperties.getUsers().getCacheTtl(),
+            jobsProperties.getUsers().getFailureCacheTtl(),
+            registry
+        );
+    }
+
+    /**
+     * Get the factory which creates the working directory of each job.
+     *
+     * @param genieWorkingDir The directory the working directories of the jobs are created in
+     * @param jobsProperties  The jobs properties to use
+     * @param registry        The metrics registry to use
+     * @return The job workspace factory
+     * @throws IOException If the jobs directory can't be resolved
+     */
+    @Bean
+    public JobWorkspaceFactory jobWorkspaceFactory(
+        final Resource genieWorkingDir,
+        final JobsProperties jobsProperties,
+        final Registry registry
+    ) throws IOException {
+        return new JobWorkspaceFactory(
+            genieWorkingDir.getFile().toPath(),
+            jobsProperties.getWorkspace().getPoolSize(),
+            Executors.newSingleThreadExecutor(),
+            registry
+        );
+    }
+
     /**
      * Create an Job Kickoff Task bean that runs the job.
      *
      * @param jobsProperties The jobs properties to use
-     * @param executor       An instance of an executor
+     * @param launcher       The launcher to start the job processes with
+     * @param userRegistry   The registry making sure the users jobs run as exist
      * @param hostname       Host on which job will run
      * @param registry       The metrics registry to use
      * @return An application task object
@@ -160,14 +239,16 @@ public class JobConfigTest {
     @Autowired
     public WorkflowTask jobKickoffTask(
         final JobsProperties jobsProperties,
-        final Executor executor,
+        final ProcessLauncher launcher,
+        final UserRegistry userRegistry,
         final String hostname,
         final Registry registry
     ) {
         return new JobKickoffTask(
             jobsProperties.getUsers().isRunAsUserEnabled(),
             jobsProperties.getUsers().isCreationEnabled(),
-            executor,
+            launcher,
+            userRegistry,
             hostname,
             registry
         );
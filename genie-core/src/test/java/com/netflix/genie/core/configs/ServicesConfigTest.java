@@ -18,6 +18,10 @@
 package com.netflix.genie.core.configs;
 
 import com.netflix.genie.common.exceptions.GenieException;
+import com.netflix.genie.core.jobs.JobFileStager;
+import com.netflix.genie.core.jobs.JobWorkspaceFactory;
+import com.netflix.genie.core.jobs.admission.FifoJobAdmissionPolicy;
+import com.netflix.genie.core.jobs.admission.JobAdmissionPolicy;
 import com.netflix.genie.core.jobs.workflow.WorkflowTask;
 import com.netflix.genie.core.jpa.repositories.JpaApplicationRepository;
 import com.netflix.genie.core.jpa.repositories.JpaClusterRepository;
@@ -26,10 +30,12 @@ import com.netflix.genie.core.jpa.repositories.JpaJobExecutionRepository;
 import com.netflix.genie.core.jpa.repositories.JpaJobMetadataRepository;
 import com.netflix.genie.core.jpa.repositories.JpaJobRepository;
 import com.netflix.genie.core.jpa.repositories.JpaJobRequestRepository;
+import com.netflix.genie.core.jpa.services.JobResolutionIndex;
 import com.netflix.genie.core.jpa.services.JpaApplicationServiceImpl;
 import com.netflix.genie.core.jpa.services.JpaClusterServiceImpl;
 import com.netflix.genie.core.jpa.services.JpaCommandServiceImpl;
 import com.netflix.genie.core.jpa.services.JpaJobPersistenceServiceImpl;
+import com.netflix.genie.core.jpa.services.JpaJobResolverServiceImpl;
 import com.netflix.genie.core.jpa.services.JpaJobSearchServiceImpl;
 import com.netflix.genie.core.properties.JobsProperties;
 import com.netflix.genie.core.services.ApplicationService;
@@ -42,6 +48,7 @@ import com.netflix.genie.core.services.JobCoordinatorService;
 import com.netflix.genie.core.services.JobKillService;
 import com.netflix.genie.core.services.JobMetricsService;
 import com.netflix.genie.core.services.JobPersistenceService;
+import com.netflix.genie.core.services.JobResolverService;
 import com.netflix.genie.core.services.JobSearchService;
 import com.netflix.genie.core.services.JobStateService;
 import com.netflix.genie.core.services.JobSubmitterService;
@@ -57,6 +64,8 @@ import com.netflix.spectator.api.DefaultRegistry;
 import com.netflix.spectator.api.Registry;
 import org.apache.commons.exec.Executor;
 import org.springframework.beans.factory.FactoryBean;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.beans.factory.config.ServiceLocatorFactoryBean;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.ApplicationEventPublisher;
@@ -64,7 +73,6 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.event.ApplicationEventMulticaster;
 import org.springframework.context.event.SimpleApplicationEventMulticaster;
-import org.springframework.core.io.Resource;
 import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.core.task.TaskExecutor;
 import org.springframework.scheduling.TaskScheduler;
@@ -72,6 +80,8 @@ import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * Configuration to create the Service beans for Genie Core Tests.
@@ -87,46 +97,95 @@ public class ServicesConfigTest {
      *
      * @param applicationRepo The application repository to use.
      * @param commandRepo     The command repository to use.
+     * @param eventPublisher  The publisher to notify of active applications being created or updated.
      * @return An application service instance.
      */
     @Bean
     public ApplicationService applicationService(
         final JpaApplicationRepository applicationRepo,
-        final JpaCommandRepository commandRepo
+        final JpaCommandRepository commandRepo,
+        final ApplicationEventPublisher eventPublisher
     ) {
-        return new JpaApplicationServiceImpl(applicationRepo, commandRepo);
+        return new JpaApplicationServiceImpl(applicationRepo, commandRepo, eventPublisher);
     }
 
     /**
      * Get JPA based implementation of the ClusterService.
      *
-     * @param clusterRepo The cluster repository to use.
-     * @param commandRepo The command repository to use.
+     * @param clusterRepo     The cluster repository to use.
+     * @param commandRepo     The command repository to use.
+     * @param resolutionIndex The resolution index to keep up to date with cluster changes.
+     * @param eventPublisher  The publisher to notify of up clusters being created or updated.
      * @return A cluster service instance.
      */
     @Bean
     public ClusterService clusterService(
         final JpaClusterRepository clusterRepo,
-        final JpaCommandRepository commandRepo
+        final JpaCommandRepository commandRepo,
+        final JobResolutionIndex resolutionIndex,
+        final ApplicationEventPublisher eventPublisher
     ) {
-        return new JpaClusterServiceImpl(clusterRepo, commandRepo);
+        return new JpaClusterServiceImpl(clusterRepo, commandRepo, resolutionIndex, eventPublisher);
     }
 
     /**
      * Get JPA based implementation of the CommandService.
      *
-     * @param commandRepo the command repository to use
-     * @param appRepo     the application repository to use
-     * @param clusterRepo the cluster repository to use
+     * @param commandRepo     the command repository to use
+     * @param appRepo         the application repository to use
+     * @param clusterRepo     the cluster repository to use
+     * @param resolutionIndex the resolution index to keep up to date with command changes
+     * @param eventPublisher  the publisher to notify of active commands being created or updated
      * @return A command service instance.
      */
     @Bean
     public CommandService commandService(
         final JpaCommandRepository commandRepo,
         final JpaApplicationRepository appRepo,
-        final JpaClusterRepository clusterRepo
+        final JpaClusterRepository clusterRepo,
+        final JobResolutionIndex resolutionIndex,
+        final ApplicationEventPublisher eventPublisher
+    ) {
+        return new JpaCommandServiceImpl(commandRepo, appRepo, clusterRepo, resolutionIndex, eventPublisher);
+    }
+
+    /**
+     * Get JPA based implementation of the JobResolverService.
+     *
+     * @param clusterRepo         The cluster repository to use
+     * @param applicationRepo     The application repository to use
+     * @param clusterLoadBalancer Implementation of the cluster load balancer interface
+     * @param resolutionIndex     The in memory index to find candidate clusters with
+     * @return A job resolver service instance.
+     */
+    @Bean
+    public JobResolverService jobResolverService(
+        final JpaClusterRepository clusterRepo,
+        final JpaApplicationRepository applicationRepo,
+        final ClusterLoadBalancer clusterLoadBalancer,
+        final JobResolutionIndex resolutionIndex
+    ) {
+        return new JpaJobResolverServiceImpl(clusterRepo, applicationRepo, clusterLoadBalancer, resolutionIndex);
+    }
+
+    /**
+     * Get the node local index of cluster and command tags used to resolve jobs without tag queries.
+     *
+     * @param clusterRepo The cluster repository to build the index from
+     * @param commandRepo The command repository to build the index from
+     * @param enabled     Whether the index should be built and used
+     * @param registry    The metrics registry to use
+     * @return The job resolution index
+     */
+    @Bean
+    public JobResolutionIndex jobResolutionIndex(
+        final JpaClusterRepository clusterRepo,
+        final JpaCommandRepository commandRepo,
+        @Value("${genie.jobs.resolution.index.enabled:false}")
+        final boolean enabled,
+        final Registry registry
     ) {
-        return new JpaCommandServiceImpl(commandRepo, appRepo, clusterRepo);
+        return new JobResolutionIndex(clusterRepo, commandRepo, enabled, registry);
     }
 
     /**
@@ -239,7 +298,9 @@ public class ServicesConfigTest {
      * @param eventPublisher        Instance of the synchronous event publisher.
      * @param eventMulticaster      Instance of the asynchronous event publisher.
      * @param workflowTasks         List of all the workflow tasks to be executed.
-     * @param genieWorkingDir       Working directory for genie where it creates jobs directories.
+     * @param workflowExecutor      The executor to run the workflow tasks on.
+     * @param workspaceFactory      The factory to create the working directory of each job with.
+     * @param jobFileStager         The stager to fetch the files of each job with.
      * @param registry              The metrics registry to use
      * @return An instance of the JobSubmitterService.
      */
@@ -249,7 +310,10 @@ public class ServicesConfigTest {
         final ApplicationEventPublisher eventPublisher,
         final ApplicationEventMulticaster eventMulticaster,
         final List<WorkflowTask> workflowTasks,
-        final Resource genieWorkingDir,
+        @Qualifier("workflowExecutor")
+        final ExecutorService workflowExecutor,
+        final JobWorkspaceFactory workspaceFactory,
+        final JobFileStager jobFileStager,
         final Registry registry
     ) {
         return new LocalJobRunner(
@@ -257,7 +321,9 @@ public class ServicesConfigTest {
             eventPublisher,
             eventMulticaster,
             workflowTasks,
-            genieWorkingDir,
+            workflowExecutor,
+            workspaceFactory,
+            jobFileStager,
             registry
         );
     }
@@ -290,14 +356,35 @@ public class ServicesConfigTest {
      * @param taskScheduler       The task scheduler to use to register scheduling of job checkers
      * @param eventPublisher      The application event publisher to use to publish synchronous events
      * @param registry            The metrics registry
+     * @param jobsProperties      The jobs properties to use
+     * @param admissionPolicy     The policy deciding which queued job to admit next
      * @return The job state service bean
      */
     @Bean
     public JobStateService jobStateService(final JobSubmitterService jobSubmitterService,
                                            final TaskScheduler taskScheduler,
                                            final ApplicationEventPublisher eventPublisher,
-                                           final Registry registry) {
-        return new JobStateServiceImpl(jobSubmitterService, taskScheduler, eventPublisher, registry);
+                                           final Registry registry,
+                                           final JobsProperties jobsProperties,
+                                           final JobAdmissionPolicy admissionPolicy) {
+        return new JobStateServiceImpl(
+            jobSubmitterService,
+            taskScheduler,
+            eventPublisher,
+            registry,
+            jobsProperties,
+            admissionPolicy
+        );
+    }
+
+    /**
+     * The policy deciding which job queued for memory to admit next.
+     *
+     * @return A first in first out admission policy
+     */
+    @Bean
+    public JobAdmissionPolicy jobAdmissionPolicy() {
+        return new FifoJobAdmissionPolicy();
     }
 
     /**
@@ -310,6 +397,26 @@ public class ServicesConfigTest {
         return new ThreadPoolTaskExecutor();
     }
 
+    /**
+     * The executor asynchronously submitted jobs are launched on.
+     *
+     * @return The executor service to use for job submissions
+     */
+    @Bean
+    public ExecutorService jobSubmissionExecutor() {
+        return Executors.newSingleThreadExecutor();
+    }
+
+    /**
+     * The executor the workflow tasks of jobs are run on.
+     *
+     * @return The executor service to use for job workflows
+     */
+    @Bean
+    public ExecutorService workflowExecutor() {
+        return Executors.newFixedThreadPool(4);
+    }
+
     /**
      * A multicast (async) event publisher to replace the synchronous one used by Spring via the ApplicationContext.
      *
@@ -340,12 +447,10 @@ public class ServicesConfigTest {
      * @param jobStateService       implementation of job state service interface
      * @param jobKillService        The job kill service to use.
      * @param jobsProperties        The jobs properties to use
-     * @param applicationService    Implementation of application service interface
-     * @param clusterService        Implementation of cluster service interface
-     * @param commandService        Implementation of command service interface
-     * @param clusterLoadBalancer   Implementation of the cluster load balancer interface
+     * @param jobResolverService    Implementation of the job resolver service interface
      * @param registry              The registry to use
      * @param hostName              The host name to use
+     * @param jobSubmissionExecutor The executor asynchronously submitted jobs are launched on
      * @return An instance of the JobCoordinatorService.
      */
     @Bean
@@ -354,24 +459,21 @@ public class ServicesConfigTest {
         final JobKillService jobKillService,
         final JobStateService jobStateService,
         final JobsProperties jobsProperties,
-        final ApplicationService applicationService,
-        final ClusterService clusterService,
-        final CommandService commandService,
-        final ClusterLoadBalancer clusterLoadBalancer,
+        final JobResolverService jobResolverService,
         final Registry registry,
-        final String hostName
+        final String hostName,
+        @Qualifier("jobSubmissionExecutor")
+        final ExecutorService jobSubmissionExecutor
     ) {
         return new JobCoordinatorServiceImpl(
             jobPersistenceService,
             jobKillService,
             jobStateService,
             jobsProperties,
-            applicationService,
-            clusterService,
-            commandService,
-            clusterLoadBalancer,
+            jobResolverService,
             registry,
-            hostName
+            hostName,
+            jobSubmissionExecutor
         );
     }
 
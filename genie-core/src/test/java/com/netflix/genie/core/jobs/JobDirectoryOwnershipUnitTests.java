@@ -0,0 +1,132 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.jobs;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import com.netflix.genie.test.categories.UnitTest;
+import org.hamcrest.Matchers;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Unit tests for the JobDirectoryOwnership class.
+ *
+ * @author agent
+ * @since 3.1.0
+ */
+@Category(UnitTest.class)
+public class JobDirectoryOwnershipUnitTests {
+
+    private static final List<String> CHOWN = Arrays.asList("sudo", "chown");
+    private static final String USER = "genie-job-user";
+
+    /**
+     * Temporary folder to use as the job directory.
+     */
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Make sure only the files and directories belonging to the job alone are changed.
+     *
+     * @throws Exception on error
+     */
+    @Test
+    public void canSkipSharedFilesAndLinks() throws Exception {
+        final Path jobDir = this.folder.getRoot().getCanonicalFile().toPath();
+        final File cacheDir = this.folder.newFolder("cache");
+        final File cached = new File(cacheDir, "dependency.jar");
+        Files.write(cached.toPath(), "dependency".getBytes("UTF-8"));
+        final File dependencies = this.folder.newFolder("genie", "applications", "app", "dependencies");
+        Files.createLink(new File(dependencies, "dependency.jar").toPath(), cached.toPath());
+        Files.createSymbolicLink(new File(dependencies, "linked.jar").toPath(), cached.toPath());
+        final File runScript = this.folder.newFile("run");
+
+        final List<List<String>> commands = JobDirectoryOwnership.getCommands(CHOWN, jobDir, USER);
+
+        Assert.assertThat(commands.size(), Matchers.is(1));
+        final List<String> command = commands.get(0);
+        Assert.assertThat(command.subList(0, 3), Matchers.contains("sudo", "chown", USER));
+        final Set<String> expected = Sets.newHashSet(jobDir.toString(), runScript.getCanonicalPath());
+        File dir = dependencies.getCanonicalFile();
+        while (!dir.toPath().equals(jobDir)) {
+            expected.add(dir.getPath());
+            dir = dir.getParentFile();
+        }
+        expected.add(cacheDir.getCanonicalPath());
+        Assert.assertThat(Sets.newHashSet(command.subList(3, command.size())), Matchers.is(expected));
+    }
+
+    /**
+     * Make sure nothing is run when the user already owns everything.
+     *
+     * @throws Exception on error
+     */
+    @Test
+    public void canSkipFilesAlreadyOwnedByUser() throws Exception {
+        this.folder.newFile("run");
+        this.folder.newFolder("genie");
+        final String owner = Files.getOwner(this.folder.getRoot().toPath()).getName();
+
+        Assert.assertThat(
+            JobDirectoryOwnership.getCommands(CHOWN, this.folder.getRoot().toPath(), owner),
+            Matchers.empty()
+        );
+    }
+
+    /**
+     * Make sure large directories are split over several commands.
+     *
+     * @throws Exception on error
+     */
+    @Test
+    public void canSplitCommands() throws Exception {
+        final int files = JobDirectoryOwnership.MAX_PATHS_PER_COMMAND * 2;
+        for (int i = 0; i < files; i++) {
+            this.folder.newFile("file" + i);
+        }
+
+        final List<List<String>> commands
+            = JobDirectoryOwnership.getCommands(CHOWN, this.folder.getRoot().toPath(), USER);
+
+        // Every file plus the job directory itself
+        Assert.assertThat(commands.size(), Matchers.is(3));
+        final List<String> paths = Lists.newArrayList();
+        commands.forEach(
+            command -> {
+                Assert.assertThat(command.subList(0, 3), Matchers.contains("sudo", "chown", USER));
+                Assert.assertThat(command.size() - 3, Matchers.lessThanOrEqualTo(
+                    JobDirectoryOwnership.MAX_PATHS_PER_COMMAND
+                ));
+                paths.addAll(command.subList(3, command.size()));
+            }
+        );
+        Assert.assertThat(paths.size(), Matchers.is(files + 1));
+    }
+}
@@ -0,0 +1,201 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.jobs;
+
+import com.netflix.genie.common.exceptions.GenieException;
+import com.netflix.genie.common.exceptions.GenieServerException;
+import com.netflix.genie.core.services.FileMaterializationStrategy;
+import com.netflix.genie.core.services.impl.GenieFileTransferService;
+import com.netflix.genie.test.categories.UnitTest;
+import com.netflix.spectator.api.Registry;
+import com.netflix.spectator.api.Timer;
+import org.hamcrest.Matchers;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.mockito.Mockito;
+
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Unit tests for the JobFileStager and JobFileStaging classes.
+ *
+ * @author agent
+ * @since 3.1.0
+ */
+@Category(UnitTest.class)
+public class JobFileStagingUnitTests {
+
+    private static final int MAX_CONCURRENT_FETCHES = 2;
+    private static final FileMaterializationStrategy COPY = FileMaterializationStrategy.COPY;
+
+    private ExecutorService executor;
+    private GenieFileTransferService fts;
+    private Timer wallTimer;
+    private Timer fetchTimer;
+    private JobFileStaging staging;
+
+    /**
+     * Setup for the tests.
+     */
+    @Before
+    public void setup() {
+        this.executor = Executors.newFixedThreadPool(4);
+        this.fts = Mockito.mock(GenieFileTransferService.class);
+        this.wallTimer = Mockito.mock(Timer.class);
+        this.fetchTimer = Mockito.mock(Timer.class);
+        final Registry registry = Mockito.mock(Registry.class);
+        Mockito.when(registry.timer("genie.jobs.staging.wall.timer")).thenReturn(this.wallTimer);
+        Mockito.when(registry.timer("genie.jobs.staging.fetch.timer")).thenReturn(this.fetchTimer);
+        this.staging = new JobFileStager(this.executor, MAX_CONCURRENT_FETCHES, registry)
+            .forJob(UUID.randomUUID().toString());
+    }
+
+    /**
+     * Shut down the executor.
+     */
+    @After
+    public void cleanup() {
+        this.executor.shutdownNow();
+    }
+
+    /**
+     * Make sure all the files are fetched without going over the limit of concurrent fetches for the job.
+     *
+     * @throws GenieException on error
+     */
+    @Test
+    public void canStageFiles() throws GenieException {
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+        Mockito.doAnswer(
+            invocation -> {
+                final int nowRunning = running.incrementAndGet();
+                maxRunning.accumulateAndGet(nowRunning, Math::max);
+                Thread.sleep(20L);
+                running.decrementAndGet();
+                return null;
+            }
+        ).when(this.fts).getFile(Mockito.anyString(), Mockito.anyString(), Mockito.eq(COPY));
+
+        final int numFiles = 6;
+        for (int i = 0; i < numFiles; i++) {
+            this.staging.stage(this.fts, "s3://bucket/file" + i, "/tmp/file" + i, COPY);
+        }
+        this.staging.await();
+
+        Mockito
+            .verify(this.fts, Mockito.times(numFiles))
+            .getFile(Mockito.anyString(), Mockito.anyString(), Mockito.eq(COPY));
+        Assert.assertThat(maxRunning.get(), Matchers.lessThanOrEqualTo(MAX_CONCURRENT_FETCHES));
+        Mockito.verify(this.wallTimer, Mockito.times(1)).record(Mockito.anyLong(), Mockito.eq(TimeUnit.NANOSECONDS));
+        Mockito.verify(this.fetchTimer, Mockito.times(1)).record(Mockito.anyLong(), Mockito.eq(TimeUnit.NANOSECONDS));
+    }
+
+    /**
+     * Make sure waiting without staging anything returns straight away without recording anything.
+     *
+     * @throws GenieException on error
+     */
+    @Test
+    public void canAwaitWithoutFiles() throws GenieException {
+        this.staging.await();
+        Mockito.verify(this.wallTimer, Mockito.never()).record(Mockito.anyLong(), Mockito.any(TimeUnit.class));
+    }
+
+    /**
+     * Make sure the first failed fetch stops the files which haven't been fetched yet and is rethrown.
+     *
+     * @throws GenieException on error
+     */
+    @Test(expected = GenieServerException.class)
+    public void failedFetchCancelsStaging() throws GenieException {
+        final CountDownLatch failing = new CountDownLatch(1);
+        Mockito.doAnswer(
+            invocation -> {
+                failing.await();
+                throw new GenieServerException("bad");
+            }
+        ).when(this.fts).getFile(Mockito.eq("fail1"), Mockito.anyString(), Mockito.eq(COPY));
+        Mockito.doAnswer(
+            invocation -> {
+                failing.await();
+                throw new GenieServerException("bad");
+            }
+        ).when(this.fts).getFile(Mockito.eq("fail2"), Mockito.anyString(), Mockito.eq(COPY));
+
+        this.staging.stage(this.fts, "fail1", "/tmp/fail1", COPY);
+        this.staging.stage(this.fts, "fail2", "/tmp/fail2", COPY);
+        this.staging.stage(this.fts, "never", "/tmp/never", COPY);
+        failing.countDown();
+        try {
+            this.staging.await();
+        } finally {
+            Mockito
+                .verify(this.fts, Mockito.never())
+                .getFile(Mockito.eq("never"), Mockito.anyString(), Mockito.eq(COPY));
+            Mockito.verify(this.wallTimer, Mockito.never()).record(Mockito.anyLong(), Mockito.any(TimeUnit.class));
+        }
+    }
+
+    /**
+     * Make sure cancelling drops the files waiting to be fetched.
+     *
+     * @throws GenieException on error
+     * @throws InterruptedException on error
+     */
+    @Test
+    public void canCancel() throws GenieException, InterruptedException {
+        final CountDownLatch started = new CountDownLatch(MAX_CONCURRENT_FETCHES);
+        final CountDownLatch release = new CountDownLatch(1);
+        Mockito.doAnswer(
+            invocation -> {
+                started.countDown();
+                release.await();
+                return null;
+            }
+        ).when(this.fts).getFile(Mockito.startsWith("slow"), Mockito.anyString(), Mockito.eq(COPY));
+
+        for (int i = 0; i < MAX_CONCURRENT_FETCHES; i++) {
+            this.staging.stage(this.fts, "slow" + i, "/tmp/slow" + i, COPY);
+        }
+        this.staging.stage(this.fts, "never", "/tmp/never", COPY);
+        started.await();
+        this.staging.cancel();
+        release.countDown();
+
+        Mockito
+            .verify(this.fts, Mockito.never())
+            .getFile(Mockito.eq("never"), Mockito.anyString(), Mockito.eq(COPY));
+        try {
+            this.staging.stage(this.fts, "late", "/tmp/late", COPY);
+            Assert.fail();
+        } catch (final GenieServerException gse) {
+            Mockito
+                .verify(this.fts, Mockito.never())
+                .getFile(Mockito.eq("late"), Mockito.anyString(), Mockito.eq(COPY));
+        }
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.jobs;
+
+import com.netflix.genie.test.categories.UnitTest;
+import org.hamcrest.Matchers;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Unit tests for the JobResourceLedger class.
+ *
+ * @author agent
+ * @since 3.1.0
+ */
+@Category(UnitTest.class)
+public class JobResourceLedgerUnitTests {
+
+    private JobResourceLedger ledger;
+
+    /**
+     * Setup for the tests.
+     */
+    @Before
+    public void setup() {
+        this.ledger = new JobResourceLedger();
+    }
+
+    /**
+     * Make sure reservations are only granted while there is memory left.
+     */
+    @Test
+    public void canReserve() {
+        final String job1Id = UUID.randomUUID().toString();
+        final String job2Id = UUID.randomUUID().toString();
+        final String job3Id = UUID.randomUUID().toString();
+
+        Assert.assertTrue(this.ledger.reserve(job1Id, 1024, 2048));
+        Assert.assertTrue(this.ledger.reserve(job2Id, 1024, 2048));
+        Assert.assertFalse(this.ledger.reserve(job3Id, 1, 2048));
+        Assert.assertThat(this.ledger.getUsed(), Matchers.is(2048));
+        Assert.assertThat(this.ledger.getNumReservations(), Matchers.is(2));
+    }
+
+    /**
+     * Make sure a maximum of Integer.MAX_VALUE can be used as no limit without overflowing.
+     */
+    @Test
+    public void canReserveWithoutLimit() {
+        Assert.assertTrue(this.ledger.reserve(UUID.randomUUID().toString(), 8, Integer.MAX_VALUE));
+        Assert.assertTrue(this.ledger.reserve(UUID.randomUUID().toString(), Integer.MAX_VALUE - 8, Integer.MAX_VALUE));
+        Assert.assertFalse(this.ledger.reserve(UUID.randomUUID().toString(), 1, Integer.MAX_VALUE));
+        Assert.assertThat(this.ledger.getUsed(), Matchers.is(Integer.MAX_VALUE));
+    }
+
+    /**
+     * Make sure reserving twice for the same job doesn't count the memory twice.
+     */
+    @Test
+    public void reserveIsIdempotent() {
+        final String jobId = UUID.randomUUID().toString();
+
+        Assert.assertTrue(this.ledger.reserve(jobId, 1024, 2048));
+        Assert.assertTrue(this.ledger.reserve(jobId, 1024, 2048));
+        Assert.assertThat(this.ledger.getUsed(), Matchers.is(1024));
+        Assert.assertThat(this.ledger.getNumReservations(), Matchers.is(1));
+    }
+
+    /**
+     * Make sure recording memory ignores the maximum and replaces existing reservations.
+     */
+    @Test
+    public void canRecord() {
+        final String jobId = UUID.randomUUID().toString();
+
+        this.ledger.record(jobId, 4096);
+        Assert.assertThat(this.ledger.getUsed(), Matchers.is(4096));
+        this.ledger.record(jobId, 1024);
+        Assert.assertThat(this.ledger.getUsed(), Matchers.is(1024));
+        Assert.assertThat(this.ledger.getNumReservations(), Matchers.is(1));
+    }
+
+    /**
+     * Make sure releasing gives the memory back exactly once.
+     */
+    @Test
+    public void canRelease() {
+        final String job1Id = UUID.randomUUID().toString();
+        final String job2Id = UUID.randomUUID().toString();
+
+        Assert.assertTrue(this.ledger.reserve(job1Id, 1024, 2048));
+        Assert.assertTrue(this.ledger.reserve(job2Id, 512, 2048));
+        this.ledger.release(job1Id);
+        Assert.assertThat(this.ledger.getUsed(), Matchers.is(512));
+        this.ledger.release(job1Id);
+        Assert.assertThat(this.ledger.getUsed(), Matchers.is(512));
+        this.ledger.release(UUID.randomUUID().toString());
+        Assert.assertThat(this.ledger.getUsed(), Matchers.is(512));
+        this.ledger.release(job2Id);
+        Assert.assertThat(this.ledger.getUsed(), Matchers.is(0));
+        Assert.assertThat(this.ledger.getNumReservations(), Matchers.is(0));
+    }
+
+    /**
+     * Make sure concurrent submitters can never reserve more than the maximum between them.
+     *
+     * @throws InterruptedException if the test is interrupted
+     */
+    @Test
+    public void neverOverReservesUnderContention() throws InterruptedException {
+        final int numThreads = 8;
+        final int attemptsPerThread = 1_000;
+        final int maxMemory = 100;
+        final AtomicInteger granted = new AtomicInteger();
+        final CountDownLatch start = new CountDownLatch(1);
+        final ExecutorService executorService = Executors.newFixedThreadPool(numThreads);
+        try {
+            for (int i = 0; i < numThreads; i++) {
+                executorService.submit(
+                    () -> {
+                        start.await();
+                        for (int j = 0; j < attemptsPerThread; j++) {
+                            if (this.ledger.reserve(UUID.randomUUID().toString(), 1, maxMemory)) {
+                                granted.incrementAndGet();
+                            }
+                        }
+                        return null;
+                    }
+                );
+            }
+            start.countDown();
+        } finally {
+            executorService.shutdown();
+            Assert.assertTrue(executorService.awaitTermination(30, TimeUnit.SECONDS));
+        }
+
+        Assert.assertThat(granted.get(), Matchers.is(maxMemory));
+        Assert.assertThat(this.ledger.getUsed(), Matchers.is(maxMemory));
+        Assert.assertThat(this.ledger.getNumReservations(), Matchers.is(maxMemory));
+    }
+}
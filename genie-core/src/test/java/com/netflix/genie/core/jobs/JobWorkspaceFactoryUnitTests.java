@@ -0,0 +1,234 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.jobs;
+
+import com.google.common.collect.Lists;
+import com.netflix.genie.common.dto.Application;
+import com.netflix.genie.common.dto.ApplicationStatus;
+import com.netflix.genie.common.dto.Cluster;
+import com.netflix.genie.common.dto.ClusterStatus;
+import com.netflix.genie.common.dto.Command;
+import com.netflix.genie.common.dto.CommandStatus;
+import com.netflix.genie.common.exceptions.GenieException;
+import com.netflix.genie.common.exceptions.GeniePreconditionException;
+import com.netflix.genie.common.exceptions.GenieServerException;
+import com.netflix.genie.test.categories.UnitTest;
+import com.netflix.spectator.api.DefaultRegistry;
+import com.netflix.spectator.api.Registry;
+import org.hamcrest.Matchers;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+/**
+ * Unit tests for the JobWorkspaceFactory class.
+ *
+ * @author agent
+ * @since 3.1.0
+ */
+@Category(UnitTest.class)
+public class JobWorkspaceFactoryUnitTests {
+
+    private static final String JOB_ID = "job1";
+    private static final String CLUSTER_ID = "cluster1";
+    private static final String COMMAND_ID = "command1";
+    private static final String APPLICATION_ID = "app1";
+
+    /**
+     * Temporary directory for these tests.
+     */
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path jobsDir;
+    private Registry registry;
+    private Cluster cluster;
+    private Command command;
+    private List<Application> applications;
+
+    /**
+     * Setup for the tests.
+     *
+     * @throws IOException on error creating the jobs directory
+     */
+    @Before
+    public void setup() throws IOException {
+        this.jobsDir = this.folder.newFolder().toPath();
+        this.registry = new DefaultRegistry();
+        this.cluster = new Cluster.Builder("name", "user", "1.0", ClusterStatus.UP).withId(CLUSTER_ID).build();
+        this.command = new Command.Builder("name", "user", "1.0", CommandStatus.ACTIVE, "foo", 5000L)
+            .withId(COMMAND_ID)
+            .build();
+        this.applications = Lists.newArrayList(
+            new Application.Builder("name", "user", "1.0", ApplicationStatus.ACTIVE).withId(APPLICATION_ID).build()
+        );
+    }
+
+    /**
+     * Make sure the whole layout is created in place when there is no pool.
+     *
+     * @throws GenieException on error
+     */
+    @Test
+    public void canCreateWithoutPool() throws GenieException {
+        final JobWorkspaceFactory factory = new JobWorkspaceFactory(this.jobsDir, 0, Runnable::run, this.registry);
+
+        final File jobDir = factory.create(JOB_ID, this.cluster, this.command, this.applications);
+
+        Assert.assertThat(jobDir, Matchers.is(this.jobsDir.resolve(JOB_ID).toFile()));
+        this.assertLayout(jobDir.toPath());
+        Assert.assertThat(factory.getPooled(), Matchers.is(0));
+        Assert.assertFalse(Files.exists(this.jobsDir.resolve(JobWorkspaceFactory.POOL_DIRECTORY)));
+        Assert.assertThat(this.getCreateCount(false), Matchers.is(1L));
+        Assert.assertThat(this.getCreateCount(true), Matchers.is(0L));
+    }
+
+    /**
+     * Make sure a job can't reuse a working directory which already exists.
+     *
+     * @throws GenieException on error
+     */
+    @Test(expected = GenieServerException.class)
+    public void cantCreateIfAlreadyExists() throws GenieException {
+        final JobWorkspaceFactory factory = new JobWorkspaceFactory(this.jobsDir, 0, Runnable::run, this.registry);
+        factory.create(JOB_ID, this.cluster, this.command, this.applications);
+        factory.create(JOB_ID, this.cluster, this.command, this.applications);
+    }
+
+    /**
+     * Make sure a job can't reuse a working directory which already exists even if the pool isn't empty.
+     *
+     * @throws GenieException on error
+     */
+    @Test(expected = GenieServerException.class)
+    public void cantCreateFromPoolIfAlreadyExists() throws GenieException {
+        final JobWorkspaceFactory factory = new JobWorkspaceFactory(this.jobsDir, 2, Runnable::run, this.registry);
+        factory.create(JOB_ID, this.cluster, this.command, this.applications);
+        factory.create(JOB_ID, this.cluster, this.command, this.applications);
+    }
+
+    /**
+     * Make sure jobs take their working directory from the pool and the pool is refilled.
+     *
+     * @throws GenieException on error
+     * @throws IOException    on error
+     */
+    @Test
+    public void canCreateFromPool() throws GenieException, IOException {
+        final Path poolDir = this.jobsDir.resolve(JobWorkspaceFactory.POOL_DIRECTORY);
+        final JobWorkspaceFactory factory = new JobWorkspaceFactory(this.jobsDir, 2, Runnable::run, this.registry);
+        Assert.assertThat(factory.getPooled(), Matchers.is(2));
+        Assert.assertThat(poolDir.toFile().list().length, Matchers.is(2));
+
+        final File jobDir = factory.create(JOB_ID, this.cluster, this.command, this.applications);
+
+        this.assertLayout(jobDir.toPath());
+        Assert.assertThat(factory.getPooled(), Matchers.is(2));
+        Assert.assertThat(poolDir.toFile().list().length, Matchers.is(2));
+        Assert.assertThat(this.getCreateCount(true), Matchers.is(1L));
+        Assert.assertThat(this.getCreateCount(false), Matchers.is(0L));
+    }
+
+    /**
+     * Make sure working directories left in the pool by a previous run are deleted.
+     *
+     * @throws IOException on error
+     */
+    @Test
+    public void canDeleteLeftoversFromPool() throws IOException {
+        final Path leftover = this.jobsDir.resolve(JobWorkspaceFactory.POOL_DIRECTORY).resolve("leftover");
+        Files.createDirectories(leftover);
+
+        final JobWorkspaceFactory factory = new JobWorkspaceFactory(this.jobsDir, 1, Runnable::run, this.registry);
+
+        Assert.assertFalse(Files.exists(leftover));
+        Assert.assertThat(factory.getPooled(), Matchers.is(1));
+    }
+
+    /**
+     * Make sure the directories of the entities are created parents first.
+     *
+     * @throws GenieException on error
+     */
+    @Test
+    public void canGetEntityDirectories() throws GenieException {
+        Assert.assertThat(
+            JobWorkspaceFactory.getEntityDirectories(this.cluster, this.command, this.applications),
+            Matchers.contains(
+                Paths.get("genie", "cluster", CLUSTER_ID),
+                Paths.get("genie", "cluster", CLUSTER_ID, "config"),
+                Paths.get("genie", "command", COMMAND_ID),
+                Paths.get("genie", "command", COMMAND_ID, "config"),
+                Paths.get("genie", "applications", APPLICATION_ID),
+                Paths.get("genie", "applications", APPLICATION_ID, "config"),
+                Paths.get("genie", "applications", APPLICATION_ID, "dependencies")
+            )
+        );
+    }
+
+    /**
+     * Make sure an entity without an id is rejected before anything is created.
+     *
+     * @throws GenieException on error
+     */
+    @Test(expected = GeniePreconditionException.class)
+    public void cantCreateWithoutClusterId() throws GenieException {
+        final JobWorkspaceFactory factory = new JobWorkspaceFactory(this.jobsDir, 0, Runnable::run, this.registry);
+        final Cluster noId = new Cluster.Builder("name", "user", "1.0", ClusterStatus.UP).build();
+        try {
+            factory.create(JOB_ID, noId, this.command, this.applications);
+        } finally {
+            Assert.assertFalse(Files.exists(this.jobsDir.resolve(JOB_ID)));
+        }
+    }
+
+    private void assertLayout(final Path jobDir) {
+        for (final String dir : new String[]{
+            "genie/logs",
+            "genie/cluster/" + CLUSTER_ID + "/config",
+            "genie/command/" + COMMAND_ID + "/config",
+            "genie/applications/" + APPLICATION_ID + "/config",
+            "genie/applications/" + APPLICATION_ID + "/dependencies"
+        }) {
+            Assert.assertTrue(dir, Files.isDirectory(jobDir.resolve(dir)));
+        }
+        Assert.assertTrue(Files.isRegularFile(jobDir.resolve(JobConstants.STDOUT_LOG_FILE_NAME)));
+        Assert.assertTrue(Files.isRegularFile(jobDir.resolve(JobConstants.STDERR_LOG_FILE_NAME)));
+        Assert.assertTrue(Files.isExecutable(jobDir.resolve(JobConstants.GENIE_JOB_LAUNCHER_SCRIPT)));
+    }
+
+    private long getCreateCount(final boolean pooled) {
+        return this.registry
+            .timer(
+                this.registry
+                    .createId(JobWorkspaceFactory.CREATE_TIMER_NAME)
+                    .withTag("pooled", Boolean.toString(pooled))
+            )
+            .count();
+    }
+}
@@ -0,0 +1,224 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.jobs;
+
+import com.netflix.genie.common.exceptions.GenieException;
+import com.netflix.genie.common.exceptions.GenieServerException;
+import com.netflix.genie.core.jobs.launcher.ProcessLauncher;
+import com.netflix.genie.test.categories.UnitTest;
+import com.netflix.spectator.api.DefaultRegistry;
+import com.netflix.spectator.api.Registry;
+import org.hamcrest.Matchers;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.mockito.Mockito;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unit tests for the UserRegistry class.
+ *
+ * @author agent
+ * @since 3.1.0
+ */
+@Category(UnitTest.class)
+public class UserRegistryUnitTests {
+
+    private static final String USER = "user";
+    private static final String GROUP = "group";
+    private static final List<String> ID_COMMAND = Arrays.asList("id", "-u", USER);
+    private static final List<String> GROUP_COMMAND = Arrays.asList("sudo", "groupadd", GROUP);
+    private static final List<String> USER_COMMAND = Arrays.asList("sudo", "useradd", USER, "-G", GROUP, "-M");
+
+    private ProcessLauncher launcher;
+    private Registry registry;
+    private UserRegistry userRegistry;
+
+    /**
+     * Setup for the tests.
+     */
+    @Before
+    public void setup() {
+        this.launcher = Mockito.mock(ProcessLauncher.class);
+        this.registry = new DefaultRegistry();
+        this.userRegistry = new UserRegistry(this.launcher, 600000L, 30000L, this.registry);
+    }
+
+    /**
+     * Make sure a user which already exists isn't created and is only checked for once.
+     *
+     * @throws IOException    on error
+     * @throws GenieException on error
+     */
+    @Test
+    public void canProvisionExistingUser() throws IOException, GenieException {
+        this.userRegistry.provision(USER, GROUP);
+        this.userRegistry.provision(USER, GROUP);
+
+        Mockito.verify(this.launcher, Mockito.times(1)).run(ID_COMMAND);
+        Mockito.verify(this.launcher, Mockito.times(1)).run(Mockito.anyListOf(String.class));
+        Assert.assertThat(this.registry.counter("genie.jobs.users.cache.hit.rate").count(), Matchers.is(1L));
+        Assert.assertThat(this.registry.counter("genie.jobs.users.cache.miss.rate").count(), Matchers.is(1L));
+        Assert.assertThat(this.getTimerCount("exists"), Matchers.is(1L));
+    }
+
+    /**
+     * Make sure a user which doesn't exist is created along with its group, and only once.
+     *
+     * @throws IOException    on error
+     * @throws GenieException on error
+     */
+    @Test
+    public void canCreateUser() throws IOException, GenieException {
+        Mockito.doThrow(new IOException()).when(this.launcher).run(ID_COMMAND);
+
+        this.userRegistry.provision(USER, GROUP);
+        this.userRegistry.provision(USER, GROUP);
+
+        Mockito.verify(this.launcher, Mockito.times(1)).run(ID_COMMAND);
+        Mockito.verify(this.launcher, Mockito.times(1)).run(GROUP_COMMAND);
+        Mockito.verify(this.launcher, Mockito.times(1)).run(USER_COMMAND);
+        Assert.assertThat(this.getTimerCount("created"), Matchers.is(1L));
+    }
+
+    /**
+     * Make sure a group which is the same as the user isn't created and a group is only created once.
+     *
+     * @throws IOException    on error
+     * @throws GenieException on error
+     */
+    @Test
+    public void canSkipGroupCreation() throws IOException, GenieException {
+        Mockito.doThrow(new IOException()).when(this.launcher).run(Mockito.anyListOf(String.class));
+        Mockito.doNothing().when(this.launcher).run(Arrays.asList("sudo", "useradd", USER, "-M"));
+        Mockito.doNothing().when(this.launcher).run(Arrays.asList("sudo", "useradd", "other", "-G", GROUP, "-M"));
+        Mockito.doNothing().when(this.launcher).run(Arrays.asList("sudo", "useradd", "another", "-G", GROUP, "-M"));
+
+        this.userRegistry.provision(USER, USER);
+        this.userRegistry.provision("other", GROUP);
+        this.userRegistry.provision("another", GROUP);
+
+        Mockito.verify(this.launcher, Mockito.never()).run(Arrays.asList("sudo", "groupadd", USER));
+        Mockito.verify(this.launcher, Mockito.times(1)).run(GROUP_COMMAND);
+    }
+
+    /**
+     * Make sure a user which couldn't be created fails fast until the failure expires.
+     *
+     * @throws IOException    on error
+     * @throws GenieException on error
+     */
+    @Test
+    public void cantProvisionUserWhichCantBeCreated() throws IOException, GenieException {
+        Mockito.doThrow(new IOException()).when(this.launcher).run(Mockito.anyListOf(String.class));
+
+        for (int i = 0; i < 2; i++) {
+            try {
+                this.userRegistry.provision(USER, GROUP);
+                Assert.fail();
+            } catch (final GenieServerException gse) {
+                Assert.assertThat(gse.getMessage(), Matchers.containsString(USER));
+            }
+        }
+
+        Mockito.verify(this.launcher, Mockito.times(1)).run(ID_COMMAND);
+        Mockito.verify(this.launcher, Mockito.times(1)).run(GROUP_COMMAND);
+        Mockito.verify(this.launcher, Mockito.times(1)).run(USER_COMMAND);
+        Assert.assertThat(this.registry.counter("genie.jobs.users.cache.failure.hit.rate").count(), Matchers.is(1L));
+        Assert.assertThat(this.getTimerCount("failed"), Matchers.is(1L));
+    }
+
+    /**
+     * Make sure a user which couldn't be created is tried again, along with its group, once the failure expired.
+     *
+     * @throws Exception on error
+     */
+    @Test
+    public void canRetryUserCreationAfterFailureExpires() throws Exception {
+        this.userRegistry = new UserRegistry(this.launcher, 600000L, 1L, this.registry);
+        Mockito.doThrow(new IOException()).when(this.launcher).run(Mockito.anyListOf(String.class));
+
+        try {
+            this.userRegistry.provision(USER, GROUP);
+            Assert.fail();
+        } catch (final GenieServerException gse) {
+            // expected
+        }
+        Thread.sleep(10L);
+        Mockito.doNothing().when(this.launcher).run(USER_COMMAND);
+        this.userRegistry.provision(USER, GROUP);
+
+        Mockito.verify(this.launcher, Mockito.times(2)).run(ID_COMMAND);
+        Mockito.verify(this.launcher, Mockito.times(2)).run(GROUP_COMMAND);
+        Mockito.verify(this.launcher, Mockito.times(2)).run(USER_COMMAND);
+    }
+
+    /**
+     * Make sure concurrent jobs of the same user only provision it once.
+     *
+     * @throws Exception on error
+     */
+    @Test
+    public void canProvisionUserOnceForConcurrentJobs() throws Exception {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        Mockito.doAnswer(
+            invocation -> {
+                started.countDown();
+                release.await();
+                return null;
+            }
+        ).when(this.launcher).run(ID_COMMAND);
+
+        final ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            final Future<?> first = executor.submit(() -> this.provision(USER));
+            Assert.assertTrue(started.await(10, TimeUnit.SECONDS));
+            final Future<?> second = executor.submit(() -> this.provision(USER));
+            // A different user isn't held up by the provisioning of the first one
+            executor.submit(() -> this.provision("other")).get(10, TimeUnit.SECONDS);
+            release.countDown();
+            first.get(10, TimeUnit.SECONDS);
+            second.get(10, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Mockito.verify(this.launcher, Mockito.times(1)).run(ID_COMMAND);
+    }
+
+    private Void provision(final String user) throws GenieException {
+        this.userRegistry.provision(user, GROUP);
+        return null;
+    }
+
+    private long getTimerCount(final String result) {
+        return this.registry
+            .timer(this.registry.createId(UserRegistry.PROVISION_TIMER_NAME).withTag("result", result))
+            .count();
+    }
+}
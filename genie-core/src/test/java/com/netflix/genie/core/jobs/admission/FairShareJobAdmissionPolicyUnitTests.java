@@ -0,0 +1,184 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.jobs.admission;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.netflix.genie.common.dto.Cluster;
+import com.netflix.genie.common.dto.Command;
+import com.netflix.genie.common.dto.JobRequest;
+import com.netflix.genie.core.properties.JobsAdmissionFairShareProperties;
+import com.netflix.genie.test.categories.UnitTest;
+import org.hamcrest.Matchers;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.mockito.Mockito;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Unit tests for the FairShareJobAdmissionPolicy.
+ *
+ * @author agent
+ * @since 3.1.0
+ */
+@Category(UnitTest.class)
+public class FairShareJobAdmissionPolicyUnitTests {
+
+    private JobsAdmissionFairShareProperties properties;
+    private FairShareJobAdmissionPolicy policy;
+
+    /**
+     * Setup for the tests.
+     */
+    @Before
+    public void setup() {
+        this.properties = new JobsAdmissionFairShareProperties();
+        this.policy = new FairShareJobAdmissionPolicy(this.properties);
+    }
+
+    /**
+     * Make sure jobs are shared by user or by group when configured.
+     */
+    @Test
+    public void canGetShare() {
+        final String user = UUID.randomUUID().toString();
+        final String group = UUID.randomUUID().toString();
+        final JobRequest.Builder builder = new JobRequest.Builder(
+            UUID.randomUUID().toString(),
+            user,
+            UUID.randomUUID().toString(),
+            UUID.randomUUID().toString(),
+            Lists.newArrayList(),
+            Sets.newHashSet()
+        );
+        final JobRequest withoutGroup = builder.build();
+        final JobRequest withGroup = builder.withGroup(group).build();
+
+        Assert.assertThat(this.policy.getShare(withGroup), Matchers.is(user));
+        this.properties.setShareByGroup(true);
+        Assert.assertThat(this.policy.getShare(withGroup), Matchers.is(group));
+        Assert.assertThat(this.policy.getShare(withoutGroup), Matchers.is(user));
+    }
+
+    /**
+     * Make sure the earliest job of the share using the least memory is admitted next.
+     */
+    @Test
+    public void canGetNextByLeastReservedMemory() {
+        Assert.assertFalse(this.policy.next(Lists.newArrayList(), Maps.newHashMap()).isPresent());
+
+        final QueuedJob heavy1 = this.getQueuedJob("heavy", 1024);
+        final QueuedJob heavy2 = this.getQueuedJob("heavy", 1024);
+        final QueuedJob light1 = this.getQueuedJob("light", 1024);
+        final QueuedJob light2 = this.getQueuedJob("light", 1024);
+        final List<QueuedJob> queuedJobs = Lists.newArrayList(heavy1, heavy2, light1, light2);
+
+        Assert.assertThat(this.policy.next(queuedJobs, Maps.newHashMap()), Matchers.is(Optional.of(heavy1)));
+        Assert.assertThat(
+            this.policy.next(queuedJobs, ImmutableMap.of("heavy", 4096, "light", 1024)),
+            Matchers.is(Optional.of(light1))
+        );
+        Assert.assertThat(
+            this.policy.next(queuedJobs, ImmutableMap.of("heavy", 1024, "light", 1024)),
+            Matchers.is(Optional.of(heavy1))
+        );
+    }
+
+    /**
+     * Make sure shares with a higher weight are allowed proportionally more memory.
+     */
+    @Test
+    public void canGetNextByWeight() {
+        final QueuedJob heavy = this.getQueuedJob("heavy", 1024);
+        final QueuedJob light = this.getQueuedJob("light", 1024);
+        final List<QueuedJob> queuedJobs = Lists.newArrayList(heavy, light);
+
+        this.properties.setWeights(ImmutableMap.of("heavy", 4));
+        Assert.assertThat(
+            this.policy.next(queuedJobs, ImmutableMap.of("heavy", 3072, "light", 1024)),
+            Matchers.is(Optional.of(heavy))
+        );
+        Assert.assertThat(
+            this.policy.next(queuedJobs, ImmutableMap.of("heavy", 5120, "light", 1024)),
+            Matchers.is(Optional.of(light))
+        );
+
+        // Weights below one are treated as one
+        this.properties.setWeights(ImmutableMap.of("heavy", 0));
+        Assert.assertThat(
+            this.policy.next(queuedJobs, ImmutableMap.of("heavy", 1024, "light", 2048)),
+            Matchers.is(Optional.of(heavy))
+        );
+    }
+
+    /**
+     * Make sure jobs of a share at its memory cap are skipped.
+     */
+    @Test
+    public void canCapShareMemory() {
+        final QueuedJob heavy = this.getQueuedJob("heavy", 2048);
+        final QueuedJob light = this.getQueuedJob("light", 1024);
+        final List<QueuedJob> queuedJobs = Lists.newArrayList(heavy, light);
+
+        this.properties.setMaxShareMemory(4096);
+        Assert.assertThat(
+            this.policy.next(queuedJobs, ImmutableMap.of("heavy", 2048, "light", 3072)),
+            Matchers.is(Optional.of(heavy))
+        );
+        Assert.assertThat(
+            this.policy.next(queuedJobs, ImmutableMap.of("heavy", 3072, "light", 3072)),
+            Matchers.is(Optional.of(light))
+        );
+        Assert.assertFalse(
+            this.policy.next(queuedJobs, ImmutableMap.of("heavy", 3072, "light", 4096)).isPresent()
+        );
+    }
+
+    /**
+     * Make sure a new job of a share at its memory cap can't be admitted straight away.
+     */
+    @Test
+    public void canCapShareMemoryOfNewJobs() {
+        Assert.assertTrue(this.policy.canAdmit("heavy", 8192, 8192));
+
+        this.properties.setMaxShareMemory(4096);
+        Assert.assertTrue(this.policy.canAdmit("heavy", 2048, 0));
+        Assert.assertTrue(this.policy.canAdmit("heavy", 2048, 2048));
+        Assert.assertFalse(this.policy.canAdmit("heavy", 2048, 3072));
+    }
+
+    private QueuedJob getQueuedJob(final String share, final int memory) {
+        return new QueuedJob(
+            UUID.randomUUID().toString(),
+            share,
+            Mockito.mock(JobRequest.class),
+            Mockito.mock(Cluster.class),
+            Mockito.mock(Command.class),
+            Lists.newArrayList(),
+            memory,
+            1
+        );
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.jobs.admission;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.netflix.genie.common.dto.Cluster;
+import com.netflix.genie.common.dto.Command;
+import com.netflix.genie.common.dto.JobRequest;
+import com.netflix.genie.test.categories.UnitTest;
+import org.hamcrest.Matchers;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.mockito.Mockito;
+
+import java.util.UUID;
+
+/**
+ * Unit tests for the FifoJobAdmissionPolicy.
+ *
+ * @author agent
+ * @since 3.1.0
+ */
+@Category(UnitTest.class)
+public class FifoJobAdmissionPolicyUnitTests {
+
+    private FifoJobAdmissionPolicy policy;
+
+    /**
+     * Setup for the tests.
+     */
+    @Before
+    public void setup() {
+        this.policy = new FifoJobAdmissionPolicy();
+    }
+
+    /**
+     * Make sure jobs are shared by user.
+     */
+    @Test
+    public void canGetShare() {
+        final String user = UUID.randomUUID().toString();
+        final JobRequest jobRequest = new JobRequest.Builder(
+            UUID.randomUUID().toString(),
+            user,
+            UUID.randomUUID().toString(),
+            UUID.randomUUID().toString(),
+            Lists.newArrayList(),
+            Sets.newHashSet()
+        ).withGroup(UUID.randomUUID().toString()).build();
+        Assert.assertThat(this.policy.getShare(jobRequest), Matchers.is(user));
+    }
+
+    /**
+     * Make sure new jobs are always allowed to be admitted straight away.
+     */
+    @Test
+    public void canAdmit() {
+        Assert.assertTrue(this.policy.canAdmit("heavy", 1024, Integer.MAX_VALUE));
+    }
+
+    /**
+     * Make sure the job queued first is always admitted next.
+     */
+    @Test
+    public void canGetNext() {
+        Assert.assertFalse(this.policy.next(Lists.newArrayList(), Maps.newHashMap()).isPresent());
+
+        final QueuedJob first = this.getQueuedJob("heavy", 1024);
+        final QueuedJob second = this.getQueuedJob("light", 512);
+        final QueuedJob next = this.policy
+            .next(Lists.newArrayList(first, second), ImmutableMap.of("heavy", 10_240))
+            .orElseThrow(IllegalStateException::new);
+        Assert.assertThat(next, Matchers.is(first));
+    }
+
+    private QueuedJob getQueuedJob(final String share, final int memory) {
+        return new QueuedJob(
+            UUID.randomUUID().toString(),
+            share,
+            Mockito.mock(JobRequest.class),
+            Mockito.mock(Cluster.class),
+            Mockito.mock(Command.class),
+            Lists.newArrayList(),
+            memory,
+            1
+        );
+    }
+}
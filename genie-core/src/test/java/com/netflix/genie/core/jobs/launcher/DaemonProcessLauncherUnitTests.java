@@ -0,0 +1,227 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.jobs.launcher;
+
+import com.netflix.genie.test.categories.UnitTest;
+import com.netflix.spectator.api.DefaultRegistry;
+import com.netflix.spectator.api.Registry;
+import org.apache.commons.exec.DefaultExecutor;
+import org.apache.commons.exec.ExecuteException;
+import org.hamcrest.Matchers;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Unit tests for the DaemonProcessLauncher class. These start a real launcher daemon JVM.
+ *
+ * @author agent
+ * @since 3.1.0
+ */
+@Category(UnitTest.class)
+public class DaemonProcessLauncherUnitTests {
+
+    private static final String JAVA_OPTIONS = "-Xmx32m -XX:+UseSerialGC";
+    private static final long REQUEST_TIMEOUT = 30000L;
+
+    /**
+     * Temporary folder to launch processes in.
+     */
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private ProcessLauncher fallback;
+    private Registry registry;
+    private DaemonProcessLauncher launcher;
+
+    /**
+     * Setup for the tests.
+     */
+    @Before
+    public void setup() {
+        this.registry = new DefaultRegistry();
+        this.fallback = Mockito.spy(new LocalProcessLauncher(new DefaultExecutor(), this.registry));
+        this.launcher = new DaemonProcessLauncher(this.fallback, JAVA_OPTIONS, REQUEST_TIMEOUT, 0L, this.registry);
+    }
+
+    /**
+     * Stop the daemon started by the test.
+     */
+    @After
+    public void tearDown() {
+        this.launcher.close();
+    }
+
+    /**
+     * Make sure a process launched through the daemon writes its output to the given file and its process id is
+     * returned.
+     *
+     * @throws Exception on error
+     */
+    @Test
+    public void canLaunch() throws Exception {
+        final File output = new File(this.folder.getRoot(), "output");
+        final int pid = this.launcher.launch(Arrays.asList("echo", "hello"), this.folder.getRoot(), output);
+
+        Assert.assertThat(pid, Matchers.greaterThan(0));
+        // The process isn't waited on by the launcher so give it a moment to finish
+        for (int i = 0; i < 50 && output.length() == 0; i++) {
+            Thread.sleep(100);
+        }
+        Assert.assertThat(
+            Files.readAllLines(output.toPath(), Charset.forName("UTF-8")),
+            Matchers.contains("hello")
+        );
+        Mockito.verify(this.fallback, Mockito.never())
+            .launch(Mockito.anyListOf(String.class), Mockito.any(File.class), Mockito.any(File.class));
+    }
+
+    /**
+     * Make sure commands run through the daemon succeed on a zero exit value and fail with the exit value otherwise.
+     *
+     * @throws IOException on error
+     */
+    @Test
+    public void canRun() throws IOException {
+        this.launcher.run(Arrays.asList("true"));
+        try {
+            this.launcher.run(Arrays.asList("false"));
+            Assert.fail("Expected the failing command to throw");
+        } catch (final ExecuteException ee) {
+            Assert.assertThat(ee.getExitValue(), Matchers.is(1));
+        }
+
+        Mockito.verify(this.fallback, Mockito.never()).run(Mockito.anyListOf(String.class));
+        Assert.assertThat(
+            this.registry
+                .timer(
+                    this.registry
+                        .createId(LocalProcessLauncher.TIMER_NAME)
+                        .withTag("operation", "true")
+                        .withTag("launcher", "daemon")
+                )
+                .count(),
+            Matchers.is(1L)
+        );
+    }
+
+    /**
+     * Make sure requests pending when the daemon dies fail without being retried locally and that the daemon is
+     * started again for the next request.
+     *
+     * @throws Exception on error
+     */
+    @Test
+    public void canFailPendingRequestsWhenDaemonDies() throws Exception {
+        final File marker = new File(this.folder.getRoot(), "marker");
+        final List<String> command = Arrays.asList("sh", "-c", "touch " + marker.getPath() + " && sleep 5");
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            final Future<?> pending = executor.submit(
+                () -> {
+                    this.launcher.run(command);
+                    return null;
+                }
+            );
+            for (int i = 0; i < 100 && !marker.exists(); i++) {
+                Thread.sleep(100);
+            }
+            Assert.assertTrue(marker.exists());
+
+            this.launcher.close();
+            try {
+                pending.get(10, TimeUnit.SECONDS);
+                Assert.fail("Expected the pending request to fail");
+            } catch (final ExecutionException ee) {
+                Assert.assertThat(ee.getCause(), Matchers.instanceOf(IOException.class));
+                Assert.assertThat(ee.getCause(), Matchers.not(Matchers.instanceOf(ExecuteException.class)));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        this.launcher.run(Arrays.asList("true"));
+        Mockito.verify(this.fallback, Mockito.never()).run(Mockito.anyListOf(String.class));
+    }
+
+    /**
+     * Make sure requests fall back to the local launcher when the daemon can't be started.
+     *
+     * @throws IOException on error
+     */
+    @Test
+    public void canFallBackWhenDaemonCantStart() throws IOException {
+        final String javaHome = System.getProperty("java.home");
+        // The daemon is started with the java executable under java.home
+        System.setProperty("java.home", this.folder.getRoot().getPath());
+        try {
+            this.launcher.run(Arrays.asList("true"));
+        } finally {
+            System.setProperty("java.home", javaHome);
+        }
+
+        Mockito.verify(this.fallback, Mockito.times(1)).run(Arrays.asList("true"));
+        Assert.assertThat(this.registry.counter("genie.jobs.launcher.fallback.rate").count(), Matchers.is(1L));
+    }
+
+    /**
+     * Make sure a process the daemon starts after the launch timed out is killed.
+     *
+     * @throws Exception on error
+     */
+    @Test
+    public void canKillLateLaunch() throws Exception {
+        this.launcher.close();
+        // Starting the daemon JVM alone takes longer than this
+        this.launcher = new DaemonProcessLauncher(this.fallback, JAVA_OPTIONS, 1L, 0L, this.registry);
+        final File output = new File(this.folder.getRoot(), "output");
+        try {
+            this.launcher.launch(Arrays.asList("sleep", "30"), this.folder.getRoot(), output);
+            Assert.fail("Expected the launch to time out");
+        } catch (final IOException ioe) {
+            Assert.assertThat(ioe.getCause(), Matchers.instanceOf(TimeoutException.class));
+        }
+
+        @SuppressWarnings("unchecked")
+        final ArgumentCaptor<List<String>> captor = ArgumentCaptor.forClass((Class) List.class);
+        Mockito.verify(this.fallback, Mockito.timeout(REQUEST_TIMEOUT)).run(captor.capture());
+        Assert.assertThat(captor.getValue(), Matchers.hasSize(2));
+        Assert.assertThat(captor.getValue().get(0), Matchers.is("kill"));
+        Assert.assertThat(Integer.parseInt(captor.getValue().get(1)), Matchers.greaterThan(0));
+        Assert.assertThat(this.registry.counter("genie.jobs.launcher.lateLaunch.rate").count(), Matchers.is(1L));
+    }
+}
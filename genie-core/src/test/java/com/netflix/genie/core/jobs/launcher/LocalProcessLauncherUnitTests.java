@@ -0,0 +1,137 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.jobs.launcher;
+
+import com.netflix.genie.test.categories.UnitTest;
+import com.netflix.spectator.api.DefaultRegistry;
+import com.netflix.spectator.api.Registry;
+import org.apache.commons.exec.CommandLine;
+import org.apache.commons.exec.Executor;
+import org.hamcrest.Matchers;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Unit tests for the LocalProcessLauncher class.
+ *
+ * @author agent
+ * @since 3.1.0
+ */
+@Category(UnitTest.class)
+public class LocalProcessLauncherUnitTests {
+
+    /**
+     * Temporary folder to launch processes in.
+     */
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Executor executor;
+    private Registry registry;
+    private LocalProcessLauncher launcher;
+
+    /**
+     * Setup for the tests.
+     */
+    @Before
+    public void setup() {
+        this.executor = Mockito.mock(Executor.class);
+        this.registry = new DefaultRegistry();
+        this.launcher = new LocalProcessLauncher(this.executor, this.registry);
+    }
+
+    /**
+     * Make sure commands are run through the executor without any quoting of their arguments.
+     *
+     * @throws IOException on error
+     */
+    @Test
+    public void canRun() throws IOException {
+        this.launcher.run(Arrays.asList("sudo", "chown", "-R", "user name", "dir"));
+
+        final ArgumentCaptor<CommandLine> captor = ArgumentCaptor.forClass(CommandLine.class);
+        Mockito.verify(this.executor).execute(captor.capture());
+        Assert.assertArrayEquals(
+            new String[]{"sudo", "chown", "-R", "user name", "dir"},
+            captor.getValue().toStrings()
+        );
+        Assert.assertThat(
+            this.registry
+                .timer(
+                    this.registry
+                        .createId(LocalProcessLauncher.TIMER_NAME)
+                        .withTag("operation", "chown")
+                        .withTag("launcher", "local")
+                )
+                .count(),
+            Matchers.is(1L)
+        );
+    }
+
+    /**
+     * Make sure a failing command is reported to the caller.
+     *
+     * @throws IOException on error
+     */
+    @Test(expected = IOException.class)
+    public void cantRunFailingCommand() throws IOException {
+        Mockito.when(this.executor.execute(Mockito.any(CommandLine.class))).thenThrow(new IOException());
+        this.launcher.run(Arrays.asList("id", "-u", "user"));
+    }
+
+    /**
+     * Make sure a launched process writes its output to the given file and its process id is returned.
+     *
+     * @throws Exception on error
+     */
+    @Test
+    public void canLaunch() throws Exception {
+        final File output = new File(this.folder.getRoot(), "output");
+        final int pid = this.launcher.launch(Arrays.asList("echo", "hello"), this.folder.getRoot(), output);
+
+        Assert.assertThat(pid, Matchers.greaterThan(0));
+        // The process isn't waited on by the launcher so give it a moment to finish
+        for (int i = 0; i < 50 && output.length() == 0; i++) {
+            Thread.sleep(100);
+        }
+        Assert.assertThat(output.length(), Matchers.greaterThan(0L));
+    }
+
+    /**
+     * Make sure the operation of a command is the program it runs.
+     */
+    @Test
+    public void canGetOperation() {
+        Assert.assertThat(LocalProcessLauncher.getOperation(Arrays.asList("id", "-u", "user")), Matchers.is("id"));
+        Assert.assertThat(
+            LocalProcessLauncher.getOperation(Arrays.asList("sudo", "useradd", "user")),
+            Matchers.is("useradd")
+        );
+        Assert.assertThat(LocalProcessLauncher.getOperation(Arrays.asList("sudo")), Matchers.is("sudo"));
+    }
+}
@@ -0,0 +1,312 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.jobs.workflow;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import com.netflix.genie.common.exceptions.GenieException;
+import com.netflix.genie.common.exceptions.GenieServerException;
+import com.netflix.genie.core.jobs.JobConstants;
+import com.netflix.genie.test.categories.UnitTest;
+import org.hamcrest.Matchers;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Unit tests for the WorkflowGraph class.
+ *
+ * @author agent
+ * @since 3.1.0
+ */
+@Category(UnitTest.class)
+public class WorkflowGraphUnitTests {
+
+    private ExecutorService executor;
+    private Map<String, Object> context;
+    private StringWriter writer;
+    private String jobId;
+
+    /**
+     * Setup for the tests.
+     */
+    @Before
+    public void setup() {
+        this.executor = Executors.newFixedThreadPool(4);
+        this.context = new HashMap<>();
+        this.writer = new StringWriter();
+        this.jobId = UUID.randomUUID().toString();
+    }
+
+    /**
+     * Shut down the executor.
+     */
+    @After
+    public void cleanup() {
+        this.executor.shutdownNow();
+    }
+
+    /**
+     * Make sure tasks which don't depend on each other run at the same time while the parts of the run script still
+     * end up in the order of the tasks.
+     *
+     * @throws GenieException On error
+     * @throws IOException    On error
+     */
+    @Test
+    public void canRunIndependentTasksConcurrently() throws GenieException, IOException {
+        final CyclicBarrier barrier = new CyclicBarrier(2);
+        final WorkflowGraph graph = new WorkflowGraph(
+            Lists.newArrayList(
+                new FirstTask(Collections.emptySet(), context -> write(context, "first;")),
+                new SecondTask(
+                    Sets.newHashSet(FirstTask.class),
+                    context -> {
+                        await(barrier);
+                        Thread.sleep(50L);
+                        write(context, "second;");
+                    }
+                ),
+                new ThirdTask(
+                    Sets.newHashSet(FirstTask.class),
+                    context -> {
+                        await(barrier);
+                        write(context, "third;");
+                    }
+                ),
+                new LastTask(null, context -> write(context, "last;"))
+            )
+        );
+
+        graph.execute(this.context, this.writer, this.executor, this.jobId);
+        Assert.assertThat(this.writer.toString(), Matchers.is("first;second;third;last;"));
+    }
+
+    /**
+     * Make sure by default the tasks run one after the other writing straight to the run script.
+     *
+     * @throws GenieException On error
+     * @throws IOException    On error
+     */
+    @Test
+    public void canRunTasksInSequenceByDefault() throws GenieException, IOException {
+        final WorkflowGraph graph = new WorkflowGraph(
+            Lists.newArrayList(
+                new FirstTask(null, context -> this.assertWritesToRunScript(context, "first;")),
+                new SecondTask(null, context -> this.assertWritesToRunScript(context, "second;")),
+                new LastTask(null, context -> this.assertWritesToRunScript(context, "last;"))
+            )
+        );
+
+        graph.execute(this.context, this.writer, this.executor, this.jobId);
+        Assert.assertThat(this.writer.toString(), Matchers.is("first;second;last;"));
+    }
+
+    /**
+     * Make sure what tasks add to the context is seen by the tasks which start after them and the caller.
+     *
+     * @throws GenieException On error
+     * @throws IOException    On error
+     */
+    @Test
+    public void canShareContext() throws GenieException, IOException {
+        final String key = UUID.randomUUID().toString();
+        final String value = UUID.randomUUID().toString();
+        final AtomicBoolean seen = new AtomicBoolean();
+        final WorkflowGraph graph = new WorkflowGraph(
+            Lists.newArrayList(
+                new FirstTask(Collections.emptySet(), context -> context.put(key, value)),
+                new LastTask(null, context -> seen.set(value.equals(context.get(key))))
+            )
+        );
+
+        graph.execute(this.context, this.writer, this.executor, this.jobId);
+        Assert.assertTrue(seen.get());
+        Assert.assertThat(this.context.get(key), Matchers.is(value));
+        Assert.assertFalse(this.context.containsKey(JobConstants.WRITER_KEY));
+    }
+
+    /**
+     * Make sure the critical path covers the longest chain of dependent tasks.
+     *
+     * @throws GenieException On error
+     * @throws IOException    On error
+     */
+    @Test
+    public void canGetCriticalPath() throws GenieException, IOException {
+        final WorkflowGraph graph = new WorkflowGraph(
+            Lists.newArrayList(
+                new FirstTask(Collections.emptySet(), context -> Thread.sleep(30L)),
+                new SecondTask(Sets.newHashSet(FirstTask.class), context -> Thread.sleep(30L)),
+                new ThirdTask(Collections.emptySet(), context -> Thread.sleep(1L))
+            )
+        );
+
+        final long criticalPath = graph.execute(this.context, this.writer, this.executor, this.jobId);
+        Assert.assertThat(criticalPath, Matchers.greaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(60L)));
+    }
+
+    /**
+     * Make sure a failing task fails the workflow and the tasks depending on it never run.
+     *
+     * @throws GenieException On error
+     * @throws IOException    On error
+     */
+    @Test(expected = GenieServerException.class)
+    public void failedTaskFailsWorkflow() throws GenieException, IOException {
+        final AtomicBoolean ran = new AtomicBoolean();
+        final WorkflowGraph graph = new WorkflowGraph(
+            Lists.newArrayList(
+                new FirstTask(
+                    Collections.emptySet(),
+                    context -> {
+                        throw new GenieServerException("bad");
+                    }
+                ),
+                new LastTask(null, context -> ran.set(true))
+            )
+        );
+
+        try {
+            graph.execute(this.context, this.writer, this.executor, this.jobId);
+        } finally {
+            Assert.assertFalse(ran.get());
+        }
+    }
+
+    /**
+     * Make sure a task can't depend on a task which comes after it.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void cantDependOnLaterTask() {
+        new WorkflowGraph(
+            Lists.newArrayList(
+                new FirstTask(Sets.newHashSet(SecondTask.class), context -> {
+                }),
+                new SecondTask(null, context -> {
+                })
+            )
+        );
+    }
+
+    private void assertWritesToRunScript(final Map<String, Object> context, final String content) throws IOException {
+        Assert.assertThat(context.get(JobConstants.WRITER_KEY), Matchers.is(this.writer));
+        write(context, content);
+    }
+
+    private static void write(final Map<String, Object> context, final String content) throws IOException {
+        ((Writer) context.get(JobConstants.WRITER_KEY)).write(content);
+    }
+
+    private static void await(final CyclicBarrier barrier) throws GenieException {
+        try {
+            barrier.await(5, TimeUnit.SECONDS);
+        } catch (final Exception e) {
+            throw new GenieServerException("Tasks didn't run at the same time", e);
+        }
+    }
+
+    /**
+     * What a test task does.
+     */
+    private interface Action {
+        void run(Map<String, Object> context) throws Exception;
+    }
+
+    /**
+     * A task running a given action with the given dependencies.
+     */
+    private abstract static class TestTask implements WorkflowTask {
+        private final Set<Class<? extends WorkflowTask>> dependencies;
+        private final Action action;
+
+        TestTask(final Set<Class<? extends WorkflowTask>> dependencies, final Action action) {
+            this.dependencies = dependencies;
+            this.action = action;
+        }
+
+        @Override
+        public void executeTask(final Map<String, Object> context) throws GenieException, IOException {
+            try {
+                this.action.run(context);
+            } catch (final GenieException | IOException e) {
+                throw e;
+            } catch (final Exception e) {
+                throw new GenieServerException(e.getMessage(), e);
+            }
+        }
+
+        @Override
+        public Optional<Set<Class<? extends WorkflowTask>>> getDependencies() {
+            return Optional.ofNullable(this.dependencies);
+        }
+    }
+
+    /**
+     * First test task type.
+     */
+    private static class FirstTask extends TestTask {
+        FirstTask(final Set<Class<? extends WorkflowTask>> dependencies, final Action action) {
+            super(dependencies, action);
+        }
+    }
+
+    /**
+     * Second test task type.
+     */
+    private static class SecondTask extends TestTask {
+        SecondTask(final Set<Class<? extends WorkflowTask>> dependencies, final Action action) {
+            super(dependencies, action);
+        }
+    }
+
+    /**
+     * Third test task type.
+     */
+    private static class ThirdTask extends TestTask {
+        ThirdTask(final Set<Class<? extends WorkflowTask>> dependencies, final Action action) {
+            super(dependencies, action);
+        }
+    }
+
+    /**
+     * Last test task type.
+     */
+    private static class LastTask extends TestTask {
+        LastTask(final Set<Class<? extends WorkflowTask>> dependencies, final Action action) {
+            super(dependencies, action);
+        }
+    }
+}
@@ -20,6 +20,10 @@ package com.netflix.genie.core.jobs.workflow.impl;
 import com.netflix.genie.common.exceptions.GenieException;
 import com.netflix.genie.core.jobs.AdminResources;
 import com.netflix.genie.core.jobs.FileType;
+import com.netflix.genie.core.jobs.JobConstants;
+import com.netflix.genie.core.jobs.JobFileStaging;
+import com.netflix.genie.core.services.FileMaterializationStrategy;
+import com.netflix.genie.core.services.impl.GenieFileTransferService;
 import com.netflix.genie.test.categories.UnitTest;
 import org.junit.Assert;
 import org.junit.Before;
@@ -27,6 +31,9 @@ import org.junit.Test;
 import org.junit.experimental.categories.Category;
 import org.mockito.Mockito;
 
+import java.util.HashMap;
+import java.util.Map;
+
 /**
  * Tests for GenieBaseTask.
  *
@@ -208,4 +215,66 @@ public class GenieBaseTaskUnitTest {
 
         Assert.assertEquals("dirpath/genie/cluster/id/dependencies/filename", localPath);
     }
+
+    /**
+     * Make sure files are added to the staging of the job when there is one.
+     *
+     * @throws GenieException if there is a problem.
+     */
+    @Test
+    public void canFetchFileThroughStaging() throws GenieException {
+        final GenieFileTransferService fts = Mockito.mock(GenieFileTransferService.class);
+        final JobFileStaging staging = Mockito.mock(JobFileStaging.class);
+        final Map<String, Object> context = new HashMap<>();
+        context.put(JobConstants.JOB_FILE_STAGING_KEY, staging);
+
+        this.genieBaseTask.fetchFile(context, fts, "src", "dst", FileMaterializationStrategy.HARD_LINK);
+        this.genieBaseTask.awaitStagedFiles(context);
+
+        Mockito.verify(staging, Mockito.times(1)).stage(fts, "src", "dst", FileMaterializationStrategy.HARD_LINK);
+        Mockito.verify(staging, Mockito.times(1)).await();
+        Mockito
+            .verify(fts, Mockito.never())
+            .getFile(Mockito.anyString(), Mockito.anyString(), Mockito.any(FileMaterializationStrategy.class));
+    }
+
+    /**
+     * Make sure files are fetched straight away when the job files aren't being staged.
+     *
+     * @throws GenieException if there is a problem.
+     */
+    @Test
+    public void canFetchFileWithoutStaging() throws GenieException {
+        final GenieFileTransferService fts = Mockito.mock(GenieFileTransferService.class);
+        final Map<String, Object> context = new HashMap<>();
+
+        this.genieBaseTask.fetchFile(context, fts, "src", "dst", FileMaterializationStrategy.HARD_LINK);
+        this.genieBaseTask.awaitStagedFiles(context);
+
+        Mockito.verify(fts, Mockito.times(1)).getFile("src", "dst", FileMaterializationStrategy.HARD_LINK);
+    }
+
+    /**
+     * Make sure the sourcing of a setup file is relative to the job directory variable.
+     *
+     * @throws GenieException if there is a problem.
+     */
+    @Test
+    public void canRenderSetupFileSourceSnippet() throws GenieException {
+        final String snippet = this.genieBaseTask.renderSetupFileSourceSnippet(
+            "id",
+            "Cluster:",
+            "s3://bucket/filepath/setup.sh",
+            AdminResources.CLUSTER
+        );
+
+        Assert.assertEquals(
+            "# Sourcing setup file from Cluster: id"
+                + System.lineSeparator()
+                + "source ${GENIE_JOB_DIR}/genie/cluster/id/setup.sh"
+                + System.lineSeparator()
+                + System.lineSeparator(),
+            snippet
+        );
+    }
 }
@@ -17,22 +17,26 @@
  */
 package com.netflix.genie.core.jobs.workflow.impl;
 
+import com.google.common.collect.Sets;
 import com.netflix.genie.common.exceptions.GenieException;
 import com.netflix.genie.common.exceptions.GenieServerException;
+import com.netflix.genie.core.jobs.UserRegistry;
+import com.netflix.genie.core.jobs.launcher.ProcessLauncher;
 import com.netflix.genie.test.categories.UnitTest;
 import com.netflix.spectator.api.Registry;
 import com.netflix.spectator.api.Timer;
-import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.exec.CommandLine;
-import org.apache.commons.exec.Executor;
 import org.junit.Assert;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
+import org.junit.rules.TemporaryFolder;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 
+import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
 import java.util.Arrays;
 import java.util.List;
 
@@ -43,10 +47,15 @@ import java.util.List;
  * @since 3.0.0
  */
 @Category(UnitTest.class)
-@Slf4j
 public class JobKickoffTaskUnitTests {
 
-    private Executor executor;
+    /**
+     * Temporary folder to use as the job directory.
+     */
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private ProcessLauncher launcher;
     private JobKickoffTask jobKickoffTask;
 
     /**
@@ -58,11 +67,12 @@ public class JobKickoffTaskUnitTests {
         final Registry registry = Mockito.mock(Registry.class);
         final Timer timer = Mockito.mock(Timer.class);
         Mockito.when(registry.timer("genie.jobs.tasks.jobKickoffTask.timer")).thenReturn(timer);
-        this.executor = Mockito.mock(Executor.class);
+        this.launcher = Mockito.mock(ProcessLauncher.class);
         jobKickoffTask = new JobKickoffTask(
             false,
             false,
-            this.executor,
+            this.launcher,
+            Mockito.mock(UserRegistry.class),
             "localhost",
             registry
         );
@@ -77,16 +87,27 @@ public class JobKickoffTaskUnitTests {
     @Test
     public void testChangeOwnershipOfDirectoryMethodSuccess() throws IOException, GenieException {
         final String user = "user";
-        final String dir = "dir";
-        final ArgumentCaptor<CommandLine> argumentCaptor = ArgumentCaptor.forClass(CommandLine.class);
-        final List<String> command = Arrays.asList("sudo", "chown", "-R", user, dir);
+        final String dir = this.folder.getRoot().getCanonicalPath();
+        final File runScript = this.folder.newFile("run");
+        final File dependencies = this.folder.newFolder("dependencies");
+        final File cached = this.folder.newFile("cached");
+        Files.createLink(new File(dependencies, "cached").toPath(), cached.toPath());
+        Files.createSymbolicLink(new File(dependencies, "linked").toPath(), runScript.toPath());
+        @SuppressWarnings("unchecked")
+        final ArgumentCaptor<List<String>> argumentCaptor = ArgumentCaptor.forClass((Class) List.class);
 
         this.jobKickoffTask.changeOwnershipOfDirectory(
             dir,
             user
         );
-        Mockito.verify(this.executor).execute(argumentCaptor.capture());
-        Assert.assertArrayEquals(command.toArray(), argumentCaptor.getValue().toStrings());
+        Mockito.verify(this.launcher).run(argumentCaptor.capture());
+        final List<String> command = argumentCaptor.getValue();
+        Assert.assertEquals(command.subList(0, 3), Arrays.asList("sudo", "chown", user));
+        // Files shared with the file cache and symbolic links are left alone
+        Assert.assertEquals(
+            Sets.newHashSet(command.subList(3, command.size())),
+            Sets.newHashSet(dir, runScript.getCanonicalPath(), dependencies.getCanonicalPath())
+        );
     }
 
     /**
@@ -98,75 +119,9 @@ public class JobKickoffTaskUnitTests {
     @Test(expected = GenieServerException.class)
     public void testChangeOwnershipOfDirectoryMethodFailure() throws IOException, GenieException {
         final String user = "user";
-        final String dir = "dir";
+        final String dir = this.folder.getRoot().getCanonicalPath();
 
-        Mockito.when(this.executor.execute(Mockito.any(CommandLine.class))).thenThrow(new IOException());
+        Mockito.doThrow(new IOException()).when(this.launcher).run(Mockito.anyListOf(String.class));
         this.jobKickoffTask.changeOwnershipOfDirectory(dir, user);
     }
-
-    /**
-     * Test the create user method for user already exists.
-     *
-     * @throws IOException If there is any problem.
-     * @throws GenieException If there is any problem.
-     */
-    @Test
-    public void testCreateUserMethodSuccessAlreadyExists() throws IOException, GenieException {
-        final String user = "user";
-        final String group = "group";
-        final ArgumentCaptor<CommandLine> argumentCaptor = ArgumentCaptor.forClass(CommandLine.class);
-        final List<String> command = Arrays.asList("id", "-u", user);
-
-        this.jobKickoffTask.createUser(user, group);
-        Mockito.verify(this.executor).execute(argumentCaptor.capture());
-        Assert.assertArrayEquals(command.toArray(), argumentCaptor.getValue().toStrings());
-    }
-
-    /**
-     * Test the create user method for user already exists.
-     *
-     * @throws IOException If there is any problem.
-     * @throws GenieException If there is any problem.
-     */
-    @Test
-    public void testCreateUserMethodSuccessDoesNotExist1() throws IOException, GenieException {
-        final String user = "user";
-        final String group = "group";
-
-        final CommandLine idCheckCommandLine = new CommandLine("id");
-        idCheckCommandLine.addArgument("-u");
-        idCheckCommandLine.addArgument(user);
-
-        Mockito.when(this.executor.execute(Mockito.any(CommandLine.class))).thenThrow(new IOException());
-
-        final ArgumentCaptor<CommandLine> argumentCaptor = ArgumentCaptor.forClass(CommandLine.class);
-        final List<String> command = Arrays.asList("sudo", "useradd", user, "-G", group, "-M");
-
-        try {
-            this.jobKickoffTask.createUser(user, group);
-        } catch (GenieException ge) {
-            log.debug("Ignoring exception to capture arguments.");
-        }
-
-        Mockito.verify(this.executor, Mockito.times(3)).execute(argumentCaptor.capture());
-        Assert.assertArrayEquals(command.toArray(), argumentCaptor.getAllValues().get(2).toStrings());
-    }
-
-    /**
-     * Test the create user method for user already exists but swallow genie exception.
-     *
-     * @throws IOException If there is any problem.
-     * @throws GenieException If there is any problem.
-     */
-    @Test(expected = GenieServerException.class)
-    public void testCreateUserMethodSuccessDoesNotExist2() throws IOException, GenieException {
-        final String user = "user";
-        final String group = "group";
-
-        Mockito.when(this.executor.execute(Mockito.any(CommandLine.class))).thenThrow(new IOException());
-        this.jobKickoffTask.createUser(
-            user,
-            group
-        );
-    }
 }
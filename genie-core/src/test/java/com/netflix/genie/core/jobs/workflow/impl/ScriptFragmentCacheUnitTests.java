@@ -0,0 +1,144 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.jobs.workflow.impl;
+
+import com.netflix.genie.common.dto.Application;
+import com.netflix.genie.common.dto.ApplicationStatus;
+import com.netflix.genie.common.exceptions.GenieException;
+import com.netflix.genie.common.exceptions.GeniePreconditionException;
+import com.netflix.genie.common.exceptions.GenieServerException;
+import com.netflix.genie.test.categories.UnitTest;
+import com.netflix.spectator.api.DefaultRegistry;
+import com.netflix.spectator.api.Registry;
+import org.hamcrest.Matchers;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Unit tests for the ScriptFragmentCache class.
+ *
+ * @author agent
+ * @since 3.1.0
+ */
+@Category(UnitTest.class)
+public class ScriptFragmentCacheUnitTests {
+
+    private Registry registry;
+    private ScriptFragmentCache cache;
+    private AtomicInteger renders;
+
+    /**
+     * Setup for the tests.
+     */
+    @Before
+    public void setup() {
+        this.registry = new DefaultRegistry();
+        this.cache = new ScriptFragmentCache(this.registry, "test");
+        this.renders = new AtomicInteger();
+    }
+
+    /**
+     * Make sure a fragment is rendered once per version of an entity.
+     *
+     * @throws GenieException on error
+     */
+    @Test
+    public void canRenderOncePerVersion() throws GenieException {
+        final Application version1 = this.getApplication("app", new Date(1000L));
+        final Application version2 = this.getApplication("app", new Date(2000L));
+
+        Assert.assertThat(this.cache.get(version1, () -> this.render(version1)), Matchers.is("app 1"));
+        Assert.assertThat(this.cache.get(version1, () -> this.render(version1)), Matchers.is("app 1"));
+        Assert.assertThat(this.cache.get(version2, () -> this.render(version2)), Matchers.is("app 2"));
+        Assert.assertThat(this.cache.get(version2, () -> this.render(version2)), Matchers.is("app 2"));
+
+        Assert.assertThat(this.renders.get(), Matchers.is(2));
+        Assert.assertThat(this.getCount("hit"), Matchers.is(2L));
+        Assert.assertThat(this.getCount("miss"), Matchers.is(2L));
+    }
+
+    /**
+     * Make sure entities which can't be told apart from their other versions are rendered every time.
+     *
+     * @throws GenieException on error
+     */
+    @Test
+    public void canRenderEntityWithoutVersionEveryTime() throws GenieException {
+        final Application application = this.getApplication("app", null);
+
+        Assert.assertThat(this.cache.get(application, () -> this.render(application)), Matchers.is("app 1"));
+        Assert.assertThat(this.cache.get(application, () -> this.render(application)), Matchers.is("app 2"));
+        Assert.assertThat(this.getCount("miss"), Matchers.is(2L));
+    }
+
+    /**
+     * Make sure a Genie exception thrown while rendering is passed on as is.
+     *
+     * @throws GenieException on error
+     */
+    @Test(expected = GeniePreconditionException.class)
+    public void canPassOnGenieException() throws GenieException {
+        this.cache.get(
+            this.getApplication("app", new Date()),
+            () -> {
+                throw new GeniePreconditionException("No id");
+            }
+        );
+    }
+
+    /**
+     * Make sure any other exception thrown while rendering is wrapped.
+     *
+     * @throws GenieException on error
+     */
+    @Test(expected = GenieServerException.class)
+    public void canWrapOtherException() throws GenieException {
+        this.cache.get(
+            this.getApplication("app", new Date()),
+            () -> {
+                throw new IllegalStateException();
+            }
+        );
+    }
+
+    private String render(final Application application) {
+        return application.getId().orElse(null) + " " + this.renders.incrementAndGet();
+    }
+
+    private Application getApplication(final String id, final Date updated) {
+        return new Application.Builder(id, "user", "1.0", ApplicationStatus.ACTIVE)
+            .withId(id)
+            .withUpdated(updated)
+            .build();
+    }
+
+    private long getCount(final String result) {
+        return this.registry
+            .counter(
+                this.registry
+                    .createId("genie.jobs.tasks.scriptFragments." + result + ".rate")
+                    .withTag("fragment", "test")
+            )
+            .count();
+    }
+}
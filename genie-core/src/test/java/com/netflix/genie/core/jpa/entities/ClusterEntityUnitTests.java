@@ -98,6 +98,7 @@ public class ClusterEntityUnitTests extends EntityTestsBase {
         Assert.assertTrue(this.c.getTags().isEmpty());
         this.c.onCreateOrUpdateCluster();
         Assert.assertEquals(2, this.c.getTags().size());
+        Assert.assertEquals(this.c.getTags(), this.c.getIndexedTags());
     }
 
     /**
@@ -166,9 +167,11 @@ public class ClusterEntityUnitTests extends EntityTestsBase {
         tags.add("sla");
         this.c.setTags(tags);
         Assert.assertEquals(tags, this.c.getTags());
+        Assert.assertEquals(tags, this.c.getIndexedTags());
 
         this.c.setTags(null);
         Assert.assertThat(this.c.getTags(), Matchers.empty());
+        Assert.assertThat(this.c.getIndexedTags(), Matchers.empty());
     }
 
     /**
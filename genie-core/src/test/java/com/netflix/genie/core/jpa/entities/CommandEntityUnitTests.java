@@ -221,6 +221,17 @@ public class CommandEntityUnitTests extends EntityTestsBase {
         Assert.assertThat(this.c.getMemory().orElseGet(RandomSuppliers.INT), Matchers.is(newMemory));
     }
 
+    /**
+     * Make sure can set the default cpu for the command if a user desires it.
+     */
+    @Test
+    public void testSetCpu() {
+        Assert.assertFalse(this.c.getCpu().isPresent());
+        final int newCpu = 4;
+        this.c.setCpu(newCpu);
+        Assert.assertThat(this.c.getCpu().orElseGet(RandomSuppliers.INT), Matchers.is(newCpu));
+    }
+
     /**
      * Test setting the configs.
      */
@@ -430,6 +441,8 @@ public class CommandEntityUnitTests extends EntityTestsBase {
         entity.setCheckDelay(checkDelay);
         final int memory = 10_241;
         entity.setMemory(memory);
+        final int cpu = 3;
+        entity.setCpu(cpu);
 
         final Command command = entity.getDTO();
         Assert.assertThat(command.getId().orElseGet(RandomSuppliers.STRING), Matchers.is(id));
@@ -446,5 +459,6 @@ public class CommandEntityUnitTests extends EntityTestsBase {
         Assert.assertThat(command.getSetupFile().orElseGet(RandomSuppliers.STRING), Matchers.is(setupFile));
         Assert.assertThat(command.getConfigs(), Matchers.is(configs));
         Assert.assertThat(command.getMemory().orElseGet(RandomSuppliers.INT), Matchers.is(memory));
+        Assert.assertThat(command.getCpu().orElseGet(RandomSuppliers.INT), Matchers.is(cpu));
     }
 }
@@ -263,9 +263,11 @@ public class JobEntityUnitTests extends EntityTestsBase {
         tags.add("someOtherTag");
         this.jobEntity.setTags(tags);
         Assert.assertEquals(tags, this.jobEntity.getTags());
+        Assert.assertEquals(tags, this.jobEntity.getIndexedTags());
 
         this.jobEntity.setTags(null);
         Assert.assertThat(this.jobEntity.getTags(), Matchers.empty());
+        Assert.assertThat(this.jobEntity.getIndexedTags(), Matchers.empty());
     }
 
     /**
@@ -0,0 +1,214 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.jpa.services;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import com.netflix.genie.common.dto.ClusterCriteria;
+import com.netflix.genie.common.dto.ClusterStatus;
+import com.netflix.genie.common.dto.CommandStatus;
+import com.netflix.genie.common.exceptions.GenieException;
+import com.netflix.genie.core.jpa.entities.ClusterEntity;
+import com.netflix.genie.core.jpa.entities.CommandEntity;
+import com.netflix.genie.core.jpa.repositories.JpaClusterRepository;
+import com.netflix.genie.core.jpa.repositories.JpaCommandRepository;
+import com.netflix.genie.test.categories.UnitTest;
+import com.netflix.spectator.api.DefaultRegistry;
+import org.hamcrest.Matchers;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.mockito.Mockito;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Unit tests for the JobResolutionIndex class.
+ *
+ * @author agent
+ * @since 3.1.0
+ */
+@Category(UnitTest.class)
+public class JobResolutionIndexUnitTests {
+
+    private JpaClusterRepository clusterRepo;
+    private JpaCommandRepository commandRepo;
+    private JobResolutionIndex index;
+
+    /**
+     * Setup the tests.
+     *
+     * @throws GenieException on error
+     */
+    @Before
+    public void setup() throws GenieException {
+        this.clusterRepo = Mockito.mock(JpaClusterRepository.class);
+        this.commandRepo = Mockito.mock(JpaCommandRepository.class);
+
+        final CommandEntity pig = this.createCommand("pig", CommandStatus.ACTIVE, "type:pig");
+        final CommandEntity hive = this.createCommand("hive", CommandStatus.DEPRECATED, "type:hive");
+        final ClusterEntity prod = this.createCluster("prod", ClusterStatus.UP, pig, hive);
+        final ClusterEntity test = this.createCluster("test", ClusterStatus.UP, pig);
+        final ClusterEntity down = this.createCluster("down", ClusterStatus.OUT_OF_SERVICE, pig);
+        test.setTags(Sets.newHashSet("sched:adhoc", "type:yarn"));
+
+        Mockito.when(this.commandRepo.findAll()).thenReturn(Lists.newArrayList(pig, hive));
+        Mockito.when(this.clusterRepo.findAll()).thenReturn(Lists.newArrayList(prod, test, down));
+        Mockito.when(this.clusterRepo.count()).thenReturn(3L);
+        Mockito.when(this.clusterRepo.sumEntityVersions()).thenReturn(0L);
+        Mockito.when(this.clusterRepo.findMaxUpdated()).thenReturn(new Date(1000L));
+        Mockito.when(this.commandRepo.count()).thenReturn(2L);
+        Mockito.when(this.commandRepo.sumEntityVersions()).thenReturn(0L);
+        Mockito.when(this.commandRepo.findMaxUpdated()).thenReturn(new Date(1000L));
+
+        this.index = new JobResolutionIndex(this.clusterRepo, this.commandRepo, true, new DefaultRegistry());
+    }
+
+    /**
+     * Make sure the index doesn't answer queries until it has been built or when it's disabled.
+     */
+    @Test
+    public void cantFindBeforeBuilt() {
+        Assert.assertFalse(this.index.isReady());
+        Assert.assertFalse(this.find(Sets.newHashSet("type:yarn"), "type:pig").isPresent());
+
+        final JobResolutionIndex disabled
+            = new JobResolutionIndex(this.clusterRepo, this.commandRepo, false, new DefaultRegistry());
+        disabled.refreshIfStale();
+        Assert.assertFalse(disabled.isReady());
+        Mockito.verify(this.clusterRepo, Mockito.never()).findAll();
+    }
+
+    /**
+     * Make sure only UP clusters with an ACTIVE matching command are returned for the first matching criteria.
+     */
+    @Test
+    public void canFindClusters() {
+        this.index.refreshIfStale();
+        Assert.assertTrue(this.index.isReady());
+        Assert.assertThat(this.index.getNumClusters(), Matchers.is(3));
+        Assert.assertThat(this.index.getNumCommands(), Matchers.is(2));
+
+        Assert.assertThat(
+            this.find(Sets.newHashSet("type:yarn"), "type:pig").orElseThrow(IllegalStateException::new),
+            Matchers.containsInAnyOrder("prod", "test")
+        );
+        Assert.assertThat(
+            this.find(Sets.newHashSet("sched:adhoc"), "type:pig").orElseThrow(IllegalStateException::new),
+            Matchers.contains("test")
+        );
+        Assert.assertTrue(
+            this.find(Sets.newHashSet("type:yarn"), "type:hive").orElseThrow(IllegalStateException::new).isEmpty()
+        );
+    }
+
+    /**
+     * Make sure incremental changes are applied and unchanged version stamps don't cause a rebuild.
+     *
+     * @throws GenieException on error
+     */
+    @Test
+    public void canUpdateIncrementally() throws GenieException {
+        this.index.refreshIfStale();
+        this.index.refreshIfStale();
+        Mockito.verify(this.clusterRepo, Mockito.times(1)).findAll();
+
+        this.index.clusterDeleted("test");
+        Assert.assertTrue(
+            this.find(Sets.newHashSet("sched:adhoc"), "type:pig").orElseThrow(IllegalStateException::new).isEmpty()
+        );
+
+        final CommandEntity spark = this.createCommand("spark", CommandStatus.ACTIVE, "type:spark");
+        final ClusterEntity prod = this.createCluster("prod", ClusterStatus.UP, spark);
+        Mockito.when(this.clusterRepo.findOne("prod")).thenReturn(prod);
+        this.index.clusterChanged("prod");
+        Assert.assertThat(
+            this.find(Sets.newHashSet("type:yarn"), "type:spark").orElseThrow(IllegalStateException::new),
+            Matchers.contains("prod")
+        );
+        Assert.assertTrue(
+            this.find(Sets.newHashSet("type:yarn"), "type:pig").orElseThrow(IllegalStateException::new).isEmpty()
+        );
+
+        this.index.commandDeleted("spark");
+        Assert.assertTrue(
+            this.find(Sets.newHashSet("type:yarn"), "type:spark").orElseThrow(IllegalStateException::new).isEmpty()
+        );
+    }
+
+    /**
+     * Make sure deleting a cluster and creating another, which leaves the count and the sum of versions unchanged,
+     * still causes a rebuild.
+     *
+     * @throws GenieException on error
+     */
+    @Test
+    public void canRebuildAfterDeleteAndCreate() throws GenieException {
+        this.index.refreshIfStale();
+        final CommandEntity pig = this.createCommand("pig", CommandStatus.ACTIVE, "type:pig");
+        final ClusterEntity created = this.createCluster("created", ClusterStatus.UP, pig);
+        created.setTags(Sets.newHashSet("sched:adhoc", "type:yarn"));
+        Mockito.when(this.clusterRepo.findAll()).thenReturn(
+            Lists.newArrayList(
+                this.createCluster("prod", ClusterStatus.UP, pig),
+                this.createCluster("down", ClusterStatus.OUT_OF_SERVICE, pig),
+                created
+            )
+        );
+        Mockito.when(this.clusterRepo.findMaxUpdated()).thenReturn(new Date(2000L));
+
+        this.index.refreshIfStale();
+        Mockito.verify(this.clusterRepo, Mockito.times(2)).findAll();
+        Assert.assertThat(
+            this.find(Sets.newHashSet("sched:adhoc"), "type:pig").orElseThrow(IllegalStateException::new),
+            Matchers.contains("created")
+        );
+    }
+
+    private Optional<List<String>> find(final Set<String> clusterTags, final String commandTag) {
+        return this.index.findClusterIds(
+            Lists.newArrayList(new ClusterCriteria(clusterTags)),
+            Sets.newHashSet(commandTag)
+        );
+    }
+
+    private CommandEntity createCommand(final String id, final CommandStatus status, final String tag) {
+        final CommandEntity commandEntity = new CommandEntity();
+        commandEntity.setId(id);
+        commandEntity.setStatus(status);
+        commandEntity.setTags(Sets.newHashSet(tag));
+        return commandEntity;
+    }
+
+    private ClusterEntity createCluster(
+        final String id,
+        final ClusterStatus status,
+        final CommandEntity... commands
+    ) throws GenieException {
+        final ClusterEntity clusterEntity = new ClusterEntity();
+        clusterEntity.setId(id);
+        clusterEntity.setStatus(status);
+        clusterEntity.setTags(Sets.newHashSet("type:yarn"));
+        clusterEntity.setCommands(Lists.newArrayList(commands));
+        return clusterEntity;
+    }
+}
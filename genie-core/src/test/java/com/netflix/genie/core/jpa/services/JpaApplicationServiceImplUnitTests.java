@@ -25,16 +25,21 @@ import com.netflix.genie.common.exceptions.GenieConflictException;
 import com.netflix.genie.common.exceptions.GenieException;
 import com.netflix.genie.common.exceptions.GenieNotFoundException;
 import com.netflix.genie.common.exceptions.GeniePreconditionException;
+import com.netflix.genie.core.events.ResourceUpdatedEvent;
 import com.netflix.genie.core.jpa.entities.ApplicationEntity;
 import com.netflix.genie.core.jpa.entities.CommandEntity;
 import com.netflix.genie.core.jpa.repositories.JpaApplicationRepository;
 import com.netflix.genie.core.jpa.repositories.JpaCommandRepository;
 import com.netflix.genie.test.categories.UnitTest;
+import org.hamcrest.Matchers;
+import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 import org.mockito.internal.util.collections.Sets;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.util.HashSet;
 import java.util.UUID;
@@ -54,6 +59,7 @@ public class JpaApplicationServiceImplUnitTests {
 
     private JpaApplicationRepository jpaApplicationRepository;
     private JpaApplicationServiceImpl appService;
+    private ApplicationEventPublisher publisher;
 
     /**
      * Setup the tests.
@@ -62,7 +68,12 @@ public class JpaApplicationServiceImplUnitTests {
     public void setup() {
         this.jpaApplicationRepository = Mockito.mock(JpaApplicationRepository.class);
         final JpaCommandRepository jpaCommandRepository = Mockito.mock(JpaCommandRepository.class);
-        this.appService = new JpaApplicationServiceImpl(this.jpaApplicationRepository, jpaCommandRepository);
+        this.publisher = Mockito.mock(ApplicationEventPublisher.class);
+        this.appService = new JpaApplicationServiceImpl(
+            this.jpaApplicationRepository,
+            jpaCommandRepository,
+            this.publisher
+        );
     }
 
     /**
@@ -127,6 +138,50 @@ public class JpaApplicationServiceImplUnitTests {
         this.appService.updateApplication(id, app);
     }
 
+    /**
+     * Make sure the files of an active application are published when it's saved so they can be cached ahead of use.
+     *
+     * @throws GenieException For any problem
+     */
+    @Test
+    public void canPublishFilesOfActiveApplication() throws GenieException {
+        final Application app = new Application.Builder(
+            APP_1_NAME, APP_1_USER, APP_1_VERSION, ApplicationStatus.ACTIVE
+        )
+            .withId(APP_1_ID)
+            .withSetupFile("s3://bucket/setup.sh")
+            .withConfigs(Sets.newSet("s3://bucket/app.xml"))
+            .withDependencies(Sets.newSet("s3://bucket/app.jar"))
+            .build();
+        this.appService.createApplication(app);
+
+        final ArgumentCaptor<ResourceUpdatedEvent> captor = ArgumentCaptor.forClass(ResourceUpdatedEvent.class);
+        Mockito.verify(this.publisher, Mockito.times(1)).publishEvent(captor.capture());
+        Assert.assertThat(captor.getValue().getId(), Matchers.is(APP_1_ID));
+        Assert.assertThat(
+            captor.getValue().getFiles(),
+            Matchers.containsInAnyOrder("s3://bucket/setup.sh", "s3://bucket/app.xml", "s3://bucket/app.jar")
+        );
+    }
+
+    /**
+     * Make sure nothing is published for applications jobs can't use.
+     *
+     * @throws GenieException For any problem
+     */
+    @Test
+    public void wontPublishFilesOfInactiveApplication() throws GenieException {
+        final Application app = new Application.Builder(
+            APP_1_NAME, APP_1_USER, APP_1_VERSION, ApplicationStatus.INACTIVE
+        )
+            .withId(APP_1_ID)
+            .withDependencies(Sets.newSet("s3://bucket/app.jar"))
+            .build();
+        this.appService.createApplication(app);
+
+        Mockito.verify(this.publisher, Mockito.never()).publishEvent(Mockito.any(ResourceUpdatedEvent.class));
+    }
+
     /**
      * Test delete all when still in a relationship with a command.
      *
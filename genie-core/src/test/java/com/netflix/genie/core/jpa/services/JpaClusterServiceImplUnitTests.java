@@ -34,6 +34,7 @@ import org.junit.Before;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
 import org.mockito.Mockito;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.util.ArrayList;
 import java.util.HashSet;
@@ -67,7 +68,12 @@ public class JpaClusterServiceImplUnitTests {
     public void setup() {
         this.jpaClusterRepository = Mockito.mock(JpaClusterRepository.class);
         this.jpaCommandRepository = Mockito.mock(JpaCommandRepository.class);
-        this.service = new JpaClusterServiceImpl(this.jpaClusterRepository, this.jpaCommandRepository);
+        this.service = new JpaClusterServiceImpl(
+            this.jpaClusterRepository,
+            this.jpaCommandRepository,
+            Mockito.mock(JobResolutionIndex.class),
+            Mockito.mock(ApplicationEventPublisher.class)
+        );
     }
 
     /**
@@ -393,6 +393,7 @@ public class JpaCommandServiceImplIntegrationTests extends DBUnitTestBase {
     @Test
     public void testCreateCommandNoId() throws GenieException {
         final int memory = 512;
+        final int cpu = 2;
         final Command command = new Command.Builder(
             COMMAND_1_NAME,
             COMMAND_1_USER,
@@ -402,6 +403,7 @@ public class JpaCommandServiceImplIntegrationTests extends DBUnitTestBase {
             COMMAND_1_CHECK_DELAY
         )
             .withMemory(memory)
+            .withCpu(cpu)
             .build();
         final String id = this.service.createCommand(command);
         final Command created = this.service.getCommand(id);
@@ -412,6 +414,7 @@ public class JpaCommandServiceImplIntegrationTests extends DBUnitTestBase {
         Assert.assertEquals(COMMAND_1_EXECUTABLE, created.getExecutable());
         Assert.assertThat(COMMAND_1_CHECK_DELAY, Matchers.is(created.getCheckDelay()));
         Assert.assertThat(created.getMemory().orElse(memory + 1), Matchers.is(memory));
+        Assert.assertThat(created.getCpu().orElse(cpu + 1), Matchers.is(cpu));
         this.service.deleteCommand(created.getId().orElseThrow(IllegalArgumentException::new));
         try {
             this.service.getCommand(created.getId().orElseThrow(IllegalArgumentException::new));
@@ -35,6 +35,7 @@ import org.junit.Before;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
 import org.mockito.Mockito;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.util.HashSet;
 import java.util.List;
@@ -74,7 +75,9 @@ public class JpaCommandServiceImplUnitTests {
         this.service = new JpaCommandServiceImpl(
             this.jpaCommandRepository,
             this.jpaApplicationRepository,
-            jpaClusterRepository
+            jpaClusterRepository,
+            Mockito.mock(JobResolutionIndex.class),
+            Mockito.mock(ApplicationEventPublisher.class)
         );
     }
 
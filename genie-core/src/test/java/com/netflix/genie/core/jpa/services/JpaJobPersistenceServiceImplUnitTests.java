@@ -28,6 +28,7 @@ import com.netflix.genie.common.exceptions.GenieConflictException;
 import com.netflix.genie.common.exceptions.GenieException;
 import com.netflix.genie.common.exceptions.GenieNotFoundException;
 import com.netflix.genie.common.exceptions.GeniePreconditionException;
+import com.netflix.genie.core.jobs.JobSubmission;
 import com.netflix.genie.core.jpa.entities.ApplicationEntity;
 import com.netflix.genie.core.jpa.entities.ClusterEntity;
 import com.netflix.genie.core.jpa.entities.CommandEntity;
@@ -53,6 +54,7 @@ import org.mockito.Mockito;
 
 import java.util.Date;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
@@ -230,6 +232,73 @@ public class JpaJobPersistenceServiceImplUnitTests {
         );
     }
 
+    /**
+     * Test the createJobs method saves each type of entity together and skips jobs which already exist.
+     *
+     * @throws GenieException For any problem
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testCreateJobs() throws GenieException {
+        final String existingJobId = UUID.randomUUID().toString();
+        final JobMetadata metadata = new JobMetadata.Builder().withClientHost(UUID.randomUUID().toString()).build();
+        final List<JobSubmission> jobSubmissions = Lists.newArrayList(
+            new JobSubmission(
+                new JobRequest.Builder(
+                    JOB_1_NAME,
+                    JOB_1_USER,
+                    JOB_1_VERSION,
+                    JOB_1_COMMAND_ARGS,
+                    Lists.newArrayList(),
+                    Sets.newHashSet()
+                ).withId(JOB_1_ID).build(),
+                metadata,
+                new Job.Builder(JOB_1_NAME, JOB_1_USER, JOB_1_VERSION, JOB_1_COMMAND_ARGS)
+                    .withId(JOB_1_ID)
+                    .withStatus(JobStatus.INIT)
+                    .build(),
+                new JobExecution.Builder(UUID.randomUUID().toString()).withId(JOB_1_ID).build()
+            ),
+            new JobSubmission(
+                new JobRequest.Builder(
+                    JOB_1_NAME,
+                    JOB_1_USER,
+                    JOB_1_VERSION,
+                    JOB_1_COMMAND_ARGS,
+                    Lists.newArrayList(),
+                    Sets.newHashSet()
+                ).withId(existingJobId).build(),
+                metadata,
+                new Job.Builder(JOB_1_NAME, JOB_1_USER, JOB_1_VERSION, JOB_1_COMMAND_ARGS)
+                    .withId(existingJobId)
+                    .withStatus(JobStatus.INIT)
+                    .build(),
+                new JobExecution.Builder(UUID.randomUUID().toString()).withId(existingJobId).build()
+            )
+        );
+        Mockito
+            .when(this.jobRequestRepo.findIdsByIdIn(Lists.newArrayList(JOB_1_ID, existingJobId)))
+            .thenReturn(Lists.newArrayList(existingJobId));
+
+        final Set<String> skipped = this.jobPersistenceService.createJobs(jobSubmissions);
+        Assert.assertThat(skipped, Matchers.contains(existingJobId));
+
+        final ArgumentCaptor<List> requests = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(this.jobRequestRepo, Mockito.times(1)).save(requests.capture());
+        Assert.assertThat(requests.getValue().size(), Matchers.is(1));
+        Assert.assertThat(((JobRequestEntity) requests.getValue().get(0)).getId(), Matchers.is(JOB_1_ID));
+
+        final ArgumentCaptor<List> jobs = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(this.jobRepo, Mockito.times(1)).save(jobs.capture());
+        Assert.assertThat(jobs.getValue().size(), Matchers.is(1));
+        final ArgumentCaptor<List> metadatas = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(this.jobMetadataRepository, Mockito.times(1)).save(metadatas.capture());
+        Assert.assertThat(metadatas.getValue().size(), Matchers.is(1));
+        final ArgumentCaptor<List> executions = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(this.jobExecutionRepo, Mockito.times(1)).save(executions.capture());
+        Assert.assertThat(executions.getValue().size(), Matchers.is(1));
+    }
+
     /**
      * Test the updateJobStatus method.
      *
@@ -0,0 +1,299 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.jpa.services;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import com.netflix.genie.common.dto.Application;
+import com.netflix.genie.common.dto.ApplicationStatus;
+import com.netflix.genie.common.dto.Cluster;
+import com.netflix.genie.common.dto.ClusterCriteria;
+import com.netflix.genie.common.dto.ClusterStatus;
+import com.netflix.genie.common.dto.CommandStatus;
+import com.netflix.genie.common.dto.JobRequest;
+import com.netflix.genie.common.exceptions.GenieException;
+import com.netflix.genie.common.exceptions.GenieNotFoundException;
+import com.netflix.genie.common.exceptions.GeniePreconditionException;
+import com.netflix.genie.core.jobs.JobResolution;
+import com.netflix.genie.core.jpa.entities.ApplicationEntity;
+import com.netflix.genie.core.jpa.entities.ClusterEntity;
+import com.netflix.genie.core.jpa.entities.CommandEntity;
+import com.netflix.genie.core.jpa.repositories.JpaApplicationRepository;
+import com.netflix.genie.core.jpa.repositories.JpaClusterRepository;
+import com.netflix.genie.core.services.ClusterLoadBalancer;
+import com.netflix.genie.test.categories.UnitTest;
+import org.hamcrest.Matchers;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Unit tests for the JpaJobResolverServiceImpl class.
+ *
+ * @author agent
+ * @since 3.1.0
+ */
+@Category(UnitTest.class)
+public class JpaJobResolverServiceImplUnitTests {
+
+    private static final String JOB_ID = UUID.randomUUID().toString();
+    private static final Set<String> COMMAND_CRITERIA = Sets.newHashSet("pig");
+
+    private JpaClusterRepository clusterRepo;
+    private JpaApplicationRepository applicationRepo;
+    private ClusterLoadBalancer clusterLoadBalancer;
+    private JobResolutionIndex resolutionIndex;
+    private JpaJobResolverServiceImpl service;
+
+    /**
+     * Setup for the tests.
+     */
+    @Before
+    public void setup() {
+        this.clusterRepo = Mockito.mock(JpaClusterRepository.class);
+        this.applicationRepo = Mockito.mock(JpaApplicationRepository.class);
+        this.clusterLoadBalancer = Mockito.mock(ClusterLoadBalancer.class);
+        this.resolutionIndex = Mockito.mock(JobResolutionIndex.class);
+        Mockito
+            .when(
+                this.resolutionIndex.findClusterIds(
+                    Mockito.anyListOf(ClusterCriteria.class),
+                    Mockito.anySetOf(String.class)
+                )
+            )
+            .thenReturn(Optional.empty());
+        this.service = new JpaJobResolverServiceImpl(
+            this.clusterRepo,
+            this.applicationRepo,
+            this.clusterLoadBalancer,
+            this.resolutionIndex
+        );
+    }
+
+    /**
+     * Make sure the highest priority cluster criteria matched is used and the first active matching command and its
+     * applications are resolved.
+     *
+     * @throws GenieException on error
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void canResolveJob() throws GenieException {
+        final ApplicationEntity application = this.createApplication();
+        final CommandEntity inactive = this.createCommand(CommandStatus.INACTIVE, COMMAND_CRITERIA);
+        final CommandEntity active = this.createCommand(CommandStatus.ACTIVE, COMMAND_CRITERIA);
+        active.setApplications(Lists.newArrayList(application));
+        final ClusterEntity prod = this.createCluster(Sets.newHashSet("prod"), inactive, active);
+        final ClusterEntity test = this.createCluster(Sets.newHashSet("test"), active);
+
+        Mockito
+            .when(this.clusterRepo.findAll(Mockito.any(Specification.class)))
+            .thenReturn(Lists.newArrayList(test, prod));
+        final ArgumentCaptor<List> candidates = ArgumentCaptor.forClass(List.class);
+        Mockito.when(this.clusterLoadBalancer.selectCluster(candidates.capture())).thenReturn(prod.getDTO());
+
+        final JobResolution resolution = this.service.resolveJob(
+            this.createJobRequest(
+                Lists.newArrayList(
+                    new ClusterCriteria(Sets.newHashSet("prod")),
+                    new ClusterCriteria(Sets.newHashSet("test"))
+                ),
+                null
+            )
+        );
+
+        Assert.assertThat(candidates.getValue().size(), Matchers.is(1));
+        Assert.assertThat(resolution.getCluster().getId().orElse(null), Matchers.is(prod.getId()));
+        Assert.assertThat(resolution.getCommand().getId().orElse(null), Matchers.is(active.getId()));
+        Assert.assertThat(resolution.getApplications().size(), Matchers.is(1));
+        Assert.assertThat(
+            resolution.getApplications().get(0).getId().orElse(null),
+            Matchers.is(application.getId())
+        );
+        Mockito.verify(this.clusterRepo, Mockito.times(1)).findAll(Mockito.any(Specification.class));
+        Mockito.verify(this.applicationRepo, Mockito.never()).findAll(Mockito.anyListOf(String.class));
+    }
+
+    /**
+     * Make sure the candidate clusters are fetched by id when the resolution index can answer the query.
+     *
+     * @throws GenieException on error
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void canResolveJobFromIndex() throws GenieException {
+        final CommandEntity command = this.createCommand(CommandStatus.ACTIVE, COMMAND_CRITERIA);
+        final ClusterEntity cluster = this.createCluster(Sets.newHashSet("prod"), command);
+        final List<ClusterCriteria> clusterCriterias
+            = Lists.newArrayList(new ClusterCriteria(Sets.newHashSet("prod")));
+        final List<String> clusterIds = Lists.newArrayList(cluster.getId());
+
+        Mockito
+            .when(this.resolutionIndex.findClusterIds(clusterCriterias, COMMAND_CRITERIA))
+            .thenReturn(Optional.of(clusterIds));
+        Mockito.when(this.clusterRepo.findAll(clusterIds)).thenReturn(Lists.newArrayList(cluster));
+        Mockito.when(this.clusterLoadBalancer.selectCluster(Mockito.anyListOf(Cluster.class)))
+            .thenReturn(cluster.getDTO());
+
+        final JobResolution resolution = this.service.resolveJob(this.createJobRequest(clusterCriterias, null));
+
+        Assert.assertThat(resolution.getCluster().getId().orElse(null), Matchers.is(cluster.getId()));
+        Assert.assertThat(resolution.getCommand().getId().orElse(null), Matchers.is(command.getId()));
+        Mockito.verify(this.clusterRepo, Mockito.never()).findAll(Mockito.any(Specification.class));
+    }
+
+    /**
+     * Make sure applications requested in the job request are resolved in the requested order.
+     *
+     * @throws GenieException on error
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void canResolveRequestedApplications() throws GenieException {
+        final ApplicationEntity one = this.createApplication();
+        final ApplicationEntity two = this.createApplication();
+        final CommandEntity command = this.createCommand(CommandStatus.ACTIVE, COMMAND_CRITERIA);
+        final ClusterEntity cluster = this.createCluster(Sets.newHashSet("prod"), command);
+
+        Mockito
+            .when(this.clusterRepo.findAll(Mockito.any(Specification.class)))
+            .thenReturn(Lists.newArrayList(cluster));
+        Mockito.when(this.clusterLoadBalancer.selectCluster(Mockito.anyListOf(Cluster.class)))
+            .thenReturn(cluster.getDTO());
+        final List<String> applicationIds = Lists.newArrayList(two.getId(), one.getId());
+        Mockito.when(this.applicationRepo.findAll(applicationIds)).thenReturn(Lists.newArrayList(one, two));
+
+        final List<Application> applications = this.service.resolveJob(
+            this.createJobRequest(Lists.newArrayList(new ClusterCriteria(Sets.newHashSet("prod"))), applicationIds)
+        ).getApplications();
+
+        Assert.assertThat(applications.size(), Matchers.is(2));
+        Assert.assertThat(applications.get(0).getId().orElse(null), Matchers.is(two.getId()));
+        Assert.assertThat(applications.get(1).getId().orElse(null), Matchers.is(one.getId()));
+    }
+
+    /**
+     * Make sure an exception is thrown if a requested application doesn't exist.
+     *
+     * @throws GenieException on error
+     */
+    @Test(expected = GenieNotFoundException.class)
+    @SuppressWarnings("unchecked")
+    public void cantResolveMissingApplication() throws GenieException {
+        final CommandEntity command = this.createCommand(CommandStatus.ACTIVE, COMMAND_CRITERIA);
+        final ClusterEntity cluster = this.createCluster(Sets.newHashSet("prod"), command);
+
+        Mockito
+            .when(this.clusterRepo.findAll(Mockito.any(Specification.class)))
+            .thenReturn(Lists.newArrayList(cluster));
+        Mockito.when(this.clusterLoadBalancer.selectCluster(Mockito.anyListOf(Cluster.class)))
+            .thenReturn(cluster.getDTO());
+        final List<String> applicationIds = Lists.newArrayList(UUID.randomUUID().toString());
+        Mockito.when(this.applicationRepo.findAll(applicationIds)).thenReturn(Lists.newArrayList());
+
+        this.service.resolveJob(
+            this.createJobRequest(Lists.newArrayList(new ClusterCriteria(Sets.newHashSet("prod"))), applicationIds)
+        );
+    }
+
+    /**
+     * Make sure a cluster without a matching active command is never offered to the load balancer.
+     *
+     * @throws GenieException on error
+     */
+    @Test(expected = GeniePreconditionException.class)
+    @SuppressWarnings("unchecked")
+    public void cantResolveWithoutCommand() throws GenieException {
+        final CommandEntity command = this.createCommand(CommandStatus.ACTIVE, Sets.newHashSet("hive"));
+        final ClusterEntity cluster = this.createCluster(Sets.newHashSet("prod"), command);
+
+        Mockito
+            .when(this.clusterRepo.findAll(Mockito.any(Specification.class)))
+            .thenReturn(Lists.newArrayList(cluster));
+        Mockito
+            .when(this.clusterLoadBalancer.selectCluster(Lists.newArrayList()))
+            .thenThrow(new GeniePreconditionException("No cluster"));
+
+        this.service.resolveJob(
+            this.createJobRequest(Lists.newArrayList(new ClusterCriteria(Sets.newHashSet("prod"))), null)
+        );
+    }
+
+    private JobRequest createJobRequest(
+        final List<ClusterCriteria> clusterCriterias,
+        final List<String> applications
+    ) {
+        return new JobRequest.Builder(
+            UUID.randomUUID().toString(),
+            UUID.randomUUID().toString(),
+            UUID.randomUUID().toString(),
+            null,
+            clusterCriterias,
+            COMMAND_CRITERIA
+        )
+            .withId(JOB_ID)
+            .withApplications(applications)
+            .build();
+    }
+
+    private ClusterEntity createCluster(
+        final Set<String> tags,
+        final CommandEntity... commands
+    ) throws GeniePreconditionException {
+        final ClusterEntity cluster = new ClusterEntity();
+        cluster.setId(UUID.randomUUID().toString());
+        cluster.setName(UUID.randomUUID().toString());
+        cluster.setUser(UUID.randomUUID().toString());
+        cluster.setVersion(UUID.randomUUID().toString());
+        cluster.setStatus(ClusterStatus.UP);
+        cluster.setTags(tags);
+        cluster.setCommands(Lists.newArrayList(commands));
+        return cluster;
+    }
+
+    private CommandEntity createCommand(final CommandStatus status, final Set<String> tags) {
+        final CommandEntity command = new CommandEntity();
+        command.setId(UUID.randomUUID().toString());
+        command.setName(UUID.randomUUID().toString());
+        command.setUser(UUID.randomUUID().toString());
+        command.setVersion(UUID.randomUUID().toString());
+        command.setExecutable(UUID.randomUUID().toString());
+        command.setStatus(status);
+        command.setTags(tags);
+        return command;
+    }
+
+    private ApplicationEntity createApplication() {
+        final ApplicationEntity application = new ApplicationEntity();
+        application.setId(UUID.randomUUID().toString());
+        application.setName(UUID.randomUUID().toString());
+        application.setUser(UUID.randomUUID().toString());
+        application.setVersion(UUID.randomUUID().toString());
+        application.setStatus(ApplicationStatus.ACTIVE);
+        return application;
+    }
+}
@@ -98,6 +98,25 @@ public class JpaJobSearchServiceImplUnitTests {
         Assert.assertThat(returnedJob, Matchers.is(job));
     }
 
+    /**
+     * Make sure existing job ids are remembered so repeated checks for them don't go back to the database.
+     */
+    @Test
+    public void canCheckIfJobExists() {
+        final String id = UUID.randomUUID().toString();
+        final String missingId = UUID.randomUUID().toString();
+        Mockito.when(this.jobRequestRepository.exists(id)).thenReturn(true);
+        Mockito.when(this.jobRequestRepository.exists(missingId)).thenReturn(false);
+
+        Assert.assertTrue(this.service.jobExists(id));
+        Assert.assertTrue(this.service.jobExists(id));
+        Mockito.verify(this.jobRequestRepository, Mockito.times(1)).exists(id);
+
+        Assert.assertFalse(this.service.jobExists(missingId));
+        Assert.assertFalse(this.service.jobExists(missingId));
+        Mockito.verify(this.jobRequestRepository, Mockito.times(2)).exists(missingId);
+    }
+
     /**
      * Test the getJobRequest method.
      *
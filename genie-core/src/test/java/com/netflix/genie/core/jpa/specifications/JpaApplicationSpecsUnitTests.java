@@ -28,9 +28,11 @@ import org.springframework.data.jpa.domain.Specification;
 
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.JoinType;
 import javax.persistence.criteria.Path;
 import javax.persistence.criteria.Predicate;
 import javax.persistence.criteria.Root;
+import javax.persistence.criteria.SetJoin;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.UUID;
@@ -55,7 +57,7 @@ public class JpaApplicationSpecsUnitTests {
     private Root<ApplicationEntity> root;
     private CriteriaQuery<?> cq;
     private CriteriaBuilder cb;
-    private String tagLikeStatement;
+    private SetJoin<ApplicationEntity, String> tagJoin;
 
     /**
      * Setup some variables.
@@ -92,13 +94,8 @@ public class JpaApplicationSpecsUnitTests {
         Mockito.when(this.cb.equal(Mockito.eq(statusPath), Mockito.any(ApplicationStatus.class)))
                 .thenReturn(equalStatusPredicate);
 
-        final Path<String> tagPath = (Path<String>) Mockito.mock(Path.class);
-        final Predicate likeTagPredicate = Mockito.mock(Predicate.class);
-        Mockito.when(this.root.get(ApplicationEntity_.tags)).thenReturn(tagPath);
-        Mockito.when(this.cb.like(Mockito.eq(tagPath), Mockito.any(String.class)))
-                .thenReturn(likeTagPredicate);
-
-        this.tagLikeStatement = JpaSpecificationUtils.getTagLikeString(TAGS);
+        this.tagJoin = (SetJoin<ApplicationEntity, String>) Mockito.mock(SetJoin.class);
+        Mockito.when(this.root.join(ApplicationEntity_.indexedTags, JoinType.LEFT)).thenReturn(this.tagJoin);
 
         final Path<String> typePath = (Path<String>) Mockito.mock(Path.class);
         final Predicate typePredicate = Mockito.mock(Predicate.class);
@@ -119,7 +116,9 @@ public class JpaApplicationSpecsUnitTests {
         for (final ApplicationStatus status : STATUSES) {
             Mockito.verify(this.cb, Mockito.times(1)).equal(this.root.get(ApplicationEntity_.status), status);
         }
-        Mockito.verify(this.cb, Mockito.times(1)).like(this.root.get(ApplicationEntity_.tags), this.tagLikeStatement);
+        for (final String tag : TAGS) {
+            Mockito.verify(this.cb, Mockito.times(1)).equal(this.tagJoin, tag);
+        }
         Mockito.verify(this.cb, Mockito.times(1)).equal(this.root.get(ApplicationEntity_.type), TYPE);
     }
 
@@ -136,7 +135,9 @@ public class JpaApplicationSpecsUnitTests {
         for (final ApplicationStatus status : STATUSES) {
             Mockito.verify(this.cb, Mockito.times(1)).equal(this.root.get(ApplicationEntity_.status), status);
         }
-        Mockito.verify(this.cb, Mockito.times(1)).like(this.root.get(ApplicationEntity_.tags), this.tagLikeStatement);
+        for (final String tag : TAGS) {
+            Mockito.verify(this.cb, Mockito.times(1)).equal(this.tagJoin, tag);
+        }
         Mockito.verify(this.cb, Mockito.times(1)).equal(this.root.get(ApplicationEntity_.type), TYPE);
     }
 
@@ -153,7 +154,9 @@ public class JpaApplicationSpecsUnitTests {
         for (final ApplicationStatus status : STATUSES) {
             Mockito.verify(this.cb, Mockito.times(1)).equal(this.root.get(ApplicationEntity_.status), status);
         }
-        Mockito.verify(this.cb, Mockito.times(1)).like(this.root.get(ApplicationEntity_.tags), this.tagLikeStatement);
+        for (final String tag : TAGS) {
+            Mockito.verify(this.cb, Mockito.times(1)).equal(this.tagJoin, tag);
+        }
         Mockito.verify(this.cb, Mockito.times(1)).equal(this.root.get(ApplicationEntity_.type), TYPE);
     }
 
@@ -170,7 +173,9 @@ public class JpaApplicationSpecsUnitTests {
         for (final ApplicationStatus status : STATUSES) {
             Mockito.verify(this.cb, Mockito.never()).equal(this.root.get(ApplicationEntity_.status), status);
         }
-        Mockito.verify(this.cb, Mockito.times(1)).like(this.root.get(ApplicationEntity_.tags), this.tagLikeStatement);
+        for (final String tag : TAGS) {
+            Mockito.verify(this.cb, Mockito.times(1)).equal(this.tagJoin, tag);
+        }
         Mockito.verify(this.cb, Mockito.times(1)).equal(this.root.get(ApplicationEntity_.type), TYPE);
     }
 
@@ -188,7 +193,9 @@ public class JpaApplicationSpecsUnitTests {
         for (final ApplicationStatus status : STATUSES) {
             Mockito.verify(this.cb, Mockito.never()).equal(this.root.get(ApplicationEntity_.status), status);
         }
-        Mockito.verify(this.cb, Mockito.times(1)).like(this.root.get(ApplicationEntity_.tags), this.tagLikeStatement);
+        for (final String tag : TAGS) {
+            Mockito.verify(this.cb, Mockito.times(1)).equal(this.tagJoin, tag);
+        }
         Mockito.verify(this.cb, Mockito.times(1)).equal(this.root.get(ApplicationEntity_.type), TYPE);
     }
 
@@ -205,7 +212,7 @@ public class JpaApplicationSpecsUnitTests {
         for (final ApplicationStatus status : STATUSES) {
             Mockito.verify(this.cb, Mockito.times(1)).equal(this.root.get(ApplicationEntity_.status), status);
         }
-        Mockito.verify(this.cb, Mockito.never()).like(this.root.get(ApplicationEntity_.tags), this.tagLikeStatement);
+        Mockito.verify(this.root, Mockito.never()).join(ApplicationEntity_.indexedTags, JoinType.LEFT);
         Mockito.verify(this.cb, Mockito.times(1)).equal(this.root.get(ApplicationEntity_.type), TYPE);
     }
 
@@ -223,7 +230,10 @@ public class JpaApplicationSpecsUnitTests {
         for (final ApplicationStatus status : STATUSES) {
             Mockito.verify(this.cb, Mockito.times(1)).equal(this.root.get(ApplicationEntity_.status), status);
         }
-        Mockito.verify(this.cb, Mockito.times(1)).like(this.root.get(ApplicationEntity_.tags), this.tagLikeStatement);
+        Mockito.verify(this.cb, Mockito.times(1)).equal(this.tagJoin, TAG_1);
+        Mockito.verify(this.cb, Mockito.times(1)).equal(this.tagJoin, TAG_2);
+        Mockito.verify(this.cb, Mockito.times(1)).equal(this.tagJoin, TAG_3);
+        Mockito.verify(this.cb, Mockito.never()).equal(this.tagJoin, "");
         Mockito.verify(this.cb, Mockito.times(1)).equal(this.root.get(ApplicationEntity_.type), TYPE);
     }
 
@@ -240,7 +250,9 @@ public class JpaApplicationSpecsUnitTests {
         for (final ApplicationStatus status : STATUSES) {
             Mockito.verify(this.cb, Mockito.times(1)).equal(this.root.get(ApplicationEntity_.status), status);
         }
-        Mockito.verify(this.cb, Mockito.times(1)).like(this.root.get(ApplicationEntity_.tags), this.tagLikeStatement);
+        for (final String tag : TAGS) {
+            Mockito.verify(this.cb, Mockito.times(1)).equal(this.tagJoin, tag);
+        }
         Mockito.verify(this.cb, Mockito.never()).equal(this.root.get(ApplicationEntity_.type), TYPE);
     }
 
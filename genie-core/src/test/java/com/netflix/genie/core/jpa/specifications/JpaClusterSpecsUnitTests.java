@@ -15,7 +15,6 @@
  */
 package com.netflix.genie.core.jpa.specifications;
 
-import com.google.common.collect.Sets;
 import com.netflix.genie.common.dto.ClusterCriteria;
 import com.netflix.genie.common.dto.ClusterStatus;
 import com.netflix.genie.common.dto.CommandStatus;
@@ -36,10 +35,12 @@ import org.springframework.data.jpa.domain.Specification;
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaQuery;
 import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.JoinType;
 import javax.persistence.criteria.ListJoin;
 import javax.persistence.criteria.Path;
 import javax.persistence.criteria.Predicate;
 import javax.persistence.criteria.Root;
+import javax.persistence.criteria.SetJoin;
 import java.util.Date;
 import java.util.EnumSet;
 import java.util.HashSet;
@@ -72,8 +73,8 @@ public class JpaClusterSpecsUnitTests {
     private CriteriaQuery<?> cq;
     private CriteriaBuilder cb;
     private ListJoin<ClusterEntity, CommandEntity> commands;
-    private String tagLikeStatement;
-    private String commandLikeStatement;
+    private SetJoin<ClusterEntity, String> tagJoin;
+    private SetJoin<CommandEntity, String> commandTagJoin;
 
     /**
      * Setup test wide variables.
@@ -130,19 +131,13 @@ public class JpaClusterSpecsUnitTests {
         Mockito.when(this.cb.equal(Mockito.eq(statusPath), Mockito.any(ClusterStatus.class)))
             .thenReturn(equalStatusPredicate);
 
-        final Path<String> tagPath = (Path<String>) Mockito.mock(Path.class);
-        final Predicate likeTagPredicate = Mockito.mock(Predicate.class);
-        Mockito.when(this.root.get(ClusterEntity_.tags)).thenReturn(tagPath);
-        Mockito.when(this.cb.like(Mockito.eq(tagPath), Mockito.any(String.class))).thenReturn(likeTagPredicate);
-
-        this.tagLikeStatement = JpaSpecificationUtils.getTagLikeString(TAGS);
-
-        this.commandLikeStatement = JpaSpecificationUtils.getTagLikeString(
-            Sets.newHashSet(COMMAND_CRITERIA_TAG_1, COMMAND_CRITERIA_TAG_2)
-        );
+        this.tagJoin = (SetJoin<ClusterEntity, String>) Mockito.mock(SetJoin.class);
+        Mockito.when(this.root.join(ClusterEntity_.indexedTags, JoinType.LEFT)).thenReturn(this.tagJoin);
 
         // Setup for findByClusterAndCommandCriteria
         Mockito.when(this.root.join(ClusterEntity_.commands)).thenReturn(this.commands);
+        this.commandTagJoin = (SetJoin<CommandEntity, String>) Mockito.mock(SetJoin.class);
+        Mockito.when(this.commands.join(CommandEntity_.indexedTags, JoinType.LEFT)).thenReturn(this.commandTagJoin);
     }
 
     /**
@@ -165,8 +160,9 @@ public class JpaClusterSpecsUnitTests {
         Mockito.verify(this.cb, Mockito.times(1))
             .greaterThanOrEqualTo(this.root.get(ClusterEntity_.updated), MIN_UPDATE_TIME);
         Mockito.verify(this.cb, Mockito.times(1)).lessThan(this.root.get(ClusterEntity_.updated), MAX_UPDATE_TIME);
-        Mockito.verify(this.cb, Mockito.times(1))
-            .like(this.root.get(ClusterEntity_.tags), this.tagLikeStatement);
+        for (final String tag : TAGS) {
+            Mockito.verify(this.cb, Mockito.times(1)).equal(this.tagJoin, tag);
+        }
         for (final ClusterStatus status : STATUSES) {
             Mockito.verify(this.cb, Mockito.times(1))
                 .equal(this.root.get(ClusterEntity_.status), status);
@@ -193,8 +189,9 @@ public class JpaClusterSpecsUnitTests {
         Mockito.verify(this.cb, Mockito.times(1))
             .greaterThanOrEqualTo(this.root.get(ClusterEntity_.updated), MIN_UPDATE_TIME);
         Mockito.verify(this.cb, Mockito.times(1)).lessThan(this.root.get(ClusterEntity_.updated), MAX_UPDATE_TIME);
-        Mockito.verify(this.cb, Mockito.times(1))
-            .like(this.root.get(ClusterEntity_.tags), this.tagLikeStatement);
+        for (final String tag : TAGS) {
+            Mockito.verify(this.cb, Mockito.times(1)).equal(this.tagJoin, tag);
+        }
         for (final ClusterStatus status : STATUSES) {
             Mockito.verify(this.cb, Mockito.times(1))
                 .equal(this.root.get(ClusterEntity_.status), status);
@@ -222,8 +219,9 @@ public class JpaClusterSpecsUnitTests {
             .greaterThanOrEqualTo(this.root.get(ClusterEntity_.updated), MIN_UPDATE_TIME);
         Mockito.verify(this.cb, Mockito.times(1)).lessThan(
             this.root.get(ClusterEntity_.updated), MAX_UPDATE_TIME);
-        Mockito.verify(this.cb, Mockito.times(1))
-            .like(this.root.get(ClusterEntity_.tags), this.tagLikeStatement);
+        for (final String tag : TAGS) {
+            Mockito.verify(this.cb, Mockito.times(1)).equal(this.tagJoin, tag);
+        }
         for (final ClusterStatus status : STATUSES) {
             Mockito.verify(this.cb, Mockito.never())
                 .equal(this.root.get(ClusterEntity_.status), status);
@@ -251,8 +249,9 @@ public class JpaClusterSpecsUnitTests {
             .greaterThanOrEqualTo(this.root.get(ClusterEntity_.updated), MIN_UPDATE_TIME);
         Mockito.verify(this.cb, Mockito.times(1))
             .lessThan(this.root.get(ClusterEntity_.updated), MAX_UPDATE_TIME);
-        Mockito.verify(this.cb, Mockito.times(1))
-            .like(this.root.get(ClusterEntity_.tags), this.tagLikeStatement);
+        for (final String tag : TAGS) {
+            Mockito.verify(this.cb, Mockito.times(1)).equal(this.tagJoin, tag);
+        }
         for (final ClusterStatus status : STATUSES) {
             Mockito.verify(this.cb, Mockito.never())
                 .equal(this.root.get(ClusterEntity_.status), status);
@@ -280,8 +279,7 @@ public class JpaClusterSpecsUnitTests {
             .greaterThanOrEqualTo(this.root.get(ClusterEntity_.updated), MIN_UPDATE_TIME);
         Mockito.verify(this.cb, Mockito.times(1))
             .lessThan(this.root.get(ClusterEntity_.updated), MAX_UPDATE_TIME);
-        Mockito.verify(this.cb, Mockito.never())
-            .like(this.root.get(ClusterEntity_.tags), this.tagLikeStatement);
+        Mockito.verify(this.root, Mockito.never()).join(ClusterEntity_.indexedTags, JoinType.LEFT);
         for (final ClusterStatus status : STATUSES) {
             Mockito.verify(this.cb, Mockito.times(1))
                 .equal(this.root.get(ClusterEntity_.status), status);
@@ -309,8 +307,9 @@ public class JpaClusterSpecsUnitTests {
             .greaterThanOrEqualTo(this.root.get(ClusterEntity_.updated), MIN_UPDATE_TIME);
         Mockito.verify(this.cb, Mockito.times(1))
             .lessThan(this.root.get(ClusterEntity_.updated), MAX_UPDATE_TIME);
-        Mockito.verify(this.cb, Mockito.times(1))
-            .like(this.root.get(ClusterEntity_.tags), this.tagLikeStatement);
+        for (final String tag : TAGS) {
+            Mockito.verify(this.cb, Mockito.times(1)).equal(this.tagJoin, tag);
+        }
         for (final ClusterStatus status : STATUSES) {
             Mockito.verify(this.cb, Mockito.times(1))
                 .equal(this.root.get(ClusterEntity_.status), status);
@@ -338,8 +337,9 @@ public class JpaClusterSpecsUnitTests {
             .greaterThanOrEqualTo(this.root.get(ClusterEntity_.updated), MIN_UPDATE_TIME);
         Mockito.verify(this.cb, Mockito.never())
             .lessThan(this.root.get(ClusterEntity_.updated), MAX_UPDATE_TIME);
-        Mockito.verify(this.cb, Mockito.times(1))
-            .like(this.root.get(ClusterEntity_.tags), this.tagLikeStatement);
+        for (final String tag : TAGS) {
+            Mockito.verify(this.cb, Mockito.times(1)).equal(this.tagJoin, tag);
+        }
         for (final ClusterStatus status : STATUSES) {
             Mockito.verify(this.cb, Mockito.times(1))
                 .equal(this.root.get(ClusterEntity_.status), status);
@@ -368,8 +368,10 @@ public class JpaClusterSpecsUnitTests {
             .greaterThanOrEqualTo(this.root.get(ClusterEntity_.updated), MIN_UPDATE_TIME);
         Mockito.verify(this.cb, Mockito.never())
             .lessThan(this.root.get(ClusterEntity_.updated), MAX_UPDATE_TIME);
-        Mockito.verify(this.cb, Mockito.times(1))
-            .like(this.root.get(ClusterEntity_.tags), this.tagLikeStatement);
+        Mockito.verify(this.cb, Mockito.times(1)).equal(this.tagJoin, TAG_1);
+        Mockito.verify(this.cb, Mockito.times(1)).equal(this.tagJoin, TAG_2);
+        Mockito.verify(this.cb, Mockito.times(1)).equal(this.tagJoin, TAG_3);
+        Mockito.verify(this.cb, Mockito.never()).equal(this.tagJoin, "");
         for (final ClusterStatus status : STATUSES) {
             Mockito.verify(this.cb, Mockito.times(1))
                 .equal(this.root.get(ClusterEntity_.status), status);
@@ -410,10 +412,12 @@ public class JpaClusterSpecsUnitTests {
             .equal(Mockito.eq(this.commands.get(CommandEntity_.status)), Mockito.eq(CommandStatus.ACTIVE));
         Mockito.verify(this.cb, Mockito.times(1))
             .equal(Mockito.eq(this.root.get(ClusterEntity_.status)), Mockito.eq(ClusterStatus.UP));
-        Mockito.verify(this.cb, Mockito.times(1))
-            .like(Mockito.eq(this.root.get(ClusterEntity_.tags)), Mockito.eq(this.tagLikeStatement));
-        Mockito.verify(this.cb, Mockito.times(1))
-            .like(Mockito.eq(this.commands.get(CommandEntity_.tags)), Mockito.eq(this.commandLikeStatement));
+        for (final String tag : CLUSTER_CRITERIA_TAGS) {
+            Mockito.verify(this.cb, Mockito.times(1)).equal(this.tagJoin, tag);
+        }
+        for (final String tag : COMMAND_CRITERIA) {
+            Mockito.verify(this.cb, Mockito.times(1)).equal(this.commandTagJoin, tag);
+        }
     }
 
     /**
@@ -28,9 +28,11 @@ import org.springframework.data.jpa.domain.Specification;
 
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.JoinType;
 import javax.persistence.criteria.Path;
 import javax.persistence.criteria.Predicate;
 import javax.persistence.criteria.Root;
+import javax.persistence.criteria.SetJoin;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -53,7 +55,7 @@ public class JpaCommandSpecsUnitTests {
     private Root<CommandEntity> root;
     private CriteriaQuery<?> cq;
     private CriteriaBuilder cb;
-    private String tagLikeStatement;
+    private SetJoin<CommandEntity, String> tagJoin;
 
     /**
      * Setup some variables.
@@ -92,12 +94,8 @@ public class JpaCommandSpecsUnitTests {
         Mockito.when(this.cb.equal(Mockito.eq(statusPath), Mockito.any(CommandStatus.class)))
                 .thenReturn(equalStatusPredicate);
 
-        final Path<String> tagPath = (Path<String>) Mockito.mock(Path.class);
-        final Predicate likeTagPredicate = Mockito.mock(Predicate.class);
-        Mockito.when(this.root.get(CommandEntity_.tags)).thenReturn(tagPath);
-        Mockito.when(this.cb.like(Mockito.eq(tagPath), Mockito.any(String.class))).thenReturn(likeTagPredicate);
-
-        this.tagLikeStatement = JpaSpecificationUtils.getTagLikeString(TAGS);
+        this.tagJoin = (SetJoin<CommandEntity, String>) Mockito.mock(SetJoin.class);
+        Mockito.when(this.root.join(CommandEntity_.indexedTags, JoinType.LEFT)).thenReturn(this.tagJoin);
     }
 
     /**
@@ -118,8 +116,9 @@ public class JpaCommandSpecsUnitTests {
             Mockito.verify(this.cb, Mockito.times(1))
                     .equal(this.root.get(CommandEntity_.status), status);
         }
-        Mockito.verify(this.cb, Mockito.times(1))
-                .like(this.root.get(CommandEntity_.tags), this.tagLikeStatement);
+        for (final String tag : TAGS) {
+            Mockito.verify(this.cb, Mockito.times(1)).equal(this.tagJoin, tag);
+        }
     }
 
     /**
@@ -140,8 +139,9 @@ public class JpaCommandSpecsUnitTests {
             Mockito.verify(this.cb, Mockito.times(1))
                     .equal(this.root.get(CommandEntity_.status), status);
         }
-        Mockito.verify(this.cb, Mockito.times(1))
-                .like(this.root.get(CommandEntity_.tags), this.tagLikeStatement);
+        for (final String tag : TAGS) {
+            Mockito.verify(this.cb, Mockito.times(1)).equal(this.tagJoin, tag);
+        }
     }
 
     /**
@@ -162,8 +162,9 @@ public class JpaCommandSpecsUnitTests {
             Mockito.verify(this.cb, Mockito.times(1))
                     .equal(this.root.get(CommandEntity_.status), status);
         }
-        Mockito.verify(this.cb, Mockito.times(1))
-                .like(this.root.get(CommandEntity_.tags), this.tagLikeStatement);
+        for (final String tag : TAGS) {
+            Mockito.verify(this.cb, Mockito.times(1)).equal(this.tagJoin, tag);
+        }
     }
 
     /**
@@ -184,8 +185,7 @@ public class JpaCommandSpecsUnitTests {
             Mockito.verify(this.cb, Mockito.times(1))
                     .equal(this.root.get(CommandEntity_.status), status);
         }
-        Mockito.verify(this.cb, Mockito.never())
-                .like(this.root.get(CommandEntity_.tags), this.tagLikeStatement);
+        Mockito.verify(this.root, Mockito.never()).join(CommandEntity_.indexedTags, JoinType.LEFT);
     }
 
     /**
@@ -207,8 +207,10 @@ public class JpaCommandSpecsUnitTests {
             Mockito.verify(this.cb, Mockito.times(1))
                     .equal(this.root.get(CommandEntity_.status), status);
         }
-        Mockito.verify(this.cb, Mockito.times(1))
-                .like(this.root.get(CommandEntity_.tags), this.tagLikeStatement);
+        Mockito.verify(this.cb, Mockito.times(1)).equal(this.tagJoin, TAG_1);
+        Mockito.verify(this.cb, Mockito.times(1)).equal(this.tagJoin, TAG_2);
+        Mockito.verify(this.cb, Mockito.times(1)).equal(this.tagJoin, TAG_3);
+        Mockito.verify(this.cb, Mockito.never()).equal(this.tagJoin, "");
     }
 
     /**
@@ -228,8 +230,9 @@ public class JpaCommandSpecsUnitTests {
             Mockito.verify(this.cb, Mockito.never())
                     .equal(this.root.get(CommandEntity_.status), status);
         }
-        Mockito.verify(this.cb, Mockito.times(1))
-                .like(this.root.get(CommandEntity_.tags), this.tagLikeStatement);
+        for (final String tag : TAGS) {
+            Mockito.verify(this.cb, Mockito.times(1)).equal(this.tagJoin, tag);
+        }
     }
 
     /**
@@ -249,8 +252,9 @@ public class JpaCommandSpecsUnitTests {
             Mockito.verify(this.cb, Mockito.never())
                     .equal(this.root.get(CommandEntity_.status), status);
         }
-        Mockito.verify(this.cb, Mockito.times(1))
-                .like(this.root.get(CommandEntity_.tags), this.tagLikeStatement);
+        for (final String tag : TAGS) {
+            Mockito.verify(this.cb, Mockito.times(1)).equal(this.tagJoin, tag);
+        }
     }
 
     /**
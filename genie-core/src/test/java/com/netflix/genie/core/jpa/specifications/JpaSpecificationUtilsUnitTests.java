@@ -18,12 +18,20 @@
 package com.netflix.genie.core.jpa.specifications;
 
 import com.google.common.collect.Sets;
+import com.netflix.genie.core.jpa.entities.ClusterEntity;
+import com.netflix.genie.core.jpa.entities.ClusterEntity_;
 import com.netflix.genie.core.jpa.entities.CommonFieldsEntity;
 import com.netflix.genie.test.categories.UnitTest;
 import org.hamcrest.Matchers;
 import org.junit.Assert;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
+import org.mockito.Mockito;
+
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.JoinType;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.SetJoin;
 
 /**
  * Unit tests for JpaSpecificationUtils.
@@ -72,4 +80,24 @@ public class JpaSpecificationUtilsUnitTests {
             )
         );
     }
+
+    /**
+     * Make sure a join constrained on the tag is made for every non-blank tag.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void canGetTagsPredicate() {
+        final Root<ClusterEntity> root = (Root<ClusterEntity>) Mockito.mock(Root.class);
+        final CriteriaBuilder cb = Mockito.mock(CriteriaBuilder.class);
+        final SetJoin<ClusterEntity, String> tagJoin = (SetJoin<ClusterEntity, String>) Mockito.mock(SetJoin.class);
+        Mockito.when(root.join(ClusterEntity_.indexedTags, JoinType.LEFT)).thenReturn(tagJoin);
+
+        JpaSpecificationUtils.getTagsPredicate(root, cb, ClusterEntity_.indexedTags, Sets.newHashSet("tag", "rag", ""));
+
+        Mockito.verify(root, Mockito.times(2)).join(ClusterEntity_.indexedTags, JoinType.LEFT);
+        Mockito.verify(cb, Mockito.times(1)).equal(tagJoin, "tag");
+        Mockito.verify(cb, Mockito.times(1)).equal(tagJoin, "rag");
+        Mockito.verify(cb, Mockito.never()).equal(tagJoin, "");
+        Mockito.verify(cb, Mockito.times(2)).isNotNull(tagJoin);
+    }
 }
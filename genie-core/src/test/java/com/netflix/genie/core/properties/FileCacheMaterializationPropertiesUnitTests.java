@@ -0,0 +1,69 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.properties;
+
+import com.netflix.genie.core.services.FileMaterializationStrategy;
+import com.netflix.genie.test.categories.UnitTest;
+import org.hamcrest.Matchers;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+/**
+ * Unit tests for FileCacheMaterializationProperties.
+ *
+ * @author agent
+ * @since 3.1.0
+ */
+@Category(UnitTest.class)
+public class FileCacheMaterializationPropertiesUnitTests {
+
+    private FileCacheMaterializationProperties properties;
+
+    /**
+     * Setup for tests.
+     */
+    @Before
+    public void setup() {
+        this.properties = new FileCacheMaterializationProperties();
+    }
+
+    /**
+     * Make sure files are copied by default.
+     */
+    @Test
+    public void hasDefaultProperties() {
+        Assert.assertThat(this.properties.getApplications(), Matchers.is(FileMaterializationStrategy.COPY));
+        Assert.assertThat(this.properties.getClusters(), Matchers.is(FileMaterializationStrategy.COPY));
+        Assert.assertThat(this.properties.getCommands(), Matchers.is(FileMaterializationStrategy.COPY));
+    }
+
+    /**
+     * Make sure can set the strategy of each kind of entity.
+     */
+    @Test
+    public void canSetStrategies() {
+        this.properties.setApplications(FileMaterializationStrategy.HARD_LINK);
+        this.properties.setClusters(FileMaterializationStrategy.SYMBOLIC_LINK);
+        this.properties.setCommands(FileMaterializationStrategy.HARD_LINK);
+        Assert.assertThat(this.properties.getApplications(), Matchers.is(FileMaterializationStrategy.HARD_LINK));
+        Assert.assertThat(this.properties.getClusters(), Matchers.is(FileMaterializationStrategy.SYMBOLIC_LINK));
+        Assert.assertThat(this.properties.getCommands(), Matchers.is(FileMaterializationStrategy.HARD_LINK));
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.properties;
+
+import com.google.common.collect.ImmutableMap;
+import com.netflix.genie.test.categories.UnitTest;
+import org.hamcrest.Matchers;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.util.Map;
+
+/**
+ * Unit tests for FileCacheRevalidationProperties.
+ *
+ * @author agent
+ * @since 3.1.0
+ */
+@Category(UnitTest.class)
+public class FileCacheRevalidationPropertiesUnitTests {
+
+    private FileCacheRevalidationProperties properties;
+
+    /**
+     * Setup for tests.
+     */
+    @Before
+    public void setup() {
+        this.properties = new FileCacheRevalidationProperties();
+    }
+
+    /**
+     * Make sure we have the default properties.
+     */
+    @Test
+    public void hasDefaultProperties() {
+        Assert.assertThat(this.properties.getTtl(), Matchers.is(0L));
+        Assert.assertTrue(this.properties.getSchemeTtls().isEmpty());
+        Assert.assertFalse(this.properties.isRefreshAheadEnabled());
+        Assert.assertThat(this.properties.getRefreshAheadThreshold(), Matchers.is(0.75));
+    }
+
+    /**
+     * Make sure can set the ttl.
+     */
+    @Test
+    public void canSetTtl() {
+        final long ttl = 60000L;
+        this.properties.setTtl(ttl);
+        Assert.assertThat(this.properties.getTtl(), Matchers.is(ttl));
+    }
+
+    /**
+     * Make sure can set the per scheme ttls.
+     */
+    @Test
+    public void canSetSchemeTtls() {
+        final Map<String, Long> schemeTtls = ImmutableMap.of("s3", 300000L);
+        this.properties.setSchemeTtls(schemeTtls);
+        Assert.assertThat(this.properties.getSchemeTtls(), Matchers.is(schemeTtls));
+    }
+
+    /**
+     * Make sure can enable refresh ahead.
+     */
+    @Test
+    public void canSetRefreshAhead() {
+        final double threshold = 0.5;
+        this.properties.setRefreshAheadEnabled(true);
+        this.properties.setRefreshAheadThreshold(threshold);
+        Assert.assertTrue(this.properties.isRefreshAheadEnabled());
+        Assert.assertThat(this.properties.getRefreshAheadThreshold(), Matchers.is(threshold));
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.properties;
+
+import com.netflix.genie.test.categories.UnitTest;
+import org.hamcrest.Matchers;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+/**
+ * Unit tests for FileCacheWarmupProperties.
+ *
+ * @author agent
+ * @since 3.1.0
+ */
+@Category(UnitTest.class)
+public class FileCacheWarmupPropertiesUnitTests {
+
+    private FileCacheWarmupProperties properties;
+
+    /**
+     * Setup for tests.
+     */
+    @Before
+    public void setup() {
+        this.properties = new FileCacheWarmupProperties();
+    }
+
+    /**
+     * Make sure we have the default properties.
+     */
+    @Test
+    public void hasDefaultProperties() {
+        Assert.assertFalse(this.properties.isEnabled());
+        Assert.assertTrue(this.properties.isScanOnStartup());
+        Assert.assertThat(this.properties.getConcurrency(), Matchers.is(2));
+        Assert.assertThat(this.properties.getMaxBytesPerSecond(), Matchers.is(0L));
+    }
+
+    /**
+     * Make sure can enable warm up.
+     */
+    @Test
+    public void canSetEnabled() {
+        this.properties.setEnabled(true);
+        Assert.assertTrue(this.properties.isEnabled());
+    }
+
+    /**
+     * Make sure can disable the startup scan.
+     */
+    @Test
+    public void canSetScanOnStartup() {
+        this.properties.setScanOnStartup(false);
+        Assert.assertFalse(this.properties.isScanOnStartup());
+    }
+
+    /**
+     * Make sure can set the concurrency.
+     */
+    @Test
+    public void canSetConcurrency() {
+        this.properties.setConcurrency(4);
+        Assert.assertThat(this.properties.getConcurrency(), Matchers.is(4));
+    }
+
+    /**
+     * Make sure can set the bandwidth limit.
+     */
+    @Test
+    public void canSetMaxBytesPerSecond() {
+        final long maxBytesPerSecond = 10485760L;
+        this.properties.setMaxBytesPerSecond(maxBytesPerSecond);
+        Assert.assertThat(this.properties.getMaxBytesPerSecond(), Matchers.is(maxBytesPerSecond));
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.properties;
+
+import com.netflix.genie.test.categories.UnitTest;
+import org.hamcrest.Matchers;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+/**
+ * Unit tests for HttpFileTransferProperties.
+ *
+ * @author agent
+ * @since 3.1.0
+ */
+@Category(UnitTest.class)
+public class HttpFileTransferPropertiesUnitTests {
+
+    private HttpFileTransferProperties properties;
+
+    /**
+     * Setup for tests.
+     */
+    @Before
+    public void setup() {
+        this.properties = new HttpFileTransferProperties();
+    }
+
+    /**
+     * Make sure we have the default properties.
+     */
+    @Test
+    public void hasDefaultProperties() {
+        Assert.assertThat(this.properties.getConnectTimeout(), Matchers.is(2000));
+        Assert.assertThat(this.properties.getReadTimeout(), Matchers.is(60000));
+        Assert.assertThat(this.properties.getMaxConnections(), Matchers.is(64));
+        Assert.assertThat(this.properties.getMaxConnectionsPerRoute(), Matchers.is(16));
+        Assert.assertThat(this.properties.getMaxResumes(), Matchers.is(3));
+        Assert.assertThat(this.properties.getUploadMethod(), Matchers.is("PUT"));
+    }
+
+    /**
+     * Make sure can set the timeouts.
+     */
+    @Test
+    public void canSetTimeouts() {
+        this.properties.setConnectTimeout(500);
+        this.properties.setReadTimeout(300000);
+        Assert.assertThat(this.properties.getConnectTimeout(), Matchers.is(500));
+        Assert.assertThat(this.properties.getReadTimeout(), Matchers.is(300000));
+    }
+
+    /**
+     * Make sure can set the connection pool sizes.
+     */
+    @Test
+    public void canSetMaxConnections() {
+        this.properties.setMaxConnections(128);
+        this.properties.setMaxConnectionsPerRoute(32);
+        Assert.assertThat(this.properties.getMaxConnections(), Matchers.is(128));
+        Assert.assertThat(this.properties.getMaxConnectionsPerRoute(), Matchers.is(32));
+    }
+
+    /**
+     * Make sure can set the max resumes.
+     */
+    @Test
+    public void canSetMaxResumes() {
+        this.properties.setMaxResumes(0);
+        Assert.assertThat(this.properties.getMaxResumes(), Matchers.is(0));
+    }
+
+    /**
+     * Make sure can set the upload method.
+     */
+    @Test
+    public void canSetUploadMethod() {
+        this.properties.setUploadMethod("POST");
+        Assert.assertThat(this.properties.getUploadMethod(), Matchers.is("POST"));
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.properties;
+
+import com.google.common.collect.ImmutableMap;
+import com.netflix.genie.test.categories.UnitTest;
+import org.hamcrest.Matchers;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.util.Map;
+
+/**
+ * Unit tests for JobsAdmissionFairShareProperties.
+ *
+ * @author agent
+ * @since 3.1.0
+ */
+@Category(UnitTest.class)
+public class JobsAdmissionFairSharePropertiesUnitTests {
+
+    private JobsAdmissionFairShareProperties properties;
+
+    /**
+     * Setup for the tests.
+     */
+    @Before
+    public void setup() {
+        this.properties = new JobsAdmissionFairShareProperties();
+    }
+
+    /**
+     * Test to make sure default constructor sets default values.
+     */
+    @Test
+    public void hasDefaultValues() {
+        Assert.assertFalse(this.properties.isEnabled());
+        Assert.assertFalse(this.properties.isShareByGroup());
+        Assert.assertTrue(this.properties.getWeights().isEmpty());
+        Assert.assertThat(this.properties.getMaxShareMemory(), Matchers.is(0));
+    }
+
+    /**
+     * Make sure setting the enabled property is persisted.
+     */
+    @Test
+    public void canEnable() {
+        this.properties.setEnabled(true);
+        Assert.assertTrue(this.properties.isEnabled());
+    }
+
+    /**
+     * Make sure setting the share by group property is persisted.
+     */
+    @Test
+    public void canShareByGroup() {
+        this.properties.setShareByGroup(true);
+        Assert.assertTrue(this.properties.isShareByGroup());
+    }
+
+    /**
+     * Make sure setting the weights property is persisted.
+     */
+    @Test
+    public void canSetWeights() {
+        final Map<String, Integer> weights = ImmutableMap.of("etl", 3, "adhoc", 1);
+        this.properties.setWeights(weights);
+        Assert.assertThat(this.properties.getWeights(), Matchers.is(weights));
+    }
+
+    /**
+     * Make sure setting the max share memory property is persisted.
+     */
+    @Test
+    public void canSetMaxShareMemory() {
+        final int maxShareMemory = 10_240;
+        this.properties.setMaxShareMemory(maxShareMemory);
+        Assert.assertThat(this.properties.getMaxShareMemory(), Matchers.is(maxShareMemory));
+    }
+}
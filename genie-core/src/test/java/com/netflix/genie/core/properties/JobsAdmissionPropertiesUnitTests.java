@@ -0,0 +1,95 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.properties;
+
+import com.netflix.genie.test.categories.UnitTest;
+import org.hamcrest.Matchers;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+/**
+ * Unit tests for JobsAdmissionProperties.
+ *
+ * @author agent
+ * @since 3.1.0
+ */
+@Category(UnitTest.class)
+public class JobsAdmissionPropertiesUnitTests {
+
+    private JobsAdmissionProperties properties;
+
+    /**
+     * Setup for the tests.
+     */
+    @Before
+    public void setup() {
+        this.properties = new JobsAdmissionProperties();
+    }
+
+    /**
+     * Test to make sure default constructor sets default values.
+     */
+    @Test
+    public void hasDefaultValues() {
+        Assert.assertFalse(this.properties.isQueueEnabled());
+        Assert.assertThat(this.properties.getQueueCapacity(), Matchers.is(100));
+        Assert.assertThat(this.properties.getWaitTimeout(), Matchers.is(600_000L));
+        Assert.assertNotNull(this.properties.getFairShare());
+    }
+
+    /**
+     * Make sure setting the queue enabled property is persisted.
+     */
+    @Test
+    public void canEnableQueue() {
+        this.properties.setQueueEnabled(true);
+        Assert.assertTrue(this.properties.isQueueEnabled());
+    }
+
+    /**
+     * Make sure setting the queue capacity property is persisted.
+     */
+    @Test
+    public void canSetQueueCapacity() {
+        final int queueCapacity = 10;
+        this.properties.setQueueCapacity(queueCapacity);
+        Assert.assertThat(this.properties.getQueueCapacity(), Matchers.is(queueCapacity));
+    }
+
+    /**
+     * Make sure setting the wait timeout property is persisted.
+     */
+    @Test
+    public void canSetWaitTimeout() {
+        final long waitTimeout = 30_000L;
+        this.properties.setWaitTimeout(waitTimeout);
+        Assert.assertThat(this.properties.getWaitTimeout(), Matchers.is(waitTimeout));
+    }
+
+    /**
+     * Make sure setting the fair share properties is persisted.
+     */
+    @Test
+    public void canSetFairShare() {
+        final JobsAdmissionFairShareProperties fairShare = new JobsAdmissionFairShareProperties();
+        this.properties.setFairShare(fairShare);
+        Assert.assertThat(this.properties.getFairShare(), Matchers.is(fairShare));
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.properties;
+
+import com.netflix.genie.test.categories.UnitTest;
+import org.hamcrest.Matchers;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+/**
+ * Unit tests for JobsCpuProperties.
+ *
+ * @author agent
+ * @since 3.1.0
+ */
+@Category(UnitTest.class)
+public class JobsCpuPropertiesUnitTests {
+
+    private JobsCpuProperties properties;
+
+    /**
+     * Setup for tests.
+     */
+    @Before
+    public void setup() {
+        this.properties = new JobsCpuProperties();
+    }
+
+    /**
+     * Make sure we have the default properties.
+     */
+    @Test
+    public void hasDefaultProperties() {
+        Assert.assertThat(this.properties.getMaxSystemCpu(), Matchers.is(0));
+        Assert.assertThat(this.properties.getDefaultJobCpu(), Matchers.is(1));
+    }
+
+    /**
+     * Make sure can set the max system cpus.
+     */
+    @Test
+    public void canSetMaxSystemCpu() {
+        final int cpu = 16;
+        this.properties.setMaxSystemCpu(cpu);
+        Assert.assertThat(this.properties.getMaxSystemCpu(), Matchers.is(cpu));
+    }
+
+    /**
+     * Make sure can set the default job cpus.
+     */
+    @Test
+    public void canSetDefaultJobCpu() {
+        final int cpu = 2;
+        this.properties.setDefaultJobCpu(cpu);
+        Assert.assertThat(this.properties.getDefaultJobCpu(), Matchers.is(cpu));
+    }
+}
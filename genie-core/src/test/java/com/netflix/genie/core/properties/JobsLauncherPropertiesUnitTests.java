@@ -0,0 +1,95 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.properties;
+
+import com.netflix.genie.test.categories.UnitTest;
+import org.hamcrest.Matchers;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+/**
+ * Unit tests for JobsLauncherProperties.
+ *
+ * @author agent
+ * @since 3.1.0
+ */
+@Category(UnitTest.class)
+public class JobsLauncherPropertiesUnitTests {
+
+    private JobsLauncherProperties properties;
+
+    /**
+     * Setup for tests.
+     */
+    @Before
+    public void setup() {
+        this.properties = new JobsLauncherProperties();
+    }
+
+    /**
+     * Make sure we have the default properties.
+     */
+    @Test
+    public void hasDefaultProperties() {
+        Assert.assertFalse(this.properties.isDaemonEnabled());
+        Assert.assertThat(this.properties.getDaemonJavaOptions(), Matchers.is("-Xmx32m -XX:+UseSerialGC"));
+        Assert.assertThat(this.properties.getRequestTimeout(), Matchers.is(60000L));
+        Assert.assertThat(this.properties.getRunTimeout(), Matchers.is(0L));
+    }
+
+    /**
+     * Make sure can enable the daemon.
+     */
+    @Test
+    public void canSetDaemonEnabled() {
+        this.properties.setDaemonEnabled(true);
+        Assert.assertTrue(this.properties.isDaemonEnabled());
+    }
+
+    /**
+     * Make sure can set the java options of the daemon.
+     */
+    @Test
+    public void canSetDaemonJavaOptions() {
+        final String javaOptions = "-Xmx64m";
+        this.properties.setDaemonJavaOptions(javaOptions);
+        Assert.assertThat(this.properties.getDaemonJavaOptions(), Matchers.is(javaOptions));
+    }
+
+    /**
+     * Make sure can set the request timeout.
+     */
+    @Test
+    public void canSetRequestTimeout() {
+        final long requestTimeout = 5000L;
+        this.properties.setRequestTimeout(requestTimeout);
+        Assert.assertThat(this.properties.getRequestTimeout(), Matchers.is(requestTimeout));
+    }
+
+    /**
+     * Make sure can set the run timeout.
+     */
+    @Test
+    public void canSetRunTimeout() {
+        final long runTimeout = 600000L;
+        this.properties.setRunTimeout(runTimeout);
+        Assert.assertThat(this.properties.getRunTimeout(), Matchers.is(runTimeout));
+    }
+}
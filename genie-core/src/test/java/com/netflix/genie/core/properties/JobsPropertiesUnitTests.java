@@ -53,6 +53,13 @@ public class JobsPropertiesUnitTests {
         Assert.assertNotNull(this.properties.getLocations());
         Assert.assertNotNull(this.properties.getMax());
         Assert.assertNotNull(this.properties.getUsers());
+        Assert.assertNotNull(this.properties.getSubmission());
+        Assert.assertNotNull(this.properties.getAdmission());
+        Assert.assertNotNull(this.properties.getCpu());
+        Assert.assertNotNull(this.properties.getStaging());
+        Assert.assertNotNull(this.properties.getWorkflow());
+        Assert.assertNotNull(this.properties.getLauncher());
+        Assert.assertNotNull(this.properties.getWorkspace());
     }
 
     /**
@@ -65,11 +72,25 @@ public class JobsPropertiesUnitTests {
         final JobsLocationsProperties locations = Mockito.mock(JobsLocationsProperties.class);
         final JobsMaxProperties max = Mockito.mock(JobsMaxProperties.class);
         final JobsUsersProperties users = Mockito.mock(JobsUsersProperties.class);
+        final JobsSubmissionProperties submission = Mockito.mock(JobsSubmissionProperties.class);
+        final JobsAdmissionProperties admission = Mockito.mock(JobsAdmissionProperties.class);
+        final JobsCpuProperties cpu = Mockito.mock(JobsCpuProperties.class);
+        final JobsStagingProperties staging = Mockito.mock(JobsStagingProperties.class);
+        final JobsWorkflowProperties workflow = Mockito.mock(JobsWorkflowProperties.class);
+        final JobsLauncherProperties launcher = Mockito.mock(JobsLauncherProperties.class);
+        final JobsWorkspaceProperties workspace = Mockito.mock(JobsWorkspaceProperties.class);
 
         this.properties.setForwarding(forwarding);
         this.properties.setLocations(locations);
         this.properties.setMax(max);
         this.properties.setMemory(memory);
         this.properties.setUsers(users);
+        this.properties.setSubmission(submission);
+        this.properties.setAdmission(admission);
+        this.properties.setCpu(cpu);
+        this.properties.setStaging(staging);
+        this.properties.setWorkflow(workflow);
+        this.properties.setLauncher(launcher);
+        this.properties.setWorkspace(workspace);
     }
 }
@@ -0,0 +1,74 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.properties;
+
+import com.netflix.genie.test.categories.UnitTest;
+import org.hamcrest.Matchers;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+/**
+ * Unit tests for JobsStagingProperties.
+ *
+ * @author agent
+ * @since 3.1.0
+ */
+@Category(UnitTest.class)
+public class JobsStagingPropertiesUnitTests {
+
+    private JobsStagingProperties properties;
+
+    /**
+     * Setup for tests.
+     */
+    @Before
+    public void setup() {
+        this.properties = new JobsStagingProperties();
+    }
+
+    /**
+     * Make sure we have the default properties.
+     */
+    @Test
+    public void hasDefaultProperties() {
+        Assert.assertThat(this.properties.getPoolSize(), Matchers.is(16));
+        Assert.assertThat(this.properties.getMaxConcurrentFetchesPerJob(), Matchers.is(4));
+    }
+
+    /**
+     * Make sure can set the pool size.
+     */
+    @Test
+    public void canSetPoolSize() {
+        final int poolSize = 32;
+        this.properties.setPoolSize(poolSize);
+        Assert.assertThat(this.properties.getPoolSize(), Matchers.is(poolSize));
+    }
+
+    /**
+     * Make sure can set the maximum number of concurrent fetches per job.
+     */
+    @Test
+    public void canSetMaxConcurrentFetchesPerJob() {
+        final int max = 8;
+        this.properties.setMaxConcurrentFetchesPerJob(max);
+        Assert.assertThat(this.properties.getMaxConcurrentFetchesPerJob(), Matchers.is(max));
+    }
+}
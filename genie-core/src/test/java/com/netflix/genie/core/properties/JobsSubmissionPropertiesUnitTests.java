@@ -0,0 +1,106 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.properties;
+
+import com.netflix.genie.test.categories.UnitTest;
+import org.hamcrest.Matchers;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+/**
+ * Unit tests for JobsSubmissionProperties.
+ *
+ * @author agent
+ * @since 3.1.0
+ */
+@Category(UnitTest.class)
+public class JobsSubmissionPropertiesUnitTests {
+
+    private JobsSubmissionProperties properties;
+
+    /**
+     * Setup for the tests.
+     */
+    @Before
+    public void setup() {
+        this.properties = new JobsSubmissionProperties();
+    }
+
+    /**
+     * Test to make sure default constructor sets default values.
+     */
+    @Test
+    public void hasDefaultValues() {
+        Assert.assertFalse(this.properties.isAsyncEnabled());
+        Assert.assertThat(this.properties.getPoolSize(), Matchers.is(4));
+        Assert.assertThat(this.properties.getQueueCapacity(), Matchers.is(100));
+        Assert.assertThat(this.properties.getMaxBatchSize(), Matchers.is(100));
+        Assert.assertThat(this.properties.getRetryAfter(), Matchers.is(30));
+    }
+
+    /**
+     * Make sure setting the async enabled property is persisted.
+     */
+    @Test
+    public void canEnableAsync() {
+        this.properties.setAsyncEnabled(true);
+        Assert.assertTrue(this.properties.isAsyncEnabled());
+    }
+
+    /**
+     * Make sure setting the pool size property is persisted.
+     */
+    @Test
+    public void canSetPoolSize() {
+        final int poolSize = 16;
+        this.properties.setPoolSize(poolSize);
+        Assert.assertThat(this.properties.getPoolSize(), Matchers.is(poolSize));
+    }
+
+    /**
+     * Make sure setting the queue capacity property is persisted.
+     */
+    @Test
+    public void canSetQueueCapacity() {
+        final int queueCapacity = 2_000;
+        this.properties.setQueueCapacity(queueCapacity);
+        Assert.assertThat(this.properties.getQueueCapacity(), Matchers.is(queueCapacity));
+    }
+
+    /**
+     * Make sure setting the max batch size property is persisted.
+     */
+    @Test
+    public void canSetMaxBatchSize() {
+        final int maxBatchSize = 25;
+        this.properties.setMaxBatchSize(maxBatchSize);
+        Assert.assertThat(this.properties.getMaxBatchSize(), Matchers.is(maxBatchSize));
+    }
+
+    /**
+     * Make sure setting the retry after property is persisted.
+     */
+    @Test
+    public void canSetRetryAfter() {
+        final int retryAfter = 5;
+        this.properties.setRetryAfter(retryAfter);
+        Assert.assertThat(this.properties.getRetryAfter(), Matchers.is(retryAfter));
+    }
+}
@@ -18,6 +18,7 @@
 package com.netflix.genie.core.properties;
 
 import com.netflix.genie.test.categories.UnitTest;
+import org.hamcrest.Matchers;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
@@ -48,6 +49,8 @@ public class JobsUsersPropertiesUnitTests {
     public void canConstruct() {
         Assert.assertFalse(this.properties.isCreationEnabled());
         Assert.assertFalse(this.properties.isRunAsUserEnabled());
+        Assert.assertThat(this.properties.getCacheTtl(), Matchers.is(600000L));
+        Assert.assertThat(this.properties.getFailureCacheTtl(), Matchers.is(30000L));
     }
 
     /**
@@ -67,4 +70,24 @@ public class JobsUsersPropertiesUnitTests {
         this.properties.setRunAsUserEnabled(true);
         Assert.assertTrue(this.properties.isRunAsUserEnabled());
     }
+
+    /**
+     * Make sure we can set the cache ttl.
+     */
+    @Test
+    public void canSetCacheTtl() {
+        final long cacheTtl = 60000L;
+        this.properties.setCacheTtl(cacheTtl);
+        Assert.assertThat(this.properties.getCacheTtl(), Matchers.is(cacheTtl));
+    }
+
+    /**
+     * Make sure we can set the failure cache ttl.
+     */
+    @Test
+    public void canSetFailureCacheTtl() {
+        final long failureCacheTtl = 5000L;
+        this.properties.setFailureCacheTtl(failureCacheTtl);
+        Assert.assertThat(this.properties.getFailureCacheTtl(), Matchers.is(failureCacheTtl));
+    }
 }
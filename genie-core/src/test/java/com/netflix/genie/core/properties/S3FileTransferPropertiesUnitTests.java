@@ -0,0 +1,96 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.properties;
+
+import com.netflix.genie.test.categories.UnitTest;
+import org.hamcrest.Matchers;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+/**
+ * Unit tests for S3FileTransferProperties.
+ *
+ * @author agent
+ * @since 3.1.0
+ */
+@Category(UnitTest.class)
+public class S3FileTransferPropertiesUnitTests {
+
+    private S3FileTransferProperties properties;
+
+    /**
+     * Setup for tests.
+     */
+    @Before
+    public void setup() {
+        this.properties = new S3FileTransferProperties();
+    }
+
+    /**
+     * Make sure we have the default properties.
+     */
+    @Test
+    public void hasDefaultProperties() {
+        Assert.assertThat(this.properties.getMultipartThreshold(), Matchers.is(134217728L));
+        Assert.assertThat(this.properties.getPartSize(), Matchers.is(67108864L));
+        Assert.assertThat(this.properties.getPoolSize(), Matchers.is(8));
+        Assert.assertThat(this.properties.getMaxPartRetries(), Matchers.is(3));
+    }
+
+    /**
+     * Make sure can set the multipart threshold.
+     */
+    @Test
+    public void canSetMultipartThreshold() {
+        final long multipartThreshold = 1073741824L;
+        this.properties.setMultipartThreshold(multipartThreshold);
+        Assert.assertThat(this.properties.getMultipartThreshold(), Matchers.is(multipartThreshold));
+    }
+
+    /**
+     * Make sure can set the part size.
+     */
+    @Test
+    public void canSetPartSize() {
+        final long partSize = 16777216L;
+        this.properties.setPartSize(partSize);
+        Assert.assertThat(this.properties.getPartSize(), Matchers.is(partSize));
+    }
+
+    /**
+     * Make sure can set the pool size.
+     */
+    @Test
+    public void canSetPoolSize() {
+        final int poolSize = 32;
+        this.properties.setPoolSize(poolSize);
+        Assert.assertThat(this.properties.getPoolSize(), Matchers.is(poolSize));
+    }
+
+    /**
+     * Make sure can set the max part retries.
+     */
+    @Test
+    public void canSetMaxPartRetries() {
+        final int maxPartRetries = 0;
+        this.properties.setMaxPartRetries(maxPartRetries);
+        Assert.assertThat(this.properties.getMaxPartRetries(), Matchers.is(maxPartRetries));
+    }
+}
@@ -0,0 +1,601 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.services.impl;
+
+import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.hash.Hashing;
+import com.netflix.genie.common.exceptions.GenieException;
+import com.netflix.genie.common.exceptions.GenieServerException;
+import com.netflix.genie.core.properties.FileCacheRevalidationProperties;
+import com.netflix.genie.core.services.FileMaterializationStrategy;
+import com.netflix.genie.core.services.FileTransfer;
+import com.netflix.genie.core.services.FileTransferFactory;
+import com.netflix.genie.test.categories.UnitTest;
+import com.netflix.spectator.api.DefaultRegistry;
+import com.netflix.spectator.api.Registry;
+import org.hamcrest.Matchers;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Unit tests for the CacheGenieFileTransferService.
+ *
+ * @author agent
+ * @since 3.1.0
+ */
+@Category(UnitTest.class)
+public class CacheGenieFileTransferServiceUnitTests {
+
+    private static final String FILE_A = "s3://bucket/a";
+    private static final String FILE_B = "s3://bucket/b";
+    private static final int FILE_SIZE = 60;
+
+    /**
+     * Temporary folder used as the cache location.
+     */
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private FileTransferFactory fileTransferFactory;
+    private FileTransfer s3FileTransfer;
+    private FileTransfer localFileTransfer;
+    private String cacheLocation;
+    private FileCacheRevalidationProperties revalidationProperties;
+    private String remoteVersion;
+    private long fetchWaitTimeout;
+    private Registry registry;
+    private Map<String, String> sameContents;
+
+    /**
+     * Setup for the tests.
+     *
+     * @throws GenieException On error
+     */
+    @Before
+    public void setup() throws GenieException {
+        this.s3FileTransfer = Mockito.mock(FileTransfer.class);
+        this.localFileTransfer = Mockito.mock(FileTransfer.class);
+        final Map<String, FileTransfer> fileTransferMap = ImmutableMap.of("file.system.s3", this.s3FileTransfer);
+        this.fileTransferFactory = fileTransferMap::get;
+        this.cacheLocation = "file://" + this.folder.getRoot().getAbsolutePath();
+        this.revalidationProperties = new FileCacheRevalidationProperties();
+        this.remoteVersion = "etag1";
+        this.fetchWaitTimeout = 10000L;
+        this.registry = new DefaultRegistry();
+        this.sameContents = new HashMap<>();
+        Mockito.doAnswer(
+            invocation -> {
+                if (this.remoteVersion.equals(invocation.getArguments()[2])) {
+                    return Optional.empty();
+                }
+                final String path = (String) invocation.getArguments()[0];
+                Files.write(Paths.get((String) invocation.getArguments()[1]), this.getContents(path));
+                return Optional.of(this.remoteVersion);
+            }
+        ).when(this.s3FileTransfer).getFileIfChanged(Mockito.anyString(), Mockito.anyString(), Mockito.anyString());
+    }
+
+    /**
+     * Make sure a cached file is only downloaded once and revalidated with its version on every use by default.
+     *
+     * @throws GenieException On error
+     */
+    @Test
+    public void canReuseCachedFile() throws GenieException {
+        final CacheGenieFileTransferService service = this.createService(10240L);
+        service.getFile(FILE_A, "dst1");
+        service.getFile(FILE_A, "dst2");
+
+        this.verifyDownloads(FILE_A, 1);
+        Mockito
+            .verify(this.s3FileTransfer, Mockito.times(1))
+            .getFileIfChanged(Mockito.eq(FILE_A), Mockito.anyString(), Mockito.eq(this.remoteVersion));
+        Mockito.verify(this.localFileTransfer, Mockito.times(2)).getFile(Mockito.anyString(), Mockito.anyString());
+        Mockito.verify(this.s3FileTransfer, Mockito.never()).getLastModifiedTime(Mockito.anyString());
+    }
+
+    /**
+     * Make sure a cached file is used without any remote call within its ttl.
+     *
+     * @throws GenieException On error
+     */
+    @Test
+    public void canUseCachedFileWithinTtl() throws GenieException {
+        this.revalidationProperties.setTtl(60000L);
+        final CacheGenieFileTransferService service = this.createService(10240L);
+        service.getFile(FILE_A, "dst1");
+        service.getFile(FILE_A, "dst2");
+
+        Mockito
+            .verify(this.s3FileTransfer, Mockito.times(1))
+            .getFileIfChanged(Mockito.anyString(), Mockito.anyString(), Mockito.anyString());
+        Mockito.verify(this.localFileTransfer, Mockito.times(2)).getFile(Mockito.anyString(), Mockito.anyString());
+    }
+
+    /**
+     * Make sure the ttl of the scheme overrides the default ttl.
+     *
+     * @throws GenieException On error
+     */
+    @Test
+    public void canOverrideTtlForScheme() throws GenieException {
+        this.revalidationProperties.setTtl(60000L);
+        this.revalidationProperties.setSchemeTtls(ImmutableMap.of("s3", 0L));
+        final CacheGenieFileTransferService service = this.createService(10240L);
+        service.getFile(FILE_A, "dst1");
+        service.getFile(FILE_A, "dst2");
+
+        Mockito
+            .verify(this.s3FileTransfer, Mockito.times(2))
+            .getFileIfChanged(Mockito.anyString(), Mockito.anyString(), Mockito.anyString());
+    }
+
+    /**
+     * Make sure a changed remote file replaces the cached file when revalidated.
+     *
+     * @throws GenieException On error
+     * @throws IOException    On error reading the index
+     */
+    @Test
+    public void canReplaceChangedFile() throws GenieException, IOException {
+        final CacheGenieFileTransferService service = this.createService(10240L);
+        service.getFile(FILE_A, "dst");
+        this.remoteVersion = "etag2";
+        service.getFile(FILE_A, "dst");
+
+        this.verifyDownloads(FILE_A, 2);
+        Assert.assertTrue(this.getCacheFile(FILE_A).exists());
+        Assert.assertThat(this.readIndex(), Matchers.contains(this.getIndexLine(FILE_A)));
+    }
+
+    /**
+     * Make sure a file used after the refresh ahead threshold is revalidated in the background.
+     *
+     * @throws GenieException On error
+     */
+    @Test
+    public void canRefreshAhead() throws GenieException {
+        this.revalidationProperties.setTtl(60000L);
+        this.revalidationProperties.setRefreshAheadEnabled(true);
+        this.revalidationProperties.setRefreshAheadThreshold(0.0);
+        final Executor executor = Mockito.mock(Executor.class);
+        final CacheGenieFileTransferService service = this.createService(10240L, executor);
+        service.getFile(FILE_A, "dst1");
+        Mockito.verify(executor, Mockito.never()).execute(Mockito.any(Runnable.class));
+
+        service.getFile(FILE_A, "dst2");
+        final ArgumentCaptor<Runnable> captor = ArgumentCaptor.forClass(Runnable.class);
+        Mockito.verify(executor, Mockito.times(1)).execute(captor.capture());
+        Mockito
+            .verify(this.s3FileTransfer, Mockito.times(1))
+            .getFileIfChanged(Mockito.anyString(), Mockito.anyString(), Mockito.anyString());
+
+        captor.getValue().run();
+        Mockito
+            .verify(this.s3FileTransfer, Mockito.times(1))
+            .getFileIfChanged(Mockito.eq(FILE_A), Mockito.anyString(), Mockito.eq(this.remoteVersion));
+        Mockito.verify(this.localFileTransfer, Mockito.times(2)).getFile(Mockito.anyString(), Mockito.anyString());
+    }
+
+    /**
+     * Make sure a prefetched file is served from the cache on its first use and counted as a warm hit.
+     *
+     * @throws GenieException On error
+     */
+    @Test
+    public void canPrefetchFile() throws GenieException {
+        final CacheGenieFileTransferService service = this.createService(10240L);
+        Assert.assertThat(service.prefetch(FILE_A), Matchers.is((long) FILE_SIZE));
+        Assert.assertThat(service.prefetch(FILE_A), Matchers.is(0L));
+
+        service.getFile(FILE_A, "dst1");
+        service.getFile(FILE_A, "dst2");
+        this.verifyDownloads(FILE_A, 1);
+        Assert.assertThat(this.registry.counter("genie.jobs.file.cache.warmup.rate").count(), Matchers.is(1L));
+        Assert.assertThat(this.registry.counter("genie.jobs.file.cache.warmup.hit.rate").count(), Matchers.is(1L));
+    }
+
+    /**
+     * Make sure the least recently used file is evicted and deleted once the size budget is exceeded.
+     *
+     * @throws GenieException On error
+     * @throws IOException    On error reading the index
+     */
+    @Test
+    public void canEvictFilesOverBudget() throws GenieException, IOException {
+        final CacheGenieFileTransferService service = this.createService(1024L);
+        service.getFile(FILE_A, "dst");
+        Assert.assertTrue(this.getCacheFile(FILE_A).exists());
+
+        service.getFile(FILE_B, "dst");
+        Assert.assertFalse(this.getCacheFile(FILE_A).exists());
+        Assert.assertTrue(this.getCacheFile(FILE_B).exists());
+        Assert.assertThat(this.readIndex(), Matchers.contains(this.getIndexLine(FILE_B)));
+
+        service.getFile(FILE_A, "dst");
+        this.verifyDownloads(FILE_A, 2);
+    }
+
+    /**
+     * Make sure the files on disk are reused after a restart and files not in the index are deleted.
+     *
+     * @throws GenieException On error
+     * @throws IOException    On error creating the stray files
+     */
+    @Test
+    public void canReloadIndexOnRestart() throws GenieException, IOException {
+        this.createService(10240L).getFile(FILE_A, "dst");
+        final File stray = this.folder.newFile(UUID.randomUUID().toString());
+        final File strayContent = this.folder.newFile("content/" + UUID.randomUUID().toString());
+
+        final CacheGenieFileTransferService restarted = this.createService(10240L);
+        Assert.assertFalse(stray.exists());
+        Assert.assertFalse(strayContent.exists());
+        Assert.assertTrue(this.getCacheFile(FILE_A).exists());
+
+        restarted.getFile(FILE_A, "dst");
+        this.verifyDownloads(FILE_A, 1);
+        Assert.assertThat(this.readIndex(), Matchers.contains(this.getIndexLine(FILE_A)));
+    }
+
+    /**
+     * Make sure remote files with the same content are only stored once.
+     *
+     * @throws GenieException On error
+     * @throws IOException    On error reading the index
+     */
+    @Test
+    public void canDeduplicateContent() throws GenieException, IOException {
+        this.sameContents.put(FILE_B, FILE_A);
+        final CacheGenieFileTransferService service = this.createService(10240L);
+        service.getFile(FILE_A, "dst");
+        service.getFile(FILE_B, "dst");
+
+        Assert.assertThat(this.getCacheFile(FILE_B), Matchers.is(this.getCacheFile(FILE_A)));
+        Assert.assertThat(this.getCacheFile(FILE_A).getParentFile().list().length, Matchers.is(1));
+        Assert.assertThat(
+            this.readIndex(),
+            Matchers.containsInAnyOrder(this.getIndexLine(FILE_A), this.getIndexLine(FILE_B))
+        );
+        Assert.assertThat(
+            this.registry.counter("genie.jobs.file.cache.dedupe.bytes.rate").count(),
+            Matchers.is((long) FILE_SIZE)
+        );
+    }
+
+    /**
+     * Make sure evicted content still hard linked into a job directory is only deleted once the job released it.
+     *
+     * @throws GenieException On error
+     * @throws IOException    On error deleting the link
+     */
+    @Test
+    public void canKeepLinkedContentUntilReleased() throws GenieException, IOException {
+        final CacheGenieFileTransferService service = this.createService(1024L);
+        final File dst = new File(this.folder.newFolder(), "a");
+        service.getFile(FILE_A, dst.getPath(), FileMaterializationStrategy.HARD_LINK);
+        final File contentA = this.getCacheFile(FILE_A);
+
+        service.getFile(FILE_B, "dst");
+        Assert.assertTrue(contentA.exists());
+
+        Files.delete(dst.toPath());
+        service.getFile(FILE_A, "dst");
+        Assert.assertFalse(this.getCacheFile(FILE_B).exists());
+        Assert.assertTrue(contentA.exists());
+        Assert.assertThat(contentA.getParentFile().list().length, Matchers.is(1));
+        Assert.assertThat(
+            this.registry.counter("genie.jobs.file.cache.collected.rate").count(),
+            Matchers.is(1L)
+        );
+    }
+
+    /**
+     * Make sure evicted content kept for its hard link is deleted by the periodic collection once the link is gone,
+     * and that content referenced again meanwhile is kept.
+     *
+     * @throws GenieException On error
+     * @throws IOException    On error deleting the link
+     */
+    @Test
+    public void canCollectLinkedContentOnceUnlinked() throws GenieException, IOException {
+        final CacheGenieFileTransferService service = this.createService(1024L);
+        final File dst = new File(this.folder.newFolder(), "a");
+        service.getFile(FILE_A, dst.getPath(), FileMaterializationStrategy.HARD_LINK);
+        final File contentA = this.getCacheFile(FILE_A);
+        service.getFile(FILE_B, "dst");
+
+        service.collectLinkedContent();
+        Assert.assertTrue(contentA.exists());
+
+        Files.delete(dst.toPath());
+        service.collectLinkedContent();
+        Assert.assertFalse(contentA.exists());
+        Assert.assertTrue(this.getCacheFile(FILE_B).exists());
+        Assert.assertThat(
+            this.registry.counter("genie.jobs.file.cache.collected.rate").count(),
+            Matchers.is(1L)
+        );
+    }
+
+    /**
+     * Make sure content being copied into a job directory isn't deleted when another job replaces it meanwhile, and
+     * that it's deleted once the copy is done.
+     *
+     * @throws GenieException On error
+     */
+    @Test
+    public void canKeepContentInUseWhenReplaced() throws GenieException {
+        final CacheGenieFileTransferService service = this.createService(10240L);
+        final File contentA = this.getCacheFile(FILE_A);
+        final AtomicBoolean existed = new AtomicBoolean(false);
+        Mockito.doAnswer(
+            invocation -> {
+                if ("dst1".equals(invocation.getArguments()[1])) {
+                    this.remoteVersion = "etag2";
+                    service.getFile(FILE_A, "dst2");
+                    existed.set(new File((String) invocation.getArguments()[0]).exists());
+                }
+                return null;
+            }
+        ).when(this.localFileTransfer).getFile(Mockito.anyString(), Mockito.anyString());
+
+        service.getFile(FILE_A, "dst1");
+        Assert.assertTrue(existed.get());
+        Assert.assertFalse(contentA.exists());
+        Assert.assertTrue(this.getCacheFile(FILE_A).exists());
+        Assert.assertThat(contentA.getParentFile().list().length, Matchers.is(1));
+    }
+
+    /**
+     * Make sure cached files can be hard linked into the job directory.
+     *
+     * @throws GenieException On error
+     * @throws IOException    On error reading the file attributes
+     */
+    @Test
+    public void canHardLinkCachedFile() throws GenieException, IOException {
+        final CacheGenieFileTransferService service = this.createService(10240L);
+        final File dst = new File(this.folder.newFolder(), "a");
+        service.getFile(FILE_A, dst.getPath(), FileMaterializationStrategy.HARD_LINK);
+
+        Assert.assertTrue(Files.isSameFile(dst.toPath(), this.getCacheFile(FILE_A).toPath()));
+        Assert.assertFalse(Files.isSymbolicLink(dst.toPath()));
+        Mockito.verify(this.localFileTransfer, Mockito.never()).getFile(Mockito.anyString(), Mockito.anyString());
+    }
+
+    /**
+     * Make sure cached files can be symbolically linked into the job directory.
+     *
+     * @throws GenieException On error
+     * @throws IOException    On error reading the link
+     */
+    @Test
+    public void canSymbolicallyLinkCachedFile() throws GenieException, IOException {
+        final CacheGenieFileTransferService service = this.createService(10240L);
+        final File dst = new File(this.folder.newFolder(), "a");
+        service.getFile(FILE_A, dst.getPath(), FileMaterializationStrategy.SYMBOLIC_LINK);
+
+        Assert.assertTrue(Files.isSymbolicLink(dst.toPath()));
+        Assert.assertThat(Files.readSymbolicLink(dst.toPath()), Matchers.is(this.getCacheFile(FILE_A).toPath()));
+        Mockito.verify(this.localFileTransfer, Mockito.never()).getFile(Mockito.anyString(), Mockito.anyString());
+    }
+
+    /**
+     * Make sure stored content is read-only so a job can't change it through its link for every other job.
+     *
+     * @throws GenieException On error
+     * @throws IOException    On error reading the file permissions
+     */
+    @Test
+    public void canStoreContentReadOnly() throws GenieException, IOException {
+        final CacheGenieFileTransferService service = this.createService(10240L);
+        final File dst = new File(this.folder.newFolder(), "a");
+        service.getFile(FILE_A, dst.getPath(), FileMaterializationStrategy.HARD_LINK);
+
+        Assert.assertThat(
+            Files.getPosixFilePermissions(this.getCacheFile(FILE_A).toPath()),
+            Matchers.is(PosixFilePermissions.fromString("r--r--r--"))
+        );
+        Assert.assertThat(
+            Files.getPosixFilePermissions(dst.toPath()),
+            Matchers.is(PosixFilePermissions.fromString("r--r--r--"))
+        );
+    }
+
+    /**
+     * Make sure the cached file is copied if it can't be linked.
+     *
+     * @throws GenieException On error
+     */
+    @Test
+    public void canFallBackToCopy() throws GenieException {
+        final CacheGenieFileTransferService service = this.createService(10240L);
+        final String dst = new File(this.folder.getRoot(), "missing/a").getPath();
+        service.getFile(FILE_A, dst, FileMaterializationStrategy.HARD_LINK);
+
+        Mockito
+            .verify(this.localFileTransfer, Mockito.times(1))
+            .getFile(this.getCacheFile(FILE_A).getPath(), dst);
+    }
+
+    /**
+     * Make sure concurrent requests for the same file wait for a single download.
+     *
+     * @throws Exception On error
+     */
+    @Test
+    public void canCoalesceConcurrentFetches() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        this.blockDownloads(FILE_A, new CountDownLatch(1), release);
+        final CacheGenieFileTransferService service = this.createService(10240L);
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            final Future<?> leader = executor.submit(() -> this.getFile(service, FILE_A, "dst1"));
+            final Future<?> waiter = executor.submit(() -> this.getFile(service, FILE_A, "dst2"));
+            while (this.registry.counter("genie.jobs.file.cache.fetch.coalesced.rate").count() == 0) {
+                Thread.sleep(10L);
+            }
+            release.countDown();
+            leader.get();
+            waiter.get();
+        } finally {
+            executor.shutdownNow();
+        }
+
+        this.verifyDownloads(FILE_A, 1);
+        Mockito.verify(this.localFileTransfer, Mockito.times(2)).getFile(Mockito.anyString(), Mockito.anyString());
+    }
+
+    /**
+     * Make sure a request waiting on another download of the same file gives up after the timeout while requests
+     * for other files aren't held up.
+     *
+     * @throws Exception On error
+     */
+    @Test
+    public void canTimeOutWaitingForFetch() throws Exception {
+        this.fetchWaitTimeout = 100L;
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        this.blockDownloads(FILE_A, started, release);
+        final CacheGenieFileTransferService service = this.createService(10240L);
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            final Future<?> leader = executor.submit(() -> this.getFile(service, FILE_A, "dst1"));
+            started.await();
+            service.getFile(FILE_B, "dst2");
+            try {
+                service.getFile(FILE_A, "dst3");
+                Assert.fail("Expected the wait for the download to time out");
+            } catch (final GenieServerException gse) {
+                Assert.assertThat(gse.getMessage(), Matchers.startsWith("Timed out"));
+            }
+            release.countDown();
+            leader.get();
+        } finally {
+            executor.shutdownNow();
+        }
+
+        this.verifyDownloads(FILE_A, 1);
+        this.verifyDownloads(FILE_B, 1);
+        Assert.assertThat(
+            this.registry.timer("genie.jobs.file.cache.fetch.wait.timer").count(),
+            Matchers.is(1L)
+        );
+    }
+
+    private void blockDownloads(
+        final String path,
+        final CountDownLatch started,
+        final CountDownLatch release
+    ) throws GenieException {
+        Mockito.doAnswer(
+            invocation -> {
+                started.countDown();
+                release.await();
+                Files.write(Paths.get((String) invocation.getArguments()[1]), this.getContents(path));
+                return Optional.of(this.remoteVersion);
+            }
+        ).when(this.s3FileTransfer).getFileIfChanged(Mockito.eq(path), Mockito.anyString(), (String) Mockito.isNull());
+    }
+
+    private Void getFile(
+        final CacheGenieFileTransferService service,
+        final String path,
+        final String dst
+    ) throws GenieException {
+        service.getFile(path, dst);
+        return null;
+    }
+
+    private CacheGenieFileTransferService createService(final long maxCacheSize) throws GenieException {
+        return this.createService(maxCacheSize, Runnable::run);
+    }
+
+    private CacheGenieFileTransferService createService(
+        final long maxCacheSize,
+        final Executor executor
+    ) throws GenieException {
+        return new CacheGenieFileTransferService(
+            this.fileTransferFactory,
+            this.cacheLocation,
+            maxCacheSize,
+            this.revalidationProperties,
+            this.fetchWaitTimeout,
+            this.localFileTransfer,
+            executor,
+            this.registry
+        );
+    }
+
+    private void verifyDownloads(final String path, final int times) throws GenieException {
+        Mockito
+            .verify(this.s3FileTransfer, Mockito.times(times))
+            .getFileIfChanged(Mockito.eq(path), Mockito.anyString(), (String) Mockito.isNull());
+    }
+
+    private byte[] getContents(final String path) {
+        final String contents = this.sameContents.getOrDefault(path, path) + this.remoteVersion;
+        return Strings.padEnd(contents, FILE_SIZE, ' ').getBytes(Charset.forName("UTF-8"));
+    }
+
+    private String getDigest(final String path) {
+        return Hashing.sha256().hashBytes(this.getContents(path)).toString();
+    }
+
+    private File getCacheFile(final String path) {
+        return new File(new File(this.folder.getRoot(), "content"), this.getDigest(path));
+    }
+
+    private String getIndexLine(final String path) {
+        return path + "\t" + this.remoteVersion + "\t" + this.getDigest(path);
+    }
+
+    private List<String> readIndex() throws IOException {
+        return Files.readAllLines(
+            new File(this.folder.getRoot(), CacheGenieFileTransferService.INDEX_FILE_NAME).toPath(),
+            Charset.forName("UTF-8")
+        );
+    }
+}
@@ -22,38 +22,44 @@ import com.google.common.collect.Sets;
 import com.netflix.genie.common.dto.Application;
 import com.netflix.genie.common.dto.Cluster;
 import com.netflix.genie.common.dto.Command;
-import com.netflix.genie.common.dto.CommandStatus;
 import com.netflix.genie.common.dto.Job;
 import com.netflix.genie.common.dto.JobExecution;
 import com.netflix.genie.common.dto.JobMetadata;
 import com.netflix.genie.common.dto.JobRequest;
 import com.netflix.genie.common.dto.JobStatus;
+import com.netflix.genie.common.dto.JobSubmissionResult;
 import com.netflix.genie.common.exceptions.GenieConflictException;
 import com.netflix.genie.common.exceptions.GenieException;
 import com.netflix.genie.common.exceptions.GeniePreconditionException;
 import com.netflix.genie.common.exceptions.GenieServerException;
 import com.netflix.genie.common.exceptions.GenieServerUnavailableException;
+import com.netflix.genie.core.jobs.JobResolution;
+import com.netflix.genie.core.jobs.JobSubmission;
 import com.netflix.genie.core.properties.JobsProperties;
-import com.netflix.genie.core.services.ApplicationService;
-import com.netflix.genie.core.services.ClusterLoadBalancer;
-import com.netflix.genie.core.services.ClusterService;
-import com.netflix.genie.core.services.CommandService;
 import com.netflix.genie.core.services.JobKillService;
 import com.netflix.genie.core.services.JobPersistenceService;
+import com.netflix.genie.core.services.JobResolverService;
 import com.netflix.genie.core.services.JobStateService;
 import com.netflix.genie.test.categories.UnitTest;
+import com.netflix.spectator.api.Counter;
 import com.netflix.spectator.api.Registry;
 import com.netflix.spectator.api.Timer;
+import org.hamcrest.Matchers;
+import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 
+import java.net.HttpURLConnection;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * Unit tests for JobCoordinatorServiceImpl.
@@ -76,11 +82,9 @@ public class JobCoordinatorServiceImplUnitTests {
     private JobPersistenceService jobPersistenceService;
     private JobKillService jobKillService;
     private JobStateService jobStateService;
-    private ApplicationService applicationService;
-    private ClusterService clusterService;
-    private CommandService commandService;
-    private ClusterLoadBalancer clusterLoadBalancer;
+    private JobResolverService jobResolverService;
     private JobsProperties jobsProperties;
+    private Registry registry;
 
     /**
      * Setup for the tests.
@@ -93,25 +97,21 @@ public class JobCoordinatorServiceImplUnitTests {
         this.jobsProperties = new JobsProperties();
         this.jobsProperties.getLocations().setArchives(BASE_ARCHIVE_LOCATION);
         this.jobsProperties.getMemory().setDefaultJobMemory(MEMORY);
-        this.applicationService = Mockito.mock(ApplicationService.class);
-        this.clusterService = Mockito.mock(ClusterService.class);
-        this.commandService = Mockito.mock(CommandService.class);
-        this.clusterLoadBalancer = Mockito.mock(ClusterLoadBalancer.class);
+        this.jobResolverService = Mockito.mock(JobResolverService.class);
 
-        final Registry registry = Mockito.mock(Registry.class);
-        Mockito.when(registry.timer(Mockito.anyString())).thenReturn(Mockito.mock(Timer.class));
+        this.registry = Mockito.mock(Registry.class);
+        Mockito.when(this.registry.timer(Mockito.anyString())).thenReturn(Mockito.mock(Timer.class));
+        Mockito.when(this.registry.counter(Mockito.anyString())).thenReturn(Mockito.mock(Counter.class));
 
         this.jobCoordinatorService = new JobCoordinatorServiceImpl(
             this.jobPersistenceService,
             this.jobKillService,
             this.jobStateService,
             jobsProperties,
-            this.applicationService,
-            this.clusterService,
-            this.commandService,
-            this.clusterLoadBalancer,
-            registry,
-            HOST_NAME
+            this.jobResolverService,
+            this.registry,
+            HOST_NAME,
+            Mockito.mock(Executor.class)
         );
     }
 
@@ -133,37 +133,35 @@ public class JobCoordinatorServiceImplUnitTests {
 
         final String clusterId = UUID.randomUUID().toString();
         final Cluster cluster = Mockito.mock(Cluster.class);
-        final List<Cluster> clusters = Lists.newArrayList(cluster);
         Mockito.when(cluster.getId()).thenReturn(Optional.of(clusterId));
 
-        Mockito
-            .when(this.clusterService.chooseClusterForJobRequest(jobRequest))
-            .thenReturn(clusters);
-
-        Mockito.when(this.clusterLoadBalancer.selectCluster(clusters)).thenReturn(cluster);
-
         final String commandId = UUID.randomUUID().toString();
         final Command command = Mockito.mock(Command.class);
         Mockito.when(command.getId()).thenReturn(Optional.of(commandId));
         Mockito.when(command.getMemory()).thenReturn(Optional.empty());
-        final Set<String> commandTags = Sets.newHashSet(UUID.randomUUID().toString());
-        commandTags.addAll(commandCriteria);
-        Mockito.when(command.getTags()).thenReturn(commandTags);
-
-        Mockito
-            .when(
-                this.clusterService.getCommandsForCluster(Mockito.eq(clusterId), Mockito.anySetOf(CommandStatus.class))
-            )
-            .thenReturn(Lists.newArrayList(command));
+        Mockito.when(command.getCpu()).thenReturn(Optional.empty());
 
         final String applicationId = UUID.randomUUID().toString();
         final Application application = Mockito.mock(Application.class);
         Mockito.when(application.getId()).thenReturn(Optional.of(applicationId));
         final List<Application> applications = Lists.newArrayList(application);
 
-        Mockito.when(this.commandService.getApplicationsForCommand(commandId)).thenReturn(applications);
+        Mockito
+            .when(this.jobResolverService.resolveJob(jobRequest))
+            .thenReturn(new JobResolution(cluster, command, applications));
 
-        Mockito.when(this.jobStateService.getUsedMemory()).thenReturn(0);
+        Mockito
+            .when(
+                this.jobStateService.admit(
+                    Mockito.eq(JOB_1_ID),
+                    Mockito.any(JobRequest.class),
+                    Mockito.anyInt(),
+                    Mockito.anyInt(),
+                    Mockito.anyInt(),
+                    Mockito.anyInt()
+                )
+            )
+            .thenReturn(true);
 
         this.jobCoordinatorService.coordinateJob(jobRequest, jobMetadata);
 
@@ -202,35 +200,33 @@ public class JobCoordinatorServiceImplUnitTests {
 
         final String clusterId = UUID.randomUUID().toString();
         final Cluster cluster = Mockito.mock(Cluster.class);
-        final List<Cluster> clusters = Lists.newArrayList(cluster);
         Mockito.when(cluster.getId()).thenReturn(Optional.of(clusterId));
 
-        Mockito
-            .when(this.clusterService.chooseClusterForJobRequest(jobRequest))
-            .thenReturn(clusters);
-
-        Mockito.when(this.clusterLoadBalancer.selectCluster(clusters)).thenReturn(cluster);
-
         final String commandId = UUID.randomUUID().toString();
         final Command command = Mockito.mock(Command.class);
         Mockito.when(command.getId()).thenReturn(Optional.of(commandId));
         Mockito.when(command.getMemory()).thenReturn(Optional.empty());
-        final Set<String> commandTags = Sets.newHashSet(UUID.randomUUID().toString());
-        commandTags.addAll(commandCriteria);
-        Mockito.when(command.getTags()).thenReturn(commandTags);
-
-        Mockito
-            .when(
-                this.clusterService.getCommandsForCluster(Mockito.eq(clusterId), Mockito.anySetOf(CommandStatus.class))
-            )
-            .thenReturn(Lists.newArrayList(command));
+        Mockito.when(command.getCpu()).thenReturn(Optional.empty());
 
         final Application application = Mockito.mock(Application.class);
         Mockito.when(application.getId()).thenReturn(Optional.of(applicationId));
 
-        Mockito.when(this.applicationService.getApplication(applicationId)).thenReturn(application);
+        Mockito
+            .when(this.jobResolverService.resolveJob(jobRequest))
+            .thenReturn(new JobResolution(cluster, command, Lists.newArrayList(application)));
 
-        Mockito.when(this.jobStateService.getUsedMemory()).thenReturn(0);
+        Mockito
+            .when(
+                this.jobStateService.admit(
+                    Mockito.eq(JOB_1_ID),
+                    Mockito.any(JobRequest.class),
+                    Mockito.anyInt(),
+                    Mockito.anyInt(),
+                    Mockito.anyInt(),
+                    Mockito.anyInt()
+                )
+            )
+            .thenReturn(true);
 
         this.jobCoordinatorService.coordinateJob(jobRequest, jobMetadata);
 
@@ -268,39 +264,166 @@ public class JobCoordinatorServiceImplUnitTests {
 
         final String clusterId = UUID.randomUUID().toString();
         final Cluster cluster = Mockito.mock(Cluster.class);
-        final List<Cluster> clusters = Lists.newArrayList(cluster);
         Mockito.when(cluster.getId()).thenReturn(Optional.of(clusterId));
 
-        Mockito
-            .when(this.clusterService.chooseClusterForJobRequest(jobRequest))
-            .thenReturn(clusters);
-
-        Mockito.when(this.clusterLoadBalancer.selectCluster(clusters)).thenReturn(cluster);
-
         final String commandId = UUID.randomUUID().toString();
         final Command command = Mockito.mock(Command.class);
         Mockito.when(command.getId()).thenReturn(Optional.of(commandId));
         Mockito.when(command.getMemory()).thenReturn(Optional.empty());
-        final Set<String> commandTags = Sets.newHashSet(UUID.randomUUID().toString());
-        commandTags.addAll(commandCriteria);
-        Mockito.when(command.getTags()).thenReturn(commandTags);
-
-        Mockito
-            .when(
-                this.clusterService.getCommandsForCluster(Mockito.eq(clusterId), Mockito.anySetOf(CommandStatus.class))
-            )
-            .thenReturn(Lists.newArrayList(command));
+        Mockito.when(command.getCpu()).thenReturn(Optional.empty());
 
         final String applicationId = UUID.randomUUID().toString();
         final Application application = Mockito.mock(Application.class);
         Mockito.when(application.getId()).thenReturn(Optional.of(applicationId));
         final List<Application> applications = Lists.newArrayList(application);
 
-        Mockito.when(this.commandService.getApplicationsForCommand(commandId)).thenReturn(applications);
+        Mockito
+            .when(this.jobResolverService.resolveJob(jobRequest))
+            .thenReturn(new JobResolution(cluster, command, applications));
 
         this.jobCoordinatorService.coordinateJob(jobRequest, jobMetadata);
 
-        Mockito.verify(this.jobStateService, Mockito.never()).getUsedMemory();
+        Mockito
+            .verify(this.jobStateService, Mockito.never())
+            .admit(
+                Mockito.anyString(),
+                Mockito.any(JobRequest.class),
+                Mockito.anyInt(),
+                Mockito.anyInt(),
+                Mockito.anyInt(),
+                Mockito.anyInt()
+            );
+    }
+
+    /**
+     * Make sure the default cpus of the command are used and a job can't reserve more cpus than the node allows.
+     *
+     * @throws GenieException If there is any problem
+     */
+    @Test(expected = GeniePreconditionException.class)
+    public void cantCoordinateJobIfTooManyCpusRequested() throws GenieException {
+        this.jobsProperties.getCpu().setMaxSystemCpu(4);
+        final JobRequest jobRequest
+            = this.getJobRequest(false, Sets.newHashSet(UUID.randomUUID().toString()), null, null);
+        final JobMetadata jobMetadata = this.getJobMetadata();
+
+        final Cluster cluster = Mockito.mock(Cluster.class);
+        Mockito.when(cluster.getId()).thenReturn(Optional.of(UUID.randomUUID().toString()));
+
+        final Command command = Mockito.mock(Command.class);
+        Mockito.when(command.getId()).thenReturn(Optional.of(UUID.randomUUID().toString()));
+        Mockito.when(command.getMemory()).thenReturn(Optional.empty());
+        Mockito.when(command.getCpu()).thenReturn(Optional.of(8));
+
+        Mockito
+            .when(this.jobResolverService.resolveJob(jobRequest))
+            .thenReturn(new JobResolution(cluster, command, Lists.newArrayList()));
+
+        try {
+            this.jobCoordinatorService.coordinateJob(jobRequest, jobMetadata);
+        } finally {
+            Mockito
+                .verify(this.jobStateService, Mockito.never())
+                .admit(
+                    Mockito.anyString(),
+                    Mockito.any(JobRequest.class),
+                    Mockito.anyInt(),
+                    Mockito.anyInt(),
+                    Mockito.anyInt(),
+                    Mockito.anyInt()
+                );
+        }
+    }
+
+    /**
+     * Make sure a job which doesn't fit in the free memory waits in the admission queue when it's enabled.
+     *
+     * @throws GenieException If there is any problem
+     */
+    @Test
+    public void canQueueJobIfNotEnoughMemoryAvailable() throws GenieException {
+        this.jobsProperties.getAdmission().setQueueEnabled(true);
+        final JobRequest jobRequest
+            = this.getJobRequest(true, Sets.newHashSet(UUID.randomUUID().toString()), null, null);
+
+        final Cluster cluster = Mockito.mock(Cluster.class);
+        Mockito.when(cluster.getId()).thenReturn(Optional.of(UUID.randomUUID().toString()));
+        final Command command = Mockito.mock(Command.class);
+        Mockito.when(command.getId()).thenReturn(Optional.of(UUID.randomUUID().toString()));
+        Mockito.when(command.getMemory()).thenReturn(Optional.empty());
+        Mockito.when(command.getCpu()).thenReturn(Optional.empty());
+        Mockito
+            .when(this.jobResolverService.resolveJob(jobRequest))
+            .thenReturn(new JobResolution(cluster, command, Lists.newArrayList()));
+        Mockito
+            .when(
+                this.jobStateService.admit(
+                    Mockito.eq(JOB_1_ID),
+                    Mockito.any(JobRequest.class),
+                    Mockito.anyInt(),
+                    Mockito.anyInt(),
+                    Mockito.anyInt(),
+                    Mockito.anyInt()
+                )
+            )
+            .thenReturn(false);
+        Mockito
+            .when(this.jobStateService.queue(JOB_1_ID, jobRequest, cluster, command, Lists.newArrayList(), MEMORY, 1))
+            .thenReturn(true);
+
+        Assert.assertThat(
+            this.jobCoordinatorService.coordinateJob(jobRequest, this.getJobMetadata()),
+            Matchers.is(JOB_1_ID)
+        );
+
+        Mockito
+            .verify(this.jobPersistenceService, Mockito.times(1))
+            .updateJobStatus(Mockito.eq(JOB_1_ID), Mockito.eq(JobStatus.INIT), Mockito.anyString());
+        Mockito
+            .verify(this.jobPersistenceService, Mockito.never())
+            .updateJobStatus(Mockito.eq(JOB_1_ID), Mockito.eq(JobStatus.FAILED), Mockito.anyString());
+        Mockito.verify(this.jobStateService, Mockito.never())
+            .schedule(
+                Mockito.anyString(),
+                Mockito.any(JobRequest.class),
+                Mockito.any(Cluster.class),
+                Mockito.any(Command.class),
+                Mockito.anyListOf(Application.class),
+                Mockito.anyInt()
+            );
+    }
+
+    /**
+     * Make sure a job is still rejected if the admission queue won't take it.
+     *
+     * @throws GenieException If there is any problem
+     */
+    @Test(expected = GenieServerUnavailableException.class)
+    public void cantCoordinateJobIfAdmissionQueueIsFull() throws GenieException {
+        this.jobsProperties.getAdmission().setQueueEnabled(true);
+        final JobRequest jobRequest
+            = this.getJobRequest(true, Sets.newHashSet(UUID.randomUUID().toString()), null, null);
+
+        final Cluster cluster = Mockito.mock(Cluster.class);
+        Mockito.when(cluster.getId()).thenReturn(Optional.of(UUID.randomUUID().toString()));
+        final Command command = Mockito.mock(Command.class);
+        Mockito.when(command.getId()).thenReturn(Optional.of(UUID.randomUUID().toString()));
+        Mockito.when(command.getMemory()).thenReturn(Optional.empty());
+        Mockito.when(command.getCpu()).thenReturn(Optional.empty());
+        Mockito
+            .when(this.jobResolverService.resolveJob(jobRequest))
+            .thenReturn(new JobResolution(cluster, command, Lists.newArrayList()));
+        Mockito.when(this.jobStateService.jobExists(JOB_1_ID)).thenReturn(true);
+
+        try {
+            this.jobCoordinatorService.coordinateJob(jobRequest, this.getJobMetadata());
+        } finally {
+            Mockito.verify(this.jobStateService, Mockito.times(1))
+                .queue(JOB_1_ID, jobRequest, cluster, command, Lists.newArrayList(), MEMORY, 1);
+            Mockito
+                .verify(this.jobPersistenceService, Mockito.times(1))
+                .updateJobStatus(Mockito.eq(JOB_1_ID), Mockito.eq(JobStatus.FAILED), Mockito.anyString());
+        }
     }
 
     /**
@@ -321,43 +444,50 @@ public class JobCoordinatorServiceImplUnitTests {
 
         final String clusterId = UUID.randomUUID().toString();
         final Cluster cluster = Mockito.mock(Cluster.class);
-        final List<Cluster> clusters = Lists.newArrayList(cluster);
         Mockito.when(cluster.getId()).thenReturn(Optional.of(clusterId));
 
-        Mockito
-            .when(this.clusterService.chooseClusterForJobRequest(jobRequest))
-            .thenReturn(clusters);
-
-        Mockito.when(this.clusterLoadBalancer.selectCluster(clusters)).thenReturn(cluster);
-
         final String commandId = UUID.randomUUID().toString();
         final Command command = Mockito.mock(Command.class);
         Mockito.when(command.getId()).thenReturn(Optional.of(commandId));
         Mockito.when(command.getMemory()).thenReturn(Optional.of(1));
-        final Set<String> commandTags = Sets.newHashSet(UUID.randomUUID().toString());
-        commandTags.addAll(commandCriteria);
-        Mockito.when(command.getTags()).thenReturn(commandTags);
-
-        Mockito
-            .when(
-                this.clusterService.getCommandsForCluster(Mockito.eq(clusterId), Mockito.anySetOf(CommandStatus.class))
-            )
-            .thenReturn(Lists.newArrayList(command));
+        Mockito.when(command.getCpu()).thenReturn(Optional.empty());
 
         final String applicationId = UUID.randomUUID().toString();
         final Application application = Mockito.mock(Application.class);
         Mockito.when(application.getId()).thenReturn(Optional.of(applicationId));
         final List<Application> applications = Lists.newArrayList(application);
 
-        Mockito.when(this.commandService.getApplicationsForCommand(commandId)).thenReturn(applications);
+        Mockito
+            .when(this.jobResolverService.resolveJob(jobRequest))
+            .thenReturn(new JobResolution(cluster, command, applications));
 
+        Mockito
+            .when(
+                this.jobStateService.admit(
+                    Mockito.eq(JOB_1_ID),
+                    Mockito.any(JobRequest.class),
+                    Mockito.anyInt(),
+                    Mockito.anyInt(),
+                    Mockito.anyInt(),
+                    Mockito.anyInt()
+                )
+            )
+            .thenReturn(false);
         Mockito
             .when(this.jobStateService.getUsedMemory())
             .thenReturn(this.jobsProperties.getMemory().getMaxSystemMemory());
 
         this.jobCoordinatorService.coordinateJob(jobRequest, jobMetadata);
 
-        Mockito.verify(this.jobStateService, Mockito.times(1)).getUsedMemory();
+        Mockito.verify(this.jobStateService, Mockito.never())
+            .schedule(
+                Mockito.anyString(),
+                Mockito.any(JobRequest.class),
+                Mockito.any(Cluster.class),
+                Mockito.any(Command.class),
+                Mockito.anyListOf(Application.class),
+                Mockito.anyInt()
+            );
         Mockito
             .verify(this.jobPersistenceService, Mockito.times(1))
             .updateJobStatus(Mockito.eq(JOB_1_ID), Mockito.eq(JobStatus.FAILED), Mockito.anyString());
@@ -381,44 +511,49 @@ public class JobCoordinatorServiceImplUnitTests {
 
         final String clusterId = UUID.randomUUID().toString();
         final Cluster cluster = Mockito.mock(Cluster.class);
-        final List<Cluster> clusters = Lists.newArrayList(cluster);
         Mockito.when(cluster.getId()).thenReturn(Optional.of(clusterId));
 
-        Mockito
-            .when(this.clusterService.chooseClusterForJobRequest(jobRequest))
-            .thenReturn(clusters);
-
-        Mockito.when(this.clusterLoadBalancer.selectCluster(clusters)).thenReturn(cluster);
-
         final String commandId = UUID.randomUUID().toString();
         final Command command = Mockito.mock(Command.class);
         Mockito.when(command.getId()).thenReturn(Optional.of(commandId));
         Mockito.when(command.getMemory()).thenReturn(Optional.of(1));
-        final Set<String> commandTags = Sets.newHashSet(UUID.randomUUID().toString());
-        commandTags.addAll(commandCriteria);
-        Mockito.when(command.getTags()).thenReturn(commandTags);
-
-        Mockito
-            .when(
-                this.clusterService.getCommandsForCluster(Mockito.eq(clusterId), Mockito.anySetOf(CommandStatus.class))
-            )
-            .thenReturn(Lists.newArrayList(command));
+        Mockito.when(command.getCpu()).thenReturn(Optional.empty());
 
         final String applicationId = UUID.randomUUID().toString();
         final Application application = Mockito.mock(Application.class);
         Mockito.when(application.getId()).thenReturn(Optional.of(applicationId));
         final List<Application> applications = Lists.newArrayList(application);
 
-        Mockito.when(this.commandService.getApplicationsForCommand(commandId)).thenReturn(applications);
+        Mockito
+            .when(this.jobResolverService.resolveJob(jobRequest))
+            .thenReturn(new JobResolution(cluster, command, applications));
         Mockito.doThrow(new RuntimeException()).when(jobStateService).schedule(JOB_1_ID, jobRequest, cluster,
             command, applications, 1);
         Mockito
-            .when(this.jobStateService.getUsedMemory())
-            .thenReturn(0);
+            .when(
+                this.jobStateService.admit(
+                    JOB_1_ID,
+                    jobRequest,
+                    1,
+                    this.jobsProperties.getMemory().getMaxSystemMemory(),
+                    1,
+                    this.jobsProperties.getCpu().getMaxSystemCpu()
+                )
+            )
+            .thenReturn(true);
 
         this.jobCoordinatorService.coordinateJob(jobRequest, jobMetadata);
 
-        Mockito.verify(this.jobStateService, Mockito.times(1)).getUsedMemory();
+        Mockito
+            .verify(this.jobStateService, Mockito.times(1))
+            .admit(
+                JOB_1_ID,
+                jobRequest,
+                1,
+                this.jobsProperties.getMemory().getMaxSystemMemory(),
+                1,
+                this.jobsProperties.getCpu().getMaxSystemCpu()
+            );
         Mockito
             .verify(this.jobPersistenceService, Mockito.times(1))
             .updateJobStatus(Mockito.eq(JOB_1_ID), Mockito.eq(JobStatus.FAILED), Mockito.anyString());
@@ -440,31 +575,26 @@ public class JobCoordinatorServiceImplUnitTests {
         final JobRequest jobRequest = this.getJobRequest(false, commandCriteria, null, null);
         final JobMetadata jobMetadata = this.getJobMetadata();
 
-        final String clusterId = UUID.randomUUID().toString();
-        final Cluster cluster = Mockito.mock(Cluster.class);
-        final List<Cluster> clusters = Lists.newArrayList(cluster);
-        Mockito.when(cluster.getId()).thenReturn(Optional.of(clusterId));
-
         Mockito
-            .when(this.clusterService.chooseClusterForJobRequest(jobRequest))
-            .thenReturn(clusters);
-
-        Mockito.when(this.clusterLoadBalancer.selectCluster(clusters)).thenReturn(cluster);
-
-        final String commandId = UUID.randomUUID().toString();
-        final Command command = Mockito.mock(Command.class);
-        Mockito.when(command.getId()).thenReturn(Optional.of(commandId));
-        Mockito.when(command.getMemory()).thenReturn(Optional.of(1));
-        final Set<String> commandTags = Sets.newHashSet(UUID.randomUUID().toString());
-        Mockito.when(command.getTags()).thenReturn(commandTags);
-
-        Mockito
-            .when(
-                this.clusterService.getCommandsForCluster(Mockito.eq(clusterId), Mockito.anySetOf(CommandStatus.class))
-            )
-            .thenReturn(Lists.newArrayList(command));
-
-        this.jobCoordinatorService.coordinateJob(jobRequest, jobMetadata);
+            .when(this.jobResolverService.resolveJob(jobRequest))
+            .thenThrow(new GeniePreconditionException("No command found"));
+        Mockito.when(this.jobStateService.jobExists(JOB_1_ID)).thenReturn(true);
+
+        try {
+            this.jobCoordinatorService.coordinateJob(jobRequest, jobMetadata);
+        } finally {
+            Mockito
+                .verify(this.jobPersistenceService, Mockito.times(1))
+                .updateJobStatus(Mockito.eq(JOB_1_ID), Mockito.eq(JobStatus.FAILED), Mockito.anyString());
+            Mockito.verify(this.jobStateService, Mockito.never()).schedule(
+                Mockito.anyString(),
+                Mockito.any(JobRequest.class),
+                Mockito.any(Cluster.class),
+                Mockito.any(Command.class),
+                Mockito.anyListOf(Application.class),
+                Mockito.anyInt()
+            );
+        }
     }
 
     /**
@@ -495,6 +625,294 @@ public class JobCoordinatorServiceImplUnitTests {
         this.jobCoordinatorService.coordinateJob(request, metadata);
     }
 
+    /**
+     * Make sure when asynchronous submission is enabled the job is persisted before the rest of the work is handed
+     * off to the submission executor.
+     *
+     * @throws GenieException If there is any problem
+     */
+    @Test
+    public void canCoordinateJobAsynchronously() throws GenieException {
+        final JobRequest jobRequest
+            = this.getJobRequest(true, Sets.newHashSet(UUID.randomUUID().toString()), null, null);
+        final JobMetadata jobMetadata = this.getJobMetadata();
+
+        final String clusterId = UUID.randomUUID().toString();
+        final Cluster cluster = Mockito.mock(Cluster.class);
+        Mockito.when(cluster.getId()).thenReturn(Optional.of(clusterId));
+
+        final String commandId = UUID.randomUUID().toString();
+        final Command command = Mockito.mock(Command.class);
+        Mockito.when(command.getId()).thenReturn(Optional.of(commandId));
+        Mockito.when(command.getMemory()).thenReturn(Optional.empty());
+        Mockito.when(command.getCpu()).thenReturn(Optional.empty());
+
+        Mockito
+            .when(this.jobResolverService.resolveJob(jobRequest))
+            .thenReturn(new JobResolution(cluster, command, Lists.newArrayList()));
+        Mockito
+            .when(
+                this.jobStateService.admit(
+                    Mockito.eq(JOB_1_ID),
+                    Mockito.any(JobRequest.class),
+                    Mockito.anyInt(),
+                    Mockito.anyInt(),
+                    Mockito.anyInt(),
+                    Mockito.anyInt()
+                )
+            )
+            .thenReturn(true);
+
+        final List<Runnable> submitted = Lists.newArrayList();
+        final JobCoordinatorServiceImpl asyncService = this.getAsyncJobCoordinatorService(5, submitted::add);
+
+        Assert.assertThat(asyncService.coordinateJob(jobRequest, jobMetadata), Matchers.is(JOB_1_ID));
+        Mockito.verify(this.jobPersistenceService, Mockito.times(1))
+            .createJob(
+                Mockito.eq(jobRequest),
+                Mockito.eq(jobMetadata),
+                Mockito.any(Job.class),
+                Mockito.any(JobExecution.class)
+            );
+        Mockito.verify(this.jobStateService, Mockito.times(1)).init(JOB_1_ID);
+        Mockito.verify(this.jobResolverService, Mockito.never()).resolveJob(Mockito.any(JobRequest.class));
+        Assert.assertThat(submitted.size(), Matchers.is(1));
+        Assert.assertThat(asyncService.getNumPendingSubmissions(), Matchers.is(1));
+
+        submitted.get(0).run();
+
+        Mockito.verify(this.jobPersistenceService, Mockito.times(1))
+            .updateJobWithRuntimeEnvironment(JOB_1_ID, clusterId, commandId, Lists.newArrayList(), MEMORY);
+        Mockito.verify(this.jobStateService, Mockito.times(1))
+            .schedule(JOB_1_ID, jobRequest, cluster, command, Lists.newArrayList(), MEMORY);
+        Assert.assertThat(asyncService.getNumPendingSubmissions(), Matchers.is(0));
+    }
+
+    /**
+     * Make sure a job which fails to launch after being submitted asynchronously is marked failed and frees its
+     * place in the queue.
+     *
+     * @throws GenieException If there is any problem
+     */
+    @Test
+    public void canFailAsynchronouslySubmittedJob() throws GenieException {
+        final JobRequest jobRequest
+            = this.getJobRequest(true, Sets.newHashSet(UUID.randomUUID().toString()), null, null);
+        final String errorMessage = UUID.randomUUID().toString();
+        Mockito
+            .when(this.jobResolverService.resolveJob(jobRequest))
+            .thenThrow(new GeniePreconditionException(errorMessage));
+        Mockito.when(this.jobStateService.jobExists(JOB_1_ID)).thenReturn(true);
+
+        final JobCoordinatorServiceImpl asyncService = this.getAsyncJobCoordinatorService(1, Runnable::run);
+        asyncService.coordinateJob(jobRequest, this.getJobMetadata());
+
+        Mockito.verify(this.jobStateService, Mockito.times(1)).done(JOB_1_ID);
+        Mockito.verify(this.jobPersistenceService, Mockito.times(1))
+            .updateJobStatus(JOB_1_ID, JobStatus.FAILED, errorMessage);
+        Assert.assertThat(asyncService.getNumPendingSubmissions(), Matchers.is(0));
+    }
+
+    /**
+     * Make sure submissions are rejected without being persisted once the queue is full.
+     *
+     * @throws GenieException If there is any problem
+     */
+    @Test
+    public void cantCoordinateJobAsynchronouslyIfQueueIsFull() throws GenieException {
+        final JobRequest jobRequest
+            = this.getJobRequest(true, Sets.newHashSet(UUID.randomUUID().toString()), null, null);
+        final JobMetadata jobMetadata = this.getJobMetadata();
+        final JobCoordinatorServiceImpl asyncService
+            = this.getAsyncJobCoordinatorService(1, Mockito.mock(Executor.class));
+
+        asyncService.coordinateJob(jobRequest, jobMetadata);
+        try {
+            asyncService.coordinateJob(jobRequest, jobMetadata);
+            Assert.fail();
+        } catch (final GenieServerUnavailableException e) {
+            Mockito.verify(this.jobPersistenceService, Mockito.times(1))
+                .createJob(
+                    Mockito.any(JobRequest.class),
+                    Mockito.any(JobMetadata.class),
+                    Mockito.any(Job.class),
+                    Mockito.any(JobExecution.class)
+                );
+            Assert.assertThat(asyncService.getNumPendingSubmissions(), Matchers.is(1));
+        }
+    }
+
+    /**
+     * Make sure a job which is persisted but then can't be handed to the executor is marked failed.
+     *
+     * @throws GenieException If there is any problem
+     */
+    @Test(expected = GenieServerUnavailableException.class)
+    public void cantCoordinateJobAsynchronouslyIfExecutorRejects() throws GenieException {
+        final JobRequest jobRequest
+            = this.getJobRequest(true, Sets.newHashSet(UUID.randomUUID().toString()), null, null);
+        Mockito.when(this.jobStateService.jobExists(JOB_1_ID)).thenReturn(true);
+        final JobCoordinatorServiceImpl asyncService = this.getAsyncJobCoordinatorService(
+            1,
+            runnable -> {
+                throw new RejectedExecutionException();
+            }
+        );
+
+        try {
+            asyncService.coordinateJob(jobRequest, this.getJobMetadata());
+        } finally {
+            Mockito.verify(this.jobStateService, Mockito.times(1)).done(JOB_1_ID);
+            Mockito.verify(this.jobPersistenceService, Mockito.times(1))
+                .updateJobStatus(Mockito.eq(JOB_1_ID), Mockito.eq(JobStatus.FAILED), Mockito.anyString());
+            Assert.assertThat(asyncService.getNumPendingSubmissions(), Matchers.is(0));
+        }
+    }
+
+    /**
+     * Make sure a batch of jobs is saved in one call and each job gets its own result.
+     *
+     * @throws GenieException If there is any problem
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void canCoordinateJobs() throws GenieException {
+        final String newJobId = UUID.randomUUID().toString();
+        final String existingJobId = UUID.randomUUID().toString();
+        final String failingJobId = UUID.randomUUID().toString();
+        final JobRequest newJob = this.getBatchJobRequest(newJobId);
+        final JobRequest failingJob = this.getBatchJobRequest(failingJobId);
+        final List<JobRequest> jobRequests = Lists.newArrayList(
+            newJob,
+            this.getBatchJobRequest(existingJobId),
+            this.getBatchJobRequest(newJobId),
+            failingJob
+        );
+
+        final Cluster cluster = Mockito.mock(Cluster.class);
+        Mockito.when(cluster.getId()).thenReturn(Optional.of(UUID.randomUUID().toString()));
+        final Command command = Mockito.mock(Command.class);
+        Mockito.when(command.getId()).thenReturn(Optional.of(UUID.randomUUID().toString()));
+        Mockito.when(command.getMemory()).thenReturn(Optional.empty());
+        Mockito.when(command.getCpu()).thenReturn(Optional.empty());
+        Mockito
+            .when(this.jobResolverService.resolveJob(Mockito.any(JobRequest.class)))
+            .thenReturn(new JobResolution(cluster, command, Lists.newArrayList()));
+        Mockito
+            .when(
+                this.jobStateService.admit(
+                    Mockito.eq(newJobId),
+                    Mockito.any(JobRequest.class),
+                    Mockito.anyInt(),
+                    Mockito.anyInt(),
+                    Mockito.anyInt(),
+                    Mockito.anyInt()
+                )
+            )
+            .thenReturn(true);
+        Mockito
+            .when(this.jobPersistenceService.createJobs(Mockito.anyListOf(JobSubmission.class)))
+            .thenReturn(Sets.newHashSet(existingJobId));
+
+        final List<JobSubmissionResult> results
+            = this.jobCoordinatorService.coordinateJobs(jobRequests, this.getJobMetadata());
+
+        Assert.assertThat(results.size(), Matchers.is(4));
+        Assert.assertThat(results.get(0), Matchers.is(JobSubmissionResult.accepted(newJobId)));
+        Assert.assertThat(results.get(1).getId(), Matchers.is(existingJobId));
+        Assert.assertThat(results.get(1).getStatus(), Matchers.is(HttpURLConnection.HTTP_CONFLICT));
+        Assert.assertThat(results.get(2).getId(), Matchers.is(newJobId));
+        Assert.assertThat(results.get(2).getStatus(), Matchers.is(HttpURLConnection.HTTP_CONFLICT));
+        Assert.assertThat(results.get(3).getId(), Matchers.is(failingJobId));
+        Assert.assertThat(results.get(3).getStatus(), Matchers.is(HttpURLConnection.HTTP_UNAVAILABLE));
+        Assert.assertTrue(results.get(3).getMessage().isPresent());
+
+        final ArgumentCaptor<List> submissions = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(this.jobPersistenceService, Mockito.times(1)).createJobs(submissions.capture());
+        Assert.assertThat(submissions.getValue().size(), Matchers.is(3));
+        Mockito.verify(this.jobPersistenceService, Mockito.never())
+            .createJob(
+                Mockito.any(JobRequest.class),
+                Mockito.any(JobMetadata.class),
+                Mockito.any(Job.class),
+                Mockito.any(JobExecution.class)
+            );
+        Mockito.verify(this.jobStateService, Mockito.times(1)).init(newJobId);
+        Mockito.verify(this.jobStateService, Mockito.never()).init(existingJobId);
+        Mockito.verify(this.jobStateService, Mockito.times(1))
+            .schedule(newJobId, newJob, cluster, command, Lists.newArrayList(), MEMORY);
+        Mockito.verify(this.jobStateService, Mockito.never())
+            .schedule(
+                Mockito.eq(failingJobId),
+                Mockito.any(JobRequest.class),
+                Mockito.any(Cluster.class),
+                Mockito.any(Command.class),
+                Mockito.anyListOf(Application.class),
+                Mockito.anyInt()
+            );
+    }
+
+    /**
+     * Make sure jobs in a batch which don't fit in the submission queue are rejected without being saved.
+     *
+     * @throws GenieException If there is any problem
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void canCoordinateJobsAsynchronously() throws GenieException {
+        final String queuedJobId = UUID.randomUUID().toString();
+        final String rejectedJobId = UUID.randomUUID().toString();
+        final List<JobRequest> jobRequests = Lists.newArrayList(
+            this.getBatchJobRequest(queuedJobId),
+            this.getBatchJobRequest(rejectedJobId)
+        );
+        Mockito
+            .when(this.jobPersistenceService.createJobs(Mockito.anyListOf(JobSubmission.class)))
+            .thenReturn(Sets.newHashSet());
+
+        final List<Runnable> submitted = Lists.newArrayList();
+        final JobCoordinatorServiceImpl asyncService = this.getAsyncJobCoordinatorService(1, submitted::add);
+        final List<JobSubmissionResult> results = asyncService.coordinateJobs(jobRequests, this.getJobMetadata());
+
+        Assert.assertThat(results.size(), Matchers.is(2));
+        Assert.assertTrue(results.get(0).isAccepted());
+        Assert.assertThat(results.get(1).getId(), Matchers.is(rejectedJobId));
+        Assert.assertThat(results.get(1).getStatus(), Matchers.is(HttpURLConnection.HTTP_UNAVAILABLE));
+        Assert.assertThat(submitted.size(), Matchers.is(1));
+        Assert.assertThat(asyncService.getNumPendingSubmissions(), Matchers.is(1));
+
+        final ArgumentCaptor<List> submissions = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(this.jobPersistenceService, Mockito.times(1)).createJobs(submissions.capture());
+        Assert.assertThat(submissions.getValue().size(), Matchers.is(1));
+        Mockito.verify(this.jobStateService, Mockito.times(1)).init(queuedJobId);
+        Mockito.verify(this.jobStateService, Mockito.never()).init(rejectedJobId);
+    }
+
+    /**
+     * Make sure the queue places taken by a batch are freed if the batch can't be saved.
+     *
+     * @throws GenieException If there is any problem
+     */
+    @Test(expected = GenieServerException.class)
+    public void cantCoordinateJobsIfBatchCantBeSaved() throws GenieException {
+        final List<JobRequest> jobRequests = Lists.newArrayList(
+            this.getBatchJobRequest(UUID.randomUUID().toString()),
+            this.getBatchJobRequest(UUID.randomUUID().toString())
+        );
+        Mockito
+            .when(this.jobPersistenceService.createJobs(Mockito.anyListOf(JobSubmission.class)))
+            .thenThrow(new GenieServerException("fake"));
+
+        final JobCoordinatorServiceImpl asyncService
+            = this.getAsyncJobCoordinatorService(5, Mockito.mock(Executor.class));
+        try {
+            asyncService.coordinateJobs(jobRequests, this.getJobMetadata());
+        } finally {
+            Assert.assertThat(asyncService.getNumPendingSubmissions(), Matchers.is(0));
+            Mockito.verify(this.jobStateService, Mockito.never()).init(Mockito.anyString());
+        }
+    }
+
     /**
      * Test killing a job without throwing an exception.
      *
@@ -552,6 +970,35 @@ public class JobCoordinatorServiceImplUnitTests {
             .build();
     }
 
+    private JobRequest getBatchJobRequest(final String id) {
+        return new JobRequest.Builder(
+            JOB_1_NAME,
+            JOB_1_USER,
+            JOB_1_VERSION,
+            null,
+            null,
+            Sets.newHashSet(UUID.randomUUID().toString())
+        )
+            .withId(id)
+            .withDisableLogArchival(true)
+            .build();
+    }
+
+    private JobCoordinatorServiceImpl getAsyncJobCoordinatorService(final int queueCapacity, final Executor executor) {
+        this.jobsProperties.getSubmission().setAsyncEnabled(true);
+        this.jobsProperties.getSubmission().setQueueCapacity(queueCapacity);
+        return new JobCoordinatorServiceImpl(
+            this.jobPersistenceService,
+            this.jobKillService,
+            this.jobStateService,
+            this.jobsProperties,
+            this.jobResolverService,
+            this.registry,
+            HOST_NAME,
+            executor
+        );
+    }
+
     private JobMetadata getJobMetadata() {
         return new JobMetadata
             .Builder()
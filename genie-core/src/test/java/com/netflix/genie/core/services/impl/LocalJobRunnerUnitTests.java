@@ -27,12 +27,19 @@ import com.netflix.genie.common.dto.CommandStatus;
 import com.netflix.genie.common.dto.JobRequest;
 import com.netflix.genie.common.exceptions.GenieException;
 import com.netflix.genie.common.exceptions.GenieServerException;
+import com.netflix.genie.core.jobs.JobFileStager;
+import com.netflix.genie.core.jobs.JobConstants;
+import com.netflix.genie.core.jobs.JobFileStaging;
+import com.netflix.genie.core.jobs.JobWorkspaceFactory;
 import com.netflix.genie.core.jobs.workflow.WorkflowTask;
 import com.netflix.genie.core.services.JobPersistenceService;
 import com.netflix.genie.core.services.JobSubmitterService;
 import com.netflix.genie.test.categories.UnitTest;
+import com.netflix.spectator.api.DefaultRegistry;
 import com.netflix.spectator.api.Registry;
 import com.netflix.spectator.api.Timer;
+import org.junit.After;
+import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -41,15 +48,17 @@ import org.junit.rules.TemporaryFolder;
 import org.mockito.Mockito;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.event.ApplicationEventMulticaster;
-import org.springframework.core.io.Resource;
 
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.EnumSet;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * Unit Tests for the Local Job Submitter Impl class.
@@ -79,6 +88,9 @@ public class LocalJobRunnerUnitTests {
 
     private JobSubmitterService jobSubmitterService;
     private WorkflowTask task2;
+    private JobFileStaging staging;
+    private ExecutorService executor;
+    private File jobsDir;
 
     /**
      * Setup for the tests.
@@ -90,29 +102,44 @@ public class LocalJobRunnerUnitTests {
         final ApplicationEventPublisher eventPublisher = Mockito.mock(ApplicationEventPublisher.class);
         final ApplicationEventMulticaster eventMulticaster = Mockito.mock(ApplicationEventMulticaster.class);
         final WorkflowTask task1 = Mockito.mock(WorkflowTask.class);
+        Mockito.when(task1.getDependencies()).thenReturn(Optional.empty());
         this.task2 = Mockito.mock(WorkflowTask.class);
+        Mockito.when(this.task2.getDependencies()).thenReturn(Optional.empty());
 
         final List<WorkflowTask> jobWorkflowTasks = new ArrayList<>();
         jobWorkflowTasks.add(task1);
         jobWorkflowTasks.add(this.task2);
 
-        final File tmpFolder = this.folder.newFolder();
-        final Resource baseWorkingDirResource = Mockito.mock(Resource.class);
-        Mockito.when(baseWorkingDirResource.getFile()).thenReturn(tmpFolder);
+        this.jobsDir = this.folder.newFolder();
 
         final Registry registry = Mockito.mock(Registry.class);
         Mockito.when(registry.timer(Mockito.anyString())).thenReturn(Mockito.mock(Timer.class));
 
+        this.executor = Executors.newSingleThreadExecutor();
+        final JobFileStager fileStager = Mockito.mock(JobFileStager.class);
+        this.staging = Mockito.mock(JobFileStaging.class);
+        Mockito.when(fileStager.forJob(Mockito.anyString())).thenReturn(this.staging);
+
         this.jobSubmitterService = new LocalJobRunner(
             Mockito.mock(JobPersistenceService.class),
             eventPublisher,
             eventMulticaster,
             jobWorkflowTasks,
-            baseWorkingDirResource,
+            this.executor,
+            new JobWorkspaceFactory(this.jobsDir.toPath(), 0, this.executor, new DefaultRegistry()),
+            fileStager,
             registry
         );
     }
 
+    /**
+     * Shut down the workflow executor.
+     */
+    @After
+    public void cleanup() {
+        this.executor.shutdownNow();
+    }
+
     /**
      * Test the submitJob method to check cluster/command info updated for jobs and exception if
      * workflow executor returns false.
@@ -179,6 +206,14 @@ public class LocalJobRunnerUnitTests {
 
         Mockito.doThrow(new IOException("something bad")).when(this.task2).executeTask(Mockito.anyMap());
 
-        this.jobSubmitterService.submitJob(jobRequest, cluster, command, applications, memory);
+        try {
+            this.jobSubmitterService.submitJob(jobRequest, cluster, command, applications, memory);
+        } finally {
+            // Any files still being fetched for the job should be abandoned
+            Mockito.verify(this.staging, Mockito.times(1)).cancel();
+            final File jobDir = new File(this.jobsDir, JOB_1_ID);
+            Assert.assertTrue(new File(jobDir, JobConstants.GENIE_JOB_LAUNCHER_SCRIPT).canExecute());
+            Assert.assertTrue(new File(jobDir, "genie/applications/" + app1 + "/dependencies").isDirectory());
+        }
     }
 }
@@ -18,23 +18,56 @@
 package com.netflix.genie.core.services.impl;
 
 import com.amazonaws.services.s3.AmazonS3Client;
+import com.amazonaws.services.s3.Headers;
+import com.amazonaws.services.s3.model.AbortMultipartUploadRequest;
 import com.amazonaws.services.s3.model.AmazonS3Exception;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadRequest;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadResult;
 import com.amazonaws.services.s3.model.GetObjectRequest;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadRequest;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadResult;
 import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.PartETag;
 import com.amazonaws.services.s3.model.PutObjectResult;
+import com.amazonaws.services.s3.model.S3Object;
+import com.amazonaws.services.s3.model.UploadPartRequest;
+import com.amazonaws.services.s3.model.UploadPartResult;
 import com.netflix.genie.common.exceptions.GenieException;
 import com.netflix.genie.common.exceptions.GenieServerException;
+import com.netflix.genie.core.properties.S3FileTransferProperties;
 import com.netflix.genie.test.categories.UnitTest;
+import com.netflix.spectator.api.Counter;
 import com.netflix.spectator.api.Registry;
 import com.netflix.spectator.api.Timer;
+import org.hamcrest.Matchers;
+import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
+import org.junit.rules.TemporaryFolder;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.io.SequenceInputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -50,12 +83,25 @@ public class S3FileTransferImplUnitTests {
     private static final String S3_BUCKET = "bucket";
     private static final String S3_KEY = "key";
     private static final String S3_PATH = S3_PREFIX + S3_BUCKET + "/" + S3_KEY;
+    private static final String S3_NESTED_KEY = "dir/key";
+    private static final String S3_NESTED_PATH = S3_PREFIX + S3_BUCKET + "/" + S3_NESTED_KEY;
     private static final String LOCAL_PATH = "local";
 
+    private static final String ETAG = "etag";
+
+    /**
+     * Temporary folder for the files transferred.
+     */
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
     private S3FileTransferImpl s3FileTransfer;
     private AmazonS3Client s3Client;
+    private Registry registry;
     private Timer downloadTimer;
     private Timer uploadTimer;
+    private Counter partRetryRate;
+    private ExecutorService executor;
 
     /**
      * Setup the tests.
@@ -64,13 +110,34 @@ public class S3FileTransferImplUnitTests {
      */
     @Before
     public void setup() throws GenieException {
-        final Registry registry = Mockito.mock(Registry.class);
+        this.registry = Mockito.mock(Registry.class);
         this.downloadTimer = Mockito.mock(Timer.class);
-        Mockito.when(registry.timer("genie.files.s3.download.timer")).thenReturn(this.downloadTimer);
+        Mockito.when(this.registry.timer("genie.files.s3.download.timer")).thenReturn(this.downloadTimer);
         this.uploadTimer = Mockito.mock(Timer.class);
-        Mockito.when(registry.timer("genie.files.s3.upload.timer")).thenReturn(this.uploadTimer);
+        Mockito.when(this.registry.timer("genie.files.s3.upload.timer")).thenReturn(this.uploadTimer);
+        Mockito
+            .when(this.registry.timer("genie.files.s3.getObjectMetadata.timer"))
+            .thenReturn(Mockito.mock(Timer.class));
+        Mockito.when(this.registry.counter(Mockito.anyString())).thenReturn(Mockito.mock(Counter.class));
+        this.partRetryRate = Mockito.mock(Counter.class);
+        Mockito.when(this.registry.counter("genie.files.s3.part.retry.rate")).thenReturn(this.partRetryRate);
         this.s3Client = Mockito.mock(AmazonS3Client.class);
-        this.s3FileTransfer = new S3FileTransferImpl(this.s3Client, registry);
+        this.s3FileTransfer = new S3FileTransferImpl(
+            this.s3Client,
+            new S3FileTransferProperties(),
+            Runnable::run,
+            this.registry
+        );
+    }
+
+    /**
+     * Stop the threads transferring parts.
+     */
+    @After
+    public void cleanup() {
+        if (this.executor != null) {
+            this.executor.shutdownNow();
+        }
     }
 
     /**
@@ -139,6 +206,142 @@ public class S3FileTransferImplUnitTests {
             .record(Mockito.anyLong(), Mockito.eq(TimeUnit.NANOSECONDS));
     }
 
+    /**
+     * Test the getFileIfChanged method downloads the file and returns its ETag when no version is given.
+     *
+     * @throws GenieException If there is any problem
+     */
+    @Test
+    public void canGetFileIfChangedWithoutVersion() throws GenieException {
+        this.mockMetadata(1L);
+        final ObjectMetadata objectMetadata = Mockito.mock(ObjectMetadata.class);
+        Mockito.when(this.s3Client.getObject(Mockito.any(GetObjectRequest.class), Mockito.any(File.class)))
+            .thenReturn(objectMetadata);
+        final ArgumentCaptor<GetObjectRequest> argument = ArgumentCaptor.forClass(GetObjectRequest.class);
+
+        Assert.assertEquals(Optional.of(ETAG), s3FileTransfer.getFileIfChanged(S3_NESTED_PATH, LOCAL_PATH, null));
+        Mockito.verify(this.s3Client).getObject(argument.capture(), Mockito.any(File.class));
+        Assert.assertEquals(S3_BUCKET, argument.getValue().getBucketName());
+        Assert.assertEquals(S3_NESTED_KEY, argument.getValue().getKey());
+        Assert.assertEquals(Collections.singletonList(ETAG), argument.getValue().getMatchingETagConstraints());
+        Mockito
+            .verify(this.downloadTimer, Mockito.times(1))
+            .record(Mockito.anyLong(), Mockito.eq(TimeUnit.NANOSECONDS));
+    }
+
+    /**
+     * Test the getFileIfChanged method returns empty without downloading anything when the ETag of the object still
+     * matches the version.
+     *
+     * @throws GenieException If there is any problem
+     */
+    @Test
+    public void canGetFileIfChangedWithCurrentVersion() throws GenieException {
+        this.mockMetadata(1L);
+
+        Assert.assertFalse(s3FileTransfer.getFileIfChanged(S3_NESTED_PATH, LOCAL_PATH, ETAG).isPresent());
+        Mockito
+            .verify(this.s3Client, Mockito.never())
+            .getObject(Mockito.any(GetObjectRequest.class), Mockito.any(File.class));
+    }
+
+    /**
+     * Test the getFile method fails rather than mixing versions when the object changes during the download.
+     *
+     * @throws GenieException If there is any problem
+     */
+    @Test(expected = GenieServerException.class)
+    public void cantGetFileChangedDuringDownload() throws GenieException {
+        this.mockMetadata(1L);
+        Mockito.when(this.s3Client.getObject(Mockito.any(GetObjectRequest.class), Mockito.any(File.class)))
+            .thenReturn(null);
+
+        s3FileTransfer.getFile(S3_NESTED_PATH, LOCAL_PATH);
+    }
+
+    /**
+     * Test large files are downloaded as byte ranges in parallel and reassembled in order.
+     *
+     * @throws Exception If there is any problem
+     */
+    @Test
+    public void canGetFileInParts() throws Exception {
+        final byte[] content = this.createContent(25);
+        final InMemoryS3 s3 = new InMemoryS3(content);
+        final File dst = this.folder.newFile();
+
+        this.createMultipartTransfer().getFile(S3_NESTED_PATH, dst.getPath());
+
+        Assert.assertArrayEquals(content, Files.readAllBytes(dst.toPath()));
+        Assert.assertThat(s3.getRanges().size(), Matchers.is(7));
+        Assert.assertThat(s3.getRanges(), Matchers.hasItems("0-3", "12-15", "24-24"));
+    }
+
+    /**
+     * Test a part whose response breaks off is requested again from the first byte not yet received.
+     *
+     * @throws Exception If there is any problem
+     */
+    @Test
+    public void canResumeFailedPart() throws Exception {
+        final byte[] content = this.createContent(25);
+        final InMemoryS3 s3 = new InMemoryS3(content);
+        s3.failAfter("8-11", 2);
+        final File dst = this.folder.newFile();
+
+        this.createMultipartTransfer().getFile(S3_NESTED_PATH, dst.getPath());
+
+        Assert.assertArrayEquals(content, Files.readAllBytes(dst.toPath()));
+        Assert.assertThat(s3.getRanges(), Matchers.hasItems("8-11", "10-11"));
+        Mockito.verify(this.partRetryRate, Mockito.times(1)).increment();
+    }
+
+    /**
+     * Test large files are uploaded as a multipart upload with the parts in order.
+     *
+     * @throws Exception If there is any problem
+     */
+    @Test
+    public void canPutFileInParts() throws Exception {
+        final byte[] content = this.createContent(25);
+        final InMemoryS3 s3 = new InMemoryS3(null);
+        final File src = this.folder.newFile();
+        Files.write(src.toPath(), content);
+
+        this.createMultipartTransfer().putFile(src.getPath(), S3_NESTED_PATH);
+
+        Assert.assertArrayEquals(content, s3.getContent());
+        Mockito.verify(this.s3Client, Mockito.never()).putObject(Mockito.any(), Mockito.any(), Mockito.any(File.class));
+    }
+
+    /**
+     * Test a multipart upload is aborted once a part fails more often than it is retried.
+     *
+     * @throws Exception If there is any problem
+     */
+    @Test
+    public void canAbortFailedUpload() throws Exception {
+        new InMemoryS3(null);
+        Mockito
+            .doThrow(new AmazonS3Exception("something"))
+            .when(this.s3Client)
+            .uploadPart(Mockito.any(UploadPartRequest.class));
+        final File src = this.folder.newFile();
+        Files.write(src.toPath(), this.createContent(25));
+
+        try {
+            this.createMultipartTransfer().putFile(src.getPath(), S3_NESTED_PATH);
+            Assert.fail("Expected the upload to fail");
+        } catch (final GenieServerException gse) {
+            Mockito
+                .verify(this.s3Client, Mockito.times(1))
+                .abortMultipartUpload(Mockito.any(AbortMultipartUploadRequest.class));
+            Mockito
+                .verify(this.s3Client, Mockito.never())
+                .completeMultipartUpload(Mockito.any(CompleteMultipartUploadRequest.class));
+        }
+    }
+
     /**
      * Test the getFile method for valid s3 path.
      *
@@ -202,4 +405,122 @@ public class S3FileTransferImplUnitTests {
         s3FileTransfer.getFile(LOCAL_PATH, S3_PATH);
         Mockito.verify(this.uploadTimer, Mockito.times(1)).record(Mockito.anyLong(), Mockito.eq(TimeUnit.NANOSECONDS));
     }
+
+    private void mockMetadata(final long size) {
+        final ObjectMetadata metadata = new ObjectMetadata();
+        metadata.setContentLength(size);
+        metadata.setHeader(Headers.ETAG, ETAG);
+        Mockito.when(this.s3Client.getObjectMetadata(S3_BUCKET, S3_NESTED_KEY)).thenReturn(metadata);
+    }
+
+    private byte[] createContent(final int size) {
+        final byte[] content = new byte[size];
+        new Random().nextBytes(content);
+        return content;
+    }
+
+    private S3FileTransferImpl createMultipartTransfer() {
+        final S3FileTransferProperties properties = new S3FileTransferProperties();
+        properties.setMultipartThreshold(10L);
+        properties.setPartSize(4L);
+        this.executor = Executors.newFixedThreadPool(3);
+        return new S3FileTransferImpl(this.s3Client, properties, this.executor, this.registry);
+    }
+
+    /**
+     * A stand-in for S3 backed by the mocked client which holds a single object in memory.
+     */
+    private class InMemoryS3 {
+        private final List<String> ranges = Collections.synchronizedList(new ArrayList<>());
+        private final Map<Integer, byte[]> parts = new ConcurrentHashMap<>();
+        private final Map<String, Integer> failures = new ConcurrentHashMap<>();
+        private byte[] content;
+
+        InMemoryS3(final byte[] content) {
+            this.content = content;
+            if (content != null) {
+                mockMetadata(content.length);
+            }
+            Mockito.when(s3Client.getObject(Mockito.any(GetObjectRequest.class))).thenAnswer(
+                invocation -> this.getObject((GetObjectRequest) invocation.getArguments()[0])
+            );
+            final InitiateMultipartUploadResult initiateResult = new InitiateMultipartUploadResult();
+            initiateResult.setUploadId("upload");
+            Mockito
+                .when(s3Client.initiateMultipartUpload(Mockito.any(InitiateMultipartUploadRequest.class)))
+                .thenReturn(initiateResult);
+            Mockito.when(s3Client.uploadPart(Mockito.any(UploadPartRequest.class))).thenAnswer(
+                invocation -> this.uploadPart((UploadPartRequest) invocation.getArguments()[0])
+            );
+            Mockito
+                .when(s3Client.completeMultipartUpload(Mockito.any(CompleteMultipartUploadRequest.class)))
+                .thenAnswer(
+                    invocation -> this.completeUpload((CompleteMultipartUploadRequest) invocation.getArguments()[0])
+                );
+        }
+
+        List<String> getRanges() {
+            return this.ranges;
+        }
+
+        byte[] getContent() {
+            return this.content;
+        }
+
+        void failAfter(final String range, final int bytes) {
+            this.failures.put(range, bytes);
+        }
+
+        private S3Object getObject(final GetObjectRequest request) {
+            if (!request.getMatchingETagConstraints().contains(ETAG)) {
+                return null;
+            }
+            final int first = (int) request.getRange()[0];
+            final int last = (int) request.getRange()[1];
+            final String range = first + "-" + last;
+            this.ranges.add(range);
+            final Integer failAfter = this.failures.remove(range);
+            final int end = failAfter == null ? last + 1 : first + failAfter;
+            final InputStream body = new SequenceInputStream(
+                new ByteArrayInputStream(Arrays.copyOfRange(this.content, first, end)),
+                failAfter == null ? new ByteArrayInputStream(new byte[0]) : new FailingInputStream()
+            );
+            final S3Object object = new S3Object();
+            object.setObjectContent(body);
+            return object;
+        }
+
+        private UploadPartResult uploadPart(final UploadPartRequest request) throws IOException {
+            final byte[] part = new byte[(int) request.getPartSize()];
+            try (final RandomAccessFile file = new RandomAccessFile(request.getFile(), "r")) {
+                file.seek(request.getFileOffset());
+                file.readFully(part);
+            }
+            this.parts.put(request.getPartNumber(), part);
+            final UploadPartResult result = new UploadPartResult();
+            result.setPartNumber(request.getPartNumber());
+            result.setETag("part" + request.getPartNumber());
+            return result;
+        }
+
+        private CompleteMultipartUploadResult completeUpload(final CompleteMultipartUploadRequest request)
+            throws IOException {
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            for (final PartETag partETag : request.getPartETags()) {
+                out.write(this.parts.get(partETag.getPartNumber()));
+            }
+            this.content = out.toByteArray();
+            return new CompleteMultipartUploadResult();
+        }
+    }
+
+    /**
+     * A response body which breaks off.
+     */
+    private static class FailingInputStream extends InputStream {
+        @Override
+        public int read() throws IOException {
+            throw new IOException("Connection reset");
+        }
+    }
 }
@@ -0,0 +1,125 @@
+-- Normalize the delimited tags column of each entity into its own indexed table so tag searches no longer need
+-- leading wildcard LIKE scans. The tags column is kept as it's still used to build the API resources.
+--
+-- The tag tables only have non unique indexes as the default latin1 collation is case insensitive while tags are
+-- case sensitive.
+--
+-- A single tag can be as long as the tags column of its entity, 2048 characters. The tag indexes only cover the first
+-- 255 characters to stay within the InnoDB index key limit, which still narrows searches down to the matching rows.
+--
+-- On installations with many jobs populating job_tags can take a long time. It can be run during a maintenance window
+-- separately from the rest of this script if needed.
+
+BEGIN;
+SELECT CURRENT_TIMESTAMP AS '', 'Beginning upgrade of Genie schema from version 3.0.0 to 3.1.0' AS '';
+
+-- Helper table with enough numbers to split the longest possible tags column
+SELECT CURRENT_TIMESTAMP AS '', 'Creating tag_numbers helper table...' AS '';
+CREATE TEMPORARY TABLE `tag_numbers` (
+  `n` INT(11) NOT NULL,
+  PRIMARY KEY (`n`)
+);
+INSERT INTO `tag_numbers` (`n`)
+  SELECT `ones`.`d` + 10 * `tens`.`d` + 100 * `hundreds`.`d` + 1
+  FROM
+    (SELECT 0 AS `d` UNION ALL SELECT 1 UNION ALL SELECT 2 UNION ALL SELECT 3 UNION ALL SELECT 4
+     UNION ALL SELECT 5 UNION ALL SELECT 6 UNION ALL SELECT 7 UNION ALL SELECT 8 UNION ALL SELECT 9) AS `ones`,
+    (SELECT 0 AS `d` UNION ALL SELECT 1 UNION ALL SELECT 2 UNION ALL SELECT 3 UNION ALL SELECT 4
+     UNION ALL SELECT 5 UNION ALL SELECT 6 UNION ALL SELECT 7 UNION ALL SELECT 8 UNION ALL SELECT 9) AS `tens`,
+    (SELECT 0 AS `d` UNION ALL SELECT 1 UNION ALL SELECT 2 UNION ALL SELECT 3 UNION ALL SELECT 4
+     UNION ALL SELECT 5 UNION ALL SELECT 6 UNION ALL SELECT 7 UNION ALL SELECT 8 UNION ALL SELECT 9) AS `hundreds`;
+SELECT CURRENT_TIMESTAMP AS '', 'Successfully created tag_numbers helper table.' AS '';
+
+SELECT CURRENT_TIMESTAMP AS '', 'Creating the application_tags table...' AS '';
+CREATE TABLE `application_tags` (
+  `application_id` VARCHAR(255) NOT NULL,
+  `tag` VARCHAR(2048) NOT NULL,
+  KEY `application_id` (`application_id`, `tag`(255)),
+  KEY `APPLICATION_TAGS_TAG_INDEX` (`tag`(255)),
+  FOREIGN KEY (`application_id`) REFERENCES `applications` (`id`) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=latin1;
+SELECT CURRENT_TIMESTAMP AS '', 'Successfully created the application_tags table.' AS '';
+
+SELECT CURRENT_TIMESTAMP AS '', 'Normalizing application tags for 3.1...' AS '';
+INSERT INTO `application_tags` (`application_id`, `tag`)
+  SELECT
+    `e`.`id`,
+    SUBSTRING_INDEX(SUBSTRING_INDEX(SUBSTRING(`e`.`tags`, 2, CHAR_LENGTH(`e`.`tags`) - 2), '||', `n`.`n`), '||', -1)
+  FROM `applications` AS `e`
+    JOIN `tag_numbers` AS `n`
+      ON `n`.`n` <= (CHAR_LENGTH(`e`.`tags`) - CHAR_LENGTH(REPLACE(`e`.`tags`, '||', ''))) / 2 + 1
+  WHERE `e`.`tags` IS NOT NULL AND CHAR_LENGTH(`e`.`tags`) > 2;
+SELECT CURRENT_TIMESTAMP AS '', 'Finished normalizing application tags for 3.1.' AS '';
+
+SELECT CURRENT_TIMESTAMP AS '', 'Creating the cluster_tags table...' AS '';
+CREATE TABLE `cluster_tags` (
+  `cluster_id` VARCHAR(255) NOT NULL,
+  `tag` VARCHAR(2048) NOT NULL,
+  KEY `cluster_id` (`cluster_id`, `tag`(255)),
+  KEY `CLUSTER_TAGS_TAG_INDEX` (`tag`(255)),
+  FOREIGN KEY (`cluster_id`) REFERENCES `clusters` (`id`) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=latin1;
+SELECT CURRENT_TIMESTAMP AS '', 'Successfully created the cluster_tags table.' AS '';
+
+SELECT CURRENT_TIMESTAMP AS '', 'Normalizing cluster tags for 3.1...' AS '';
+INSERT INTO `cluster_tags` (`cluster_id`, `tag`)
+  SELECT
+    `e`.`id`,
+    SUBSTRING_INDEX(SUBSTRING_INDEX(SUBSTRING(`e`.`tags`, 2, CHAR_LENGTH(`e`.`tags`) - 2), '||', `n`.`n`), '||', -1)
+  FROM `clusters` AS `e`
+    JOIN `tag_numbers` AS `n`
+      ON `n`.`n` <= (CHAR_LENGTH(`e`.`tags`) - CHAR_LENGTH(REPLACE(`e`.`tags`, '||', ''))) / 2 + 1
+  WHERE `e`.`tags` IS NOT NULL AND CHAR_LENGTH(`e`.`tags`) > 2;
+SELECT CURRENT_TIMESTAMP AS '', 'Finished normalizing cluster tags for 3.1.' AS '';
+
+SELECT CURRENT_TIMESTAMP AS '', 'Creating the command_tags table...' AS '';
+CREATE TABLE `command_tags` (
+  `command_id` VARCHAR(255) NOT NULL,
+  `tag` VARCHAR(2048) NOT NULL,
+  KEY `command_id` (`command_id`, `tag`(255)),
+  KEY `COMMAND_TAGS_TAG_INDEX` (`tag`(255)),
+  FOREIGN KEY (`command_id`) REFERENCES `commands` (`id`) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=latin1;
+SELECT CURRENT_TIMESTAMP AS '', 'Successfully created the command_tags table.' AS '';
+
+SELECT CURRENT_TIMESTAMP AS '', 'Normalizing command tags for 3.1...' AS '';
+INSERT INTO `command_tags` (`command_id`, `tag`)
+  SELECT
+    `e`.`id`,
+    SUBSTRING_INDEX(SUBSTRING_INDEX(SUBSTRING(`e`.`tags`, 2, CHAR_LENGTH(`e`.`tags`) - 2), '||', `n`.`n`), '||', -1)
+  FROM `commands` AS `e`
+    JOIN `tag_numbers` AS `n`
+      ON `n`.`n` <= (CHAR_LENGTH(`e`.`tags`) - CHAR_LENGTH(REPLACE(`e`.`tags`, '||', ''))) / 2 + 1
+  WHERE `e`.`tags` IS NOT NULL AND CHAR_LENGTH(`e`.`tags`) > 2;
+SELECT CURRENT_TIMESTAMP AS '', 'Finished normalizing command tags for 3.1.' AS '';
+
+SELECT CURRENT_TIMESTAMP AS '', 'Creating the job_tags table...' AS '';
+CREATE TABLE `job_tags` (
+  `job_id` VARCHAR(255) NOT NULL,
+  `tag` VARCHAR(2048) NOT NULL,
+  KEY `job_id` (`job_id`, `tag`(255)),
+  KEY `JOB_TAGS_TAG_INDEX` (`tag`(255)),
+  FOREIGN KEY (`job_id`) REFERENCES `jobs` (`id`) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=latin1;
+SELECT CURRENT_TIMESTAMP AS '', 'Successfully created the job_tags table.' AS '';
+
+SELECT CURRENT_TIMESTAMP AS '', 'Normalizing job tags for 3.1...' AS '';
+INSERT INTO `job_tags` (`job_id`, `tag`)
+  SELECT
+    `e`.`id`,
+    SUBSTRING_INDEX(SUBSTRING_INDEX(SUBSTRING(`e`.`tags`, 2, CHAR_LENGTH(`e`.`tags`) - 2), '||', `n`.`n`), '||', -1)
+  FROM `jobs` AS `e`
+    JOIN `tag_numbers` AS `n`
+      ON `n`.`n` <= (CHAR_LENGTH(`e`.`tags`) - CHAR_LENGTH(REPLACE(`e`.`tags`, '||', ''))) / 2 + 1
+  WHERE `e`.`tags` IS NOT NULL AND CHAR_LENGTH(`e`.`tags`) > 2;
+SELECT CURRENT_TIMESTAMP AS '', 'Finished normalizing job tags for 3.1.' AS '';
+
+DROP TEMPORARY TABLE `tag_numbers`;
+
+SELECT CURRENT_TIMESTAMP AS '', 'Adding the default cpu column to the commands table...' AS '';
+ALTER TABLE `commands` ADD COLUMN `cpu` INT(11) DEFAULT NULL AFTER `memory`;
+SELECT CURRENT_TIMESTAMP AS '', 'Successfully added the default cpu column to the commands table.' AS '';
+
+SELECT CURRENT_TIMESTAMP AS '', 'Finished upgrading Genie schema from version 3.0.0 to 3.1.0' AS '';
+
+COMMIT;
@@ -0,0 +1,86 @@
+-- Normalize the delimited tags column of each entity into its own indexed table so tag searches no longer need
+-- leading wildcard LIKE scans. The tags column is kept as it's still used to build the API resources.
+--
+-- A single tag can be as long as the tags column of its entity, 2048 characters.
+--
+-- On installations with many jobs populating job_tags can take a long time. It can be run during a maintenance window
+-- separately from the rest of this script if needed.
+
+BEGIN;
+SELECT CURRENT_TIMESTAMP, 'Beginning upgrade of Genie schema from version 3.0.0 to 3.1.0';
+
+SELECT CURRENT_TIMESTAMP, 'Creating the application_tags table...';
+CREATE TABLE application_tags (
+  application_id VARCHAR(255) NOT NULL,
+  tag VARCHAR(2048) NOT NULL,
+  PRIMARY KEY (application_id, tag),
+  FOREIGN KEY (application_id) REFERENCES applications (id) ON DELETE CASCADE
+);
+CREATE INDEX APPLICATION_TAGS_TAG_INDEX ON application_tags (tag);
+SELECT CURRENT_TIMESTAMP, 'Successfully created the application_tags table.';
+
+SELECT CURRENT_TIMESTAMP, 'Normalizing application tags for 3.1...';
+INSERT INTO application_tags (application_id, tag)
+  SELECT DISTINCT e.id, t.tag
+  FROM applications e, unnest(string_to_array(substring(e.tags FROM 2 FOR char_length(e.tags) - 2), '||')) AS t(tag)
+  WHERE e.tags IS NOT NULL AND char_length(e.tags) > 2;
+SELECT CURRENT_TIMESTAMP, 'Finished normalizing application tags for 3.1.';
+
+SELECT CURRENT_TIMESTAMP, 'Creating the cluster_tags table...';
+CREATE TABLE cluster_tags (
+  cluster_id VARCHAR(255) NOT NULL,
+  tag VARCHAR(2048) NOT NULL,
+  PRIMARY KEY (cluster_id, tag),
+  FOREIGN KEY (cluster_id) REFERENCES clusters (id) ON DELETE CASCADE
+);
+CREATE INDEX CLUSTER_TAGS_TAG_INDEX ON cluster_tags (tag);
+SELECT CURRENT_TIMESTAMP, 'Successfully created the cluster_tags table.';
+
+SELECT CURRENT_TIMESTAMP, 'Normalizing cluster tags for 3.1...';
+INSERT INTO cluster_tags (cluster_id, tag)
+  SELECT DISTINCT e.id, t.tag
+  FROM clusters e, unnest(string_to_array(substring(e.tags FROM 2 FOR char_length(e.tags) - 2), '||')) AS t(tag)
+  WHERE e.tags IS NOT NULL AND char_length(e.tags) > 2;
+SELECT CURRENT_TIMESTAMP, 'Finished normalizing cluster tags for 3.1.';
+
+SELECT CURRENT_TIMESTAMP, 'Creating the command_tags table...';
+CREATE TABLE command_tags (
+  command_id VARCHAR(255) NOT NULL,
+  tag VARCHAR(2048) NOT NULL,
+  PRIMARY KEY (command_id, tag),
+  FOREIGN KEY (command_id) REFERENCES commands (id) ON DELETE CASCADE
+);
+CREATE INDEX COMMAND_TAGS_TAG_INDEX ON command_tags (tag);
+SELECT CURRENT_TIMESTAMP, 'Successfully created the command_tags table.';
+
+SELECT CURRENT_TIMESTAMP, 'Normalizing command tags for 3.1...';
+INSERT INTO command_tags (command_id, tag)
+  SELECT DISTINCT e.id, t.tag
+  FROM commands e, unnest(string_to_array(substring(e.tags FROM 2 FOR char_length(e.tags) - 2), '||')) AS t(tag)
+  WHERE e.tags IS NOT NULL AND char_length(e.tags) > 2;
+SELECT CURRENT_TIMESTAMP, 'Finished normalizing command tags for 3.1.';
+
+SELECT CURRENT_TIMESTAMP, 'Creating the job_tags table...';
+CREATE TABLE job_tags (
+  job_id VARCHAR(255) NOT NULL,
+  tag VARCHAR(2048) NOT NULL,
+  PRIMARY KEY (job_id, tag),
+  FOREIGN KEY (job_id) REFERENCES jobs (id) ON DELETE CASCADE
+);
+CREATE INDEX JOB_TAGS_TAG_INDEX ON job_tags (tag);
+SELECT CURRENT_TIMESTAMP, 'Successfully created the job_tags table.';
+
+SELECT CURRENT_TIMESTAMP, 'Normalizing job tags for 3.1...';
+INSERT INTO job_tags (job_id, tag)
+  SELECT DISTINCT e.id, t.tag
+  FROM jobs e, unnest(string_to_array(substring(e.tags FROM 2 FOR char_length(e.tags) - 2), '||')) AS t(tag)
+  WHERE e.tags IS NOT NULL AND char_length(e.tags) > 2;
+SELECT CURRENT_TIMESTAMP, 'Finished normalizing job tags for 3.1.';
+
+SELECT CURRENT_TIMESTAMP, 'Adding the default cpu column to the commands table...';
+ALTER TABLE commands ADD COLUMN cpu INTEGER;
+SELECT CURRENT_TIMESTAMP, 'Successfully added the default cpu column to the commands table.';
+
+SELECT CURRENT_TIMESTAMP, 'Finished upgrading Genie schema from version 3.0.0 to 3.1.0';
+
+COMMIT;
@@ -18,6 +18,10 @@
 package com.netflix.genie.web.configs;
 
 import com.netflix.genie.common.exceptions.GenieException;
+import com.netflix.genie.core.jobs.JobFileStager;
+import com.netflix.genie.core.jobs.JobWorkspaceFactory;
+import com.netflix.genie.core.jobs.UserRegistry;
+import com.netflix.genie.core.jobs.launcher.ProcessLauncher;
 import com.netflix.genie.core.jobs.workflow.WorkflowTask;
 import com.netflix.genie.core.jobs.workflow.impl.ApplicationTask;
 import com.netflix.genie.core.jobs.workflow.impl.ClusterTask;
@@ -26,6 +30,8 @@ import com.netflix.genie.core.jobs.workflow.impl.InitialSetupTask;
 import com.netflix.genie.core.jobs.workflow.impl.JobFailureAndKillHandlerLogicTask;
 import com.netflix.genie.core.jobs.workflow.impl.JobKickoffTask;
 import com.netflix.genie.core.jobs.workflow.impl.JobTask;
+import com.netflix.genie.core.properties.FileCacheMaterializationProperties;
+import com.netflix.genie.core.properties.HttpFileTransferProperties;
 import com.netflix.genie.core.properties.JobsProperties;
 import com.netflix.genie.core.services.AttachmentService;
 import com.netflix.genie.core.services.FileTransfer;
@@ -33,14 +39,20 @@ import com.netflix.genie.core.services.impl.GenieFileTransferService;
 import com.netflix.genie.core.services.impl.LocalFileTransferImpl;
 import com.netflix.genie.web.services.impl.HttpFileTransferImpl;
 import com.netflix.spectator.api.Registry;
-import org.apache.commons.exec.Executor;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.annotation.Order;
+import org.springframework.core.io.Resource;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+
 /**
  * Configuration for Jobs Setup and Run.
  *
@@ -60,19 +72,68 @@ public class JobConfig {
         return new LocalFileTransferImpl();
     }
 
+    /**
+     * Get the rest template used to transfer files to and from http[s] locations. Its connection pool is sized so
+     * that every thread staging job files can hold a connection and request bodies are streamed rather than buffered
+     * in memory.
+     *
+     * @param transferProperties The http file transfer properties holding the pool sizes and timeouts
+     * @return The rest template to use for file transfers
+     */
+    @Bean
+    public RestTemplate fileTransferRestTemplate(final HttpFileTransferProperties transferProperties) {
+        final PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(transferProperties.getMaxConnections());
+        connectionManager.setDefaultMaxPerRoute(transferProperties.getMaxConnectionsPerRoute());
+        final HttpComponentsClientHttpRequestFactory factory = new HttpComponentsClientHttpRequestFactory(
+            HttpClients.custom().setConnectionManager(connectionManager).useSystemProperties().build()
+        );
+        factory.setConnectTimeout(transferProperties.getConnectTimeout());
+        factory.setReadTimeout(transferProperties.getReadTimeout());
+        factory.setBufferRequestBody(false);
+        return new RestTemplate(factory);
+    }
+
     /**
      * Bean to create a http[s] file transfer object.
      *
-     * @param restTemplate The rest template to use
-     * @param registry     The registry to use for metrics
+     * @param restTemplate       The rest template to use
+     * @param transferProperties The http file transfer properties to use
+     * @param registry           The registry to use for metrics
      * @return A http implementation of the FileTransferService.
      */
     @Bean(name = {"file.system.http", "file.system.https"})
     @Order(value = 3)
-    public FileTransfer httpFileTransfer(final RestTemplate restTemplate, final Registry registry) {
-        return new HttpFileTransferImpl(restTemplate, registry);
+    public FileTransfer httpFileTransfer(
+        @Qualifier("fileTransferRestTemplate")
+        final RestTemplate restTemplate,
+        final HttpFileTransferProperties transferProperties,
+        final Registry registry
+    ) {
+        return new HttpFileTransferImpl(restTemplate, transferProperties, registry);
     }
 
+    /**
+     * Get the stager used to fetch the setup files, configs and dependencies of each job in parallel.
+     *
+     * @param fileStagingExecutor The executor shared by all jobs to fetch files on
+     * @param jobsProperties      The jobs properties holding the per job concurrency limit
+     * @param registry            The metrics registry to use
+     * @return The job file stager
+     */
+    @Bean
+    public JobFileStager jobFileStager(
+        @Qualifier("fileStagingExecutor")
+        final ExecutorService fileStagingExecutor,
+        final JobsProperties jobsProperties,
+        final Registry registry
+    ) {
+        return new JobFileStager(
+            fileStagingExecutor,
+            jobsProperties.getStaging().getMaxConcurrentFetchesPerJob(),
+            registry
+        );
+    }
 
     /**
      * Create a task that adds logic to handle kill requests to a job.
@@ -101,8 +162,9 @@ public class JobConfig {
     /**
      * Create an Cluster Task bean that processes the cluster needed for a job.
      *
-     * @param registry The metrics registry to use
-     * @param fts      File transfer implementation
+     * @param registry                  The metrics registry to use
+     * @param fts                       File transfer implementation
+     * @param materializationProperties How to place cached files in the job directory
      * @return An cluster task object
      */
     @Bean
@@ -110,15 +172,17 @@ public class JobConfig {
     public WorkflowTask clusterProcessorTask(
         final Registry registry,
         @Qualifier("cacheGenieFileTransferService")
-        final GenieFileTransferService fts) {
-        return new ClusterTask(registry, fts);
+        final GenieFileTransferService fts,
+        final FileCacheMaterializationProperties materializationProperties) {
+        return new ClusterTask(registry, fts, materializationProperties.getClusters());
     }
 
     /**
      * Create an Application Task bean that processes all Applications needed for a job.
      *
-     * @param registry The metrics registry to use
-     * @param fts      File transfer implementation
+     * @param registry                  The metrics registry to use
+     * @param fts                       File transfer implementation
+     * @param materializationProperties How to place cached files in the job directory
      * @return An application task object
      */
     @Bean
@@ -126,15 +190,17 @@ public class JobConfig {
     public WorkflowTask applicationProcessorTask(
         final Registry registry,
         @Qualifier("cacheGenieFileTransferService")
-        final GenieFileTransferService fts) {
-        return new ApplicationTask(registry, fts);
+        final GenieFileTransferService fts,
+        final FileCacheMaterializationProperties materializationProperties) {
+        return new ApplicationTask(registry, fts, materializationProperties.getApplications());
     }
 
     /**
      * Create an Command Task bean that processes the command needed for a job.
      *
-     * @param registry The metrics registry to use
-     * @param fts      File transfer implementation
+     * @param registry                  The metrics registry to use
+     * @param fts                       File transfer implementation
+     * @param materializationProperties How to place cached files in the job directory
      * @return An command task object
      */
     @Bean
@@ -142,8 +208,9 @@ public class JobConfig {
     public WorkflowTask commandProcessorTask(
         final Registry registry,
         @Qualifier("cacheGenieFileTransferService")
-        final GenieFileTransferService fts) {
-        return new CommandTask(registry, fts);
+        final GenieFileTransferService fts,
+        final FileCacheMaterializationProperties materializationProperties) {
+        return new CommandTask(registry, fts, materializationProperties.getCommands());
     }
 
     /**
@@ -167,11 +234,60 @@ public class JobConfig {
         return new JobTask(attachmentService, registry, fts);
     }
 
+    /**
+     * Get the registry which makes sure the users jobs run as exist on this node.
+     *
+     * @param launcher       The launcher to run the system commands with
+     * @param jobsProperties The jobs properties to use
+     * @param registry       The metrics registry to use
+     * @return The user registry
+     */
+    @Bean
+    public UserRegistry userRegistry(
+        final ProcessLauncher launcher,
+        final JobsProperties jobsProperties,
+        final Registry registry
+    ) {
+        return new UserRegistry(
+            launcher,
+            jobsProperties.getUsers().getCacheTtl(),
+            jobsProperties.getUsers().getFailureCacheTtl(),
+            registry
+        );
+    }
+
+    /**
+     * Get the factory which creates the working directory of each job.
+     *
+     * @param jobsDir              The directory the working directories of the jobs are created in
+     * @param jobsProperties       The jobs properties holding the number of working directories to create ahead of time
+     * @param jobWorkspaceExecutor The executor to create the working directories ahead of time on
+     * @param registry             The metrics registry to use
+     * @return The job workspace factory
+     * @throws IOException If the jobs directory can't be resolved
+     */
+    @Bean
+    public JobWorkspaceFactory jobWorkspaceFactory(
+        final Resource jobsDir,
+        final JobsProperties jobsProperties,
+        @Qualifier("jobWorkspaceExecutor")
+        final ExecutorService jobWorkspaceExecutor,
+        final Registry registry
+    ) throws IOException {
+        return new JobWorkspaceFactory(
+            jobsDir.getFile().toPath(),
+            jobsProperties.getWorkspace().getPoolSize(),
+            jobWorkspaceExecutor,
+            registry
+        );
+    }
+
     /**
      * Create an Job Kickoff Task bean that runs the job.
      *
      * @param jobsProperties The various jobs properties
-     * @param executor       An instance of an executor
+     * @param launcher       The launcher to start the job processes with
+     * @param userRegistry   The registry making sure the users jobs run as exist
      * @param hostName       Host on which the job will run
      * @param registry       The metrics registry to use
      * @return An application task object
@@ -181,14 +297,16 @@ public class JobConfig {
     @Autowired
     public WorkflowTask jobKickoffTask(
         final JobsProperties jobsProperties,
-        final Executor executor,
+        final ProcessLauncher launcher,
+        final UserRegistry userRegistry,
         final String hostName,
         final Registry registry
     ) {
         return new JobKickoffTask(
             jobsProperties.getUsers().isRunAsUserEnabled(),
             jobsProperties.getUsers().isCreationEnabled(),
-            executor,
+            launcher,
+            userRegistry,
             hostName,
             registry
         );
@@ -18,7 +18,11 @@
 package com.netflix.genie.web.configs;
 
 import com.netflix.genie.core.properties.DataServiceRetryProperties;
+import com.netflix.genie.core.properties.FileCacheMaterializationProperties;
+import com.netflix.genie.core.properties.FileCacheRevalidationProperties;
+import com.netflix.genie.core.properties.FileCacheWarmupProperties;
 import com.netflix.genie.core.properties.HealthProperties;
+import com.netflix.genie.core.properties.HttpFileTransferProperties;
 import com.netflix.genie.core.properties.JobsProperties;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Bean;
@@ -55,6 +59,50 @@ public class PropertiesConfig {
         return new DataServiceRetryProperties();
     }
 
+    /**
+     * All the properties related to placing files from the local file cache into job directories.
+     *
+     * @return The file cache materialization properties structure
+     */
+    @Bean
+    @ConfigurationProperties("genie.file.cache.materialization")
+    public FileCacheMaterializationProperties fileCacheMaterializationProperties() {
+        return new FileCacheMaterializationProperties();
+    }
+
+    /**
+     * All the properties related to revalidating the files in the local file cache.
+     *
+     * @return The file cache revalidation properties structure
+     */
+    @Bean
+    @ConfigurationProperties("genie.file.cache.revalidation")
+    public FileCacheRevalidationProperties fileCacheRevalidationProperties() {
+        return new FileCacheRevalidationProperties();
+    }
+
+    /**
+     * All the properties related to fetching files into the local file cache ahead of their use.
+     *
+     * @return The file cache warm up properties structure
+     */
+    @Bean
+    @ConfigurationProperties("genie.file.cache.warmup")
+    public FileCacheWarmupProperties fileCacheWarmupProperties() {
+        return new FileCacheWarmupProperties();
+    }
+
+    /**
+     * All the properties related to transferring files to and from http[s] locations.
+     *
+     * @return The http file transfer properties structure
+     */
+    @Bean
+    @ConfigurationProperties("genie.file.http")
+    public HttpFileTransferProperties httpFileTransferProperties() {
+        return new HttpFileTransferProperties();
+    }
+
     /**
      * All the properties related to configuring health threshold properties.
      *
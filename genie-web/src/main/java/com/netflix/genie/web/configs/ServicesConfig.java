@@ -18,6 +18,11 @@
 package com.netflix.genie.web.configs;
 
 import com.netflix.genie.common.exceptions.GenieException;
+import com.netflix.genie.core.jobs.JobFileStager;
+import com.netflix.genie.core.jobs.JobWorkspaceFactory;
+import com.netflix.genie.core.jobs.admission.FairShareJobAdmissionPolicy;
+import com.netflix.genie.core.jobs.admission.FifoJobAdmissionPolicy;
+import com.netflix.genie.core.jobs.admission.JobAdmissionPolicy;
 import com.netflix.genie.core.jobs.workflow.WorkflowTask;
 import com.netflix.genie.core.jpa.repositories.JpaApplicationRepository;
 import com.netflix.genie.core.jpa.repositories.JpaClusterRepository;
@@ -26,11 +31,14 @@ import com.netflix.genie.core.jpa.repositories.JpaJobExecutionRepository;
 import com.netflix.genie.core.jpa.repositories.JpaJobMetadataRepository;
 import com.netflix.genie.core.jpa.repositories.JpaJobRepository;
 import com.netflix.genie.core.jpa.repositories.JpaJobRequestRepository;
+import com.netflix.genie.core.jpa.services.JobResolutionIndex;
 import com.netflix.genie.core.jpa.services.JpaApplicationServiceImpl;
 import com.netflix.genie.core.jpa.services.JpaClusterServiceImpl;
 import com.netflix.genie.core.jpa.services.JpaCommandServiceImpl;
 import com.netflix.genie.core.jpa.services.JpaJobPersistenceServiceImpl;
+import com.netflix.genie.core.jpa.services.JpaJobResolverServiceImpl;
 import com.netflix.genie.core.jpa.services.JpaJobSearchServiceImpl;
+import com.netflix.genie.core.properties.FileCacheRevalidationProperties;
 import com.netflix.genie.core.properties.JobsProperties;
 import com.netflix.genie.core.services.ApplicationService;
 import com.netflix.genie.core.services.AttachmentService;
@@ -42,6 +50,7 @@ import com.netflix.genie.core.services.FileTransferFactory;
 import com.netflix.genie.core.services.JobCoordinatorService;
 import com.netflix.genie.core.services.JobKillService;
 import com.netflix.genie.core.services.JobPersistenceService;
+import com.netflix.genie.core.services.JobResolverService;
 import com.netflix.genie.core.services.JobSearchService;
 import com.netflix.genie.core.services.JobStateService;
 import com.netflix.genie.core.services.JobSubmitterService;
@@ -67,10 +76,10 @@ import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.event.ApplicationEventMulticaster;
-import org.springframework.core.io.Resource;
 import org.springframework.mail.javamail.JavaMailSender;
 
 import java.util.List;
+import java.util.concurrent.ExecutorService;
 
 /**
  * Configuration for all the services.
@@ -108,51 +117,123 @@ public class ServicesConfig {
         return new DefaultMailServiceImpl();
     }
 
+    /**
+     * Get a weighted fair share policy for admitting jobs queued for memory on this node.
+     *
+     * @param jobsProperties The jobs properties to use
+     * @return A fair share admission policy
+     */
+    @Bean
+    @ConditionalOnProperty("genie.jobs.admission.fairShare.enabled")
+    public JobAdmissionPolicy fairShareJobAdmissionPolicy(final JobsProperties jobsProperties) {
+        return new FairShareJobAdmissionPolicy(jobsProperties.getAdmission().getFairShare());
+    }
+
+    /**
+     * Get a first in first out policy for admitting jobs queued for memory if no other policy is supplied.
+     *
+     * @return A first in first out admission policy
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public JobAdmissionPolicy fifoJobAdmissionPolicy() {
+        return new FifoJobAdmissionPolicy();
+    }
+
     /**
      * Get JPA based implementation of the ApplicationService.
      *
      * @param applicationRepo The application repository to use.
      * @param commandRepo     The command repository to use.
+     * @param eventPublisher  The publisher to notify of active applications being created or updated.
      * @return An application service instance.
      */
     @Bean
     public ApplicationService applicationService(
         final JpaApplicationRepository applicationRepo,
-        final JpaCommandRepository commandRepo
+        final JpaCommandRepository commandRepo,
+        final ApplicationEventPublisher eventPublisher
     ) {
-        return new JpaApplicationServiceImpl(applicationRepo, commandRepo);
+        return new JpaApplicationServiceImpl(applicationRepo, commandRepo, eventPublisher);
     }
 
     /**
      * Get JPA based implementation of the ClusterService.
      *
-     * @param clusterRepo The cluster repository to use.
-     * @param commandRepo The command repository to use.
+     * @param clusterRepo     The cluster repository to use.
+     * @param commandRepo     The command repository to use.
+     * @param resolutionIndex The resolution index to keep up to date with cluster changes.
+     * @param eventPublisher  The publisher to notify of up clusters being created or updated.
      * @return A cluster service instance.
      */
     @Bean
     public ClusterService clusterService(
         final JpaClusterRepository clusterRepo,
-        final JpaCommandRepository commandRepo
+        final JpaCommandRepository commandRepo,
+        final JobResolutionIndex resolutionIndex,
+        final ApplicationEventPublisher eventPublisher
     ) {
-        return new JpaClusterServiceImpl(clusterRepo, commandRepo);
+        return new JpaClusterServiceImpl(clusterRepo, commandRepo, resolutionIndex, eventPublisher);
     }
 
     /**
      * Get JPA based implementation of the CommandService.
      *
-     * @param commandRepo the command repository to use
-     * @param appRepo     the application repository to use
-     * @param clusterRepo the cluster repository to use
+     * @param commandRepo     the command repository to use
+     * @param appRepo         the application repository to use
+     * @param clusterRepo     the cluster repository to use
+     * @param resolutionIndex the resolution index to keep up to date with command changes
+     * @param eventPublisher  the publisher to notify of active commands being created or updated
      * @return A command service instance.
      */
     @Bean
     public CommandService commandService(
         final JpaCommandRepository commandRepo,
         final JpaApplicationRepository appRepo,
-        final JpaClusterRepository clusterRepo
+        final JpaClusterRepository clusterRepo,
+        final JobResolutionIndex resolutionIndex,
+        final ApplicationEventPublisher eventPublisher
     ) {
-        return new JpaCommandServiceImpl(commandRepo, appRepo, clusterRepo);
+        return new JpaCommandServiceImpl(commandRepo, appRepo, clusterRepo, resolutionIndex, eventPublisher);
+    }
+
+    /**
+     * Get JPA based implementation of the JobResolverService.
+     *
+     * @param clusterRepo         The cluster repository to use
+     * @param applicationRepo     The application repository to use
+     * @param clusterLoadBalancer Implementation of the cluster load balancer interface
+     * @param resolutionIndex     The in memory index to find candidate clusters with
+     * @return A job resolver service instance.
+     */
+    @Bean
+    public JobResolverService jobResolverService(
+        final JpaClusterRepository clusterRepo,
+        final JpaApplicationRepository applicationRepo,
+        final ClusterLoadBalancer clusterLoadBalancer,
+        final JobResolutionIndex resolutionIndex
+    ) {
+        return new JpaJobResolverServiceImpl(clusterRepo, applicationRepo, clusterLoadBalancer, resolutionIndex);
+    }
+
+    /**
+     * Get the node local index of cluster and command tags used to resolve jobs without tag queries.
+     *
+     * @param clusterRepo The cluster repository to build the index from
+     * @param commandRepo The command repository to build the index from
+     * @param enabled     Whether the index should be built and used
+     * @param registry    The metrics registry to use
+     * @return The job resolution index
+     */
+    @Bean
+    public JobResolutionIndex jobResolutionIndex(
+        final JpaClusterRepository clusterRepo,
+        final JpaCommandRepository commandRepo,
+        @Value("${genie.jobs.resolution.index.enabled:false}")
+        final boolean enabled,
+        final Registry registry
+    ) {
+        return new JobResolutionIndex(clusterRepo, commandRepo, enabled, registry);
     }
 
     /**
@@ -269,23 +350,43 @@ public class ServicesConfig {
     /**
      * Get an instance of the Cache Genie File Transfer service.
      *
-     * @param fileTransferFactory file transfer implementation factory
-     * @param baseCacheLocation   file cache location
-     * @param localFileTransfer   local file transfer service
-     * @param registry            Registry
-     * @return A singleton for GenieFileTransferService
+     * @param fileTransferFactory    file transfer implementation factory
+     * @param baseCacheLocation      file cache location
+     * @param maxCacheSize           maximum total size in bytes of the cached files
+     * @param revalidationProperties properties controlling when cached files are revalidated
+     * @param fetchWaitTimeout       milliseconds to wait for another job fetching the same file before failing
+     * @param localFileTransfer      local file transfer service
+     * @param fileStagingExecutor    executor to revalidate cached files ahead of their ttl on
+     * @param registry               Registry
+     * @return A singleton for CacheGenieFileTransferService
      * @throws GenieException If there is any problem
      */
     @Bean
-    public GenieFileTransferService cacheGenieFileTransferService(
+    public CacheGenieFileTransferService cacheGenieFileTransferService(
         final FileTransferFactory fileTransferFactory,
         @Value("${genie.file.cache.location}")
         final String baseCacheLocation,
+        @Value("${genie.file.cache.maxSize}")
+        final long maxCacheSize,
+        final FileCacheRevalidationProperties revalidationProperties,
+        @Value("${genie.file.cache.fetchWaitTimeout}")
+        final long fetchWaitTimeout,
         @Qualifier("file.system.file")
         final FileTransfer localFileTransfer,
+        @Qualifier("fileStagingExecutor")
+        final ExecutorService fileStagingExecutor,
         final Registry registry
     ) throws GenieException {
-        return new CacheGenieFileTransferService(fileTransferFactory, baseCacheLocation, localFileTransfer, registry);
+        return new CacheGenieFileTransferService(
+            fileTransferFactory,
+            baseCacheLocation,
+            maxCacheSize,
+            revalidationProperties,
+            fetchWaitTimeout,
+            localFileTransfer,
+            fileStagingExecutor,
+            registry
+        );
     }
 
     /**
@@ -295,7 +396,9 @@ public class ServicesConfig {
      * @param eventPublisher        Instance of the synchronous event publisher.
      * @param eventMulticaster      Instance of the asynchronous event publisher.
      * @param workflowTasks         List of all the workflow tasks to be executed.
-     * @param genieWorkingDir       Working directory for genie where it creates jobs directories.
+     * @param workflowExecutor      The executor to run the workflow tasks on.
+     * @param workspaceFactory      The factory to create the working directory of each job with.
+     * @param jobFileStager         The stager to fetch the files of each job with.
      * @param registry              The metrics registry to use
      * @return An instance of the JobSubmitterService.
      */
@@ -305,7 +408,10 @@ public class ServicesConfig {
         final ApplicationEventPublisher eventPublisher,
         final ApplicationEventMulticaster eventMulticaster,
         final List<WorkflowTask> workflowTasks,
-        final Resource genieWorkingDir,
+        @Qualifier("workflowExecutor")
+        final ExecutorService workflowExecutor,
+        final JobWorkspaceFactory workspaceFactory,
+        final JobFileStager jobFileStager,
         final Registry registry
     ) {
         return new LocalJobRunner(
@@ -313,7 +419,9 @@ public class ServicesConfig {
             eventPublisher,
             eventMulticaster,
             workflowTasks,
-            genieWorkingDir,
+            workflowExecutor,
+            workspaceFactory,
+            jobFileStager,
             registry
         );
     }
@@ -325,12 +433,10 @@ public class ServicesConfig {
      * @param jobKillService        The job kill service to use
      * @param jobStateService     The running job metrics service to use
      * @param jobsProperties        The jobs properties to use
-     * @param applicationService    Implementation of application service interface
-     * @param clusterService        Implementation of cluster service interface
-     * @param commandService        Implementation of command service interface
-     * @param clusterLoadBalancer   Implementation of the cluster load balancer interface
+     * @param jobResolverService    Implementation of the job resolver service interface
      * @param registry              The metrics registry to use
      * @param hostName              The host this Genie instance is running on
+     * @param jobSubmissionExecutor The executor asynchronously submitted jobs are launched on
      * @return An instance of the JobCoordinatorService.
      */
     @Bean
@@ -340,24 +446,21 @@ public class ServicesConfig {
         @Qualifier("jobMonitoringCoordinator")
         final JobStateService jobStateService,
         final JobsProperties jobsProperties,
-        final ApplicationService applicationService,
-        final ClusterService clusterService,
-        final CommandService commandService,
-        final ClusterLoadBalancer clusterLoadBalancer,
+        final JobResolverService jobResolverService,
         final Registry registry,
-        final String hostName
+        final String hostName,
+        @Qualifier("jobSubmissionExecutor")
+        final ExecutorService jobSubmissionExecutor
     ) {
         return new JobCoordinatorServiceImpl(
             jobPersistenceService,
             jobKillService,
             jobStateService,
             jobsProperties,
-            applicationService,
-            clusterService,
-            commandService,
-            clusterLoadBalancer,
+            jobResolverService,
             registry,
-            hostName
+            hostName,
+            jobSubmissionExecutor
         );
     }
 
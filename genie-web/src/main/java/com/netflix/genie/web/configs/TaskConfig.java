@@ -17,6 +17,14 @@
  */
 package com.netflix.genie.web.configs;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.netflix.genie.core.properties.FileCacheWarmupProperties;
+import com.netflix.genie.core.jobs.launcher.DaemonProcessLauncher;
+import com.netflix.genie.core.jobs.launcher.LocalProcessLauncher;
+import com.netflix.genie.core.jobs.launcher.ProcessLauncher;
+import com.netflix.genie.core.properties.JobsLauncherProperties;
+import com.netflix.genie.core.properties.JobsProperties;
+import com.netflix.spectator.api.Registry;
 import org.apache.commons.exec.DefaultExecutor;
 import org.apache.commons.exec.Executor;
 import org.apache.commons.exec.PumpStreamHandler;
@@ -31,6 +39,12 @@ import org.springframework.scheduling.TaskScheduler;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
 /**
  * Configuration of beans for asynchronous tasks within Genie.
  *
@@ -52,6 +66,36 @@ public class TaskConfig {
         return executor;
     }
 
+    /**
+     * Get the {@link ProcessLauncher} jobs are launched with. When the launcher daemon is enabled processes are forked
+     * by a small helper JVM instead of this one, falling back to launching them locally if the daemon fails.
+     *
+     * @param executor       The executor to launch processes locally with
+     * @param jobsProperties The jobs properties to use
+     * @param registry       The metrics registry to use
+     * @return The process launcher to use
+     */
+    @Bean
+    public ProcessLauncher processLauncher(
+        final Executor executor,
+        final JobsProperties jobsProperties,
+        final Registry registry
+    ) {
+        final ProcessLauncher localLauncher = new LocalProcessLauncher(executor, registry);
+        final JobsLauncherProperties launcherProperties = jobsProperties.getLauncher();
+        if (launcherProperties.isDaemonEnabled()) {
+            return new DaemonProcessLauncher(
+                localLauncher,
+                launcherProperties.getDaemonJavaOptions(),
+                launcherProperties.getRequestTimeout(),
+                launcherProperties.getRunTimeout(),
+                registry
+            );
+        } else {
+            return localLauncher;
+        }
+    }
+
     /**
      * A multicast (async) event publisher to replace the synchronous one used by Spring via the ApplicationContext.
      *
@@ -90,4 +134,103 @@ public class TaskConfig {
         executor.setCorePoolSize(poolSize);
         return executor;
     }
+
+    /**
+     * Get the executor asynchronously submitted jobs are resolved and scheduled on. Threads are only started once
+     * the first job is submitted so this costs nothing while asynchronous submission is disabled.
+     *
+     * @param jobsProperties The jobs properties holding the pool size and queue capacity to use
+     * @return The executor service to use for job submissions
+     */
+    @Bean
+    public ExecutorService jobSubmissionExecutor(final JobsProperties jobsProperties) {
+        final int poolSize = jobsProperties.getSubmission().getPoolSize();
+        return new ThreadPoolExecutor(
+            poolSize,
+            poolSize,
+            0L,
+            TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(jobsProperties.getSubmission().getQueueCapacity()),
+            new ThreadFactoryBuilder().setNameFormat("genie-job-submission-%d").setDaemon(true).build()
+        );
+    }
+
+    /**
+     * Get the executor shared by all jobs to fetch their setup files, configs and dependencies on. The queue isn't
+     * bounded as each job only ever has a limited number of fetches queued or running at once.
+     *
+     * @param jobsProperties The jobs properties holding the pool size to use
+     * @return The executor service to use for staging job files
+     */
+    @Bean
+    public ExecutorService fileStagingExecutor(final JobsProperties jobsProperties) {
+        final int poolSize = jobsProperties.getStaging().getPoolSize();
+        return new ThreadPoolExecutor(
+            poolSize,
+            poolSize,
+            0L,
+            TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<>(),
+            new ThreadFactoryBuilder().setNameFormat("genie-file-staging-%d").setDaemon(true).build()
+        );
+    }
+
+    /**
+     * Get the executor files are fetched into the local file cache ahead of their use on. Threads are only started
+     * once the first file is fetched so this costs nothing while warm up is disabled.
+     *
+     * @param warmupProperties The file cache warm up properties holding the number of files to fetch at once
+     * @return The executor service to use for warming up the file cache
+     */
+    @Bean
+    public ExecutorService fileCacheWarmupExecutor(final FileCacheWarmupProperties warmupProperties) {
+        final int poolSize = warmupProperties.getConcurrency();
+        return new ThreadPoolExecutor(
+            poolSize,
+            poolSize,
+            0L,
+            TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<>(),
+            new ThreadFactoryBuilder().setNameFormat("genie-file-cache-warmup-%d").setDaemon(true).build()
+        );
+    }
+
+    /**
+     * Get the executor shared by all jobs to run the workflow tasks which set up each job on. The queue isn't bounded
+     * as each job only ever has as many tasks queued as are in its workflow.
+     *
+     * @param jobsProperties The jobs properties holding the pool size to use
+     * @return The executor service to use for running job workflows
+     */
+    @Bean
+    public ExecutorService workflowExecutor(final JobsProperties jobsProperties) {
+        final int poolSize = jobsProperties.getWorkflow().getPoolSize();
+        return new ThreadPoolExecutor(
+            poolSize,
+            poolSize,
+            0L,
+            TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<>(),
+            new ThreadFactoryBuilder().setNameFormat("genie-job-workflow-%d").setDaemon(true).build()
+        );
+    }
+
+    /**
+     * Get the executor the working directories of jobs are created ahead of time on. A single thread is enough as
+     * creating a working directory only takes a handful of system calls. The thread is only started if working
+     * directories are created ahead of time at all.
+     *
+     * @return The executor service to use for creating job working directories ahead of time
+     */
+    @Bean
+    public ExecutorService jobWorkspaceExecutor() {
+        return new ThreadPoolExecutor(
+            1,
+            1,
+            0L,
+            TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<>(),
+            new ThreadFactoryBuilder().setNameFormat("genie-job-workspace-%d").setDaemon(true).build()
+        );
+    }
 }
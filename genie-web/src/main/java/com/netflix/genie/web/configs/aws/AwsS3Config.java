@@ -23,19 +23,28 @@ import com.amazonaws.auth.ClasspathPropertiesFileCredentialsProvider;
 import com.amazonaws.auth.STSAssumeRoleSessionCredentialsProvider;
 import com.amazonaws.retry.PredefinedRetryPolicies;
 import com.amazonaws.services.s3.AmazonS3Client;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.netflix.genie.common.exceptions.GenieException;
+import com.netflix.genie.core.properties.S3FileTransferProperties;
 import com.netflix.genie.core.services.FileTransfer;
 import com.netflix.genie.core.services.impl.S3FileTransferImpl;
 import com.netflix.spectator.api.Registry;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
 import org.springframework.core.annotation.Order;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
 /**
  * Beans and configuration specifically for S3 connection on AWS.
  *
@@ -98,11 +107,44 @@ public class AwsS3Config {
         return new AmazonS3Client(awsCredentialsProvider, clientConfiguration);
     }
 
+    /**
+     * All the properties related to transferring files to and from S3.
+     *
+     * @return The S3 file transfer properties structure
+     */
+    @Bean
+    @ConfigurationProperties("genie.aws.s3.transfer")
+    public S3FileTransferProperties s3FileTransferProperties() {
+        return new S3FileTransferProperties();
+    }
+
+    /**
+     * Get the executor shared by all S3 transfers to transfer the parts of large files on. The queue isn't bounded as
+     * each transfer queues one task per part.
+     *
+     * @param transferProperties The S3 file transfer properties holding the pool size to use
+     * @return The executor service to use for transferring parts
+     */
+    @Bean
+    public ExecutorService s3TransferExecutor(final S3FileTransferProperties transferProperties) {
+        final int poolSize = transferProperties.getPoolSize();
+        return new ThreadPoolExecutor(
+            poolSize,
+            poolSize,
+            0L,
+            TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<>(),
+            new ThreadFactoryBuilder().setNameFormat("genie-s3-transfer-%d").setDaemon(true).build()
+        );
+    }
+
     /**
      * Returns a bean which has an s3 implementation of the File Transfer interface.
      *
-     * @param s3Client S3 client to initialize the service
-     * @param registry The metrics registry to use
+     * @param s3Client           S3 client to initialize the service
+     * @param transferProperties The properties controlling multipart transfers
+     * @param s3TransferExecutor The executor to transfer the parts of large files on
+     * @param registry           The metrics registry to use
      * @return An s3 implementation of the FileTransfer interface
      * @throws GenieException if there is any problem
      */
@@ -111,8 +153,11 @@ public class AwsS3Config {
     @ConditionalOnBean(AmazonS3Client.class)
     public FileTransfer s3FileTransferImpl(
         final AmazonS3Client s3Client,
+        final S3FileTransferProperties transferProperties,
+        @Qualifier("s3TransferExecutor")
+        final ExecutorService s3TransferExecutor,
         final Registry registry
     ) throws GenieException {
-        return new S3FileTransferImpl(s3Client, registry);
+        return new S3FileTransferImpl(s3Client, transferProperties, s3TransferExecutor, registry);
     }
 }
@@ -25,11 +25,13 @@ import com.netflix.genie.common.exceptions.GeniePreconditionException;
 import com.netflix.genie.common.exceptions.GenieServerException;
 import com.netflix.genie.common.exceptions.GenieServerUnavailableException;
 import com.netflix.genie.common.exceptions.GenieTimeoutException;
+import com.netflix.genie.core.properties.JobsProperties;
 import com.netflix.genie.core.util.MetricsConstants;
 import com.netflix.spectator.api.Counter;
 import com.netflix.spectator.api.Registry;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -60,14 +62,17 @@ public class GenieExceptionMapper {
     private final Counter timeoutRate;
     private final Counter genieRate;
     private final Counter constraintViolationRate;
+    private final JobsProperties jobsProperties;
 
     /**
      * Constructor.
      *
-     * @param registry The metrics registry
+     * @param registry       The metrics registry
+     * @param jobsProperties The jobs properties holding how long clients should wait before retrying when unavailable
      */
     @Autowired
-    public GenieExceptionMapper(final Registry registry) {
+    public GenieExceptionMapper(final Registry registry, final JobsProperties jobsProperties) {
+        this.jobsProperties = jobsProperties;
         this.badRequestRate = registry.counter(MetricsConstants.GENIE_EXCEPTIONS_BAD_REQUEST_RATE);
         this.conflictRate = registry.counter(MetricsConstants.GENIE_EXCEPTIONS_CONFLICT_RATE);
         this.notFoundRate = registry.counter(MetricsConstants.GENIE_EXCEPTIONS_NOT_FOUND_RATE);
@@ -103,6 +108,10 @@ public class GenieExceptionMapper {
             this.serverRate.increment();
         } else if (e instanceof GenieServerUnavailableException) {
             this.serverUnavailableRate.increment();
+            response.setHeader(
+                HttpHeaders.RETRY_AFTER,
+                Integer.toString(this.jobsProperties.getSubmission().getRetryAfter())
+            );
         } else if (e instanceof GenieTimeoutException) {
             this.timeoutRate.increment();
         } else {
@@ -23,7 +23,9 @@ import com.google.common.io.ByteStreams;
 import com.netflix.genie.common.dto.JobMetadata;
 import com.netflix.genie.common.dto.JobRequest;
 import com.netflix.genie.common.dto.JobStatus;
+import com.netflix.genie.common.dto.JobSubmissionResult;
 import com.netflix.genie.common.dto.search.JobSearchResult;
+import com.netflix.genie.common.exceptions.GenieConflictException;
 import com.netflix.genie.common.exceptions.GenieException;
 import com.netflix.genie.common.exceptions.GeniePreconditionException;
 import com.netflix.genie.common.exceptions.GenieServerException;
@@ -90,6 +92,7 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.EnumSet;
 import java.util.Enumeration;
@@ -133,6 +136,8 @@ public class JobRestController {
     // Metrics
     private final Counter submitJobWithoutAttachmentsRate;
     private final Counter submitJobWithAttachmentsRate;
+    private final Counter submitJobBatchRate;
+    private final Counter submitJobDuplicateRate;
 
     /**
      * Constructor.
@@ -190,6 +195,8 @@ public class JobRestController {
         // Set up the metrics
         this.submitJobWithoutAttachmentsRate = registry.counter("genie.api.v3.jobs.submitJobWithoutAttachments.rate");
         this.submitJobWithAttachmentsRate = registry.counter("genie.api.v3.jobs.submitJobWithAttachments.rate");
+        this.submitJobBatchRate = registry.counter("genie.api.v3.jobs.submitJobBatch.rate");
+        this.submitJobDuplicateRate = registry.counter("genie.api.v3.jobs.submitJobDuplicate.rate");
     }
 
     /**
@@ -260,47 +267,21 @@ public class JobRestController {
             throw new GeniePreconditionException("No job request entered. Unable to submit.");
         }
 
-        // get client's host from the context
-        final String localClientHost;
-        if (StringUtils.isNotBlank(clientHost)) {
-            localClientHost = clientHost.split(",")[0];
-        } else {
-            localClientHost = httpServletRequest.getRemoteAddr();
+        // Clients retrying a submission resend the same id. Reject those before any attachments are written
+        // Blank ids are treated as absent and given a generated id below
+        final Optional<String> requestedId = jobRequest.getId().filter(StringUtils::isNotBlank);
+        if (requestedId.isPresent() && this.jobSearchService.jobExists(requestedId.get())) {
+            this.submitJobDuplicateRate.increment();
+            throw new GenieConflictException("A job with id " + requestedId.get() + " already exists");
         }
 
-        final JobRequest jobRequestWithId;
-        // If the job request does not contain an id create one else use the one provided.
-        final String jobId;
-        final Optional<String> jobIdOptional = jobRequest.getId();
-        if (jobIdOptional.isPresent() && StringUtils.isNotBlank(jobIdOptional.get())) {
-            jobId = jobIdOptional.get();
-            jobRequestWithId = jobRequest;
-        } else {
-            jobId = UUID.randomUUID().toString();
-            final JobRequest.Builder builder = new JobRequest.Builder(
-                jobRequest.getName(),
-                jobRequest.getUser(),
-                jobRequest.getVersion(),
-                jobRequest.getCommandArgs(),
-                jobRequest.getClusterCriterias(),
-                jobRequest.getCommandCriteria()
-            )
-                .withId(jobId)
-                .withDisableLogArchival(jobRequest.isDisableLogArchival())
-                .withTags(jobRequest.getTags())
-                .withDependencies(jobRequest.getDependencies())
-                .withApplications(jobRequest.getApplications());
-
-            jobRequest.getCpu().ifPresent(builder::withCpu);
-            jobRequest.getMemory().ifPresent(builder::withMemory);
-            jobRequest.getGroup().ifPresent(builder::withGroup);
-            jobRequest.getSetupFile().ifPresent(builder::withSetupFile);
-            jobRequest.getDescription().ifPresent(builder::withDescription);
-            jobRequest.getEmail().ifPresent(builder::withEmail);
-            jobRequest.getTimeout().ifPresent(builder::withTimeout);
-
-            jobRequestWithId = builder.build();
-        }
+        // get client's host from the context
+        final String localClientHost = this.getClientHost(clientHost, httpServletRequest);
+
+        final JobRequest jobRequestWithId = this.getJobRequestWithId(jobRequest);
+        final String jobId = jobRequestWithId
+            .getId()
+            .orElseThrow(() -> new GenieServerException("Id of the jobRequest cannot be null"));
 
         // Download attachments
         int numAttachments = 0;
@@ -341,6 +322,105 @@ public class JobRestController {
         return new ResponseEntity<>(httpHeaders, HttpStatus.ACCEPTED);
     }
 
+    /**
+     * Submit a batch of new jobs. The initial information of all the jobs is saved together. The response has the
+     * outcome of each job in the same order as the requests so jobs which couldn't be accepted can be resubmitted
+     * individually.
+     *
+     * @param jobRequests        The job requests to submit
+     * @param clientHost         client host sending the request
+     * @param userAgent          The user agent string
+     * @param httpServletRequest The http servlet request
+     * @return The id and status of each submitted job
+     * @throws GenieException For any error which affects the whole batch
+     */
+    @RequestMapping(
+        value = "/batch",
+        method = RequestMethod.POST,
+        consumes = MediaType.APPLICATION_JSON_VALUE,
+        produces = MediaType.APPLICATION_JSON_VALUE
+    )
+    @ResponseStatus(HttpStatus.OK)
+    public List<JobSubmissionResult> submitJobs(
+        @RequestBody
+        final List<JobRequest> jobRequests,
+        @RequestHeader(value = FORWARDED_FOR_HEADER, required = false)
+        final String clientHost,
+        @RequestHeader(value = HttpHeaders.USER_AGENT, required = false)
+        final String userAgent,
+        final HttpServletRequest httpServletRequest
+    ) throws GenieException {
+        log.info("[submitJobs] Called to submit a batch of jobs");
+        this.submitJobBatchRate.increment();
+        if (jobRequests == null || jobRequests.isEmpty()) {
+            throw new GeniePreconditionException("No job requests entered. Unable to submit.");
+        }
+        final int maxBatchSize = this.jobsProperties.getSubmission().getMaxBatchSize();
+        if (jobRequests.size() > maxBatchSize) {
+            throw new GeniePreconditionException(
+                "Batch of " + jobRequests.size() + " jobs is larger than the maximum of " + maxBatchSize
+            );
+        }
+
+        final List<JobRequest> jobRequestsWithIds = new ArrayList<>(jobRequests.size());
+        for (final JobRequest jobRequest : jobRequests) {
+            if (jobRequest == null) {
+                throw new GeniePreconditionException("Batch contains an empty job request. Unable to submit.");
+            }
+            jobRequestsWithIds.add(this.getJobRequestWithId(jobRequest));
+        }
+
+        final JobMetadata metadata = new JobMetadata
+            .Builder()
+            .withClientHost(this.getClientHost(clientHost, httpServletRequest))
+            .withUserAgent(userAgent)
+            .withNumAttachments(0)
+            .withTotalSizeOfAttachments(0L)
+            .build();
+
+        return this.jobCoordinatorService.coordinateJobs(jobRequestsWithIds, metadata);
+    }
+
+    private String getClientHost(final String clientHost, final HttpServletRequest httpServletRequest) {
+        if (StringUtils.isNotBlank(clientHost)) {
+            return clientHost.split(",")[0];
+        } else {
+            return httpServletRequest.getRemoteAddr();
+        }
+    }
+
+    private JobRequest getJobRequestWithId(final JobRequest jobRequest) {
+        // If the job request does not contain an id create one else use the one provided.
+        final Optional<String> jobIdOptional = jobRequest.getId();
+        if (jobIdOptional.isPresent() && StringUtils.isNotBlank(jobIdOptional.get())) {
+            return jobRequest;
+        }
+
+        final JobRequest.Builder builder = new JobRequest.Builder(
+            jobRequest.getName(),
+            jobRequest.getUser(),
+            jobRequest.getVersion(),
+            jobRequest.getCommandArgs(),
+            jobRequest.getClusterCriterias(),
+            jobRequest.getCommandCriteria()
+        )
+            .withId(UUID.randomUUID().toString())
+            .withDisableLogArchival(jobRequest.isDisableLogArchival())
+            .withTags(jobRequest.getTags())
+            .withDependencies(jobRequest.getDependencies())
+            .withApplications(jobRequest.getApplications());
+
+        jobRequest.getCpu().ifPresent(builder::withCpu);
+        jobRequest.getMemory().ifPresent(builder::withMemory);
+        jobRequest.getGroup().ifPresent(builder::withGroup);
+        jobRequest.getSetupFile().ifPresent(builder::withSetupFile);
+        jobRequest.getDescription().ifPresent(builder::withDescription);
+        jobRequest.getEmail().ifPresent(builder::withEmail);
+        jobRequest.getTimeout().ifPresent(builder::withTimeout);
+
+        return builder.build();
+    }
+
     /**
      * Get job information for given job id.
      *
@@ -20,30 +20,46 @@ package com.netflix.genie.web.services.impl;
 import com.google.common.collect.Lists;
 import com.netflix.genie.common.exceptions.GenieException;
 import com.netflix.genie.common.exceptions.GenieServerException;
+import com.netflix.genie.core.properties.HttpFileTransferProperties;
 import com.netflix.genie.core.services.FileTransfer;
+import com.netflix.spectator.api.Counter;
 import com.netflix.spectator.api.Registry;
 import com.netflix.spectator.api.Timer;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.validator.routines.UrlValidator;
 import org.hibernate.validator.constraints.NotBlank;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.StreamingHttpOutputMessage;
+import org.springframework.http.client.ClientHttpRequest;
 import org.springframework.http.client.ClientHttpResponse;
-import org.springframework.web.client.ResponseExtractor;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
 import javax.validation.constraints.NotNull;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.MalformedURLException;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.time.Instant;
+import java.util.Optional;
 import java.util.concurrent.TimeUnit;
 
 /**
  * An implementation of the FileTransferService interface in which the remote locations are available via http[s].
+ * <p>
+ * Downloads are conditional on the version of the file already held and resume from the last byte received if the
+ * connection breaks. Uploads stream the file as the chunked body of a PUT or POST.
  *
  * @author tgianos
  * @since 3.0.0
@@ -51,21 +67,37 @@ import java.util.concurrent.TimeUnit;
 @Slf4j
 public class HttpFileTransferImpl implements FileTransfer {
 
+    private static final String ETAG_VERSION_PREFIX = "etag:";
+    private static final String LAST_MODIFIED_VERSION_PREFIX = "lastModified:";
+    private static final String RANGE_UNIT = "bytes";
+    private static final int BUFFER_SIZE = 64 * 1024;
+
     private final UrlValidator validator
         = new UrlValidator(new String[]{"http", "https"}, UrlValidator.ALLOW_LOCAL_URLS);
     private final RestTemplate restTemplate;
     private final Timer downloadTimer;
     private final Timer uploadTimer;
     private final Timer getLastModifiedTimer;
+    private final Counter resumeRate;
+    private final HttpMethod uploadMethod;
+    private final int maxResumes;
 
     /**
      * Constructor.
      *
-     * @param restTemplate The rest template to use
-     * @param registry     The metrics registry to use
+     * @param restTemplate       The rest template to use
+     * @param transferProperties The properties controlling resumes and uploads
+     * @param registry           The metrics registry to use
      */
-    public HttpFileTransferImpl(@NotNull final RestTemplate restTemplate, @NotNull final Registry registry) {
+    public HttpFileTransferImpl(
+        @NotNull final RestTemplate restTemplate,
+        @NotNull final HttpFileTransferProperties transferProperties,
+        @NotNull final Registry registry
+    ) {
         this.restTemplate = restTemplate;
+        this.uploadMethod = HttpMethod.valueOf(transferProperties.getUploadMethod());
+        this.maxResumes = transferProperties.getMaxResumes();
+        this.resumeRate = registry.counter("genie.files.http.download.resume.rate");
         this.downloadTimer = registry.timer("genie.files.http.download.timer");
         this.uploadTimer = registry.timer("genie.files.http.upload.timer");
         this.getLastModifiedTimer = registry.timer("genie.files.http.getLastModified.timer");
@@ -94,25 +126,36 @@ public class HttpFileTransferImpl implements FileTransfer {
         log.debug("Called with src path {} and destination path {}", srcRemotePath, dstLocalPath);
 
         try {
-            final File outputFile = new File(dstLocalPath);
-            if (!this.isValid(srcRemotePath)) {
-                throw new GenieServerException("Unable to download " + srcRemotePath + " not a valid URL");
-            }
-            this.restTemplate.execute(
-                srcRemotePath,
-                HttpMethod.GET,
-                requestEntity ->
-                    requestEntity.getHeaders().setAccept(Lists.newArrayList(MediaType.ALL)),
-                new ResponseExtractor<Void>() {
-                    @Override
-                    public Void extractData(final ClientHttpResponse response) throws IOException {
-                        // Documentation I could find pointed to the HttpEntity reading the bytes off
-                        // the stream so this should resolve memory problems if the file returned is large
-                        FileUtils.copyInputStreamToFile(response.getBody(), outputFile);
-                        return null;
-                    }
-                }
-            );
+            this.download(srcRemotePath, dstLocalPath, null);
+        } finally {
+            this.downloadTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Uses the ETag of the file as the version if the server returns one and otherwise its last modified time so an
+     * unchanged file costs a single conditional request.
+     */
+    @Override
+    public Optional<String> getFileIfChanged(
+        @NotBlank(message = "Source file path cannot be empty.")
+        final String srcRemotePath,
+        @NotBlank(message = "Destination local path cannot be empty")
+        final String dstLocalPath,
+        final String version
+    ) throws GenieException {
+        final long start = System.nanoTime();
+        log.debug(
+            "Called with src path {}, destination path {} and version {}",
+            srcRemotePath,
+            dstLocalPath,
+            version
+        );
+
+        try {
+            return this.download(srcRemotePath, dstLocalPath, version);
         } finally {
             this.downloadTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         }
@@ -120,6 +163,8 @@ public class HttpFileTransferImpl implements FileTransfer {
 
     /**
      * {@inheritDoc}
+     * <p>
+     * Streams the file as the chunked body of a request with the configured upload method.
      */
     @Override
     public void putFile(
@@ -129,10 +174,32 @@ public class HttpFileTransferImpl implements FileTransfer {
         final String dstRemotePath
     ) throws GenieException {
         final long start = System.nanoTime();
+        log.debug("Called with src path {} and destination path {}", srcLocalPath, dstRemotePath);
+
         try {
-            throw new UnsupportedOperationException(
-                "Saving a file to an HttpEndpoint isn't implemented in this version"
+            if (!this.isValid(dstRemotePath)) {
+                throw new GenieServerException("Unable to upload to " + dstRemotePath + " not a valid URL");
+            }
+            final Path srcFile = Paths.get(srcLocalPath);
+            if (!Files.isRegularFile(srcFile)) {
+                throw new GenieServerException("Unable to upload " + srcLocalPath + " not a file");
+            }
+            this.restTemplate.execute(
+                dstRemotePath,
+                this.uploadMethod,
+                request -> {
+                    request.getHeaders().setContentType(MediaType.APPLICATION_OCTET_STREAM);
+                    if (request instanceof StreamingHttpOutputMessage) {
+                        ((StreamingHttpOutputMessage) request).setBody(body -> Files.copy(srcFile, body));
+                    } else {
+                        Files.copy(srcFile, request.getBody());
+                    }
+                },
+                null
             );
+        } catch (final RestClientException rce) {
+            log.error("Failed uploading {} to {}", srcLocalPath, dstRemotePath, rce);
+            throw new GenieServerException("Failed uploading " + srcLocalPath + " to " + dstRemotePath, rce);
         } finally {
             this.uploadTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         }
@@ -156,4 +223,124 @@ public class HttpFileTransferImpl implements FileTransfer {
             this.getLastModifiedTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         }
     }
+
+    /**
+     * Download the file unless it still has the given version. If the download breaks off after some bytes were
+     * received and the server supports ranges it is resumed from the first missing byte.
+     *
+     * @param srcRemotePath The URL of the file
+     * @param dstLocalPath  The local path to download the file to
+     * @param version       The version of the file already held locally or null
+     * @return The version of the downloaded file or empty if the file still has the given version
+     * @throws GenieException If the URL isn't valid
+     */
+    private Optional<String> download(
+        final String srcRemotePath,
+        final String dstLocalPath,
+        final String version
+    ) throws GenieException {
+        if (!this.isValid(srcRemotePath)) {
+            throw new GenieServerException("Unable to download " + srcRemotePath + " not a valid URL");
+        }
+        final Download download = new Download(new File(dstLocalPath), version);
+        int resumes = 0;
+        while (true) {
+            try {
+                return this.restTemplate.execute(srcRemotePath, HttpMethod.GET, download::prepare, download::extract);
+            } catch (final ResourceAccessException rae) {
+                if (!download.isResumable() || resumes++ >= this.maxResumes) {
+                    throw rae;
+                }
+                this.resumeRate.increment();
+                log.warn("Resuming download of {} at byte {} after error", srcRemotePath, download.position, rae);
+            }
+        }
+    }
+
+    private static String getVersion(final HttpHeaders headers) {
+        if (headers.getETag() != null) {
+            return ETAG_VERSION_PREFIX + headers.getETag();
+        } else if (headers.getLastModified() != -1) {
+            return LAST_MODIFIED_VERSION_PREFIX + headers.getLastModified();
+        } else {
+            // Nothing to make the next request conditional on so the file will be downloaded again
+            return "";
+        }
+    }
+
+    /**
+     * The state of a download carried over between the requests made to resume it.
+     */
+    private static final class Download {
+        private final File outputFile;
+        private final String version;
+        private long position;
+        private String rangeValidator;
+        private String newVersion;
+
+        Download(final File outputFile, final String version) {
+            this.outputFile = outputFile;
+            this.version = version;
+        }
+
+        boolean isResumable() {
+            return this.position > 0 && this.rangeValidator != null;
+        }
+
+        void prepare(final ClientHttpRequest request) {
+            final HttpHeaders headers = request.getHeaders();
+            headers.setAccept(Lists.newArrayList(MediaType.ALL));
+            if (this.position > 0) {
+                // The server sends the whole file again instead of the range if it changed since the first request
+                headers.set(HttpHeaders.RANGE, "bytes=" + this.position + "-");
+                headers.set(HttpHeaders.IF_RANGE, this.rangeValidator);
+            } else if (this.version != null) {
+                if (this.version.startsWith(ETAG_VERSION_PREFIX)) {
+                    headers.setIfNoneMatch(this.version.substring(ETAG_VERSION_PREFIX.length()));
+                } else if (this.version.startsWith(LAST_MODIFIED_VERSION_PREFIX)) {
+                    headers.setIfModifiedSince(
+                        Long.parseLong(this.version.substring(LAST_MODIFIED_VERSION_PREFIX.length()))
+                    );
+                }
+            }
+        }
+
+        Optional<String> extract(final ClientHttpResponse response) throws IOException {
+            if (response.getStatusCode() == HttpStatus.NOT_MODIFIED) {
+                return Optional.empty();
+            }
+            final boolean append = this.position > 0 && response.getStatusCode() == HttpStatus.PARTIAL_CONTENT;
+            if (!append) {
+                final HttpHeaders headers = response.getHeaders();
+                this.position = 0;
+                this.newVersion = getVersion(headers);
+                this.rangeValidator = getRangeValidator(headers);
+            }
+            // Stream the body rather than reading it into memory as files can be large
+            try (
+                final InputStream in = response.getBody();
+                final OutputStream out = FileUtils.openOutputStream(this.outputFile, append)
+            ) {
+                final byte[] buffer = new byte[BUFFER_SIZE];
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    out.write(buffer, 0, read);
+                    this.position += read;
+                }
+            }
+            return Optional.of(this.newVersion);
+        }
+
+        private static String getRangeValidator(final HttpHeaders headers) {
+            if (!RANGE_UNIT.equals(headers.getFirst(HttpHeaders.ACCEPT_RANGES))) {
+                return null;
+            }
+            // Weak ETags can't be used to make a range request conditional
+            final String etag = headers.getETag();
+            if (etag != null && !etag.startsWith("W/")) {
+                return etag;
+            }
+            return headers.getFirst(HttpHeaders.LAST_MODIFIED);
+        }
+    }
 }
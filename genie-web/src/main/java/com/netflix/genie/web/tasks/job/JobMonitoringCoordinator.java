@@ -26,6 +26,7 @@ import com.netflix.genie.core.events.JobFinishedEvent;
 import com.netflix.genie.core.events.JobFinishedReason;
 import com.netflix.genie.core.events.JobStartedEvent;
 import com.netflix.genie.core.jobs.JobConstants;
+import com.netflix.genie.core.jobs.admission.JobAdmissionPolicy;
 import com.netflix.genie.core.properties.JobsProperties;
 import com.netflix.genie.core.services.JobSearchService;
 import com.netflix.genie.core.services.JobSubmitterService;
@@ -83,6 +84,7 @@ public class JobMonitoringCoordinator extends JobStateServiceImpl {
      * @param jobsDir          The directory where job output is stored
      * @param jobsProperties   The properties pertaining to jobs
      * @param jobSubmitterService   implementation of the job submitter service
+     * @param admissionPolicy  The policy deciding which job queued for memory to admit next
      * @throws IOException on error with the filesystem
      */
     @Autowired
@@ -96,9 +98,10 @@ public class JobMonitoringCoordinator extends JobStateServiceImpl {
         final Registry registry,
         final Resource jobsDir,
         final JobsProperties jobsProperties,
-        final JobSubmitterService jobSubmitterService
+        final JobSubmitterService jobSubmitterService,
+        final JobAdmissionPolicy admissionPolicy
     ) throws IOException {
-        super(jobSubmitterService, scheduler, publisher, registry);
+        super(jobSubmitterService, scheduler, publisher, registry, jobsProperties, admissionPolicy);
         this.hostName = hostName;
         this.jobSearchService = jobSearchService;
         this.eventMulticaster = eventMulticaster;
@@ -20,6 +20,7 @@ package com.netflix.genie.web.tasks.node;
 import com.netflix.genie.common.dto.Job;
 import com.netflix.genie.common.exceptions.GenieException;
 import com.netflix.genie.core.jobs.JobConstants;
+import com.netflix.genie.core.jobs.JobWorkspaceFactory;
 import com.netflix.genie.core.properties.JobsProperties;
 import com.netflix.genie.core.services.JobSearchService;
 import com.netflix.genie.web.properties.DiskCleanupProperties;
@@ -139,6 +140,10 @@ public class DiskCleanupTask implements Runnable {
             }
 
             final String id = dir.getName();
+            if (JobWorkspaceFactory.POOL_DIRECTORY.equals(id)) {
+                // Holds the working directories created ahead of time for jobs which haven't been submitted yet
+                continue;
+            }
             try {
                 final Job job = this.jobSearchService.getJob(id);
                 if (job.getStatus().isActive()) {
@@ -0,0 +1,72 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.web.tasks.node;
+
+import com.netflix.genie.core.services.impl.CacheGenieFileTransferService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+
+import javax.validation.constraints.NotNull;
+
+/**
+ * This task runs on every Genie node and deletes the cached content which was only kept on disk because job
+ * directories hard linked it, once those jobs have cleaned up. Content nothing refers to is otherwise deleted as soon
+ * as it's released so jobs fetching files never wait on this check.
+ *
+ * @author agent
+ * @since 3.1.0
+ */
+@Component
+@Slf4j
+public class FileCacheCollectionTask implements Runnable {
+
+    private final CacheGenieFileTransferService fileCache;
+
+    /**
+     * Constructor. Schedules this task to be run by the task scheduler.
+     *
+     * @param fileCache          The file cache to collect the content of
+     * @param scheduler          The scheduler to use to schedule the collection
+     * @param collectionInterval How long to wait between collections in milliseconds
+     */
+    @Autowired
+    public FileCacheCollectionTask(
+        @Qualifier("cacheGenieFileTransferService") @NotNull final CacheGenieFileTransferService fileCache,
+        @NotNull final TaskScheduler scheduler,
+        @Value("${genie.file.cache.collectionInterval:60000}") final long collectionInterval
+    ) {
+        this.fileCache = fileCache;
+        scheduler.scheduleWithFixedDelay(this, collectionInterval);
+    }
+
+    /**
+     * Delete the content no job directory links any more.
+     */
+    @Override
+    public void run() {
+        try {
+            this.fileCache.collectLinkedContent();
+        } catch (final RuntimeException re) {
+            log.error("Unable to collect the linked content of the file cache", re);
+        }
+    }
+}
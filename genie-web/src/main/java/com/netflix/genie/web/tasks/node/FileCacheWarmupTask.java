@@ -0,0 +1,223 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.web.tasks.node;
+
+import com.google.common.collect.Sets;
+import com.google.common.primitives.Ints;
+import com.google.common.util.concurrent.RateLimiter;
+import com.netflix.genie.common.dto.Application;
+import com.netflix.genie.common.dto.ApplicationStatus;
+import com.netflix.genie.common.dto.ClusterStatus;
+import com.netflix.genie.common.dto.CommandStatus;
+import com.netflix.genie.common.dto.ConfigDTO;
+import com.netflix.genie.common.exceptions.GenieException;
+import com.netflix.genie.core.events.ResourceUpdatedEvent;
+import com.netflix.genie.core.properties.FileCacheWarmupProperties;
+import com.netflix.genie.core.services.ApplicationService;
+import com.netflix.genie.core.services.ClusterService;
+import com.netflix.genie.core.services.CommandService;
+import com.netflix.genie.core.services.impl.CacheGenieFileTransferService;
+import com.netflix.spectator.api.Counter;
+import com.netflix.spectator.api.Registry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import javax.validation.constraints.NotNull;
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+
+/**
+ * This task runs on every Genie node and fetches the setup files, configs and dependencies of the applications,
+ * commands and clusters jobs can run with into the local file cache before the first job needs them. Files are
+ * fetched when a resource is created or updated through this node and for every active resource when the node starts.
+ * The bandwidth limit applies to the average rate over consecutive fetches as a single file is always downloaded in
+ * full.
+ *
+ * @author agent
+ * @since 3.1.0
+ */
+@ConditionalOnProperty("genie.file.cache.warmup.enabled")
+@Component
+@Slf4j
+public class FileCacheWarmupTask {
+
+    private static final int PAGE_SIZE = 100;
+
+    private final CacheGenieFileTransferService fileCache;
+    private final ApplicationService applicationService;
+    private final CommandService commandService;
+    private final ClusterService clusterService;
+    private final FileCacheWarmupProperties warmupProperties;
+    private final Executor warmupExecutor;
+    private final RateLimiter rateLimiter;
+    // Files queued or being fetched so updates in quick succession don't fetch the same file more than once
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+    private final Counter bytesRate;
+    private final Counter failureRate;
+
+    /**
+     * Constructor.
+     *
+     * @param fileCache          The file cache to fetch files into
+     * @param applicationService The application service to find the active applications with
+     * @param commandService     The command service to find the active commands with
+     * @param clusterService     The cluster service to find the up clusters with
+     * @param warmupProperties   The properties controlling the warm up
+     * @param warmupExecutor     The executor to fetch files on. Its pool size limits how many are fetched at once.
+     * @param registry           The metrics registry to use
+     */
+    @Autowired
+    public FileCacheWarmupTask(
+        @Qualifier("cacheGenieFileTransferService") @NotNull final CacheGenieFileTransferService fileCache,
+        @NotNull final ApplicationService applicationService,
+        @NotNull final CommandService commandService,
+        @NotNull final ClusterService clusterService,
+        @NotNull final FileCacheWarmupProperties warmupProperties,
+        @Qualifier("fileCacheWarmupExecutor") @NotNull final Executor warmupExecutor,
+        @NotNull final Registry registry
+    ) {
+        this.fileCache = fileCache;
+        this.applicationService = applicationService;
+        this.commandService = commandService;
+        this.clusterService = clusterService;
+        this.warmupProperties = warmupProperties;
+        this.warmupExecutor = warmupExecutor;
+        this.rateLimiter = warmupProperties.getMaxBytesPerSecond() > 0
+            ? RateLimiter.create(warmupProperties.getMaxBytesPerSecond())
+            : null;
+        this.bytesRate = registry.counter("genie.jobs.file.cache.warmup.bytes.rate");
+        this.failureRate = registry.counter("genie.jobs.file.cache.warmup.failure.rate");
+    }
+
+    /**
+     * Fetch the files of all the active applications and commands and up clusters once the node has started.
+     *
+     * @param event The context refreshed event
+     */
+    @EventListener
+    public void onStartup(final ContextRefreshedEvent event) {
+        if (!this.warmupProperties.isScanOnStartup()) {
+            return;
+        }
+        try {
+            this.warmupExecutor.execute(this::scan);
+        } catch (final RejectedExecutionException ree) {
+            log.warn("Unable to scan for files to fetch into the file cache", ree);
+        }
+    }
+
+    /**
+     * Fetch the files of a resource which was created or updated.
+     *
+     * @param event The resource updated event
+     */
+    @EventListener
+    public void onResourceUpdated(final ResourceUpdatedEvent event) {
+        log.debug("Fetching the files of updated resource {} into the file cache", event.getId());
+        event.getFiles().forEach(this::warm);
+    }
+
+    /**
+     * Queue the files of every resource jobs can currently run with to be fetched.
+     */
+    void scan() {
+        try {
+            this.scan(
+                page -> this.applicationService.getApplications(
+                    null, null, Sets.newHashSet(ApplicationStatus.ACTIVE), null, null, page
+                )
+            );
+            this.scan(
+                page -> this.commandService.getCommands(null, null, Sets.newHashSet(CommandStatus.ACTIVE), null, page)
+            );
+            this.scan(
+                page -> this.clusterService.getClusters(null, Sets.newHashSet(ClusterStatus.UP), null, null, null, page)
+            );
+        } catch (final RuntimeException re) {
+            log.error("Unable to scan for files to fetch into the file cache", re);
+        }
+    }
+
+    private void scan(final Function<Pageable, Page<? extends ConfigDTO>> finder) {
+        Pageable page = new PageRequest(0, PAGE_SIZE);
+        Page<? extends ConfigDTO> resources;
+        do {
+            resources = finder.apply(page);
+            resources.forEach(resource -> getFiles(resource).forEach(this::warm));
+            page = page.next();
+        } while (resources.hasNext());
+    }
+
+    private void warm(final String file) {
+        if (!this.pending.add(file)) {
+            return;
+        }
+        try {
+            this.warmupExecutor.execute(
+                () -> {
+                    try {
+                        this.fetch(file);
+                    } finally {
+                        this.pending.remove(file);
+                    }
+                }
+            );
+        } catch (final RejectedExecutionException ree) {
+            this.pending.remove(file);
+            log.warn("Unable to queue {} to be fetched into the file cache", file, ree);
+        }
+    }
+
+    private void fetch(final String file) {
+        if (this.rateLimiter != null) {
+            // Waits out the bytes previous fetches downloaded beyond the limit
+            this.rateLimiter.acquire();
+        }
+        try {
+            final long bytes = this.fileCache.prefetch(file);
+            this.bytesRate.increment(bytes);
+            if (this.rateLimiter != null && bytes > 0) {
+                this.rateLimiter.acquire(Ints.saturatedCast(bytes));
+            }
+        } catch (final GenieException | RuntimeException e) {
+            this.failureRate.increment();
+            log.warn("Unable to fetch {} into the file cache", file, e);
+        }
+    }
+
+    private static Collection<String> getFiles(final ConfigDTO resource) {
+        final Set<String> files = Sets.newHashSet(resource.getConfigs());
+        resource.getSetupFile().ifPresent(files::add);
+        if (resource instanceof Application) {
+            files.addAll(((Application) resource).getDependencies());
+        }
+        return files;
+    }
+}
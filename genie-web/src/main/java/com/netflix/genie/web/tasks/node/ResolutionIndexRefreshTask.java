@@ -0,0 +1,73 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.web.tasks.node;
+
+import com.netflix.genie.core.jpa.services.JobResolutionIndex;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+
+import javax.validation.constraints.NotNull;
+
+/**
+ * This task runs on every Genie node and keeps the local job resolution index in sync with the database. Changes
+ * made through this node are applied to the index incrementally; this task catches changes made through other nodes
+ * by comparing the version stamp of the cluster and command tables.
+ *
+ * @author agent
+ * @since 3.1.0
+ */
+@ConditionalOnProperty("genie.jobs.resolution.index.enabled")
+@Component
+@Slf4j
+public class ResolutionIndexRefreshTask implements Runnable {
+
+    private final JobResolutionIndex resolutionIndex;
+
+    /**
+     * Constructor. Schedules this task to be run by the task scheduler.
+     *
+     * @param resolutionIndex The index to keep up to date
+     * @param scheduler       The scheduler to use to schedule the refresh
+     * @param refreshInterval How long to wait between refreshes in milliseconds
+     */
+    @Autowired
+    public ResolutionIndexRefreshTask(
+        @NotNull final JobResolutionIndex resolutionIndex,
+        @NotNull final TaskScheduler scheduler,
+        @Value("${genie.jobs.resolution.index.refreshInterval:30000}") final long refreshInterval
+    ) {
+        this.resolutionIndex = resolutionIndex;
+        scheduler.scheduleWithFixedDelay(this, refreshInterval);
+    }
+
+    /**
+     * Rebuild the index if the cluster or command tables changed since it was last built.
+     */
+    @Override
+    public void run() {
+        try {
+            this.resolutionIndex.refreshIfStale();
+        } catch (final RuntimeException re) {
+            log.error("Unable to refresh the job resolution index", re);
+        }
+    }
+}
@@ -18,6 +18,10 @@
 package com.netflix.genie.web.configs;
 
 import com.netflix.genie.common.exceptions.GenieException;
+import com.netflix.genie.core.jobs.JobFileStager;
+import com.netflix.genie.core.jobs.JobWorkspaceFactory;
+import com.netflix.genie.core.jobs.admission.FairShareJobAdmissionPolicy;
+import com.netflix.genie.core.jobs.admission.FifoJobAdmissionPolicy;
 import com.netflix.genie.core.jobs.workflow.WorkflowTask;
 import com.netflix.genie.core.jpa.repositories.JpaApplicationRepository;
 import com.netflix.genie.core.jpa.repositories.JpaClusterRepository;
@@ -26,13 +30,12 @@ import com.netflix.genie.core.jpa.repositories.JpaJobExecutionRepository;
 import com.netflix.genie.core.jpa.repositories.JpaJobMetadataRepository;
 import com.netflix.genie.core.jpa.repositories.JpaJobRepository;
 import com.netflix.genie.core.jpa.repositories.JpaJobRequestRepository;
+import com.netflix.genie.core.jpa.services.JobResolutionIndex;
 import com.netflix.genie.core.properties.JobsProperties;
-import com.netflix.genie.core.services.ApplicationService;
 import com.netflix.genie.core.services.ClusterLoadBalancer;
-import com.netflix.genie.core.services.ClusterService;
-import com.netflix.genie.core.services.CommandService;
 import com.netflix.genie.core.services.JobKillService;
 import com.netflix.genie.core.services.JobPersistenceService;
+import com.netflix.genie.core.services.JobResolverService;
 import com.netflix.genie.core.services.JobSearchService;
 import com.netflix.genie.core.services.JobStateService;
 import com.netflix.genie.test.categories.UnitTest;
@@ -45,12 +48,13 @@ import org.junit.experimental.categories.Category;
 import org.mockito.Mockito;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.event.ApplicationEventMulticaster;
-import org.springframework.core.io.Resource;
 import org.springframework.mail.javamail.JavaMailSender;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+
 
 /**
  * Unit Tests for ServicesConfig class.
@@ -121,6 +125,25 @@ public class ServicesConfigUnitTests {
         Assert.assertNotNull(this.servicesConfig.getJavaMailSenderMailService(javaMailSender, "fromAddress"));
     }
 
+    /**
+     * Confirm we can get the default first in first out admission policy.
+     */
+    @Test
+    public void canGetFifoJobAdmissionPolicy() {
+        Assert.assertTrue(this.servicesConfig.fifoJobAdmissionPolicy() instanceof FifoJobAdmissionPolicy);
+    }
+
+    /**
+     * Confirm we can get a fair share admission policy.
+     */
+    @Test
+    public void canGetFairShareJobAdmissionPolicy() {
+        Assert.assertTrue(
+            this.servicesConfig.fairShareJobAdmissionPolicy(new JobsProperties())
+                instanceof FairShareJobAdmissionPolicy
+        );
+    }
+
     /**
      * Can get a bean for Application Service.
      */
@@ -145,7 +168,8 @@ public class ServicesConfigUnitTests {
             this.servicesConfig.commandService(
                 this.commandRepository,
                 this.applicationRepository,
-                this.clusterRepository
+                this.clusterRepository,
+                Mockito.mock(JobResolutionIndex.class)
             )
         );
     }
@@ -158,7 +182,38 @@ public class ServicesConfigUnitTests {
         Assert.assertNotNull(
             this.servicesConfig.clusterService(
                 this.clusterRepository,
-                this.commandRepository
+                this.commandRepository,
+                Mockito.mock(JobResolutionIndex.class)
+            )
+        );
+    }
+
+    /**
+     * Can get a bean for Job Resolver Service.
+     */
+    @Test
+    public void canGetJobResolverServiceBean() {
+        Assert.assertNotNull(
+            this.servicesConfig.jobResolverService(
+                this.clusterRepository,
+                this.applicationRepository,
+                Mockito.mock(ClusterLoadBalancer.class),
+                Mockito.mock(JobResolutionIndex.class)
+            )
+        );
+    }
+
+    /**
+     * Can get a bean for the Job Resolution Index.
+     */
+    @Test
+    public void canGetJobResolutionIndexBean() {
+        Assert.assertNotNull(
+            this.servicesConfig.jobResolutionIndex(
+                this.clusterRepository,
+                this.commandRepository,
+                false,
+                Mockito.mock(Registry.class)
             )
         );
     }
@@ -205,7 +260,6 @@ public class ServicesConfigUnitTests {
         final JobPersistenceService jobPersistenceService = Mockito.mock(JobPersistenceService.class);
         final ApplicationEventPublisher eventPublisher = Mockito.mock(ApplicationEventPublisher.class);
         final ApplicationEventMulticaster eventMulticaster = Mockito.mock(ApplicationEventMulticaster.class);
-        final Resource resource = Mockito.mock(Resource.class);
         final List<WorkflowTask> workflowTasks = new ArrayList<>();
 
         Assert.assertNotNull(
@@ -214,7 +268,9 @@ public class ServicesConfigUnitTests {
                 eventPublisher,
                 eventMulticaster,
                 workflowTasks,
-                resource,
+                Mockito.mock(ExecutorService.class),
+                Mockito.mock(JobWorkspaceFactory.class),
+                Mockito.mock(JobFileStager.class),
                 Mockito.mock(Registry.class)
             )
         );
@@ -231,12 +287,10 @@ public class ServicesConfigUnitTests {
                 Mockito.mock(JobKillService.class),
                 Mockito.mock(JobStateService.class),
                 new JobsProperties(),
-                Mockito.mock(ApplicationService.class),
-                Mockito.mock(ClusterService.class),
-                Mockito.mock(CommandService.class),
-                Mockito.mock(ClusterLoadBalancer.class),
+                Mockito.mock(JobResolverService.class),
                 Mockito.mock(Registry.class),
-                UUID.randomUUID().toString()
+                UUID.randomUUID().toString(),
+                Mockito.mock(ExecutorService.class)
             )
         );
     }
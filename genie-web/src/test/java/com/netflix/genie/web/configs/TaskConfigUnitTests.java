@@ -17,11 +17,19 @@
  */
 package com.netflix.genie.web.configs;
 
+import com.netflix.genie.core.jobs.launcher.DaemonProcessLauncher;
+import com.netflix.genie.core.jobs.launcher.LocalProcessLauncher;
+import com.netflix.genie.core.properties.FileCacheWarmupProperties;
+import com.netflix.genie.core.properties.JobsProperties;
 import com.netflix.genie.test.categories.UnitTest;
+import com.netflix.spectator.api.DefaultRegistry;
+import org.hamcrest.Matchers;
 import org.junit.Assert;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
 
+import java.util.concurrent.ExecutorService;
+
 /**
  * Unit tests for the TaskConfig class.
  *
@@ -39,6 +47,24 @@ public class TaskConfigUnitTests {
         Assert.assertNotNull(new TaskConfig().processExecutor());
     }
 
+    /**
+     * Make sure we launch processes locally unless the launcher daemon is enabled.
+     */
+    @Test
+    public void canGetProcessLauncher() {
+        final TaskConfig config = new TaskConfig();
+        final JobsProperties jobsProperties = new JobsProperties();
+        Assert.assertThat(
+            config.processLauncher(config.processExecutor(), jobsProperties, new DefaultRegistry()),
+            Matchers.instanceOf(LocalProcessLauncher.class)
+        );
+        jobsProperties.getLauncher().setDaemonEnabled(true);
+        Assert.assertThat(
+            config.processLauncher(config.processExecutor(), jobsProperties, new DefaultRegistry()),
+            Matchers.instanceOf(DaemonProcessLauncher.class)
+        );
+    }
+
     /**
      * Make sure we get a valid task scheduler to use.
      */
@@ -46,4 +72,55 @@ public class TaskConfigUnitTests {
     public void canGetTaskScheduler() {
         Assert.assertNotNull(new TaskConfig().taskScheduler(7));
     }
+
+    /**
+     * Make sure we get a valid job submission executor to use.
+     */
+    @Test
+    public void canGetJobSubmissionExecutor() {
+        final ExecutorService executorService = new TaskConfig().jobSubmissionExecutor(new JobsProperties());
+        Assert.assertNotNull(executorService);
+        executorService.shutdown();
+    }
+
+    /**
+     * Make sure we get a valid file staging executor to use.
+     */
+    @Test
+    public void canGetFileStagingExecutor() {
+        final ExecutorService executorService = new TaskConfig().fileStagingExecutor(new JobsProperties());
+        Assert.assertNotNull(executorService);
+        executorService.shutdown();
+    }
+
+    /**
+     * Make sure we get a valid workflow executor to use.
+     */
+    @Test
+    public void canGetWorkflowExecutor() {
+        final ExecutorService executorService = new TaskConfig().workflowExecutor(new JobsProperties());
+        Assert.assertNotNull(executorService);
+        executorService.shutdown();
+    }
+
+    /**
+     * Make sure we get a valid file cache warm up executor to use.
+     */
+    @Test
+    public void canGetFileCacheWarmupExecutor() {
+        final ExecutorService executorService
+            = new TaskConfig().fileCacheWarmupExecutor(new FileCacheWarmupProperties());
+        Assert.assertNotNull(executorService);
+        executorService.shutdown();
+    }
+
+    /**
+     * Make sure we get a valid job workspace executor to use.
+     */
+    @Test
+    public void canGetJobWorkspaceExecutor() {
+        final ExecutorService executorService = new TaskConfig().jobWorkspaceExecutor();
+        Assert.assertNotNull(executorService);
+        executorService.shutdown();
+    }
 }
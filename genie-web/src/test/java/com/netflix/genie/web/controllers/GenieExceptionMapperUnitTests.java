@@ -25,6 +25,7 @@ import com.netflix.genie.common.exceptions.GeniePreconditionException;
 import com.netflix.genie.common.exceptions.GenieServerException;
 import com.netflix.genie.common.exceptions.GenieServerUnavailableException;
 import com.netflix.genie.common.exceptions.GenieTimeoutException;
+import com.netflix.genie.core.properties.JobsProperties;
 import com.netflix.genie.test.categories.UnitTest;
 import com.netflix.spectator.api.Counter;
 import com.netflix.spectator.api.Registry;
@@ -32,6 +33,7 @@ import org.junit.Before;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
 import org.mockito.Mockito;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 
 import javax.servlet.http.HttpServletResponse;
@@ -47,6 +49,8 @@ import java.io.IOException;
 @Category(UnitTest.class)
 public class GenieExceptionMapperUnitTests {
 
+    private static final int RETRY_AFTER = 17;
+
     private Counter badRequestRate;
     private Counter conflictRate;
     private Counter notFoundRate;
@@ -91,7 +95,9 @@ public class GenieExceptionMapperUnitTests {
             .thenReturn(this.constraintViolationRate);
 
         this.response = Mockito.mock(HttpServletResponse.class);
-        this.mapper = new GenieExceptionMapper(registry);
+        final JobsProperties jobsProperties = new JobsProperties();
+        jobsProperties.getSubmission().setRetryAfter(RETRY_AFTER);
+        this.mapper = new GenieExceptionMapper(registry, jobsProperties);
     }
 
     /**
@@ -119,6 +125,9 @@ public class GenieExceptionMapperUnitTests {
         Mockito.verify(this.timeoutRate, Mockito.times(1)).increment();
         Mockito.verify(this.genieRate, Mockito.times(1)).increment();
         Mockito.verify(this.response, Mockito.times(8)).sendError(Mockito.anyInt(), Mockito.anyString());
+        Mockito
+            .verify(this.response, Mockito.times(1))
+            .setHeader(HttpHeaders.RETRY_AFTER, Integer.toString(RETRY_AFTER));
     }
 
     /**
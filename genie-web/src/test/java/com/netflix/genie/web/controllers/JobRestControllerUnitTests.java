@@ -17,8 +17,13 @@
  */
 package com.netflix.genie.web.controllers;
 
+import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
+import com.netflix.genie.common.dto.JobMetadata;
+import com.netflix.genie.common.dto.JobRequest;
+import com.netflix.genie.common.exceptions.GenieConflictException;
 import com.netflix.genie.common.exceptions.GenieException;
+import com.netflix.genie.common.exceptions.GeniePreconditionException;
 import com.netflix.genie.core.properties.JobsProperties;
 import com.netflix.genie.core.services.AttachmentService;
 import com.netflix.genie.core.services.JobCoordinatorService;
@@ -35,6 +40,7 @@ import com.netflix.genie.web.resources.handlers.GenieResourceHttpRequestHandler;
 import com.netflix.spectator.api.Counter;
 import com.netflix.spectator.api.Registry;
 import org.apache.catalina.ssi.ByteArrayServletOutputStream;
+import org.apache.commons.lang3.StringUtils;
 import org.apache.http.Header;
 import org.apache.http.HttpEntity;
 import org.apache.http.HttpResponse;
@@ -44,6 +50,7 @@ import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
@@ -51,16 +58,22 @@ import org.springframework.http.MediaType;
 import org.springframework.http.client.ClientHttpRequest;
 import org.springframework.http.client.ClientHttpRequestFactory;
 import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.multipart.MultipartFile;
 
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.charset.Charset;
 import java.util.Collections;
+import java.util.List;
 import java.util.Set;
 import java.util.UUID;
 
@@ -76,7 +89,9 @@ public class JobRestControllerUnitTests {
     private static final Charset UTF_8 = Charset.forName("UTF-8");
 
     //Mocked variables
+    private JobCoordinatorService jobCoordinatorService;
     private JobSearchService jobSearchService;
+    private AttachmentService attachmentService;
     private String hostname;
     private RestTemplate restTemplate;
     private GenieResourceHttpRequestHandler genieResourceHttpRequestHandler;
@@ -89,7 +104,9 @@ public class JobRestControllerUnitTests {
      */
     @Before
     public void setup() {
+        this.jobCoordinatorService = Mockito.mock(JobCoordinatorService.class);
         this.jobSearchService = Mockito.mock(JobSearchService.class);
+        this.attachmentService = Mockito.mock(AttachmentService.class);
         this.hostname = UUID.randomUUID().toString();
         this.restTemplate = Mockito.mock(RestTemplate.class);
         this.genieResourceHttpRequestHandler = Mockito.mock(GenieResourceHttpRequestHandler.class);
@@ -100,9 +117,9 @@ public class JobRestControllerUnitTests {
         Mockito.when(registry.counter(Mockito.anyString())).thenReturn(counter);
 
         this.controller = new JobRestController(
-            Mockito.mock(JobCoordinatorService.class),
+            this.jobCoordinatorService,
             this.jobSearchService,
-            Mockito.mock(AttachmentService.class),
+            this.attachmentService,
             Mockito.mock(ApplicationResourceAssembler.class),
             Mockito.mock(ClusterResourceAssembler.class),
             Mockito.mock(CommandResourceAssembler.class),
@@ -118,6 +135,124 @@ public class JobRestControllerUnitTests {
         );
     }
 
+    /**
+     * Make sure a job submitted with the id of an existing job is rejected before anything is saved.
+     *
+     * @throws GenieException On Error
+     */
+    @Test(expected = GenieConflictException.class)
+    public void cantSubmitJobIfIdAlreadyExists() throws GenieException {
+        final String jobId = UUID.randomUUID().toString();
+        Mockito.when(this.jobSearchService.jobExists(jobId)).thenReturn(true);
+        try {
+            this.controller.submitJob(
+                this.getJobRequest(jobId),
+                new MultipartFile[]{Mockito.mock(MultipartFile.class)},
+                null,
+                null,
+                Mockito.mock(HttpServletRequest.class)
+            );
+        } finally {
+            Mockito.verify(this.attachmentService, Mockito.never())
+                .save(Mockito.anyString(), Mockito.anyString(), Mockito.any(InputStream.class));
+            Mockito.verify(this.jobCoordinatorService, Mockito.never())
+                .coordinateJob(Mockito.any(JobRequest.class), Mockito.any(JobMetadata.class));
+        }
+    }
+
+    /**
+     * Make sure a job submitted with a blank id is given a generated id instead of being looked up.
+     *
+     * @throws GenieException On Error
+     */
+    @Test
+    public void canSubmitJobWithBlankId() throws GenieException {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        try {
+            this.controller.submitJob(this.getJobRequest(" "), null, null, Mockito.mock(HttpServletRequest.class));
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+
+        Mockito.verify(this.jobSearchService, Mockito.never()).jobExists(Mockito.anyString());
+        final ArgumentCaptor<JobRequest> jobRequest = ArgumentCaptor.forClass(JobRequest.class);
+        Mockito.verify(this.jobCoordinatorService, Mockito.times(1))
+            .coordinateJob(jobRequest.capture(), Mockito.any(JobMetadata.class));
+        Assert.assertTrue(StringUtils.isNotBlank(jobRequest.getValue().getId().orElse(null)));
+    }
+
+    /**
+     * Make sure a batch of jobs is handed to the coordinator with every job having an id.
+     *
+     * @throws GenieException On Error
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void canSubmitJobs() throws GenieException {
+        final String jobId = UUID.randomUUID().toString();
+        final JobRequest jobWithId = this.getJobRequest(jobId);
+        final JobRequest jobWithoutId = this.getJobRequest(null);
+        final String userAgent = UUID.randomUUID().toString();
+        final HttpServletRequest request = Mockito.mock(HttpServletRequest.class);
+
+        this.controller.submitJobs(
+            Lists.newArrayList(jobWithId, jobWithoutId),
+            "192.168.0.1, 10.0.0.1",
+            userAgent,
+            request
+        );
+
+        final ArgumentCaptor<List> jobRequests = ArgumentCaptor.forClass(List.class);
+        final ArgumentCaptor<JobMetadata> metadata = ArgumentCaptor.forClass(JobMetadata.class);
+        Mockito.verify(this.jobCoordinatorService, Mockito.times(1))
+            .coordinateJobs(jobRequests.capture(), metadata.capture());
+        final List<JobRequest> submitted = jobRequests.getValue();
+        Assert.assertThat(submitted.size(), Matchers.is(2));
+        Assert.assertThat(submitted.get(0), Matchers.is(jobWithId));
+        Assert.assertTrue(submitted.get(1).getId().isPresent());
+        Assert.assertThat(submitted.get(1).getName(), Matchers.is(jobWithoutId.getName()));
+        Assert.assertThat(
+            metadata.getValue().getClientHost().orElseThrow(IllegalArgumentException::new),
+            Matchers.is("192.168.0.1")
+        );
+        Assert.assertThat(
+            metadata.getValue().getUserAgent().orElseThrow(IllegalArgumentException::new),
+            Matchers.is(userAgent)
+        );
+        Mockito.verify(request, Mockito.never()).getRemoteAddr();
+    }
+
+    /**
+     * Make sure a batch larger than the configured maximum is rejected before anything is submitted.
+     *
+     * @throws GenieException On Error
+     */
+    @Test(expected = GeniePreconditionException.class)
+    public void cantSubmitJobsIfBatchIsTooLarge() throws GenieException {
+        this.jobsProperties.getSubmission().setMaxBatchSize(1);
+        try {
+            this.controller.submitJobs(
+                Lists.newArrayList(this.getJobRequest(null), this.getJobRequest(null)),
+                null,
+                null,
+                Mockito.mock(HttpServletRequest.class)
+            );
+        } finally {
+            Mockito.verify(this.jobCoordinatorService, Mockito.never())
+                .coordinateJobs(Mockito.anyListOf(JobRequest.class), Mockito.any(JobMetadata.class));
+        }
+    }
+
+    /**
+     * Make sure an empty batch is rejected.
+     *
+     * @throws GenieException On Error
+     */
+    @Test(expected = GeniePreconditionException.class)
+    public void cantSubmitJobsIfBatchIsEmpty() throws GenieException {
+        this.controller.submitJobs(Lists.newArrayList(), null, null, Mockito.mock(HttpServletRequest.class));
+    }
+
     /**
      * Make sure if forwarding isn't enabled we don't even try to forward no matter where the job is running.
      *
@@ -463,4 +598,17 @@ public class JobRestControllerUnitTests {
         Mockito.verify(response, Mockito.never()).sendError(Mockito.anyInt());
         Mockito.verify(this.genieResourceHttpRequestHandler, Mockito.never()).handleRequest(request, response);
     }
+
+    private JobRequest getJobRequest(final String id) {
+        return new JobRequest.Builder(
+            UUID.randomUUID().toString(),
+            UUID.randomUUID().toString(),
+            UUID.randomUUID().toString(),
+            UUID.randomUUID().toString(),
+            Lists.newArrayList(),
+            Sets.newHashSet(UUID.randomUUID().toString())
+        )
+            .withId(id)
+            .build();
+    }
 }
@@ -666,6 +666,11 @@ final class Snippets {
                 .description(
                     "The default amount of memory (in MB) that should be allocated for instances of this command client"
                 )
+                .optional(),
+            PayloadDocumentation
+                .fieldWithPath("cpu")
+                .attributes(getConstraintsForField(COMMAND_CONSTRAINTS, "cpu"))
+                .description("The default number of cpus that should be reserved for instances of this command client")
                 .optional()
         );
     }
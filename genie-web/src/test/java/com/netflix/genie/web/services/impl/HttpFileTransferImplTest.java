@@ -19,10 +19,18 @@ package com.netflix.genie.web.services.impl;
 
 import com.netflix.genie.common.exceptions.GenieException;
 import com.netflix.genie.common.exceptions.GenieServerException;
+import com.netflix.genie.core.properties.HttpFileTransferProperties;
 import com.netflix.genie.test.categories.UnitTest;
+import com.netflix.spectator.api.Counter;
 import com.netflix.spectator.api.Registry;
 import com.netflix.spectator.api.Timer;
 import org.hamcrest.Matchers;
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Rule;
@@ -32,19 +40,29 @@ import org.junit.rules.TemporaryFolder;
 import org.mockito.Mockito;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.test.web.client.MockRestServiceServer;
 import org.springframework.test.web.client.match.MockRestRequestMatchers;
 import org.springframework.test.web.client.response.MockRestResponseCreators;
 import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestTemplate;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
 import java.net.MalformedURLException;
 import java.nio.charset.Charset;
+import java.nio.file.Files;
 import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
 import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -66,6 +84,9 @@ public class HttpFileTransferImplTest {
 
     private MockRestServiceServer server;
     private HttpFileTransferImpl httpFileTransfer;
+    private Registry registry;
+    private Counter resumeRate;
+    private HttpServer localServer;
 
     private Timer downloadTimer;
     private Timer uploadTimer;
@@ -81,11 +102,23 @@ public class HttpFileTransferImplTest {
         this.downloadTimer = Mockito.mock(Timer.class);
         this.uploadTimer = Mockito.mock(Timer.class);
         this.metadataTimer = Mockito.mock(Timer.class);
-        final Registry registry = Mockito.mock(Registry.class);
-        Mockito.when(registry.timer("genie.files.http.download.timer")).thenReturn(this.downloadTimer);
-        Mockito.when(registry.timer("genie.files.http.upload.timer")).thenReturn(this.uploadTimer);
-        Mockito.when(registry.timer("genie.files.http.getLastModified.timer")).thenReturn(this.metadataTimer);
-        this.httpFileTransfer = new HttpFileTransferImpl(restTemplate, registry);
+        this.resumeRate = Mockito.mock(Counter.class);
+        this.registry = Mockito.mock(Registry.class);
+        Mockito.when(this.registry.timer("genie.files.http.download.timer")).thenReturn(this.downloadTimer);
+        Mockito.when(this.registry.timer("genie.files.http.upload.timer")).thenReturn(this.uploadTimer);
+        Mockito.when(this.registry.timer("genie.files.http.getLastModified.timer")).thenReturn(this.metadataTimer);
+        Mockito.when(this.registry.counter("genie.files.http.download.resume.rate")).thenReturn(this.resumeRate);
+        this.httpFileTransfer = new HttpFileTransferImpl(restTemplate, new HttpFileTransferProperties(), this.registry);
+    }
+
+    /**
+     * Stop the local HTTP server if a test started one.
+     */
+    @After
+    public void cleanup() {
+        if (this.localServer != null) {
+            this.localServer.stop(0);
+        }
     }
 
     /**
@@ -130,6 +163,91 @@ public class HttpFileTransferImplTest {
             .record(Mockito.anyLong(), Mockito.eq(TimeUnit.NANOSECONDS));
     }
 
+    /**
+     * Make sure getting a file without a version downloads it and returns its ETag as the version.
+     *
+     * @throws GenieException On error
+     * @throws IOException On error
+     */
+    @Test
+    public void canGetFileIfChangedWithoutVersion() throws GenieException, IOException {
+        final File output = this.temporaryFolder.newFile();
+        final String contents = UUID.randomUUID().toString();
+        final HttpHeaders headers = new HttpHeaders();
+        headers.setETag("\"abc\"");
+
+        this.server
+            .expect(MockRestRequestMatchers.requestTo(TEST_URL))
+            .andExpect(MockRestRequestMatchers.method(HttpMethod.GET))
+            .andRespond(
+                MockRestResponseCreators
+                    .withSuccess(contents.getBytes(Charset.forName("UTF-8")), MediaType.APPLICATION_OCTET_STREAM)
+                    .headers(headers)
+            );
+
+        Assert.assertThat(
+            this.httpFileTransfer.getFileIfChanged(TEST_URL, output.getCanonicalPath(), null),
+            Matchers.is(Optional.of("etag:\"abc\""))
+        );
+        Assert.assertThat(FileUtils.readFileToString(output, "UTF-8"), Matchers.is(contents));
+        this.server.verify();
+    }
+
+    /**
+     * Make sure getting a file with its current ETag sends a conditional request and doesn't touch the output.
+     *
+     * @throws GenieException On error
+     * @throws IOException On error
+     */
+    @Test
+    public void canGetFileIfChangedWithCurrentETag() throws GenieException, IOException {
+        final File output = this.temporaryFolder.newFile();
+
+        this.server
+            .expect(MockRestRequestMatchers.requestTo(TEST_URL))
+            .andExpect(MockRestRequestMatchers.method(HttpMethod.GET))
+            .andExpect(MockRestRequestMatchers.header(HttpHeaders.IF_NONE_MATCH, "\"abc\""))
+            .andRespond(MockRestResponseCreators.withStatus(HttpStatus.NOT_MODIFIED));
+
+        Assert.assertFalse(
+            this.httpFileTransfer.getFileIfChanged(TEST_URL, output.getCanonicalPath(), "etag:\"abc\"").isPresent()
+        );
+        Assert.assertThat(output.length(), Matchers.is(0L));
+        this.server.verify();
+        Mockito
+            .verify(this.downloadTimer, Mockito.times(1))
+            .record(Mockito.anyLong(), Mockito.eq(TimeUnit.NANOSECONDS));
+    }
+
+    /**
+     * Make sure the last modified time is used as the version when the server doesn't return an ETag.
+     *
+     * @throws GenieException On error
+     * @throws IOException On error
+     */
+    @Test
+    public void canGetFileIfChangedWithLastModified() throws GenieException, IOException {
+        final File output = this.temporaryFolder.newFile();
+        final long lastModified = 28424323000L;
+        final HttpHeaders headers = new HttpHeaders();
+        headers.setLastModified(lastModified);
+
+        this.server
+            .expect(MockRestRequestMatchers.requestTo(TEST_URL))
+            .andExpect(MockRestRequestMatchers.method(HttpMethod.GET))
+            .andRespond(
+                MockRestResponseCreators
+                    .withSuccess("junk".getBytes(Charset.forName("UTF-8")), MediaType.APPLICATION_OCTET_STREAM)
+                    .headers(headers)
+            );
+
+        Assert.assertThat(
+            this.httpFileTransfer.getFileIfChanged(TEST_URL, output.getCanonicalPath(), null),
+            Matchers.is(Optional.of("lastModified:" + lastModified))
+        );
+        this.server.verify();
+    }
+
     /**
      * Make sure can't get a file if the intput isn't a valid url.
      *
@@ -160,17 +278,142 @@ public class HttpFileTransferImplTest {
     }
 
     /**
-     * Make sure that there is no implementation of the putFile method.
+     * Make sure a download which breaks off is resumed from the first missing byte with a range request conditional
+     * on the ETag of the first response.
+     *
+     * @throws Exception On error
+     */
+    @Test
+    public void canResumeBrokenDownload() throws Exception {
+        final byte[] contents = this.createContents();
+        final int half = contents.length / 2;
+        final List<Headers> requests = new CopyOnWriteArrayList<>();
+        final String url = this.startLocalServer(
+            exchange -> {
+                requests.add(exchange.getRequestHeaders());
+                exchange.getResponseHeaders().add(HttpHeaders.ETAG, "\"v1\"");
+                exchange.getResponseHeaders().add(HttpHeaders.ACCEPT_RANGES, "bytes");
+                if (requests.size() == 1) {
+                    // Claim the whole file but break the connection half way through
+                    exchange.sendResponseHeaders(HttpStatus.OK.value(), contents.length);
+                    exchange.getResponseBody().write(contents, 0, half);
+                    exchange.getResponseBody().flush();
+                } else {
+                    exchange.getResponseHeaders().add(
+                        HttpHeaders.CONTENT_RANGE,
+                        "bytes " + half + "-" + (contents.length - 1) + "/" + contents.length
+                    );
+                    exchange.sendResponseHeaders(HttpStatus.PARTIAL_CONTENT.value(), contents.length - half);
+                    exchange.getResponseBody().write(contents, half, contents.length - half);
+                }
+                exchange.close();
+            }
+        );
+        final File output = this.temporaryFolder.newFile();
+
+        Assert.assertThat(
+            this.createLocalTransfer().getFileIfChanged(url, output.getCanonicalPath(), null),
+            Matchers.is(Optional.of("etag:\"v1\""))
+        );
+
+        Assert.assertArrayEquals(contents, Files.readAllBytes(output.toPath()));
+        Assert.assertThat(requests.size(), Matchers.is(2));
+        Assert.assertNull(requests.get(0).getFirst(HttpHeaders.RANGE));
+        Assert.assertThat(requests.get(1).getFirst(HttpHeaders.RANGE), Matchers.is("bytes=" + half + "-"));
+        Assert.assertThat(requests.get(1).getFirst(HttpHeaders.IF_RANGE), Matchers.is("\"v1\""));
+        Mockito.verify(this.resumeRate, Mockito.times(1)).increment();
+    }
+
+    /**
+     * Make sure a download which breaks off isn't resumed if the server doesn't support ranges.
+     *
+     * @throws Exception On error
+     */
+    @Test
+    public void cantResumeWithoutRangeSupport() throws Exception {
+        final byte[] contents = this.createContents();
+        final List<Headers> requests = new CopyOnWriteArrayList<>();
+        final String url = this.startLocalServer(
+            exchange -> {
+                requests.add(exchange.getRequestHeaders());
+                exchange.sendResponseHeaders(HttpStatus.OK.value(), contents.length);
+                exchange.getResponseBody().write(contents, 0, contents.length / 2);
+                exchange.getResponseBody().flush();
+                exchange.close();
+            }
+        );
+
+        try {
+            this.createLocalTransfer().getFile(url, this.temporaryFolder.newFile().getCanonicalPath());
+            Assert.fail();
+        } catch (final ResourceAccessException rae) {
+            Assert.assertThat(requests.size(), Matchers.is(1));
+            Mockito.verify(this.resumeRate, Mockito.never()).increment();
+        }
+    }
+
+    /**
+     * Make sure a file is streamed to the server as a chunked PUT.
+     *
+     * @throws Exception On error
+     */
+    @Test
+    public void canPutFile() throws Exception {
+        final byte[] contents = this.createContents();
+        final File input = this.temporaryFolder.newFile();
+        Files.write(input.toPath(), contents);
+        final List<String> methods = new CopyOnWriteArrayList<>();
+        final List<String> transferEncodings = new CopyOnWriteArrayList<>();
+        final ByteArrayOutputStream received = new ByteArrayOutputStream();
+        final String url = this.startLocalServer(
+            exchange -> {
+                methods.add(exchange.getRequestMethod());
+                transferEncodings.add(exchange.getRequestHeaders().getFirst("Transfer-Encoding"));
+                IOUtils.copy(exchange.getRequestBody(), received);
+                exchange.sendResponseHeaders(HttpStatus.CREATED.value(), -1);
+                exchange.close();
+            }
+        );
+
+        this.createLocalTransfer().putFile(input.getCanonicalPath(), url);
+
+        Assert.assertThat(methods, Matchers.contains(HttpMethod.PUT.name()));
+        Assert.assertThat(transferEncodings, Matchers.contains("chunked"));
+        Assert.assertArrayEquals(contents, received.toByteArray());
+        Mockito.verify(this.uploadTimer, Mockito.times(1)).record(Mockito.anyLong(), Mockito.eq(TimeUnit.NANOSECONDS));
+    }
+
+    /**
+     * Make sure an error response from the server fails the upload.
+     *
+     * @throws Exception On error
+     */
+    @Test(expected = GenieServerException.class)
+    public void cantPutFileIfServerFails() throws Exception {
+        final File input = this.temporaryFolder.newFile();
+        Files.write(input.toPath(), this.createContents());
+        final String url = this.startLocalServer(
+            exchange -> {
+                IOUtils.copy(exchange.getRequestBody(), new ByteArrayOutputStream());
+                exchange.sendResponseHeaders(HttpStatus.INTERNAL_SERVER_ERROR.value(), -1);
+                exchange.close();
+            }
+        );
+
+        this.createLocalTransfer().putFile(input.getCanonicalPath(), url);
+    }
+
+    /**
+     * Make sure a file which doesn't exist can't be uploaded.
      *
      * @throws GenieException on error
      */
     @Test
-    public void cantPutFile() throws GenieException {
+    public void cantPutMissingFile() throws GenieException {
         try {
-            final String file = UUID.randomUUID().toString();
-            this.httpFileTransfer.putFile(file, file);
+            this.httpFileTransfer.putFile(UUID.randomUUID().toString(), TEST_URL);
             Assert.fail();
-        } catch (final UnsupportedOperationException e) {
+        } catch (final GenieServerException e) {
             Mockito
                 .verify(this.uploadTimer, Mockito.times(1))
                 .record(Mockito.anyLong(), Mockito.eq(TimeUnit.NANOSECONDS));
@@ -234,4 +477,23 @@ public class HttpFileTransferImplTest {
                 .record(Mockito.anyLong(), Mockito.eq(TimeUnit.NANOSECONDS));
         }
     }
+
+    private byte[] createContents() {
+        final byte[] contents = new byte[256 * 1024];
+        new Random().nextBytes(contents);
+        return contents;
+    }
+
+    private String startLocalServer(final HttpHandler handler) throws IOException {
+        this.localServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        this.localServer.createContext("/", handler);
+        this.localServer.start();
+        return "http://localhost:" + this.localServer.getAddress().getPort() + "/myFile.txt";
+    }
+
+    private HttpFileTransferImpl createLocalTransfer() {
+        final HttpComponentsClientHttpRequestFactory factory = new HttpComponentsClientHttpRequestFactory();
+        factory.setBufferRequestBody(false);
+        return new HttpFileTransferImpl(new RestTemplate(factory), new HttpFileTransferProperties(), this.registry);
+    }
 }
@@ -17,9 +17,11 @@
  */
 package com.netflix.genie.web.tasks.job;
 
+import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 import com.netflix.genie.common.dto.Job;
 import com.netflix.genie.common.dto.JobExecution;
+import com.netflix.genie.common.dto.JobRequest;
 import com.netflix.genie.common.dto.JobStatus;
 import com.netflix.genie.common.exceptions.GenieException;
 import com.netflix.genie.common.exceptions.GenieNotFoundException;
@@ -27,12 +29,18 @@ import com.netflix.genie.core.events.JobFinishedEvent;
 import com.netflix.genie.core.events.JobFinishedReason;
 import com.netflix.genie.core.events.JobStartedEvent;
 import com.netflix.genie.core.jobs.JobConstants;
+import com.netflix.genie.core.jobs.admission.FairShareJobAdmissionPolicy;
+import com.netflix.genie.core.jobs.admission.FifoJobAdmissionPolicy;
+import com.netflix.genie.core.jobs.admission.JobAdmissionPolicy;
+import com.netflix.genie.core.properties.JobsAdmissionFairShareProperties;
 import com.netflix.genie.core.properties.JobsProperties;
 import com.netflix.genie.core.services.JobSearchService;
 import com.netflix.genie.core.services.JobSubmitterService;
 import com.netflix.genie.test.categories.UnitTest;
 import com.netflix.spectator.api.Counter;
+import com.netflix.spectator.api.Id;
 import com.netflix.spectator.api.Registry;
+import com.netflix.spectator.api.Timer;
 import org.apache.commons.exec.Executor;
 import org.hamcrest.Matchers;
 import org.junit.Assert;
@@ -41,6 +49,7 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
 import org.junit.rules.TemporaryFolder;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.event.ApplicationEventMulticaster;
@@ -82,6 +91,13 @@ public class JobMonitoringCoordinatorUnitTests {
     private ApplicationEventMulticaster eventMulticaster;
     private Date tomorrow;
     private Counter unableToCancel;
+    private ApplicationEventPublisher publisher;
+    private JobsProperties jobsProperties;
+    private JobRequest jobRequest;
+    private Id shareId;
+    private Registry registry;
+    private Executor executor;
+    private Resource jobsDir;
 
     /**
      * Setup for the tests.
@@ -95,29 +111,32 @@ public class JobMonitoringCoordinatorUnitTests {
         this.tomorrow = cal.getTime();
         this.jobSearchService = Mockito.mock(JobSearchService.class);
         this.jobSubmitterService = Mockito.mock(JobSubmitterService.class);
-        final Executor executor = Mockito.mock(Executor.class);
+        this.executor = Mockito.mock(Executor.class);
         this.scheduler = Mockito.mock(TaskScheduler.class);
         this.eventMulticaster = Mockito.mock(ApplicationEventMulticaster.class);
-        final Registry registry = Mockito.mock(Registry.class);
+        this.registry = Mockito.mock(Registry.class);
         this.unableToCancel = Mockito.mock(Counter.class);
-        Mockito.when(registry.counter(Mockito.anyString())).thenReturn(this.unableToCancel);
+        Mockito.when(this.registry.counter(Mockito.anyString())).thenReturn(this.unableToCancel);
+        Mockito.when(this.registry.timer(Mockito.anyString())).thenReturn(Mockito.mock(Timer.class));
+        this.shareId = Mockito.mock(Id.class);
+        Mockito.when(this.registry.createId(Mockito.anyString())).thenReturn(this.shareId);
+        Mockito.when(this.shareId.withTag(Mockito.anyString(), Mockito.anyString())).thenReturn(this.shareId);
+        this.publisher = Mockito.mock(ApplicationEventPublisher.class);
+        this.jobsProperties = new JobsProperties();
+        this.jobRequest = new JobRequest.Builder(
+            UUID.randomUUID().toString(),
+            UUID.randomUUID().toString(),
+            UUID.randomUUID().toString(),
+            UUID.randomUUID().toString(),
+            Lists.newArrayList(),
+            Sets.newHashSet()
+        ).build();
 
         final File jobsFile = this.folder.newFolder();
-        final Resource jobsDir = Mockito.mock(Resource.class);
-        Mockito.when(jobsDir.getFile()).thenReturn(jobsFile);
+        this.jobsDir = Mockito.mock(Resource.class);
+        Mockito.when(this.jobsDir.getFile()).thenReturn(jobsFile);
 
-        this.coordinator = new JobMonitoringCoordinator(
-            HOSTNAME,
-            this.jobSearchService,
-            Mockito.mock(ApplicationEventPublisher.class),
-            this.eventMulticaster,
-            this.scheduler,
-            executor,
-            registry,
-            jobsDir,
-            new JobsProperties(),
-            jobSubmitterService
-        );
+        this.coordinator = this.createCoordinator(new FifoJobAdmissionPolicy());
     }
 
     /**
@@ -350,6 +369,241 @@ public class JobMonitoringCoordinatorUnitTests {
         Assert.assertThat(this.coordinator.getUsedMemory(), Matchers.is(1024));
     }
 
+    /**
+     * Make sure memory can only be reserved for initialized jobs up to the maximum and is released when done.
+     *
+     * @throws GenieException on error
+     */
+    @Test
+    public void canReserveMemory() throws GenieException {
+        final String job1Id = UUID.randomUUID().toString();
+        final String job2Id = UUID.randomUUID().toString();
+        Assert.assertFalse(this.coordinator.reserveResources(job1Id, 1024, 2048, 1, 0));
+        Assert.assertThat(this.coordinator.getUsedMemory(), Matchers.is(0));
+
+        coordinator.init(job1Id);
+        coordinator.init(job2Id);
+        Assert.assertTrue(this.coordinator.reserveResources(job1Id, 1024, 2048, 1, 0));
+        Assert.assertThat(this.coordinator.getUsedMemory(), Matchers.is(1024));
+        Assert.assertFalse(this.coordinator.reserveResources(job2Id, 2048, 2048, 1, 0));
+        Assert.assertThat(this.coordinator.getUsedMemory(), Matchers.is(1024));
+        Assert.assertTrue(this.coordinator.reserveResources(job2Id, 1024, 2048, 1, 0));
+        Assert.assertThat(this.coordinator.getUsedMemory(), Matchers.is(2048));
+
+        coordinator.schedule(job1Id, null, null, null, null, 1024);
+        Assert.assertThat(this.coordinator.getUsedMemory(), Matchers.is(2048));
+        coordinator.done(job1Id);
+        Assert.assertThat(this.coordinator.getUsedMemory(), Matchers.is(1024));
+        coordinator.done(job2Id);
+        Assert.assertThat(this.coordinator.getUsedMemory(), Matchers.is(0));
+        Assert.assertFalse(this.coordinator.reserveResources(job2Id, 1024, 2048, 1, 0));
+    }
+
+    /**
+     * Make sure cpus are reserved along with memory and a job only gets either if it can get both.
+     *
+     * @throws GenieException on error
+     */
+    @Test
+    public void canReserveCpus() throws GenieException {
+        final String job1Id = UUID.randomUUID().toString();
+        final String job2Id = UUID.randomUUID().toString();
+        coordinator.init(job1Id);
+        coordinator.init(job2Id);
+
+        Assert.assertTrue(this.coordinator.reserveResources(job1Id, 1024, 4096, 3, 4));
+        Assert.assertThat(this.coordinator.getUsedCpu(), Matchers.is(3));
+        Assert.assertFalse(this.coordinator.reserveResources(job2Id, 1024, 4096, 2, 4));
+        Assert.assertThat(this.coordinator.getUsedMemory(), Matchers.is(1024));
+        Assert.assertThat(this.coordinator.getUsedCpu(), Matchers.is(3));
+
+        // Without a cpu limit cpus are only tracked
+        Assert.assertTrue(this.coordinator.reserveResources(job2Id, 1024, 4096, 2, 0));
+        Assert.assertThat(this.coordinator.getUsedCpu(), Matchers.is(5));
+
+        coordinator.done(job1Id);
+        coordinator.done(job2Id);
+        Assert.assertThat(this.coordinator.getUsedMemory(), Matchers.is(0));
+        Assert.assertThat(this.coordinator.getUsedCpu(), Matchers.is(0));
+    }
+
+    /**
+     * Make sure a job which doesn't fit in memory waits in the queue until a running job is done.
+     *
+     * @throws GenieException on error
+     */
+    @Test
+    public void canQueueJobUntilMemoryIsFree() throws GenieException {
+        final String job1Id = UUID.randomUUID().toString();
+        final String job2Id = UUID.randomUUID().toString();
+        final String job3Id = UUID.randomUUID().toString();
+        Assert.assertFalse(
+            this.coordinator.queue(job2Id, this.jobRequest, null, null, Lists.newArrayList(), 1024, 1)
+        );
+
+        this.jobsProperties.getMemory().setMaxSystemMemory(2048);
+        this.jobsProperties.getAdmission().setQueueEnabled(true);
+        this.jobsProperties.getAdmission().setQueueCapacity(1);
+        this.coordinator.init(job1Id);
+        this.coordinator.init(job2Id);
+        this.coordinator.init(job3Id);
+        Assert.assertFalse(
+            this.coordinator.queue(UUID.randomUUID().toString(), this.jobRequest, null, null, null, 1024, 1)
+        );
+        Assert.assertTrue(this.coordinator.reserveResources(job1Id, 2048, 2048, 1, 0));
+        this.coordinator.schedule(job1Id, null, null, null, null, 2048);
+
+        Assert.assertTrue(
+            this.coordinator.queue(job2Id, this.jobRequest, null, null, Lists.newArrayList(), 1024, 1)
+        );
+        Assert.assertThat(this.coordinator.getNumQueuedJobs(), Matchers.is(1));
+        Assert.assertFalse(
+            this.coordinator.queue(job3Id, this.jobRequest, null, null, Lists.newArrayList(), 1024, 1)
+        );
+        Assert.assertThat(this.coordinator.getNumQueuedJobs(), Matchers.is(1));
+        Assert.assertThat(this.coordinator.getUsedMemory(), Matchers.is(2048));
+        Assert.assertThat(this.coordinator.getNumActiveJobs(), Matchers.is(1));
+
+        this.coordinator.done(job1Id);
+        Assert.assertThat(this.coordinator.getNumQueuedJobs(), Matchers.is(0));
+        Assert.assertThat(this.coordinator.getUsedMemory(), Matchers.is(1024));
+        Assert.assertThat(this.coordinator.getNumActiveJobs(), Matchers.is(1));
+
+        this.coordinator.done(job2Id);
+        Assert.assertThat(this.coordinator.getUsedMemory(), Matchers.is(0));
+        Mockito.verify(this.shareId, Mockito.times(3)).withTag("share", this.jobRequest.getUser());
+
+        // The share was dropped once idle so its gauges are registered again when it has a job again
+        Assert.assertTrue(this.coordinator.admit(job3Id, this.jobRequest, 1024, 2048, 1, 0));
+        Mockito.verify(this.shareId, Mockito.times(6)).withTag("share", this.jobRequest.getUser());
+    }
+
+    /**
+     * Make sure a small job which would fit in the free memory doesn't jump ahead of a large job already queued.
+     *
+     * @throws GenieException on error
+     */
+    @Test
+    public void cantAdmitJobAheadOfQueuedJobs() throws GenieException {
+        final String runningJobId = UUID.randomUUID().toString();
+        final String largeJobId = UUID.randomUUID().toString();
+        final String smallJobId = UUID.randomUUID().toString();
+        this.jobsProperties.getMemory().setMaxSystemMemory(2048);
+        this.jobsProperties.getAdmission().setQueueEnabled(true);
+        this.coordinator.init(runningJobId);
+        this.coordinator.init(largeJobId);
+        this.coordinator.init(smallJobId);
+
+        Assert.assertTrue(this.coordinator.admit(runningJobId, this.jobRequest, 1024, 2048, 1, 0));
+        this.coordinator.schedule(runningJobId, null, null, null, null, 1024);
+        Assert.assertFalse(this.coordinator.admit(largeJobId, this.jobRequest, 2048, 2048, 1, 0));
+        Assert.assertTrue(
+            this.coordinator.queue(largeJobId, this.jobRequest, null, null, Lists.newArrayList(), 2048, 1)
+        );
+
+        // Fits in the free memory but has to wait behind the large job
+        Assert.assertFalse(this.coordinator.admit(smallJobId, this.jobRequest, 512, 2048, 1, 0));
+        Assert.assertThat(this.coordinator.getUsedMemory(), Matchers.is(1024));
+        Assert.assertTrue(
+            this.coordinator.queue(smallJobId, this.jobRequest, null, null, Lists.newArrayList(), 512, 1)
+        );
+        Assert.assertThat(this.coordinator.getNumQueuedJobs(), Matchers.is(2));
+        Assert.assertThat(this.coordinator.getUsedMemory(), Matchers.is(1024));
+
+        this.coordinator.done(runningJobId);
+        Assert.assertThat(this.coordinator.getNumQueuedJobs(), Matchers.is(1));
+        Assert.assertThat(this.coordinator.getUsedMemory(), Matchers.is(2048));
+
+        this.coordinator.done(largeJobId);
+        Assert.assertThat(this.coordinator.getNumQueuedJobs(), Matchers.is(0));
+        Assert.assertThat(this.coordinator.getUsedMemory(), Matchers.is(512));
+
+        // Once nothing is queued jobs which fit are admitted straight away again
+        final String nextJobId = UUID.randomUUID().toString();
+        this.coordinator.init(nextJobId);
+        Assert.assertTrue(this.coordinator.admit(nextJobId, this.jobRequest, 512, 2048, 1, 0));
+        Assert.assertThat(this.coordinator.getUsedMemory(), Matchers.is(1024));
+    }
+
+    /**
+     * Make sure a new job of a share at its memory cap is queued even though there is enough memory free for it.
+     *
+     * @throws GenieException on error
+     * @throws IOException     on error
+     */
+    @Test
+    public void cantAdmitJobOverShareMemoryCap() throws GenieException, IOException {
+        final JobsAdmissionFairShareProperties fairShare = new JobsAdmissionFairShareProperties();
+        fairShare.setMaxShareMemory(1024);
+        this.coordinator = this.createCoordinator(new FairShareJobAdmissionPolicy(fairShare));
+        final String job1Id = UUID.randomUUID().toString();
+        final String job2Id = UUID.randomUUID().toString();
+        final String otherJobId = UUID.randomUUID().toString();
+        final JobRequest otherRequest = new JobRequest.Builder(
+            UUID.randomUUID().toString(),
+            UUID.randomUUID().toString(),
+            UUID.randomUUID().toString(),
+            UUID.randomUUID().toString(),
+            Lists.newArrayList(),
+            Sets.newHashSet()
+        ).build();
+        this.jobsProperties.getMemory().setMaxSystemMemory(4096);
+        this.jobsProperties.getAdmission().setQueueEnabled(true);
+        this.coordinator.init(job1Id);
+        this.coordinator.init(job2Id);
+        this.coordinator.init(otherJobId);
+
+        Assert.assertTrue(this.coordinator.admit(job1Id, this.jobRequest, 1024, 4096, 1, 0));
+        Assert.assertFalse(this.coordinator.admit(job2Id, this.jobRequest, 1024, 4096, 1, 0));
+        Assert.assertThat(this.coordinator.getUsedMemory(), Matchers.is(1024));
+        Assert.assertTrue(
+            this.coordinator.queue(job2Id, this.jobRequest, null, null, Lists.newArrayList(), 1024, 1)
+        );
+        Assert.assertThat(this.coordinator.getNumQueuedJobs(), Matchers.is(1));
+
+        // Other shares are held up behind the queued job too rather than being admitted ahead of it
+        Assert.assertFalse(this.coordinator.admit(otherJobId, otherRequest, 1024, 4096, 1, 0));
+
+        this.coordinator.done(job1Id);
+        Assert.assertThat(this.coordinator.getNumQueuedJobs(), Matchers.is(0));
+        Assert.assertThat(this.coordinator.getUsedMemory(), Matchers.is(1024));
+        Assert.assertTrue(this.coordinator.admit(otherJobId, otherRequest, 1024, 4096, 1, 0));
+        Assert.assertThat(this.coordinator.getUsedMemory(), Matchers.is(2048));
+    }
+
+    /**
+     * Make sure a job which waits in the queue for too long is failed.
+     *
+     * @throws GenieException on error
+     */
+    @Test
+    public void canTimeOutQueuedJob() throws GenieException {
+        final String job1Id = UUID.randomUUID().toString();
+        final String job2Id = UUID.randomUUID().toString();
+        this.jobsProperties.getMemory().setMaxSystemMemory(2048);
+        this.jobsProperties.getAdmission().setQueueEnabled(true);
+        this.coordinator.init(job1Id);
+        this.coordinator.init(job2Id);
+        Assert.assertTrue(this.coordinator.reserveResources(job1Id, 2048, 2048, 1, 0));
+
+        Assert.assertTrue(
+            this.coordinator.queue(job2Id, this.jobRequest, null, null, Lists.newArrayList(), 1024, 1)
+        );
+        final ArgumentCaptor<Runnable> timeout = ArgumentCaptor.forClass(Runnable.class);
+        Mockito.verify(this.scheduler, Mockito.times(1)).schedule(timeout.capture(), Mockito.any(Date.class));
+
+        timeout.getValue().run();
+        Assert.assertThat(this.coordinator.getNumQueuedJobs(), Matchers.is(0));
+        final ArgumentCaptor<JobFinishedEvent> event = ArgumentCaptor.forClass(JobFinishedEvent.class);
+        Mockito.verify(this.publisher, Mockito.times(1)).publishEvent(event.capture());
+        Assert.assertThat(event.getValue().getId(), Matchers.is(job2Id));
+        Assert.assertThat(event.getValue().getReason(), Matchers.is(JobFinishedReason.FAILED_TO_INIT));
+
+        // Once the job is admitted or done the timeout does nothing
+        timeout.getValue().run();
+        Mockito.verify(this.publisher, Mockito.times(1)).publishEvent(Mockito.any(JobFinishedEvent.class));
+    }
+
     /**
      * Make sure we can kill the job init task on job finished event for the job.
      *
@@ -390,4 +644,22 @@ public class JobMonitoringCoordinatorUnitTests {
 
         Mockito.verify(this.unableToCancel, Mockito.times(1)).increment();
     }
+
+    private JobMonitoringCoordinator createCoordinator(
+        final JobAdmissionPolicy admissionPolicy
+    ) throws IOException {
+        return new JobMonitoringCoordinator(
+            HOSTNAME,
+            this.jobSearchService,
+            this.publisher,
+            this.eventMulticaster,
+            this.scheduler,
+            this.executor,
+            this.registry,
+            this.jobsDir,
+            this.jobsProperties,
+            this.jobSubmitterService,
+            admissionPolicy
+        );
+    }
 }
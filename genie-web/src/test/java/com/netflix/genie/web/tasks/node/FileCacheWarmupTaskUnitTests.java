@@ -0,0 +1,201 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.web.tasks.node;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import com.netflix.genie.common.dto.Application;
+import com.netflix.genie.common.dto.ApplicationStatus;
+import com.netflix.genie.common.dto.Cluster;
+import com.netflix.genie.common.dto.ClusterStatus;
+import com.netflix.genie.common.dto.CommandStatus;
+import com.netflix.genie.common.exceptions.GenieException;
+import com.netflix.genie.common.exceptions.GenieServerException;
+import com.netflix.genie.core.events.ResourceUpdatedEvent;
+import com.netflix.genie.core.properties.FileCacheWarmupProperties;
+import com.netflix.genie.core.services.ApplicationService;
+import com.netflix.genie.core.services.ClusterService;
+import com.netflix.genie.core.services.CommandService;
+import com.netflix.genie.core.services.impl.CacheGenieFileTransferService;
+import com.netflix.genie.test.categories.UnitTest;
+import com.netflix.spectator.api.DefaultRegistry;
+import com.netflix.spectator.api.Registry;
+import org.hamcrest.Matchers;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.mockito.Mockito;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+import java.util.Date;
+
+/**
+ * Unit tests for the file cache warm up task.
+ *
+ * @author agent
+ * @since 3.1.0
+ */
+@Category(UnitTest.class)
+public class FileCacheWarmupTaskUnitTests {
+
+    private static final String SETUP_FILE = "s3://bucket/setup.sh";
+    private static final String CONFIG = "s3://bucket/config.xml";
+    private static final String DEPENDENCY = "s3://bucket/app.jar";
+
+    private CacheGenieFileTransferService fileCache;
+    private ApplicationService applicationService;
+    private CommandService commandService;
+    private ClusterService clusterService;
+    private FileCacheWarmupProperties warmupProperties;
+    private Registry registry;
+
+    /**
+     * Setup for the tests.
+     */
+    @Before
+    public void setup() {
+        this.fileCache = Mockito.mock(CacheGenieFileTransferService.class);
+        this.applicationService = Mockito.mock(ApplicationService.class);
+        this.commandService = Mockito.mock(CommandService.class);
+        this.clusterService = Mockito.mock(ClusterService.class);
+        this.warmupProperties = new FileCacheWarmupProperties();
+        this.registry = new DefaultRegistry();
+    }
+
+    /**
+     * Make sure the files of an updated resource are fetched into the cache.
+     *
+     * @throws GenieException On error
+     */
+    @Test
+    public void canWarmFilesOfUpdatedResource() throws GenieException {
+        final FileCacheWarmupTask task = this.createTask();
+        task.onResourceUpdated(new ResourceUpdatedEvent("app1", Sets.newHashSet(CONFIG, DEPENDENCY), this));
+
+        Mockito.verify(this.fileCache, Mockito.times(1)).prefetch(CONFIG);
+        Mockito.verify(this.fileCache, Mockito.times(1)).prefetch(DEPENDENCY);
+    }
+
+    /**
+     * Make sure the files of all the resources jobs can run with are fetched on startup.
+     *
+     * @throws GenieException On error
+     */
+    @Test
+    public void canScanOnStartup() throws GenieException {
+        final Application application = new Application.Builder("tez", "genie", "0.8.4", ApplicationStatus.ACTIVE)
+            .withId("app1")
+            .withSetupFile(SETUP_FILE)
+            .withDependencies(Sets.newHashSet(DEPENDENCY))
+            .build();
+        final Cluster cluster = new Cluster.Builder("h2prod", "genie", "2.7.1", ClusterStatus.UP)
+            .withId("cluster1")
+            .withConfigs(Sets.newHashSet(CONFIG))
+            .build();
+        Mockito
+            .when(
+                this.applicationService.getApplications(
+                    (String) Mockito.isNull(),
+                    (String) Mockito.isNull(),
+                    Mockito.eq(Sets.newHashSet(ApplicationStatus.ACTIVE)),
+                    Mockito.anySetOf(String.class),
+                    (String) Mockito.isNull(),
+                    Mockito.any(Pageable.class)
+                )
+            )
+            .thenReturn(new PageImpl<>(Lists.newArrayList(application)));
+        Mockito
+            .when(
+                this.commandService.getCommands(
+                    (String) Mockito.isNull(),
+                    (String) Mockito.isNull(),
+                    Mockito.eq(Sets.newHashSet(CommandStatus.ACTIVE)),
+                    Mockito.anySetOf(String.class),
+                    Mockito.any(Pageable.class)
+                )
+            )
+            .thenReturn(new PageImpl<>(Lists.newArrayList()));
+        Mockito
+            .when(
+                this.clusterService.getClusters(
+                    (String) Mockito.isNull(),
+                    Mockito.eq(Sets.newHashSet(ClusterStatus.UP)),
+                    Mockito.anySetOf(String.class),
+                    (Date) Mockito.isNull(),
+                    (Date) Mockito.isNull(),
+                    Mockito.any(Pageable.class)
+                )
+            )
+            .thenReturn(new PageImpl<>(Lists.newArrayList(cluster)));
+
+        this.createTask().onStartup(Mockito.mock(ContextRefreshedEvent.class));
+
+        Mockito.verify(this.fileCache, Mockito.times(1)).prefetch(SETUP_FILE);
+        Mockito.verify(this.fileCache, Mockito.times(1)).prefetch(DEPENDENCY);
+        Mockito.verify(this.fileCache, Mockito.times(1)).prefetch(CONFIG);
+    }
+
+    /**
+     * Make sure nothing is scanned on startup if disabled.
+     */
+    @Test
+    public void wontScanOnStartupIfDisabled() {
+        this.warmupProperties.setScanOnStartup(false);
+        this.createTask().onStartup(Mockito.mock(ContextRefreshedEvent.class));
+
+        Mockito.verifyZeroInteractions(this.applicationService, this.commandService, this.clusterService);
+    }
+
+    /**
+     * Make sure a failed fetch is counted and doesn't stop the other files being fetched.
+     *
+     * @throws GenieException On error
+     */
+    @Test
+    public void canCountFailedFetches() throws GenieException {
+        Mockito.when(this.fileCache.prefetch(CONFIG)).thenThrow(new GenieServerException("test"));
+        Mockito.when(this.fileCache.prefetch(DEPENDENCY)).thenReturn(60L);
+        final FileCacheWarmupTask task = this.createTask();
+        task.onResourceUpdated(new ResourceUpdatedEvent("app1", Sets.newHashSet(CONFIG, DEPENDENCY), this));
+
+        Mockito.verify(this.fileCache, Mockito.times(1)).prefetch(DEPENDENCY);
+        Assert.assertThat(
+            this.registry.counter("genie.jobs.file.cache.warmup.failure.rate").count(),
+            Matchers.is(1L)
+        );
+        Assert.assertThat(
+            this.registry.counter("genie.jobs.file.cache.warmup.bytes.rate").count(),
+            Matchers.is(60L)
+        );
+    }
+
+    private FileCacheWarmupTask createTask() {
+        return new FileCacheWarmupTask(
+            this.fileCache,
+            this.applicationService,
+            this.commandService,
+            this.clusterService,
+            this.warmupProperties,
+            Runnable::run,
+            this.registry
+        );
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.web.tasks.node;
+
+import com.netflix.genie.core.jpa.services.JobResolutionIndex;
+import com.netflix.genie.test.categories.UnitTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.mockito.Mockito;
+import org.springframework.scheduling.TaskScheduler;
+
+/**
+ * Unit tests for the resolution index refresh task.
+ *
+ * @author agent
+ * @since 3.1.0
+ */
+@Category(UnitTest.class)
+public class ResolutionIndexRefreshTaskUnitTests {
+
+    private JobResolutionIndex resolutionIndex;
+    private TaskScheduler scheduler;
+    private ResolutionIndexRefreshTask task;
+
+    /**
+     * Setup for the tests.
+     */
+    @Before
+    public void setup() {
+        this.resolutionIndex = Mockito.mock(JobResolutionIndex.class);
+        this.scheduler = Mockito.mock(TaskScheduler.class);
+        this.task = new ResolutionIndexRefreshTask(this.resolutionIndex, this.scheduler, 1000L);
+    }
+
+    /**
+     * Make sure the task schedules itself on construction.
+     */
+    @Test
+    public void canConstruct() {
+        Mockito.verify(this.scheduler, Mockito.times(1)).scheduleWithFixedDelay(this.task, 1000L);
+    }
+
+    /**
+     * Make sure running the task refreshes the index and swallows errors so it stays scheduled.
+     */
+    @Test
+    public void canRun() {
+        Mockito.doThrow(new IllegalStateException("test")).when(this.resolutionIndex).refreshIfStale();
+        this.task.run();
+        Mockito.verify(this.resolutionIndex, Mockito.times(1)).refreshIfStale();
+    }
+}